@@ -0,0 +1,198 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * Immutable pixel geometry of a {@link BoardTopology} under one {@link Layout}: cell centers and
+ * hexagon corners as primitive arrays. Shared between all games using the same radius and layout;
+ * obtain instances with {@link BoardTopology#geometry(Layout)}. The arrays can be saved to a
+ * cache file and read back at startup instead of being computed.
+ */
+public final class BoardGeometry {
+    private static final int MAGIC = 0x4858474D; // "HXGM"
+    private static final int VERSION = 1;
+
+    private final BoardTopology topology;
+    private final Layout layout;
+    private final double[] centerX;
+    private final double[] centerY;
+    private final double[] cornerX;
+    private final double[] cornerY;
+
+    BoardGeometry(BoardTopology topology, Layout layout) {
+        this.topology = topology;
+        this.layout = layout;
+        int count = topology.cellCount();
+        centerX = new double[count];
+        centerY = new double[count];
+        cornerX = new double[count * 6];
+        cornerY = new double[count * 6];
+        Point[] offsets = new Point[6];
+        for (int i = 0; i < 6; i++) offsets[i] = layout.hexCornerOffset(i);
+        for (int cell = 0; cell < count; cell++) {
+            Point center = layout.hexToPixel(topology.cube(cell));
+            centerX[cell] = center.x;
+            centerY[cell] = center.y;
+            for (int i = 0; i < 6; i++) {
+                cornerX[cell * 6 + i] = center.x + offsets[i].x;
+                cornerY[cell * 6 + i] = center.y + offsets[i].y;
+            }
+        }
+    }
+
+    private BoardGeometry(BoardTopology topology, Layout layout, double[] centerX, double[] centerY,
+                          double[] cornerX, double[] cornerY) {
+        this.topology = topology;
+        this.layout = layout;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.cornerX = cornerX;
+        this.cornerY = cornerY;
+    }
+
+    /**
+     * Writes the geometry to a cache file, with the radius, layout and cell order it was built for.
+     *
+     * @param path file to write
+     * @throws IOException if writing fails
+     */
+    public void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(topology.getRadius());
+            for (double value : layoutValues(layout)) out.writeDouble(value);
+            int count = topology.cellCount();
+            out.writeInt(count);
+            for (int cell = 0; cell < count; cell++) {
+                out.writeShort(topology.q(cell));
+                out.writeShort(topology.r(cell));
+            }
+            for (double[] values : new double[][] {centerX, centerY, cornerX, cornerY}) {
+                for (double value : values) out.writeDouble(value);
+            }
+        }
+    }
+
+    /**
+     * Reads a geometry written by {@link #save(Path)}. The file must have been written for the
+     * same radius and layout, with the same cell order.
+     *
+     * @param path     file to read
+     * @param topology board the geometry is for
+     * @param layout   layout the geometry is for
+     * @return geometry read from the file
+     * @throws IOException if the file cannot be read or was written for another board or layout
+     */
+    public static BoardGeometry load(Path path, BoardTopology topology, Layout layout) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("Not a geometry cache: " + path);
+            boolean matches = in.readInt() == topology.getRadius();
+            for (double value : layoutValues(layout)) matches &= Double.compare(in.readDouble(), value) == 0;
+            int count = topology.cellCount();
+            matches &= in.readInt() == count;
+            if (!matches) throw new IOException("Geometry cache is for another board or layout: " + path);
+            for (int cell = 0; cell < count; cell++) {
+                if (in.readShort() != topology.q(cell) || in.readShort() != topology.r(cell)) {
+                    throw new IOException("Geometry cache has another cell order: " + path);
+                }
+            }
+            double[][] values = {new double[count], new double[count], new double[count * 6], new double[count * 6]};
+            for (double[] array : values) {
+                for (int i = 0; i < array.length; i++) array[i] = in.readDouble();
+            }
+            return new BoardGeometry(topology, layout, values[0], values[1], values[2], values[3]);
+        }
+    }
+
+    /**
+     * Returns the layout parameters that determine the geometry, in file order.
+     */
+    private static double[] layoutValues(Layout layout) {
+        Orientation m = layout.orientation;
+        return new double[] {m.f0, m.f1, m.f2, m.f3, m.start_angle,
+                layout.size.x, layout.size.y, layout.origin.x, layout.origin.y};
+    }
+
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public double centerX(int cell) {
+        return centerX[cell];
+    }
+
+    public double centerY(int cell) {
+        return centerY[cell];
+    }
+
+    /**
+     * Returns the x coordinate of one corner of a cell.
+     *
+     * @param cell   cell id
+     * @param corner corner index 0-5
+     * @return x pixel coordinate
+     */
+    public double cornerX(int cell, int corner) {
+        return cornerX[cell * 6 + corner];
+    }
+
+    /**
+     * Returns the y coordinate of one corner of a cell.
+     *
+     * @param cell   cell id
+     * @param corner corner index 0-5
+     * @return y pixel coordinate
+     */
+    public double cornerY(int cell, int corner) {
+        return cornerY[cell * 6 + corner];
+    }
+
+    /**
+     * Returns a new list with the corners of a cell, in the same order as {@link Layout#polygonCorners(HexCube)}.
+     *
+     * @param cell cell id
+     * @return list of corner Points
+     */
+    public ArrayList<Point> corners(int cell) {
+        ArrayList<Point> corners = new ArrayList<>(6);
+        for (int i = 0; i < 6; i++) {
+            corners.add(new Point(cornerX[cell * 6 + i], cornerY[cell * 6 + i]));
+        }
+        return corners;
+    }
+
+    /**
+     * Builds the hexagon list {@link HexGrid} expects, one corner list per cell in cell id order.
+     *
+     * @return new list of hexagon corner lists
+     */
+    public ArrayList<ArrayList<Point>> hexagons() {
+        ArrayList<ArrayList<Point>> hexagons = new ArrayList<>(topology.cellCount());
+        for (int cell = 0; cell < topology.cellCount(); cell++) {
+            hexagons.add(corners(cell));
+        }
+        return hexagons;
+    }
+
+    /**
+     * Finds the cell under a pixel position.
+     *
+     * @param x pixel x coordinate
+     * @param y pixel y coordinate
+     * @return cell id, or -1 if the position is off the board
+     */
+    public int cellAtPixel(double x, double y) {
+        HexCube hex = layout.pixelToHex(new Point(x, y)).hexRound();
+        return topology.cellAt(hex.q, hex.r);
+    }
+}
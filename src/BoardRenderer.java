@@ -0,0 +1,275 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * Draws board positions to PNG or SVG without a display, for thumbnails and reports of recorded
+ * games. PNG images use the same drawing code as the {@link HexGrid} panel at its usual hexagon
+ * size, scaled to the requested image size. Each thread keeps one image and Graphics2D and
+ * reuses them for every position, so rendering a whole corpus in parallel only allocates the
+ * encoded files. SVG files are written directly from the same hexagon corners.
+ * Usage: {@code java BoardRenderer <corpus> <outDir> [png|svg] [width] [threads]}
+ */
+public class BoardRenderer {
+    /** Hexagon size of the panel, used as the drawing scale before resizing. */
+    static final double HEX_SIZE = 25;
+    /** Space around the board, in panel pixels. */
+    static final int MARGIN = 10;
+    /** Space below the board for the turn indicator, in panel pixels. */
+    static final int TURN_BAR = 60;
+    static final Color BACKGROUND = Color.WHITE;
+    /** PNG compression quality; high values select a fast deflate level at nearly the same file size. */
+    static final float PNG_QUALITY = 0.9f;
+
+    private final BoardTopology topology;
+    private final List<ArrayList<Point>> hexagons;
+    private final int nativeWidth;
+    private final int nativeHeight;
+    private final int width;
+    private final int height;
+    private final boolean showTurn;
+    private final ThreadLocal<Canvas> canvases = ThreadLocal.withInitial(Canvas::new);
+
+    /**
+     * Reusable image of one thread, with its drawing context and stone buffer.
+     */
+    private final class Canvas {
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = image.createGraphics();
+        final AffineTransform scale = AffineTransform.getScaleInstance((double) width / nativeWidth, (double) height / nativeHeight);
+        final int[] stones = new int[topology.cellCount()];
+        final ImageWriter png = ImageIO.getImageWritersByFormatName("png").next();
+        final ImageWriteParam pngParam = png.getDefaultWriteParam();
+
+        Canvas() {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            pngParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            pngParam.setCompressionQuality(PNG_QUALITY);
+        }
+    }
+
+    /**
+     * Creates a renderer for one board size.
+     *
+     * @param radius   board radius
+     * @param width    image width in pixels; the height keeps the board's proportions
+     * @param showTurn true to draw the turn indicator below the board
+     */
+    public BoardRenderer(int radius, int width, boolean showTurn) {
+        this.topology = BoardTopology.of(radius);
+        this.showTurn = showTurn;
+        double boardWidth = HEX_SIZE * (3 * radius + 2);
+        double boardHeight = HEX_SIZE * Math.sqrt(3) * (2 * radius + 1);
+        nativeWidth = (int) Math.ceil(boardWidth) + 2 * MARGIN;
+        nativeHeight = (int) Math.ceil(boardHeight) + 2 * MARGIN + (showTurn ? TURN_BAR : 0);
+        Layout layout = new Layout(Layout.flat, new Point(HEX_SIZE, HEX_SIZE),
+                new Point(nativeWidth / 2.0, MARGIN + boardHeight / 2));
+        hexagons = topology.geometry(layout).hexagons();
+        this.width = width;
+        this.height = Math.max(1, (int) Math.round((double) width * nativeHeight / nativeWidth));
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Draws a position on this thread's image. The image is overwritten by the next call on the
+     * same thread, so copy or encode it first.
+     *
+     * @param board position of this renderer's board size
+     * @return this thread's image
+     */
+    public BufferedImage render(HexBoard board) {
+        if (board.getTopology() != topology) throw new IllegalArgumentException("board size does not match the renderer");
+        Canvas canvas = canvases.get();
+        Graphics2D g2 = canvas.graphics;
+        g2.setTransform(new AffineTransform());
+        g2.setColor(BACKGROUND);
+        g2.fillRect(0, 0, width, height);
+        g2.setTransform(canvas.scale);
+        for (int cell = 0; cell < canvas.stones.length; cell++) canvas.stones[cell] = board.get(cell);
+        HexGrid.drawBoard(g2, hexagons, canvas.stones);
+        if (showTurn) HexGrid.drawTurn(g2, board.isRedTurn(), nativeHeight);
+        return canvas.image;
+    }
+
+    /**
+     * Renders a position to a PNG file.
+     *
+     * @param board position
+     * @param path  file to write
+     * @throws IOException if writing fails
+     */
+    public void writePng(HexBoard board, Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            writePng(board, out);
+        }
+    }
+
+    /**
+     * Renders a position as PNG with this thread's reusable encoder.
+     *
+     * @param board position
+     * @param out   destination, left open
+     * @throws IOException if writing fails
+     */
+    public void writePng(HexBoard board, OutputStream out) throws IOException {
+        BufferedImage image = render(board);
+        Canvas canvas = canvases.get();
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            canvas.png.setOutput(stream);
+            canvas.png.write(null, new IIOImage(image, null, null), canvas.pngParam);
+        } finally {
+            canvas.png.setOutput(null);
+        }
+    }
+
+    /**
+     * Writes a position as SVG, scaled to this renderer's width through the view box.
+     *
+     * @param board position
+     * @param out   destination
+     * @throws IOException if writing fails
+     */
+    public void writeSvg(HexBoard board, Writer out) throws IOException {
+        StringBuilder svg = new StringBuilder(256 + hexagons.size() * 160);
+        svg.append(String.format(Locale.ROOT,
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\">%n",
+                width, height, nativeWidth, nativeHeight));
+        svg.append(String.format(Locale.ROOT, "<rect width=\"%d\" height=\"%d\" fill=\"white\"/>%n", nativeWidth, nativeHeight));
+        for (int cell = 0; cell < hexagons.size(); cell++) {
+            int stone = board.get(cell);
+            svg.append("<polygon points=\"");
+            for (Point p : hexagons.get(cell)) {
+                svg.append(Math.round(p.x)).append(',').append(Math.round(p.y)).append(' ');
+            }
+            svg.setLength(svg.length() - 1);
+            svg.append("\" fill=\"").append(stone == HexBoard.RED ? "red" : stone == HexBoard.BLUE ? "blue" : "none")
+                    .append("\" stroke=\"black\" stroke-width=\"3\"/>\n");
+        }
+        if (showTurn) {
+            svg.append(String.format(Locale.ROOT,
+                    "<circle cx=\"45\" cy=\"%d\" r=\"15\" fill=\"%s\"/><text x=\"70\" y=\"%d\" font-family=\"SansSerif\" font-weight=\"bold\" font-size=\"20\">%s Player's Turn</text>%n",
+                    nativeHeight - 35, board.isRedTurn() ? "red" : "blue", nativeHeight - 27, board.isRedTurn() ? "Red" : "Blue"));
+        }
+        svg.append("</svg>\n");
+        out.write(svg.toString());
+    }
+
+    /**
+     * Renders the final position of every game in a corpus, one file per game named by its index.
+     * Games are split into contiguous ranges that are replayed and drawn on a fixed thread pool.
+     *
+     * @param corpus  recorded games of this renderer's board size
+     * @param dir     output directory
+     * @param svg     true for SVG files, false for PNG
+     * @param threads worker threads
+     * @return number of files written
+     * @throws IOException          if a file cannot be written
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public long renderCorpus(GameCorpus.Reader corpus, Path dir, boolean svg, int threads) throws IOException, InterruptedException {
+        if (corpus.getRadius() != topology.getRadius()) throw new IllegalArgumentException("corpus radius does not match the renderer");
+        Files.createDirectories(dir);
+        // Record positions split the file into ranges without decoding the moves
+        long[] starts = new long[1024];
+        int games = 0;
+        for (long position = corpus.start(); position < corpus.end(); position = corpus.nextRecord(position)) {
+            if (games == starts.length) starts = java.util.Arrays.copyOf(starts, games * 2);
+            starts[games++] = position;
+        }
+        int chunks = Math.min(games, threads * 8);
+        AtomicLong written = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int first = (int) ((long) games * chunk / chunks);
+                int last = (int) ((long) games * (chunk + 1) / chunks);
+                long[] offsets = starts;
+                int count = games;
+                results.add(pool.submit(() -> {
+                    HexBoard board = new HexBoard(topology);
+                    int[] index = {first};
+                    long end = last == count ? corpus.end() : offsets[last];
+                    IOException[] failure = new IOException[1];
+                    corpus.forEach(offsets[first], end, (moves, moveCount, winner) -> {
+                        board.reset();
+                        for (int i = 0; i < moveCount; i++) {
+                            if (!board.play(moves[i]).isPlaced()) break;
+                        }
+                        Path file = dir.resolve(String.format("game-%07d.%s", index[0]++, svg ? "svg" : "png"));
+                        try {
+                            if (svg) {
+                                try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                                    writeSvg(board, out);
+                                }
+                            } else {
+                                writePng(board, file);
+                            }
+                            written.incrementAndGet();
+                        } catch (IOException e) {
+                            failure[0] = e;
+                        }
+                    });
+                    if (failure[0] != null) throw failure[0];
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (java.util.concurrent.ExecutionException e) {
+                    if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                    throw new IllegalStateException("rendering failed", e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return written.get();
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 2) {
+            System.err.println("java BoardRenderer <corpus> <outDir> [png|svg] [width] [threads]");
+            System.exit(1);
+        }
+        GameCorpus.Reader corpus = new GameCorpus.Reader(Path.of(args[0]));
+        boolean svg = args.length > 2 && args[2].equalsIgnoreCase("svg");
+        int width = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        BoardRenderer renderer = new BoardRenderer(corpus.getRadius(), width, false);
+        long start = System.nanoTime();
+        long files = renderer.renderCorpus(corpus, Path.of(args[1]), svg, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Rendered %d positions in %.1f s (%.0f/s) on %d threads%n", files, seconds, files / seconds, threads);
+    }
+}
@@ -0,0 +1,85 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import java.awt.image.BufferedImage;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+
+public class BoardRendererTest {
+    private BoardRenderer renderer;
+    private HexBoard board;
+
+    @Before
+    public void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        renderer = new BoardRenderer(2, 240, false);
+        board = new HexBoard(2);
+        board.play(board.cellAt(0, 0));
+        board.play(board.cellAt(2, -1));
+    }
+
+    private int pixelAt(BufferedImage image, int cell) {
+        BoardGeometry geometry = board.getTopology().geometry(new Layout(Layout.flat,
+                new Point(BoardRenderer.HEX_SIZE, BoardRenderer.HEX_SIZE), new Point(0, 0)));
+        double scale = (double) renderer.getWidth() / (BoardRenderer.HEX_SIZE * 8 + 2 * BoardRenderer.MARGIN);
+        double x = (geometry.centerX(cell) + BoardRenderer.HEX_SIZE * 4 + BoardRenderer.MARGIN) * scale;
+        double y = (geometry.centerY(cell) + BoardRenderer.HEX_SIZE * Math.sqrt(3) * 2.5 + BoardRenderer.MARGIN) * scale;
+        return image.getRGB((int) Math.round(x), (int) Math.round(y)) & 0xFFFFFF;
+    }
+
+    // Checks that stones are drawn in their colours at their cell centers and empty cells stay blank
+    @Test
+    public void testStonesAppearAtTheirCells() {
+        BufferedImage image = renderer.render(board);
+        assertEquals(0xFF0000, pixelAt(image, board.cellAt(0, 0)));
+        assertEquals(0x0000FF, pixelAt(image, board.cellAt(2, -1)));
+        assertEquals(0xFFFFFF, pixelAt(image, board.cellAt(-1, 0)));
+    }
+
+    // Checks that images drawn on different threads with reused canvases are identical
+    @Test
+    public void testThreadsRenderTheSameImage() throws Exception {
+        int[] expected = renderer.render(board).getRGB(0, 0, renderer.getWidth(), renderer.getHeight(), null, 0, renderer.getWidth());
+        int[][] other = new int[1][];
+        Thread thread = new Thread(() -> {
+            renderer.render(new HexBoard(2));
+            BufferedImage image = renderer.render(board);
+            other[0] = image.getRGB(0, 0, renderer.getWidth(), renderer.getHeight(), null, 0, renderer.getWidth());
+        });
+        thread.start();
+        thread.join();
+        assertArrayEquals(expected, other[0]);
+    }
+
+    // Checks the SVG output and that a corpus renders one file per game
+    @Test
+    public void testSvgAndCorpus() throws Exception {
+        StringWriter svg = new StringWriter();
+        renderer.writeSvg(board, svg);
+        assertEquals(board.cellCount(), svg.toString().split("<polygon", -1).length - 1);
+        assertTrue(svg.toString().contains("fill=\"red\""));
+        assertTrue(svg.toString().contains("fill=\"blue\""));
+
+        Path corpus = Files.createTempFile("corpus", ".hxgc");
+        Path dir = Files.createTempDirectory("thumbnails");
+        try {
+            try (GameCorpus.Writer writer = new GameCorpus.Writer(corpus, 2)) {
+                SelfPlay.generate(writer, 2, 30, 3);
+            }
+            long files = renderer.renderCorpus(new GameCorpus.Reader(corpus), dir, false, 3);
+            assertEquals(30, files);
+            try (Stream<Path> listed = Files.list(dir)) {
+                assertEquals(30, listed.filter(p -> p.toString().endsWith(".png")).count());
+            }
+        } finally {
+            try (Stream<Path> listed = Files.list(dir)) {
+                for (Path p : (Iterable<Path>) listed::iterator) Files.delete(p);
+            }
+            Files.delete(dir);
+            Files.deleteIfExists(corpus);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Immutable, persistent view of a Hex-Oust position. Cells are packed two bits each into small
+ * leaf arrays under a fixed-depth tree, so changing a cell copies only the path to its leaf and
+ * shares everything else with the previous snapshot. Snapshots can be handed to other threads
+ * (search, spectators, autosave) and read without locks while the game goes on.
+ * Obtain snapshots from {@link HexBoard#snapshot()}.
+ */
+public final class BoardSnapshot {
+    private static final int CELL_BITS = 2;
+    private static final int CELLS_PER_WORD = 32;
+    private static final int LEAF_WORDS = 4;
+    private static final int LEAF_CELLS = CELLS_PER_WORD * LEAF_WORDS;
+    private static final int BRANCH_BITS = 3;
+    private static final int BRANCH = 1 << BRANCH_BITS;
+
+    private final BoardTopology topology;
+    private final int depth;
+    private final Object root;
+    private final boolean redTurn;
+    private final int winner;
+    private final int redCount;
+    private final int blueCount;
+    private final int moveNumber;
+
+    private BoardSnapshot(BoardTopology topology, int depth, Object root, boolean redTurn, int winner,
+                          int redCount, int blueCount, int moveNumber) {
+        this.topology = topology;
+        this.depth = depth;
+        this.root = root;
+        this.redTurn = redTurn;
+        this.winner = winner;
+        this.redCount = redCount;
+        this.blueCount = blueCount;
+        this.moveNumber = moveNumber;
+    }
+
+    /**
+     * Returns an empty position with red to move.
+     *
+     * @param topology board cells
+     * @return empty snapshot
+     */
+    public static BoardSnapshot empty(BoardTopology topology) {
+        int leaves = (topology.cellCount() + LEAF_CELLS - 1) / LEAF_CELLS;
+        int depth = 0;
+        while ((1 << (BRANCH_BITS * depth)) < leaves) depth++;
+        Object node = new long[LEAF_WORDS];
+        for (int level = 0; level < depth; level++) {
+            Object[] branch = new Object[BRANCH];
+            java.util.Arrays.fill(branch, node); // empty subtrees are shared
+            node = branch;
+        }
+        return new BoardSnapshot(topology, depth, node, true, HexBoard.EMPTY, 0, 0, 0);
+    }
+
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Returns the stone on a cell.
+     *
+     * @param cell cell id
+     * @return EMPTY, RED or BLUE
+     */
+    public int get(int cell) {
+        return get(cell, root);
+    }
+
+    public boolean isRedTurn() {
+        return redTurn;
+    }
+
+    /**
+     * Returns the colour of the player to move.
+     *
+     * @return RED or BLUE
+     */
+    public int toMove() {
+        return redTurn ? HexBoard.RED : HexBoard.BLUE;
+    }
+
+    /**
+     * Returns the winner of a finished game.
+     *
+     * @return RED or BLUE, or EMPTY while the game is running
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    public boolean isGameOver() {
+        return winner != HexBoard.EMPTY;
+    }
+
+    /**
+     * Counts the stones of one colour.
+     *
+     * @param colour RED or BLUE
+     * @return number of stones on the board
+     */
+    public int stoneCount(int colour) {
+        return colour == HexBoard.RED ? redCount : blueCount;
+    }
+
+    /**
+     * Returns the number of stones placed in the game so far.
+     *
+     * @return move number
+     */
+    public int getMoveNumber() {
+        return moveNumber;
+    }
+
+    /**
+     * Returns a snapshot with some cells changed, copying only the paths to the changed leaves.
+     *
+     * @param changed  cell ids to change
+     * @param colours  new colour of each changed cell
+     * @param count    number of entries to use from the arrays
+     * @return new snapshot, sharing unchanged leaves with this one
+     */
+    BoardSnapshot withCells(int[] changed, int[] colours, int count) {
+        Object newRoot = root;
+        int red = redCount;
+        int blue = blueCount;
+        for (int i = 0; i < count; i++) {
+            int old = get(changed[i], newRoot);
+            if (old == colours[i]) continue;
+            if (old == HexBoard.RED) red--;
+            else if (old == HexBoard.BLUE) blue--;
+            if (colours[i] == HexBoard.RED) red++;
+            else if (colours[i] == HexBoard.BLUE) blue++;
+            newRoot = set(newRoot, depth, changed[i] / LEAF_CELLS, changed[i], colours[i]);
+        }
+        return new BoardSnapshot(topology, depth, newRoot, redTurn, winner, red, blue, moveNumber);
+    }
+
+    /**
+     * Returns a snapshot with the same cells and different game status.
+     *
+     * @param redTurn    true if red is to move
+     * @param winner     RED, BLUE or EMPTY
+     * @param moveNumber number of stones placed so far
+     * @return new snapshot sharing all cells with this one
+     */
+    BoardSnapshot withStatus(boolean redTurn, int winner, int moveNumber) {
+        return new BoardSnapshot(topology, depth, root, redTurn, winner, redCount, blueCount, moveNumber);
+    }
+
+    private int get(int cell, Object from) {
+        int leaf = cell / LEAF_CELLS;
+        Object node = from;
+        for (int level = depth; level > 0; level--) {
+            node = ((Object[]) node)[(leaf >>> (BRANCH_BITS * (level - 1))) & (BRANCH - 1)];
+        }
+        long word = ((long[]) node)[(cell % LEAF_CELLS) / CELLS_PER_WORD];
+        return (int) (word >>> (CELL_BITS * (cell % CELLS_PER_WORD))) & 3;
+    }
+
+    /**
+     * Copies the path from a node down to the leaf holding a cell and sets the cell there.
+     */
+    private static Object set(Object node, int level, int leaf, int cell, int colour) {
+        if (level == 0) {
+            long[] words = ((long[]) node).clone();
+            int word = (cell % LEAF_CELLS) / CELLS_PER_WORD;
+            int shift = CELL_BITS * (cell % CELLS_PER_WORD);
+            words[word] = (words[word] & ~(3L << shift)) | ((long) colour << shift);
+            return words;
+        }
+        Object[] children = ((Object[]) node).clone();
+        int slot = (leaf >>> (BRANCH_BITS * (level - 1))) & (BRANCH - 1);
+        children[slot] = set(children[slot], level - 1, leaf, cell, colour);
+        return children;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        int radius = topology.getRadius();
+        for (int r = -radius; r <= radius; r++) {
+            for (int pad = 0; pad < Math.abs(r); pad++) text.append(' ');
+            for (int q = -radius; q <= radius; q++) {
+                int cell = topology.cellAt(q, r);
+                if (cell < 0) continue;
+                int stone = get(cell);
+                text.append(stone == HexBoard.RED ? 'R' : stone == HexBoard.BLUE ? 'B' : '.').append(' ');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,206 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The 12 symmetries of a hexagonal board (6 rotations, each with or without a reflection) as
+ * precomputed cell permutations. Used to map positions to a canonical form so tablebases, opening
+ * books and game corpora can share one entry between symmetric positions.
+ * Transform t < 6 rotates by t * 60 degrees; transform t >= 6 reflects first and then rotates by (t - 6) * 60 degrees.
+ * Obtain instances with {@link #of(int)}; they are immutable and shared.
+ */
+public final class BoardSymmetry {
+    public static final int TRANSFORMS = 12;
+    public static final int IDENTITY = 0;
+
+    private static final ConcurrentHashMap<Integer, BoardSymmetry> SYMMETRIES = new ConcurrentHashMap<>();
+
+    private final BoardTopology topology;
+    private final int[][] permutation;
+    private final int[] inverse;
+    // For boards of at most 64 cells: image of every byte of a bitmask, per transform and byte position
+    private final long[][][] byteTables;
+
+    /**
+     * Holds a canonical position and the transform that produced it.
+     */
+    public static final class Canonical {
+        public final long red;
+        public final long blue;
+        public final int transform;
+
+        Canonical(long red, long blue, int transform) {
+            this.red = red;
+            this.blue = blue;
+            this.transform = transform;
+        }
+    }
+
+    /**
+     * Returns the shared symmetry tables for a board radius.
+     *
+     * @param radius board radius
+     * @return shared symmetry tables
+     */
+    public static BoardSymmetry of(int radius) {
+        return SYMMETRIES.computeIfAbsent(radius, r -> new BoardSymmetry(BoardTopology.of(r)));
+    }
+
+    private BoardSymmetry(BoardTopology topology) {
+        this.topology = topology;
+        int cells = topology.cellCount();
+        permutation = new int[TRANSFORMS][cells];
+        for (int t = 0; t < TRANSFORMS; t++) {
+            for (int cell = 0; cell < cells; cell++) {
+                HexCube image = apply(t, topology.cube(cell));
+                permutation[t][cell] = topology.cellAt(image.q, image.r);
+            }
+        }
+        inverse = new int[TRANSFORMS];
+        for (int t = 0; t < TRANSFORMS; t++) {
+            for (int u = 0; u < TRANSFORMS; u++) {
+                if (composesToIdentity(t, u)) inverse[t] = u;
+            }
+        }
+        if (cells <= 64) {
+            byteTables = new long[TRANSFORMS][(cells + 7) / 8][256];
+            for (int t = 0; t < TRANSFORMS; t++) {
+                for (int chunk = 0; chunk < byteTables[t].length; chunk++) {
+                    for (int value = 0; value < 256; value++) {
+                        long image = 0;
+                        for (int bit = 0; bit < 8; bit++) {
+                            int cell = chunk * 8 + bit;
+                            if ((value >>> bit & 1) != 0 && cell < cells) image |= 1L << permutation[t][cell];
+                        }
+                        byteTables[t][chunk][value] = image;
+                    }
+                }
+            }
+        } else {
+            byteTables = null;
+        }
+    }
+
+    private boolean composesToIdentity(int t, int u) {
+        for (int cell = 0; cell < permutation[t].length; cell++) {
+            if (permutation[u][permutation[t][cell]] != cell) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies a transform to cube coordinates around the board center.
+     *
+     * @param t transform 0-11
+     * @param h hex to transform
+     * @return transformed hex
+     */
+    static HexCube apply(int t, HexCube h) {
+        // reflect across the q axis by swapping r and s
+        HexCube image = t >= 6 ? h.reflectQ() : h;
+        for (int i = 0; i < t % 6; i++) {
+            image = image.rotateRight();
+        }
+        return image;
+    }
+
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Maps a cell through a transform.
+     *
+     * @param t    transform 0-11
+     * @param cell cell id
+     * @return image cell id
+     */
+    public int transform(int t, int cell) {
+        return permutation[t][cell];
+    }
+
+    /**
+     * Returns the transform that undoes another one.
+     *
+     * @param t transform 0-11
+     * @return inverse transform
+     */
+    public int inverse(int t) {
+        return inverse[t];
+    }
+
+    /**
+     * Maps a bitmask of cells through a transform with eight table lookups.
+     *
+     * @param t    transform 0-11
+     * @param mask bitmask of cells
+     * @return transformed bitmask
+     */
+    public long transformMask(int t, long mask) {
+        long[][] tables = byteTables[t];
+        long image = 0;
+        for (int chunk = 0; chunk < tables.length; chunk++) {
+            image |= tables[chunk][(int) (mask >>> (chunk * 8)) & 0xFF];
+        }
+        return image;
+    }
+
+    /**
+     * Finds the transform giving the canonical form of a position: the image with the
+     * smallest red mask, ties broken by the smallest blue mask (both compared unsigned).
+     *
+     * @param red  bitmask of red stones
+     * @param blue bitmask of blue stones
+     * @return transform 0-11 producing the canonical position
+     */
+    public int canonicalTransform(long red, long blue) {
+        if (byteTables == null) throw new IllegalStateException("bitmasks need a board of at most 64 cells");
+        int best = IDENTITY;
+        long bestRed = red;
+        long bestBlue = blue;
+        for (int t = 1; t < TRANSFORMS; t++) {
+            long imageRed = transformMask(t, red);
+            int compare = Long.compareUnsigned(imageRed, bestRed);
+            if (compare > 0) continue;
+            long imageBlue = transformMask(t, blue);
+            if (compare < 0 || Long.compareUnsigned(imageBlue, bestBlue) < 0) {
+                best = t;
+                bestRed = imageRed;
+                bestBlue = imageBlue;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Maps a position to its canonical form.
+     *
+     * @param red  bitmask of red stones
+     * @param blue bitmask of blue stones
+     * @return canonical masks and the transform used
+     */
+    public Canonical canonicalize(long red, long blue) {
+        int t = canonicalTransform(red, blue);
+        return new Canonical(transformMask(t, red), transformMask(t, blue), t);
+    }
+
+    /**
+     * Finds the canonical transform of a board. Boards of at most 64 cells use the bitmask order of
+     * {@link #canonicalTransform(long, long)}; larger boards compare the transformed cell sequences in cell id order.
+     *
+     * @param board board on this topology
+     * @return transform 0-11 producing the canonical position
+     */
+    public int canonicalTransform(HexBoard board) {
+        int cells = topology.cellCount();
+        if (byteTables != null) return canonicalTransform(board.mask(HexBoard.RED), board.mask(HexBoard.BLUE));
+        int[][] images = new int[TRANSFORMS][cells];
+        for (int t = 0; t < TRANSFORMS; t++) {
+            for (int cell = 0; cell < cells; cell++) images[t][permutation[t][cell]] = board.get(cell);
+        }
+        int best = IDENTITY;
+        for (int t = 1; t < TRANSFORMS; t++) {
+            if (Arrays.compare(images[t], images[best]) < 0) best = t;
+        }
+        return best;
+    }
+}
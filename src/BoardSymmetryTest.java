@@ -0,0 +1,78 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+
+public class BoardSymmetryTest {
+
+    // Checks that every transform is a permutation of the cells that preserves adjacency
+    @Test
+    public void testTransformsPreserveAdjacency() {
+        BoardSymmetry symmetry = BoardSymmetry.of(3);
+        BoardTopology topology = symmetry.getTopology();
+        Set<String> distinct = new HashSet<>();
+        for (int t = 0; t < BoardSymmetry.TRANSFORMS; t++) {
+            boolean[] hit = new boolean[topology.cellCount()];
+            StringBuilder signature = new StringBuilder();
+            for (int cell = 0; cell < topology.cellCount(); cell++) {
+                int image = symmetry.transform(t, cell);
+                assertFalse(hit[image]);
+                hit[image] = true;
+                signature.append(image).append(',');
+                for (int neighbor : topology.neighbors(cell)) {
+                    HexCube a = topology.cube(image);
+                    HexCube b = topology.cube(symmetry.transform(t, neighbor));
+                    assertEquals(1, a.distance(b));
+                }
+                assertEquals(cell, symmetry.transform(symmetry.inverse(t), image));
+            }
+            distinct.add(signature.toString());
+        }
+        assertEquals(12, distinct.size());
+    }
+
+    // Checks that all 12 images of a random position share one canonical form
+    @Test
+    public void testSymmetricPositionsShareCanonicalForm() {
+        BoardSymmetry symmetry = BoardSymmetry.of(4);
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            long red = 0, blue = 0;
+            for (int cell = 0; cell < 61; cell++) {
+                int stone = random.nextInt(4);
+                if (stone == 1) red |= 1L << cell;
+                else if (stone == 2) blue |= 1L << cell;
+            }
+            BoardSymmetry.Canonical expected = symmetry.canonicalize(red, blue);
+            assertEquals(expected.red, symmetry.transformMask(expected.transform, red));
+            for (int t = 0; t < BoardSymmetry.TRANSFORMS; t++) {
+                BoardSymmetry.Canonical image = symmetry.canonicalize(
+                        symmetry.transformMask(t, red), symmetry.transformMask(t, blue));
+                assertEquals(expected.red, image.red);
+                assertEquals(expected.blue, image.blue);
+            }
+        }
+    }
+
+    // Checks that a board larger than 64 cells canonicalizes rotated copies to the same position
+    @Test
+    public void testLargeBoardCanonicalTransform() {
+        BoardSymmetry symmetry = BoardSymmetry.of(6);
+        HexBoard board = new HexBoard(6);
+        HexBoard rotated = new HexBoard(6);
+        int[] moves = {board.cellAt(2, -1), board.cellAt(-3, 1), board.cellAt(0, 4)};
+        for (int move : moves) {
+            board.play(move);
+            rotated.play(symmetry.transform(10, move));
+        }
+        int t = symmetry.canonicalTransform(board);
+        int u = symmetry.canonicalTransform(rotated);
+        // the two canonical images must hold the same stone on every cell
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            int image = symmetry.transform(t, cell);
+            assertEquals(board.get(cell), rotated.get(symmetry.transform(symmetry.inverse(u), image)));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable cell ids and adjacency of a hexagonal board of a given radius.
+ * Built once per radius and shared by every game in the JVM: obtain instances with {@link #of(int)}.
+ * All fields are final, so instances are safely published to any thread through the cache.
+ * Cell ids follow the order {@code HexGrid.main} builds the grid in: q ascending, then r ascending.
+ */
+public final class BoardTopology {
+    private static final ConcurrentHashMap<Integer, BoardTopology> TOPOLOGIES = new ConcurrentHashMap<>();
+
+    private final int radius;
+    private final int side;
+    private final int[] index;
+    private final int[] cellQ;
+    private final int[] cellR;
+    private final int[][] neighbors;
+    private final ConcurrentHashMap<GeometryKey, BoardGeometry> geometries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the shared topology for a board radius, building it on first use.
+     *
+     * @param radius number of rings around the center cell
+     * @return shared immutable topology
+     */
+    public static BoardTopology of(int radius) {
+        if (radius < 0) throw new IllegalArgumentException("radius must be >= 0");
+        return TOPOLOGIES.computeIfAbsent(radius, BoardTopology::new);
+    }
+
+    private BoardTopology(int radius) {
+        this.radius = radius;
+        side = 2 * radius + 1;
+        index = new int[side * side];
+        Arrays.fill(index, -1);
+        int count = 0;
+        for (int q = -radius; q <= radius; q++) {
+            for (int r = -radius; r <= radius; r++) {
+                if (Math.abs(q + r) <= radius) {
+                    index[(q + radius) * side + (r + radius)] = count++;
+                }
+            }
+        }
+        cellQ = new int[count];
+        cellR = new int[count];
+        for (int q = -radius; q <= radius; q++) {
+            for (int r = -radius; r <= radius; r++) {
+                int id = cellAt(q, r);
+                if (id >= 0) {
+                    cellQ[id] = q;
+                    cellR[id] = r;
+                }
+            }
+        }
+        neighbors = new int[count][];
+        int[] found = new int[6];
+        for (int id = 0; id < count; id++) {
+            int n = 0;
+            for (HexCube direction : HexCube.directions) {
+                int other = cellAt(cellQ[id] + direction.q, cellR[id] + direction.r);
+                if (other >= 0) found[n++] = other;
+            }
+            neighbors[id] = Arrays.copyOf(found, n);
+        }
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns the number of cells on the board.
+     *
+     * @return cell count, 3r(r+1)+1 for radius r
+     */
+    public int cellCount() {
+        return cellQ.length;
+    }
+
+    /**
+     * Looks up the cell id for axial coordinates.
+     *
+     * @param q cube q coordinate
+     * @param r cube r coordinate
+     * @return cell id, or -1 if the coordinates are off the board
+     */
+    public int cellAt(int q, int r) {
+        if (Math.abs(q) > radius || Math.abs(r) > radius) return -1;
+        return index[(q + radius) * side + (r + radius)];
+    }
+
+    public int q(int cell) {
+        return cellQ[cell];
+    }
+
+    public int r(int cell) {
+        return cellR[cell];
+    }
+
+    /**
+     * Returns the cube coordinates of a cell.
+     *
+     * @param cell cell id
+     * @return HexCube of the cell
+     */
+    public HexCube cube(int cell) {
+        return new HexCube(cellQ[cell], cellR[cell], -cellQ[cell] - cellR[cell]);
+    }
+
+    /**
+     * Returns the ids of the cells adjacent to a cell.
+     * The array is shared between all games and must not be modified.
+     *
+     * @param cell cell id
+     * @return neighbor cell ids
+     */
+    public int[] neighbors(int cell) {
+        return neighbors[cell];
+    }
+
+    /**
+     * Returns the whole shared adjacency table, indexed by cell id, for hot loops in the rules.
+     *
+     * @return neighbor ids per cell, must not be modified
+     */
+    int[][] neighborTable() {
+        return neighbors;
+    }
+
+    /**
+     * Returns the shared pixel geometry of this board for a layout, building it on first use.
+     *
+     * @param layout layout mapping cells to pixels
+     * @return shared immutable geometry
+     */
+    public BoardGeometry geometry(Layout layout) {
+        GeometryKey key = new GeometryKey(layout);
+        return geometries.computeIfAbsent(key, k -> new BoardGeometry(this, layout));
+    }
+
+    /**
+     * Returns the shared pixel geometry for a layout, reading it from a cache file on first use.
+     * If the file is missing or was written for another board or layout, the geometry is built
+     * and the file rewritten; a file that cannot be written only costs the rebuild next time.
+     *
+     * @param layout layout mapping cells to pixels
+     * @param cache  geometry cache file
+     * @return shared immutable geometry
+     */
+    public BoardGeometry geometry(Layout layout, Path cache) {
+        GeometryKey key = new GeometryKey(layout);
+        return geometries.computeIfAbsent(key, k -> {
+            if (Files.isRegularFile(cache)) {
+                try {
+                    return BoardGeometry.load(cache, this, layout);
+                } catch (IOException e) {
+                    // stale or damaged, rebuilt below
+                }
+            }
+            BoardGeometry geometry = new BoardGeometry(this, layout);
+            try {
+                geometry.save(cache);
+            } catch (IOException e) {
+                // read-only location, the geometry is simply built again next start
+            }
+            return geometry;
+        });
+    }
+
+    /**
+     * Cache key for a layout. Orientations are compared by identity, since the presets are shared constants.
+     */
+    private static final class GeometryKey {
+        final Orientation orientation;
+        final Point size;
+        final Point origin;
+
+        GeometryKey(Layout layout) {
+            orientation = layout.orientation;
+            size = layout.size;
+            origin = layout.origin;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            GeometryKey key = (GeometryKey) obj;
+            return orientation == key.orientation && size.equals(key.size) && origin.equals(key.origin);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(orientation), size, origin);
+        }
+    }
+}
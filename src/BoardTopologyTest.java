@@ -0,0 +1,98 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+public class BoardTopologyTest {
+
+    // Checks that the direction table can no longer be changed by callers
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDirectionsAreImmutable() {
+        HexCube.directions.add(new HexCube(0, 0, 0));
+    }
+
+    // Checks that every thread gets the same shared topology and geometry for a key
+    @Test
+    public void testTopologyIsSharedAcrossThreads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<BoardTopology>> results = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            results.add(pool.submit(() -> BoardTopology.of(5)));
+        }
+        BoardTopology first = results.get(0).get();
+        for (Future<BoardTopology> result : results) {
+            assertSame(first, result.get());
+        }
+        pool.shutdown();
+
+        Layout layout = new Layout(Layout.flat, new Point(25, 25), new Point(300, 300));
+        Layout sameLayout = new Layout(Layout.flat, new Point(25, 25), new Point(300, 300));
+        assertSame(first.geometry(layout), first.geometry(sameLayout));
+        assertSame(first, new HexBoard(5).getTopology());
+    }
+
+    // Checks that adjacency is symmetric and matches HexCube distance
+    @Test
+    public void testNeighborsMatchCubeDistance() {
+        BoardTopology topology = BoardTopology.of(3);
+        assertEquals(37, topology.cellCount());
+        for (int cell = 0; cell < topology.cellCount(); cell++) {
+            for (int neighbor : topology.neighbors(cell)) {
+                assertEquals(1, topology.cube(cell).distance(topology.cube(neighbor)));
+                boolean back = false;
+                for (int other : topology.neighbors(neighbor)) back |= other == cell;
+                assertTrue(back);
+            }
+        }
+    }
+
+    // Checks that cached pixel geometry matches Layout and maps pixels back to cells
+    @Test
+    public void testGeometryMatchesLayout() {
+        Layout layout = new Layout(Layout.flat, new Point(30, 30), new Point(400, 400));
+        BoardGeometry geometry = BoardTopology.of(6).geometry(layout);
+        BoardTopology topology = geometry.getTopology();
+        for (int cell = 0; cell < topology.cellCount(); cell++) {
+            HexCube hex = topology.cube(cell);
+            Point center = layout.hexToPixel(hex);
+            assertEquals(center.x, geometry.centerX(cell), 1e-9);
+            assertEquals(center.y, geometry.centerY(cell), 1e-9);
+            assertEquals(layout.polygonCorners(hex), geometry.corners(cell));
+            assertEquals(cell, geometry.cellAtPixel(center.x + 3, center.y - 3));
+        }
+        assertEquals(-1, geometry.cellAtPixel(0, 0));
+    }
+
+    // Checks that a geometry read from a cache file matches the computed one and is refused for another layout
+    @Test
+    public void testGeometryCacheRoundTrip() throws Exception {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("geometry", ".bin");
+        try {
+            BoardTopology topology = BoardTopology.of(4);
+            Layout layout = new Layout(Layout.flat, new Point(20, 20), new Point(250, 260));
+            BoardGeometry built = topology.geometry(layout);
+            built.save(file);
+            BoardGeometry loaded = BoardGeometry.load(file, topology, layout);
+            assertEquals(built.hexagons(), loaded.hexagons());
+            assertEquals(built.cellAtPixel(240, 255), loaded.cellAtPixel(240, 255));
+
+            Layout moved = new Layout(Layout.flat, new Point(20, 20), new Point(251, 260));
+            try {
+                BoardGeometry.load(file, topology, moved);
+                fail("a cache for another layout must be refused");
+            } catch (java.io.IOException expected) {
+                // rebuilt by the caller
+            }
+            // The caching lookup rewrites a stale file
+            BoardGeometry rebuilt = topology.geometry(moved, file);
+            assertEquals(new BoardGeometry(topology, moved).hexagons(), rebuilt.hexagons());
+            assertEquals(rebuilt.hexagons(), BoardGeometry.load(file, topology, moved).hexagons());
+        } finally {
+            java.nio.file.Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Statistics over a recorded game corpus for tuning the board radius and rules: game lengths,
+ * how often and how much players capture, the first player's advantage, the length of extra-move
+ * chains (consecutive captures in one turn) and how often each cell is played or still occupied
+ * at the end. The memory-mapped corpus is cut into ranges of {@link #CHUNK_GAMES} games, which a
+ * parallel stream replays with one board and one set of counters per range; the counters are
+ * merged at the end. No objects are created per game or move.
+ * Usage: {@code java CorpusAnalytics <corpus>}
+ */
+public class CorpusAnalytics {
+    /** Games per parallel range. */
+    static final int CHUNK_GAMES = 4096;
+
+    /**
+     * Counters of one range of games, merged into the totals.
+     */
+    public static final class Stats {
+        final int radius;
+        long games;
+        /** Games won by EMPTY (unfinished), RED and BLUE. */
+        final long[] results = new long[3];
+        /** Number of games per length in moves; the last bucket holds all longer games. */
+        final long[] lengths = new long[SelfPlay.MAX_MOVES + 1];
+        long moves;
+        long captureMoves;
+        /** Number of captures per count of removed stones. */
+        long[] captureSizes = new long[16];
+        /** Number of turns per count of captures in the turn, for turns with at least one. */
+        long[] chains = new long[16];
+        final long[] played;
+        final long[] finalRed;
+        final long[] finalBlue;
+
+        Stats(int radius) {
+            this.radius = radius;
+            int cells = BoardTopology.of(radius).cellCount();
+            played = new long[cells];
+            finalRed = new long[cells];
+            finalBlue = new long[cells];
+        }
+
+        private static long[] count(long[] histogram, int index) {
+            if (index >= histogram.length) histogram = Arrays.copyOf(histogram, Math.max(index + 1, histogram.length * 2));
+            histogram[index]++;
+            return histogram;
+        }
+
+        /**
+         * Adds the counters of another range.
+         *
+         * @param other counters of the same board size
+         * @return this
+         */
+        Stats merge(Stats other) {
+            games += other.games;
+            moves += other.moves;
+            captureMoves += other.captureMoves;
+            add(results, other.results);
+            add(lengths, other.lengths);
+            add(played, other.played);
+            add(finalRed, other.finalRed);
+            add(finalBlue, other.finalBlue);
+            captureSizes = merge(captureSizes, other.captureSizes);
+            chains = merge(chains, other.chains);
+            return this;
+        }
+
+        private static void add(long[] into, long[] from) {
+            for (int i = 0; i < from.length; i++) into[i] += from[i];
+        }
+
+        private static long[] merge(long[] into, long[] from) {
+            if (from.length > into.length) into = Arrays.copyOf(into, from.length);
+            add(into, from);
+            return into;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getMoves() {
+            return moves;
+        }
+
+        public long getCaptureMoves() {
+            return captureMoves;
+        }
+
+        /**
+         * Returns the number of games a colour won.
+         *
+         * @param winner EMPTY for unfinished games, RED or BLUE
+         * @return game count
+         */
+        public long getResults(int winner) {
+            return results[winner];
+        }
+
+        /**
+         * Returns red's share of the decided games; above 0.5 means the first player has an advantage.
+         *
+         * @return red win rate, 0.5 if no game was decided
+         */
+        public double firstPlayerWinRate() {
+            long decided = results[HexBoard.RED] + results[HexBoard.BLUE];
+            return decided == 0 ? 0.5 : (double) results[HexBoard.RED] / decided;
+        }
+
+        /**
+         * Returns the length below which a fraction of the games ended.
+         *
+         * @param fraction fraction of games, 0 to 1
+         * @return game length in moves
+         */
+        public int lengthPercentile(double fraction) {
+            long target = (long) Math.ceil(fraction * games);
+            long seen = 0;
+            for (int length = 0; length < lengths.length; length++) {
+                seen += lengths[length];
+                if (seen >= target && seen > 0) return length;
+            }
+            return lengths.length - 1;
+        }
+
+        /**
+         * Returns the number of turns with a given number of captures.
+         *
+         * @param captures captures in one turn, at least 1
+         * @return turn count
+         */
+        public long getChains(int captures) {
+            return captures < chains.length ? chains[captures] : 0;
+        }
+
+        /**
+         * Returns the number of captures that removed a given number of stones.
+         *
+         * @param stones stones removed
+         * @return capture count
+         */
+        public long getCaptureSizes(int stones) {
+            return stones < captureSizes.length ? captureSizes[stones] : 0;
+        }
+
+        public long getPlayed(int cell) {
+            return played[cell];
+        }
+
+        /**
+         * Returns how often a cell held a stone of either colour when a game ended.
+         *
+         * @param cell cell id
+         * @return fraction of games
+         */
+        public double finalOccupancy(int cell) {
+            return games == 0 ? 0 : (double) (finalRed[cell] + finalBlue[cell]) / games;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("games %d, moves %d (%.1f per game)%n", games, moves, games == 0 ? 0.0 : (double) moves / games));
+            text.append(String.format("red wins %d, blue wins %d, unfinished %d, first player win rate %.3f%n",
+                    results[HexBoard.RED], results[HexBoard.BLUE], results[HexBoard.EMPTY], firstPlayerWinRate()));
+            text.append(String.format("length percentiles 10/50/90/99: %d %d %d %d%n",
+                    lengthPercentile(0.1), lengthPercentile(0.5), lengthPercentile(0.9), lengthPercentile(0.99)));
+            text.append(String.format("capturing moves %d (%.2f%% of moves)%n", captureMoves, moves == 0 ? 0.0 : 100.0 * captureMoves / moves));
+            text.append("stones per capture:");
+            for (int size = 1; size < captureSizes.length; size++) {
+                if (captureSizes[size] > 0) text.append(' ').append(size).append('=').append(captureSizes[size]);
+            }
+            text.append(String.format("%nextra-move chains (captures per turn):"));
+            for (int length = 1; length < chains.length; length++) {
+                if (chains[length] > 0) text.append(' ').append(length).append('=').append(chains[length]);
+            }
+            text.append(String.format("%nfinal occupancy %% per cell:%n"));
+            BoardTopology topology = BoardTopology.of(radius);
+            for (int r = -radius; r <= radius; r++) {
+                for (int pad = 0; pad < Math.abs(r); pad++) text.append("  ");
+                for (int q = -radius; q <= radius; q++) {
+                    int cell = topology.cellAt(q, r);
+                    if (cell >= 0) text.append(String.format("%3.0f ", 100 * finalOccupancy(cell)));
+                }
+                text.append('\n');
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Replays a range of games and counts them.
+     *
+     * @param corpus recorded games
+     * @param start  position of the first record
+     * @param end    position just after the last record
+     * @return counters of the range
+     */
+    static Stats analyse(GameCorpus.Reader corpus, long start, long end) {
+        Stats stats = new Stats(corpus.getRadius());
+        HexBoard board = new HexBoard(corpus.getRadius());
+        int cells = board.cellCount();
+        corpus.forEach(start, end, (moves, moveCount, winner) -> {
+            board.reset();
+            stats.games++;
+            stats.results[winner]++;
+            stats.lengths[Math.min(moveCount, stats.lengths.length - 1)]++;
+            int chain = 0;
+            for (int ply = 0; ply < moveCount; ply++) {
+                int mover = board.toMove();
+                int opponent = mover == HexBoard.RED ? HexBoard.BLUE : HexBoard.RED;
+                int before = board.stoneCount(opponent);
+                HexBoard.MoveResult result = board.play(moves[ply]);
+                if (!result.isPlaced()) break;
+                stats.moves++;
+                stats.played[moves[ply]]++;
+                int captured = before - board.stoneCount(opponent);
+                if (captured > 0) {
+                    stats.captureMoves++;
+                    stats.captureSizes = Stats.count(stats.captureSizes, captured);
+                    chain++;
+                }
+                if (board.toMove() != mover || board.isGameOver()) {
+                    if (chain > 0) stats.chains = Stats.count(stats.chains, chain);
+                    chain = 0;
+                }
+            }
+            for (int cell = 0; cell < cells; cell++) {
+                int stone = board.get(cell);
+                if (stone == HexBoard.RED) stats.finalRed[cell]++;
+                else if (stone == HexBoard.BLUE) stats.finalBlue[cell]++;
+            }
+        });
+        return stats;
+    }
+
+    /**
+     * Analyses a whole corpus on the common fork-join pool.
+     *
+     * @param corpus recorded games
+     * @return merged counters
+     */
+    public static Stats analyse(GameCorpus.Reader corpus) {
+        // Only every CHUNK_GAMES-th record position is kept, so the scan stays small for huge files
+        long[] bounds = new long[64];
+        int chunks = 0;
+        long games = 0;
+        long end = corpus.end();
+        for (long position = corpus.start(); position < end; position = corpus.nextRecord(position)) {
+            if (games++ % CHUNK_GAMES == 0) {
+                if (chunks == bounds.length) bounds = Arrays.copyOf(bounds, chunks * 2);
+                bounds[chunks++] = position;
+            }
+        }
+        long[] starts = bounds;
+        int count = chunks;
+        return IntStream.range(0, count).parallel()
+                .mapToObj(chunk -> analyse(corpus, starts[chunk], chunk + 1 < count ? starts[chunk + 1] : end))
+                .reduce(Stats::merge)
+                .orElseGet(() -> new Stats(corpus.getRadius()));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("java CorpusAnalytics <corpus>");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        Stats stats = analyse(new GameCorpus.Reader(Path.of(args[0])));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.print(stats);
+        System.out.printf("%.1f s, %.0f games/s on %d threads%n", seconds, stats.games / seconds,
+                java.util.concurrent.ForkJoinPool.getCommonPoolParallelism());
+    }
+}
@@ -0,0 +1,94 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+public class CorpusAnalyticsTest {
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("corpus", ".hxgc");
+        try (GameCorpus.Writer writer = new GameCorpus.Writer(file, 3)) {
+            SelfPlay.generate(writer, 3, 3 * CorpusAnalytics.CHUNK_GAMES + 17, 21);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    // Checks that the parallel totals equal a single pass over the whole file
+    @Test
+    public void testParallelMatchesSerial() throws Exception {
+        GameCorpus.Reader corpus = new GameCorpus.Reader(file);
+        CorpusAnalytics.Stats parallel = CorpusAnalytics.analyse(corpus);
+        CorpusAnalytics.Stats serial = CorpusAnalytics.analyse(corpus, corpus.start(), corpus.end());
+        assertEquals(3 * CorpusAnalytics.CHUNK_GAMES + 17, parallel.getGames());
+        assertEquals(serial.getMoves(), parallel.getMoves());
+        assertEquals(serial.getCaptureMoves(), parallel.getCaptureMoves());
+        assertEquals(serial.toString(), parallel.toString());
+    }
+
+    // Checks the counters against the games counted directly from the corpus
+    @Test
+    public void testCountsMatchCorpus() throws Exception {
+        GameCorpus.Reader corpus = new GameCorpus.Reader(file);
+        long[] expected = new long[4];
+        corpus.forEach((moves, count, winner) -> {
+            expected[winner]++;
+            expected[3] += count;
+        });
+        CorpusAnalytics.Stats stats = CorpusAnalytics.analyse(corpus);
+        assertEquals(expected[HexBoard.RED], stats.getResults(HexBoard.RED));
+        assertEquals(expected[HexBoard.BLUE], stats.getResults(HexBoard.BLUE));
+        assertEquals(expected[3], stats.getMoves());
+
+        long played = 0;
+        for (int cell = 0; cell < 37; cell++) played += stats.getPlayed(cell);
+        assertEquals(stats.getMoves(), played);
+
+        // Every capture is part of exactly one chain, and sizes cover every capture
+        long chained = 0;
+        long sized = 0;
+        for (int n = 1; n < 64; n++) {
+            chained += n * stats.getChains(n);
+            sized += stats.getCaptureSizes(n);
+        }
+        assertEquals(stats.getCaptureMoves(), chained);
+        assertEquals(stats.getCaptureMoves(), sized);
+        assertTrue(stats.getCaptureMoves() > 0);
+        assertTrue(stats.lengthPercentile(0.5) <= stats.lengthPercentile(0.9));
+    }
+
+    // Checks that a corpus mapped in many small chunks, cut at record boundaries, reads the same games
+    @Test
+    public void testChunkedMappingMatchesSingleMapping() throws Exception {
+        GameCorpus.Reader whole = new GameCorpus.Reader(file);
+        GameCorpus.Reader chunked = new GameCorpus.Reader(file, 4096);
+        assertEquals(1, whole.chunkCount());
+        assertTrue(chunked.chunkCount() > 10);
+
+        long[] sums = new long[4];
+        whole.forEach((moves, count, winner) -> {
+            sums[0]++;
+            for (int i = 0; i < count; i++) sums[1] += moves[i] * (i + 1L);
+        });
+        chunked.forEach((moves, count, winner) -> {
+            sums[2]++;
+            for (int i = 0; i < count; i++) sums[3] += moves[i] * (i + 1L);
+        });
+        assertEquals(sums[0], sums[2]);
+        assertEquals(sums[1], sums[3]);
+
+        long games = 0;
+        for (long position = chunked.start(); position < chunked.end(); position = chunked.nextRecord(position)) games++;
+        assertEquals(sums[0], games);
+        assertEquals(CorpusAnalytics.analyse(whole).toString(), CorpusAnalytics.analyse(chunked).toString());
+        assertEquals(GameReplay.load(whole, 5000).length(), GameReplay.load(chunked, 5000).length());
+    }
+}
@@ -0,0 +1,304 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Line-based engine protocol in the style of GTP, so tournament managers and scripts can drive
+ * the rules and the computer player without a window. Each command is one line, optionally
+ * starting with a numeric id; each response is {@code =[id] result} or {@code ?[id] error}
+ * followed by an empty line. Cells are written as axial coordinates {@code q,r}; plain cell ids
+ * are accepted as input too. Colours are {@code red} and {@code blue}.
+ * <p>
+ * In batch mode the output is flushed only when no more input is waiting, so a controller can
+ * pipe many commands at once and read all answers with one flush.
+ * Usage: {@code java EngineProtocol [--batch] [radius]}
+ */
+public class EngineProtocol {
+    static final String NAME = "HexOust";
+    static final String VERSION = "1.0";
+    static final String[] COMMANDS = {
+            "protocol_version", "name", "version", "known_command", "list_commands", "quit",
+            "radius", "boardsize", "newgame", "clear_board", "play", "genmove", "undo", "showboard",
+            "legal_moves", "winner", "movetime", "time_settings", "time_left", "ponder"
+    };
+
+    private HexBoard board;
+    private MctsPlayer player;
+    private final long seed;
+    private PatternDatabase patterns;
+    private OpeningBook book;
+    private TimeManager timeControl = TimeManager.perMove(1000);
+    private long redMillis = Long.MAX_VALUE;
+    private long blueMillis = Long.MAX_VALUE;
+    private boolean ponder = false;
+    private boolean quit = false;
+
+    /**
+     * Creates an engine with an empty board.
+     *
+     * @param radius board radius
+     * @param seed   random seed for the computer player
+     */
+    public EngineProtocol(int radius, long seed) {
+        this.seed = seed;
+        newBoard(radius);
+    }
+
+    private void newBoard(int radius) {
+        if (player != null) player.close();
+        board = new HexBoard(radius);
+        player = new MctsPlayer(board.getTopology(), seed);
+        player.setPatterns(patterns);
+        if (book != null && book.getRadius() == radius) player.setOpeningBook(book, MctsPlayer.BOOK_MIN_GAMES);
+    }
+
+    /**
+     * Uses a pattern database for the computer player's search.
+     *
+     * @param database learned patterns, null for none
+     */
+    public void setPatterns(PatternDatabase database) {
+        patterns = database;
+        player.setPatterns(database);
+    }
+
+    /**
+     * Plays moves from an opening book while the game is in it. The book is used only on
+     * boards of its own radius.
+     *
+     * @param book opening book, null for none
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+        player.setOpeningBook(book != null && book.getRadius() == board.getTopology().getRadius() ? book : null,
+                MctsPlayer.BOOK_MIN_GAMES);
+    }
+
+    public HexBoard getBoard() {
+        return board;
+    }
+
+    public boolean isQuit() {
+        return quit;
+    }
+
+    /**
+     * Runs one command line.
+     *
+     * @param line command, optionally prefixed by a numeric id
+     * @return complete response including the trailing empty line, or an empty string for blank lines
+     */
+    public String execute(String line) {
+        String[] words = tokenize(line);
+        if (words.length == 0) return "";
+        String id = "";
+        int first = 0;
+        if (Character.isDigit(words[0].charAt(0))) {
+            id = words[0];
+            first = 1;
+            if (words.length == 1) return "?" + id + " missing command\n\n";
+        }
+        String[] arguments = new String[words.length - first - 1];
+        System.arraycopy(words, first + 1, arguments, 0, arguments.length);
+        try {
+            String result = run(words[first].toLowerCase(), arguments);
+            return "=" + id + (result.isEmpty() ? "" : " " + result) + "\n\n";
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return "?" + id + " " + e.getMessage() + "\n\n";
+        }
+    }
+
+    /**
+     * Splits a line on spaces and tabs, dropping comments after '#'.
+     */
+    static String[] tokenize(String line) {
+        int end = line.indexOf('#');
+        if (end < 0) end = line.length();
+        java.util.ArrayList<String> words = new java.util.ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= end; i++) {
+            boolean space = i == end || line.charAt(i) <= ' ';
+            if (space && start >= 0) {
+                words.add(line.substring(start, i));
+                start = -1;
+            } else if (!space && start < 0) {
+                start = i;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private String run(String command, String[] args) {
+        switch (command) {
+            case "protocol_version":
+                return "2";
+            case "name":
+                return NAME;
+            case "version":
+                return VERSION;
+            case "known_command":
+                expect(args, 1);
+                return Boolean.toString(java.util.Arrays.asList(COMMANDS).contains(args[0].toLowerCase()));
+            case "list_commands":
+                return String.join("\n", COMMANDS);
+            case "quit":
+                quit = true;
+                player.close();
+                return "";
+            case "radius":
+            case "boardsize":
+                expect(args, 1);
+                int radius = Integer.parseInt(args[0]);
+                if (radius < 1 || radius > 20) throw new IllegalArgumentException("unacceptable size");
+                newBoard(radius);
+                return "";
+            case "newgame":
+            case "clear_board":
+                board.reset();
+                player.reset(board);
+                return "";
+            case "play":
+                expect(args, 2);
+                checkColour(args[0]);
+                int cell = parseCell(args[1]);
+                HexBoard.MoveResult result = board.play(cell);
+                if (!result.isPlaced()) throw new IllegalArgumentException("illegal move (" + result.name().toLowerCase() + ")");
+                player.play(cell);
+                return result == HexBoard.MoveResult.PLACED ? "" : result.name().toLowerCase();
+            case "genmove":
+                expect(args, 1);
+                checkColour(args[0]);
+                return genmove();
+            case "undo":
+                if (!board.undo()) throw new IllegalStateException("cannot undo");
+                player.reset(board);
+                return "";
+            case "showboard":
+                return "\n" + board.toString().stripTrailing();
+            case "legal_moves":
+                int[] legal = new int[board.cellCount()];
+                int n = board.legalMoves(legal);
+                StringBuilder moves = new StringBuilder();
+                for (int i = 0; i < n; i++) moves.append(i == 0 ? "" : " ").append(formatCell(legal[i]));
+                return moves.toString();
+            case "winner":
+                return board.getWinner() == HexBoard.RED ? "red" : board.getWinner() == HexBoard.BLUE ? "blue" : "none";
+            case "movetime":
+                expect(args, 1);
+                timeControl = TimeManager.perMove(Long.parseLong(args[0]));
+                return "";
+            case "time_settings":
+                expect(args, 2);
+                timeControl = TimeManager.clock(Math.round(Double.parseDouble(args[0]) * 1000),
+                        Math.round(Double.parseDouble(args[1]) * 1000));
+                redMillis = timeControl.getBaseMillis();
+                blueMillis = timeControl.getBaseMillis();
+                return "";
+            case "time_left":
+                expect(args, 2);
+                long millis = Math.round(Double.parseDouble(args[1]) * 1000);
+                if (parseColour(args[0]) == HexBoard.RED) redMillis = millis;
+                else blueMillis = millis;
+                return "";
+            case "ponder":
+                expect(args, 1);
+                ponder = args[0].equalsIgnoreCase("on");
+                if (!ponder) player.stopPondering();
+                return "";
+            default:
+                throw new IllegalArgumentException("unknown command");
+        }
+    }
+
+    private String genmove() {
+        if (board.isGameOver()) throw new IllegalStateException("game is over");
+        long remaining = board.isRedTurn() ? redMillis : blueMillis;
+        int move = player.chooseMove(board, timeControl.budget(remaining, board));
+        if (move < 0) return "pass";
+        HexBoard.MoveResult result = board.play(move);
+        player.play(move);
+        if (ponder && !board.isGameOver()) player.startPondering();
+        return formatCell(move) + (result == HexBoard.MoveResult.PLACED ? "" : " " + result.name().toLowerCase());
+    }
+
+    private static void expect(String[] args, int count) {
+        if (args.length < count) throw new IllegalArgumentException("expected " + count + " arguments");
+    }
+
+    private static int parseColour(String colour) {
+        switch (colour.toLowerCase()) {
+            case "red":
+            case "r":
+                return HexBoard.RED;
+            case "blue":
+            case "b":
+                return HexBoard.BLUE;
+            default:
+                throw new IllegalArgumentException("invalid colour");
+        }
+    }
+
+    private void checkColour(String colour) {
+        if (parseColour(colour) != board.toMove()) throw new IllegalArgumentException("not " + colour + "'s turn");
+    }
+
+    /**
+     * Parses {@code q,r} or a cell id.
+     */
+    int parseCell(String text) {
+        int comma = text.indexOf(',');
+        int cell;
+        try {
+            cell = comma < 0 ? Integer.parseInt(text)
+                    : board.cellAt(Integer.parseInt(text.substring(0, comma).trim()), Integer.parseInt(text.substring(comma + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid cell");
+        }
+        if (cell < 0 || cell >= board.cellCount()) throw new IllegalArgumentException("invalid cell");
+        return cell;
+    }
+
+    String formatCell(int cell) {
+        return board.getTopology().q(cell) + "," + board.getTopology().r(cell);
+    }
+
+    /**
+     * Reads commands until end of input or {@code quit}.
+     *
+     * @param in    command source
+     * @param out   response sink
+     * @param batch true to flush only when no more input is ready
+     * @throws IOException if reading or writing fails
+     */
+    public void run(Reader in, Writer out, boolean batch) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+        String line;
+        while (!quit && (line = reader.readLine()) != null) {
+            out.write(execute(line));
+            if (!batch || !reader.ready()) out.flush();
+        }
+        out.flush();
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean batch = false;
+        int radius = 6;
+        for (String arg : args) {
+            if (arg.equals("--batch")) batch = true;
+            else radius = Integer.parseInt(arg);
+        }
+        EngineProtocol engine = new EngineProtocol(radius, System.nanoTime());
+        String patterns = System.getProperty("hexoust.patterns");
+        if (patterns != null) engine.setPatterns(PatternDatabase.load(java.nio.file.Path.of(patterns)));
+        String book = System.getProperty("hexoust.book");
+        if (book != null) engine.setOpeningBook(OpeningBook.open(java.nio.file.Path.of(book)));
+        Reader in = new InputStreamReader(System.in, StandardCharsets.UTF_8);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        engine.run(in, out, batch);
+    }
+}
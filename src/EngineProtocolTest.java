@@ -0,0 +1,59 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+
+public class EngineProtocolTest {
+
+    // Checks ids, successes and errors in the response format
+    @Test
+    public void testResponses() {
+        EngineProtocol engine = new EngineProtocol(2, 1);
+        assertEquals("= HexOust\n\n", engine.execute("name"));
+        assertEquals("=7 2\n\n", engine.execute("7 protocol_version"));
+        assertEquals("", engine.execute("   # just a comment"));
+        assertEquals("? unknown command\n\n", engine.execute("fly"));
+        assertEquals("= true\n\n", engine.execute("known_command genmove"));
+
+        assertEquals("=\n\n", engine.execute("play red 0,0"));
+        assertEquals("?3 not red's turn\n\n", engine.execute("3 play red 1,0"));
+        assertEquals("=\n\n", engine.execute("play blue 1,0"));
+        assertEquals("= captured\n\n", engine.execute("play red -1,0"));
+        assertEquals("? illegal move (occupied)\n\n", engine.execute("play red 0,0"));
+        assertEquals("= won\n\n", engine.execute("play r -2,2"));
+        assertEquals("= red\n\n", engine.execute("winner"));
+        assertEquals("=\n\n", engine.execute("undo"));
+        assertEquals("= none\n\n", engine.execute("winner"));
+    }
+
+    // Checks that genmove plays a legal move for the side to move and keeps playing after captures
+    @Test
+    public void testGenmove() {
+        EngineProtocol engine = new EngineProtocol(2, 2);
+        engine.execute("movetime 50");
+        engine.execute("play red 0,0");
+        engine.execute("play blue 1,0");
+        String response = engine.execute("genmove red");
+        assertTrue(response, response.startsWith("= "));
+        assertTrue(response, response.contains("captured"));
+        assertTrue(engine.getBoard().isRedTurn());
+        assertTrue(engine.execute("genmove red").startsWith("= "));
+        assertTrue(engine.getBoard().isGameOver());
+        assertEquals("? game is over\n\n", engine.execute("genmove red"));
+    }
+
+    // Checks that a piped script gives the same answers in batch and interactive mode and stops at quit
+    @Test
+    public void testBatchMatchesInteractive() throws Exception {
+        String script = "1 radius 3\n2 play red 0,0\n3 showboard\n4 legal_moves\n5 quit\n6 name\n";
+        StringWriter interactive = new StringWriter();
+        new EngineProtocol(2, 3).run(new StringReader(script), interactive, false);
+        StringWriter batch = new StringWriter();
+        new EngineProtocol(2, 3).run(new StringReader(script), batch, true);
+        assertEquals(interactive.toString(), batch.toString());
+        assertTrue(batch.toString().contains("=5\n\n"));
+        assertFalse(batch.toString().contains("=6"));
+        assertTrue(batch.toString().contains("R"));
+    }
+}
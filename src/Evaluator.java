@@ -0,0 +1,292 @@
+/**
+ * Static evaluation of Hex-Oust positions for search. Features are computed on padded bitboards:
+ * cell (q, r) is bit {@code (q + R) * H + (r + R)} with column height H = 2R + 2, so the six
+ * neighbour directions are the fixed shifts 1, H and H - 1 in both directions and every column ends
+ * in a padding bit that stops the r-direction shifts from wrapping. Neighbourhoods, groups and legal
+ * moves of the whole board then take a handful of word-wide operations on a few longs instead of a
+ * loop over cells. {@link #scalarFeatures} computes the same features cell by cell as the fallback
+ * and reference.
+ * <p>
+ * An evaluator holds scratch arrays and must not be shared between threads.
+ */
+public final class Evaluator {
+    public static final int STONES = 0;
+    public static final int OPPONENT_STONES = 1;
+    public static final int GROUPS = 2;
+    public static final int OPPONENT_GROUPS = 3;
+    public static final int LARGEST_GROUP = 4;
+    public static final int OPPONENT_LARGEST_GROUP = 5;
+    public static final int FRONTIER = 6;
+    public static final int OPPONENT_FRONTIER = 7;
+    public static final int MOBILITY = 8;
+    public static final int OPPONENT_MOBILITY = 9;
+    public static final int FEATURES = 10;
+
+    /** Score of a won position; any other score is smaller in absolute value. */
+    public static final int WIN_SCORE = 1_000_000;
+
+    private static final int[] WEIGHTS = {100, -100, -10, 10, 20, -20, 5, -5, 2, -2};
+
+    private final BoardTopology topology;
+    private final int height;
+    private final int words;
+    private final int[] bitOf;
+    private final long[] valid;
+    private final long[] red;
+    private final long[] blue;
+    private final long[][] scratch;
+    private final int[] shifts;
+    private final int[] features = new int[FEATURES];
+
+    /**
+     * Creates an evaluator for a board size.
+     *
+     * @param topology board cells
+     */
+    public Evaluator(BoardTopology topology) {
+        this.topology = topology;
+        int radius = topology.getRadius();
+        height = 2 * radius + 2;
+        if (height > 63) throw new IllegalArgumentException("radius " + radius + " is too large for single-word shifts");
+        shifts = new int[] {1, height, height - 1};
+        words = ((2 * radius + 1) * height + 63) / 64;
+        bitOf = new int[topology.cellCount()];
+        valid = new long[words];
+        for (int cell = 0; cell < bitOf.length; cell++) {
+            bitOf[cell] = (topology.q(cell) + radius) * height + (topology.r(cell) + radius);
+            valid[bitOf[cell] >>> 6] |= 1L << bitOf[cell];
+        }
+        red = new long[words];
+        blue = new long[words];
+        scratch = new long[8][words];
+    }
+
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Scores a position for one player: positive is good for that player.
+     *
+     * @param board  position
+     * @param colour RED or BLUE
+     * @return weighted sum of the features, or plus or minus WIN_SCORE for a finished game
+     */
+    public int evaluate(HexBoard board, int colour) {
+        if (board.isGameOver()) return board.getWinner() == colour ? WIN_SCORE : -WIN_SCORE;
+        features(board, colour, features);
+        int score = 0;
+        for (int i = 0; i < FEATURES; i++) score += WEIGHTS[i] * features[i];
+        return score;
+    }
+
+    /**
+     * Computes the features of a position from one player's point of view with bitboards.
+     *
+     * @param board  position on this evaluator's topology
+     * @param colour RED or BLUE, the player the unprefixed features belong to
+     * @param out    receives FEATURES values
+     */
+    public void features(HexBoard board, int colour, int[] out) {
+        java.util.Arrays.fill(red, 0);
+        java.util.Arrays.fill(blue, 0);
+        for (int cell = 0; cell < bitOf.length; cell++) {
+            int stone = board.get(cell);
+            if (stone == HexBoard.RED) red[bitOf[cell] >>> 6] |= 1L << bitOf[cell];
+            else if (stone == HexBoard.BLUE) blue[bitOf[cell] >>> 6] |= 1L << bitOf[cell];
+        }
+        long[] own = colour == HexBoard.RED ? red : blue;
+        long[] enemy = colour == HexBoard.RED ? blue : red;
+        boolean running = !board.isGameOver();
+        boolean empty = board.stoneCount(HexBoard.RED) + board.stoneCount(HexBoard.BLUE) == 0;
+
+        out[STONES] = count(own);
+        out[OPPONENT_STONES] = count(enemy);
+        groups(own, out, GROUPS, LARGEST_GROUP);
+        groups(enemy, out, OPPONENT_GROUPS, OPPONENT_LARGEST_GROUP);
+
+        long[] ownNear = scratch[0], enemyNear = scratch[1], free = scratch[2], work = scratch[3];
+        dilate(own, ownNear);
+        dilate(enemy, enemyNear);
+        for (int w = 0; w < words; w++) free[w] = valid[w] & ~(own[w] | enemy[w]);
+
+        for (int w = 0; w < words; w++) work[w] = free[w] & enemyNear[w];
+        out[FRONTIER] = count(work);
+        for (int w = 0; w < words; w++) work[w] = free[w] & ownNear[w];
+        out[OPPONENT_FRONTIER] = count(work);
+
+        out[MOBILITY] = !running ? 0 : empty ? count(free) : mobility(own, enemy, ownNear, enemyNear, free);
+        out[OPPONENT_MOBILITY] = !running ? 0 : empty ? count(free) : mobility(enemy, own, enemyNear, ownNear, free);
+    }
+
+    /**
+     * Counts the cells where a player may place: empty cells with no occupied neighbour, with an
+     * enemy neighbour, or next to a friendly stone that touches an enemy.
+     */
+    private int mobility(long[] own, long[] enemy, long[] ownNear, long[] enemyNear, long[] free) {
+        long[] contact = scratch[4], contactNear = scratch[5], legal = scratch[6];
+        for (int w = 0; w < words; w++) contact[w] = own[w] & enemyNear[w];
+        dilate(contact, contactNear);
+        for (int w = 0; w < words; w++) {
+            long isolated = ~(ownNear[w] | enemyNear[w]);
+            legal[w] = free[w] & (isolated | enemyNear[w] | contactNear[w]);
+        }
+        return count(legal);
+    }
+
+    /**
+     * Splits stones into groups and records their number and the largest size. Stones without a
+     * friendly neighbour are counted directly; the rest are flood filled by repeated dilation.
+     */
+    private void groups(long[] stones, int[] out, int countIndex, int largestIndex) {
+        long[] remaining = scratch[4], group = scratch[5], grown = scratch[6];
+        neighbours(stones, remaining);
+        int connected = 0;
+        for (int w = 0; w < words; w++) {
+            remaining[w] &= stones[w];
+            connected += Long.bitCount(remaining[w]);
+        }
+        int groups = count(stones) - connected;
+        int largest = groups > 0 ? 1 : 0;
+        for (int w = 0; w < words; w++) {
+            while (remaining[w] != 0) {
+                java.util.Arrays.fill(group, 0);
+                group[w] = Long.lowestOneBit(remaining[w]);
+                boolean changed = true;
+                while (changed) {
+                    dilate(group, grown);
+                    changed = false;
+                    for (int i = 0; i < words; i++) {
+                        long next = grown[i] & stones[i];
+                        changed |= next != group[i];
+                        group[i] = next;
+                    }
+                }
+                for (int i = 0; i < words; i++) remaining[i] &= ~group[i];
+                groups++;
+                largest = Math.max(largest, count(group));
+            }
+        }
+        out[countIndex] = groups;
+        out[largestIndex] = largest;
+    }
+
+    /**
+     * Writes the cells in or next to a set, restricted to the board.
+     */
+    private void dilate(long[] from, long[] to) {
+        neighbours(from, to);
+        for (int w = 0; w < words; w++) to[w] |= from[w];
+    }
+
+    /**
+     * Writes the cells next to a cell of a set, restricted to the board.
+     */
+    private void neighbours(long[] from, long[] to) {
+        long[] shifted = scratch[7];
+        java.util.Arrays.fill(to, 0);
+        for (int shift : shifts) {
+            shiftUp(from, shift, shifted);
+            for (int w = 0; w < words; w++) to[w] |= shifted[w];
+            shiftDown(from, shift, shifted);
+            for (int w = 0; w < words; w++) to[w] |= shifted[w];
+        }
+        for (int w = 0; w < words; w++) to[w] &= valid[w];
+    }
+
+    /** Moves every bit to a higher index (shift < 64). */
+    private void shiftUp(long[] from, int shift, long[] to) {
+        for (int w = words - 1; w > 0; w--) to[w] = from[w] << shift | from[w - 1] >>> (64 - shift);
+        to[0] = from[0] << shift;
+    }
+
+    /** Moves every bit to a lower index (shift < 64). */
+    private void shiftDown(long[] from, int shift, long[] to) {
+        for (int w = 0; w < words - 1; w++) to[w] = from[w] >>> shift | from[w + 1] << (64 - shift);
+        to[words - 1] = from[words - 1] >>> shift;
+    }
+
+    private int count(long[] bits) {
+        int n = 0;
+        for (int w = 0; w < words; w++) n += Long.bitCount(bits[w]);
+        return n;
+    }
+
+    /**
+     * Computes the same features as {@link #features} with a loop over the cells and their neighbours.
+     *
+     * @param board  position
+     * @param colour RED or BLUE, the player the unprefixed features belong to
+     * @param out    receives FEATURES values
+     */
+    public static void scalarFeatures(HexBoard board, int colour, int[] out) {
+        int enemy = colour == HexBoard.RED ? HexBoard.BLUE : HexBoard.RED;
+        out[STONES] = board.stoneCount(colour);
+        out[OPPONENT_STONES] = board.stoneCount(enemy);
+        int[] group = new int[board.cellCount()];
+        scalarGroups(board, colour, group, out, GROUPS, LARGEST_GROUP);
+        scalarGroups(board, enemy, group, out, OPPONENT_GROUPS, OPPONENT_LARGEST_GROUP);
+        out[FRONTIER] = 0;
+        out[OPPONENT_FRONTIER] = 0;
+        out[MOBILITY] = 0;
+        out[OPPONENT_MOBILITY] = 0;
+        boolean empty = out[STONES] + out[OPPONENT_STONES] == 0;
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            if (board.get(cell) != HexBoard.EMPTY) continue;
+            boolean nearOwn = false, nearEnemy = false;
+            for (int neighbor : board.neighbors(cell)) {
+                nearOwn |= board.get(neighbor) == colour;
+                nearEnemy |= board.get(neighbor) == enemy;
+            }
+            if (nearEnemy) out[FRONTIER]++;
+            if (nearOwn) out[OPPONENT_FRONTIER]++;
+            if (board.isGameOver()) continue;
+            if (empty || scalarLegal(board, cell, colour)) out[MOBILITY]++;
+            if (empty || scalarLegal(board, cell, enemy)) out[OPPONENT_MOBILITY]++;
+        }
+    }
+
+    private static boolean scalarLegal(HexBoard board, int cell, int own) {
+        int enemy = own == HexBoard.RED ? HexBoard.BLUE : HexBoard.RED;
+        boolean hasFriendlyNeighbor = false;
+        for (int neighbor : board.neighbors(cell)) {
+            if (board.get(neighbor) == enemy) return true;
+            if (board.get(neighbor) == own) hasFriendlyNeighbor = true;
+        }
+        if (!hasFriendlyNeighbor) return true;
+        for (int neighbor : board.neighbors(cell)) {
+            if (board.get(neighbor) != own) continue;
+            for (int friendNeighbor : board.neighbors(neighbor)) {
+                if (board.get(friendNeighbor) == enemy) return true;
+            }
+        }
+        return false;
+    }
+
+    private static void scalarGroups(HexBoard board, int colour, int[] stack, int[] out, int countIndex, int largestIndex) {
+        boolean[] seen = new boolean[board.cellCount()];
+        int groups = 0;
+        int largest = 0;
+        for (int start = 0; start < board.cellCount(); start++) {
+            if (seen[start] || board.get(start) != colour) continue;
+            int top = 0;
+            int size = 0;
+            stack[top++] = start;
+            seen[start] = true;
+            while (top > 0) {
+                int cell = stack[--top];
+                size++;
+                for (int neighbor : board.neighbors(cell)) {
+                    if (!seen[neighbor] && board.get(neighbor) == colour) {
+                        seen[neighbor] = true;
+                        stack[top++] = neighbor;
+                    }
+                }
+            }
+            groups++;
+            largest = Math.max(largest, size);
+        }
+        out[countIndex] = groups;
+        out[largestIndex] = largest;
+    }
+}
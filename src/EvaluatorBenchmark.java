@@ -0,0 +1,61 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Measures evaluations per second of the bitboard and the scalar {@link Evaluator} features
+ * on positions taken from random games, for a range of board radii.
+ * Usage: {@code java EvaluatorBenchmark [maxRadius] [evaluations]}
+ */
+public class EvaluatorBenchmark {
+
+    /**
+     * Collects positions from the middle of random games.
+     *
+     * @param radius board radius
+     * @param count  number of positions
+     * @param seed   random seed
+     * @return boards holding the positions
+     */
+    static List<HexBoard> samplePositions(int radius, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<HexBoard> positions = new ArrayList<>();
+        HexBoard board = new HexBoard(radius);
+        int[] moves = new int[SelfPlay.MAX_MOVES];
+        while (positions.size() < count) {
+            int played = SelfPlay.playRandomGame(board, random, moves);
+            HexBoard position = new HexBoard(radius);
+            int stop = random.nextInt(played + 1);
+            for (int i = 0; i < stop; i++) position.play(moves[i]);
+            positions.add(position);
+        }
+        return positions;
+    }
+
+    public static void main(String[] args) {
+        int maxRadius = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int evaluations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int[] features = new int[Evaluator.FEATURES];
+        System.out.println("radius  cells  bitboard evals/s  scalar evals/s");
+        for (int radius = 2; radius <= maxRadius; radius++) {
+            List<HexBoard> positions = samplePositions(radius, 256, radius);
+            Evaluator evaluator = new Evaluator(BoardTopology.of(radius));
+            long sink = 0;
+            double[] rates = new double[2];
+            for (int mode = 0; mode < 2; mode++) {
+                for (int round = 0; round < 2; round++) { // the first round warms up the JIT
+                    long start = System.nanoTime();
+                    for (int i = 0; i < evaluations; i++) {
+                        HexBoard board = positions.get(i & 255);
+                        if (mode == 0) evaluator.features(board, board.toMove(), features);
+                        else Evaluator.scalarFeatures(board, board.toMove(), features);
+                        sink += features[Evaluator.MOBILITY];
+                    }
+                    rates[mode] = evaluations / ((System.nanoTime() - start) / 1e9);
+                }
+            }
+            System.out.printf("%6d  %5d  %17.0f  %14.0f%s%n", radius, BoardTopology.of(radius).cellCount(),
+                    rates[0], rates[1], sink == 42 ? " " : "");
+        }
+    }
+}
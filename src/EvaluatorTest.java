@@ -0,0 +1,72 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class EvaluatorTest {
+
+    // Checks that the bitboard features match the cell-by-cell features on random positions of many sizes
+    @Test
+    public void testBitboardMatchesScalar() {
+        int[] fast = new int[Evaluator.FEATURES];
+        int[] slow = new int[Evaluator.FEATURES];
+        for (int radius = 1; radius <= 8; radius++) {
+            Evaluator evaluator = new Evaluator(BoardTopology.of(radius));
+            for (HexBoard board : EvaluatorBenchmark.samplePositions(radius, 100, radius)) {
+                for (int colour = HexBoard.RED; colour <= HexBoard.BLUE; colour++) {
+                    evaluator.features(board, colour, fast);
+                    Evaluator.scalarFeatures(board, colour, slow);
+                    assertArrayEquals("radius " + radius + "\n" + board, slow, fast);
+                }
+            }
+        }
+    }
+
+    // Checks that mobility is the number of legal moves of the player to move
+    @Test
+    public void testMobilityCountsLegalMoves() {
+        int[] features = new int[Evaluator.FEATURES];
+        Evaluator evaluator = new Evaluator(BoardTopology.of(4));
+        int[] legal = new int[BoardTopology.of(4).cellCount()];
+        for (HexBoard board : EvaluatorBenchmark.samplePositions(4, 200, 9)) {
+            evaluator.features(board, board.toMove(), features);
+            assertEquals(board.legalMoves(legal), features[Evaluator.MOBILITY]);
+        }
+    }
+
+    // Checks groups and frontier on a small hand-made position
+    @Test
+    public void testGroupsAndFrontier() {
+        HexBoard board = new HexBoard(3);
+        int[] stones = new int[board.cellCount()];
+        stones[board.cellAt(0, 0)] = HexBoard.RED;
+        stones[board.cellAt(1, 0)] = HexBoard.RED;
+        stones[board.cellAt(-3, 0)] = HexBoard.BLUE;
+        stones[board.cellAt(3, -3)] = HexBoard.BLUE;
+        board.setPosition(stones, true);
+        int[] features = new int[Evaluator.FEATURES];
+        new Evaluator(BoardTopology.of(3)).features(board, HexBoard.RED, features);
+        assertEquals(2, features[Evaluator.STONES]);
+        assertEquals(1, features[Evaluator.GROUPS]);
+        assertEquals(2, features[Evaluator.LARGEST_GROUP]);
+        assertEquals(2, features[Evaluator.OPPONENT_GROUPS]);
+        assertEquals(1, features[Evaluator.OPPONENT_LARGEST_GROUP]);
+        // (-3,0) has 3 neighbours on the board and (3,-3) has 3
+        assertEquals(6, features[Evaluator.FRONTIER]);
+        // the red pair has 8 empty neighbours
+        assertEquals(8, features[Evaluator.OPPONENT_FRONTIER]);
+    }
+
+    // Checks that finished games score as wins and losses
+    @Test
+    public void testFinishedGameScores() {
+        HexBoard board = new HexBoard(2);
+        board.play(board.cellAt(0, 0));
+        board.play(board.cellAt(1, 0));
+        board.play(board.cellAt(-1, 0));
+        board.play(board.cellAt(-2, 2));
+        assertTrue(board.isGameOver());
+        Evaluator evaluator = new Evaluator(BoardTopology.of(2));
+        assertEquals(Evaluator.WIN_SCORE, evaluator.evaluate(board, HexBoard.RED));
+        assertEquals(-Evaluator.WIN_SCORE, evaluator.evaluate(board, HexBoard.BLUE));
+    }
+}
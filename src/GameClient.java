@@ -0,0 +1,311 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client side of the {@link GameServer} protocol. Keeps a local mirror of the game as a
+ * {@link HexBoard}, updated only from the moves the server confirms, and reports them to a listener.
+ * Moves are queued and written by the client's own writer thread, so a caller such as the event
+ * dispatch thread never waits on a slow connection.
+ */
+public class GameClient implements AutoCloseable {
+    /**
+     * Receives messages from the server on the client's reader thread.
+     */
+    public interface Listener {
+        /**
+         * Called after the server confirmed a move and the local mirror has been updated.
+         *
+         * @param colour colour that moved
+         * @param cell   cell id played
+         * @param result outcome reported by the server
+         */
+        default void moved(int colour, int cell, HexBoard.MoveResult result) {}
+
+        /**
+         * Called when the server refused one of this client's moves.
+         *
+         * @param cell   cell id that was refused
+         * @param reason MoveResult ordinal, or {@link GameProtocol#NOT_YOUR_TURN}
+         */
+        default void rejected(int cell, int reason) {}
+
+        /**
+         * Called when one of the two players has left the game.
+         *
+         * @param colour colour of the player who left
+         */
+        default void playerLeft(int colour) {}
+
+        /**
+         * Called when the connection to the server is lost.
+         */
+        default void disconnected() {}
+    }
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final int colour;
+    private final HexBoard board;
+    private final List<Integer> moves = new ArrayList<>();
+    /** Queued after the last move to make the writer send LEAVE and stop. */
+    private static final int LEAVE = -1;
+
+    private final BlockingQueue<Integer> outbox = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    /** Changed and read under {@code lock}, so a move is either in {@code moves} or reported to it. */
+    private Listener listener;
+    private volatile boolean closed = false;
+    private boolean abandoned = false;
+    private int rejections = 0;
+
+    /**
+     * Connects to a server and joins a game, creating it if needed.
+     *
+     * @param host     server host
+     * @param port     server port
+     * @param gameId   game to join
+     * @param radius   board radius used if the game is new
+     * @param listener receiver of server messages, may be null
+     * @throws IOException if the connection or handshake fails, or the server refused the radius
+     */
+    public GameClient(String host, int port, int gameId, int radius, Listener listener) throws IOException {
+        if (radius < 1 || radius > GameProtocol.MAX_RADIUS) {
+            throw new IllegalArgumentException("radius must be between 1 and " + GameProtocol.MAX_RADIUS);
+        }
+        this.listener = listener;
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        GameProtocol.writeJoin(out, gameId, radius);
+        if (in.readByte() != GameProtocol.JOINED) throw new IOException("Unexpected handshake reply");
+        colour = in.readUnsignedByte();
+        board = new HexBoard(in.readUnsignedByte());
+        int moveCount = in.readUnsignedShort();
+        for (int i = 0; i < moveCount; i++) {
+            int cell = in.readUnsignedShort();
+            board.play(cell);
+            moves.add(cell);
+        }
+        Thread.ofVirtual().name("game-client-" + gameId).start(this::readLoop);
+        writer = Thread.ofVirtual().name("game-client-writer-" + gameId).start(this::writeLoop);
+    }
+
+    /**
+     * Returns the colour this client plays.
+     *
+     * @return RED, BLUE, or EMPTY for a spectator
+     */
+    public int getColour() {
+        return colour;
+    }
+
+    /**
+     * Installs a listener and returns the moves confirmed before it, in one step: every later
+     * move reaches the listener, and no move is both in the list and reported to the listener.
+     *
+     * @param listener receiver of server messages, may be null
+     * @return copy of the confirmed move list at the time the listener was installed
+     */
+    public List<Integer> attach(Listener listener) {
+        lock.lock();
+        try {
+            this.listener = listener;
+            return new ArrayList<>(moves);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the local mirror of the game.
+     *
+     * @return board as last confirmed by the server
+     */
+    public HexBoard getBoard() {
+        lock.lock();
+        try {
+            return new HexBoard(board);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the cells played so far in the game, in order.
+     *
+     * @return copy of the confirmed move list
+     */
+    public List<Integer> getMoves() {
+        lock.lock();
+        try {
+            return new ArrayList<>(moves);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a move for the server and returns at once. The result arrives later through the listener.
+     *
+     * @param cell cell id to play
+     * @throws IOException if the connection is already closed
+     */
+    public void play(int cell) throws IOException {
+        if (closed) throw new IOException("Disconnected from server");
+        outbox.add(cell);
+    }
+
+    /**
+     * Blocks until it is this client's turn, the game is over, a player left, or the connection is closed.
+     *
+     * @return a snapshot of the board if it is this client's turn, or null if the game cannot continue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public HexBoard awaitTurn() throws InterruptedException {
+        lock.lock();
+        try {
+            while (!closed && !abandoned && !board.isGameOver() && board.toMove() != colour) {
+                changed.await();
+            }
+            return closed || abandoned || board.isGameOver() ? null : new HexBoard(board);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the mirror has seen at least a given number of moves or a rejection arrived.
+     *
+     * @param moves number of moves to wait for
+     * @param seenRejections rejection count observed before the move was sent
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void awaitMoves(int moves, int seenRejections) throws InterruptedException {
+        lock.lock();
+        try {
+            while (!closed && board.historySize() < moves && rejections == seenRejections) {
+                changed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getRejections() {
+        lock.lock();
+        try {
+            return rejections;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                int cell = outbox.take();
+                if (cell == LEAVE) {
+                    out.writeByte(GameProtocol.LEAVE);
+                    out.flush();
+                    return;
+                }
+                GameProtocol.writePlay(out, cell);
+            }
+        } catch (IOException | InterruptedException e) {
+            // connection closed; the reader thread reports it
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (true) {
+                byte op = in.readByte();
+                if (op == GameProtocol.MOVED) {
+                    int mover = in.readUnsignedByte();
+                    int cell = in.readUnsignedShort();
+                    HexBoard.MoveResult result = GameProtocol.readResult(in);
+                    Listener current;
+                    lock.lock();
+                    try {
+                        board.play(cell);
+                        moves.add(cell);
+                        current = listener;
+                        changed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (current != null) current.moved(mover, cell, result);
+                } else if (op == GameProtocol.REJECTED) {
+                    int cell = in.readUnsignedShort();
+                    int reason = in.readUnsignedByte();
+                    Listener current;
+                    lock.lock();
+                    try {
+                        rejections++;
+                        current = listener;
+                        changed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (current != null) current.rejected(cell, reason);
+                } else if (op == GameProtocol.LEFT) {
+                    int leaver = in.readUnsignedByte();
+                    Listener current;
+                    lock.lock();
+                    try {
+                        abandoned = true;
+                        current = listener;
+                        changed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                    if (current != null) current.playerLeft(leaver);
+                } else {
+                    throw new IOException("Unknown opcode " + op);
+                }
+            }
+        } catch (IOException e) {
+            // connection closed
+        } finally {
+            Listener current;
+            lock.lock();
+            try {
+                closed = true;
+                current = listener;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (current != null) current.disconnected();
+        }
+    }
+
+    /**
+     * Leaves the game and closes the connection. Moves still queued are sent first, waiting at most
+     * a second for the writer thread.
+     */
+    @Override
+    public void close() throws IOException {
+        outbox.add(LEAVE);
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        socket.close();
+    }
+}
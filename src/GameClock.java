@@ -0,0 +1,124 @@
+/**
+ * Chess-style clock for two players. One side's time runs at a time; switching sides adds the
+ * increment to the player who just finished their turn. Times are measured with
+ * {@link System#nanoTime()} and all methods are thread-safe.
+ */
+public final class GameClock {
+    private final long baseNanos;
+    private final long incrementNanos;
+    private long redNanos;
+    private long blueNanos;
+    private int running = HexBoard.EMPTY;
+    private long startedAt;
+
+    /**
+     * Creates a stopped clock with both players at the base time.
+     *
+     * @param baseMillis      time per player in milliseconds
+     * @param incrementMillis time added after each turn in milliseconds
+     */
+    public GameClock(long baseMillis, long incrementMillis) {
+        baseNanos = baseMillis * 1_000_000L;
+        incrementNanos = incrementMillis * 1_000_000L;
+        redNanos = baseNanos;
+        blueNanos = baseNanos;
+    }
+
+    /**
+     * Ends the running player's turn and starts the other player's time.
+     * The player whose time stops gets the increment.
+     *
+     * @param red true to run red's time
+     */
+    public synchronized void switchTo(boolean red) {
+        int next = red ? HexBoard.RED : HexBoard.BLUE;
+        if (running == next) return;
+        if (running != HexBoard.EMPTY) {
+            charge();
+            if (running == HexBoard.RED) redNanos += incrementNanos;
+            else blueNanos += incrementNanos;
+        }
+        running = next;
+        startedAt = System.nanoTime();
+    }
+
+    /**
+     * Runs one player's time without giving anyone the increment, for example after an undo.
+     *
+     * @param red true to run red's time
+     */
+    public synchronized void resume(boolean red) {
+        if (running != HexBoard.EMPTY) charge();
+        running = red ? HexBoard.RED : HexBoard.BLUE;
+        startedAt = System.nanoTime();
+    }
+
+    /**
+     * Stops both times.
+     */
+    public synchronized void stop() {
+        if (running != HexBoard.EMPTY) charge();
+        running = HexBoard.EMPTY;
+    }
+
+    /**
+     * Stops the clock and puts both players back at the base time.
+     */
+    public synchronized void reset() {
+        running = HexBoard.EMPTY;
+        redNanos = baseNanos;
+        blueNanos = baseNanos;
+    }
+
+    /**
+     * Returns the time a player has left, counting the running turn.
+     *
+     * @param red true for red
+     * @return remaining milliseconds, negative once the player has run out
+     */
+    public synchronized long remainingMillis(boolean red) {
+        long nanos = red ? redNanos : blueNanos;
+        if (running == (red ? HexBoard.RED : HexBoard.BLUE)) nanos -= System.nanoTime() - startedAt;
+        return nanos / 1_000_000L;
+    }
+
+    /**
+     * Checks whether a player has run out of time.
+     *
+     * @param red true for red
+     * @return true if the player's time is used up
+     */
+    public boolean isFlagged(boolean red) {
+        return remainingMillis(red) <= 0;
+    }
+
+    /**
+     * Returns the colour whose time is running.
+     *
+     * @return RED, BLUE or EMPTY when stopped
+     */
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    private void charge() {
+        long now = System.nanoTime();
+        if (running == HexBoard.RED) redNanos -= now - startedAt;
+        else blueNanos -= now - startedAt;
+        startedAt = now;
+    }
+
+    /**
+     * Formats a time for display, with tenths of a second below ten seconds.
+     *
+     * @param millis time in milliseconds
+     * @return text such as "4:05" or "0:09.3"
+     */
+    static String format(long millis) {
+        long clamped = Math.max(0, millis);
+        long minutes = clamped / 60000;
+        long seconds = clamped / 1000 % 60;
+        if (clamped < 10000) return String.format("%d:%02d.%d", minutes, seconds, clamped / 100 % 10);
+        return String.format("%d:%02d", minutes, seconds);
+    }
+}
@@ -0,0 +1,284 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary file of recorded games. A game is fully described by the cells played in order,
+ * since captures and extra moves follow from the rules, so each record is:
+ * <pre>
+ *   u16 moveCount, u8 winner (EMPTY, RED or BLUE), moveCount x cell (u8, or u16 on boards over 255 cells)
+ * </pre>
+ * after a 8-byte header: int magic, u8 version, u8 radius, u8 cell width, u8 reserved.
+ * Readers memory-map the file in chunks and visit games without creating per-move objects.
+ */
+public final class GameCorpus {
+    static final int MAGIC = 0x48584743; // "HXGC"
+    static final int VERSION = 1;
+    static final int HEADER = 8;
+    /** Largest mapped chunk of records, as for the tables of {@link Tablebase}. */
+    static final long CHUNK_SIZE = 1L << 30;
+
+    private GameCorpus() {}
+
+    /**
+     * Receives games from {@link Reader#forEach(Visitor)}.
+     */
+    public interface Visitor {
+        /**
+         * Called once per game. The moves array is reused for the next game.
+         *
+         * @param moves     cells played, in order
+         * @param moveCount number of valid entries in moves
+         * @param winner    EMPTY, RED or BLUE
+         */
+        void game(int[] moves, int moveCount, int winner);
+    }
+
+    /**
+     * Appends games to a corpus file.
+     */
+    public static final class Writer implements AutoCloseable {
+        private final DataOutputStream out;
+        private final int cellWidth;
+        private long games = 0;
+
+        /**
+         * Creates a new corpus file, replacing any existing one.
+         *
+         * @param path   file to write
+         * @param radius board radius of the games
+         * @throws IOException if the file cannot be created
+         */
+        public Writer(Path path, int radius) throws IOException {
+            this(Files.newOutputStream(path), radius);
+        }
+
+        /**
+         * Writes a corpus to a stream, for example a pipe to another process.
+         *
+         * @param stream destination
+         * @param radius board radius of the games
+         * @throws IOException if the header cannot be written
+         */
+        public Writer(OutputStream stream, int radius) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            cellWidth = BoardTopology.of(radius).cellCount() > 255 ? 2 : 1;
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(radius);
+            out.writeByte(cellWidth);
+            out.writeByte(0);
+        }
+
+        /**
+         * Appends one game.
+         *
+         * @param moves     cells played, in order
+         * @param moveCount number of moves
+         * @param winner    EMPTY, RED or BLUE
+         * @throws IOException if writing fails
+         */
+        public void write(int[] moves, int moveCount, int winner) throws IOException {
+            out.writeShort(moveCount);
+            out.writeByte(winner);
+            for (int i = 0; i < moveCount; i++) {
+                if (cellWidth == 1) out.writeByte(moves[i]);
+                else out.writeShort(moves[i]);
+            }
+            games++;
+        }
+
+        /**
+         * Appends records that were already encoded by another writer with the same cell width,
+         * for example a batch received from a worker process.
+         *
+         * @param records encoded records without a header
+         * @param offset  start of the first record
+         * @param length  number of bytes
+         * @param count   number of games in the records
+         * @throws IOException if writing fails
+         */
+        void writeRecords(byte[] records, int offset, int length, int count) throws IOException {
+            out.write(records, offset, length);
+            games += count;
+        }
+
+        int getCellWidth() {
+            return cellWidth;
+        }
+
+        public long getGameCount() {
+            return games;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Memory-mapped, read-only view of a corpus file. The records are mapped in chunks of at
+     * most {@link #CHUNK_SIZE} bytes, each ending on a record boundary, so files of any size can
+     * be read. A record position is the chunk number in the high 32 bits and the offset within
+     * that chunk in the low 32 bits; positions grow in file order, and a position just past the
+     * end of a chunk is written as the start of the next one.
+     */
+    public static final class Reader {
+        private final ByteBuffer[] chunks;
+        private final int radius;
+        private final int cellWidth;
+
+        /**
+         * Maps a corpus file.
+         *
+         * @param path corpus file
+         * @throws IOException if the file cannot be read or is not a corpus
+         */
+        public Reader(Path path) throws IOException {
+            this(path, CHUNK_SIZE);
+        }
+
+        /**
+         * Maps a corpus file in chunks of a given size.
+         *
+         * @param path      corpus file
+         * @param chunkSize largest chunk in bytes, at most {@link #CHUNK_SIZE}
+         * @throws IOException if the file cannot be read, is not a corpus, or holds a record larger than a chunk
+         */
+        Reader(Path path, long chunkSize) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                ByteBuffer header = size < HEADER ? null : channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+                if (header == null || header.getInt(0) != MAGIC || header.get(4) != VERSION) {
+                    throw new IOException("Not a game corpus: " + path);
+                }
+                radius = header.get(5);
+                cellWidth = header.get(6);
+                List<ByteBuffer> mapped = new ArrayList<>();
+                for (long start = HEADER; start < size; ) {
+                    int length = (int) Math.min(chunkSize, size - start);
+                    MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                    chunk.order(ByteOrder.BIG_ENDIAN);
+                    if (start + length < size) {
+                        // cut after the last record that lies wholly inside the chunk
+                        int end = 0;
+                        while (end + 2 <= length) {
+                            long next = end + 3L + (chunk.getShort(end) & 0xFFFF) * cellWidth;
+                            if (next > length) break;
+                            end = (int) next;
+                        }
+                        if (end == 0) throw new IOException("Corpus record larger than a chunk at byte " + start);
+                        chunk.limit(end);
+                        length = end;
+                    }
+                    mapped.add(chunk);
+                    start += length;
+                }
+                chunks = mapped.toArray(new ByteBuffer[0]);
+            }
+        }
+
+        public int getRadius() {
+            return radius;
+        }
+
+        int getCellWidth() {
+            return cellWidth;
+        }
+
+        /**
+         * Returns the number of mapped chunks.
+         *
+         * @return chunk count, 0 for a corpus without games
+         */
+        int chunkCount() {
+            return chunks.length;
+        }
+
+        /**
+         * Visits every game in file order.
+         *
+         * @param visitor receiver of the games
+         */
+        public void forEach(Visitor visitor) {
+            forEach(start(), end(), visitor);
+        }
+
+        /**
+         * Visits the games stored between two record positions.
+         *
+         * @param start   position of the first record
+         * @param end     position just after the last record
+         * @param visitor receiver of the games
+         */
+        void forEach(long start, long end, Visitor visitor) {
+            int[] moves = new int[1024];
+            long position = start;
+            while (position < end) {
+                int chunk = (int) (position >>> 32);
+                ByteBuffer data = chunks[chunk];
+                int offset = (int) position;
+                int count = data.getShort(offset) & 0xFFFF;
+                int winner = data.get(offset + 2);
+                offset += 3;
+                if (moves.length < count) moves = new int[count];
+                for (int i = 0; i < count; i++) {
+                    if (cellWidth == 1) {
+                        moves[i] = data.get(offset) & 0xFF;
+                        offset++;
+                    } else {
+                        moves[i] = data.getShort(offset) & 0xFFFF;
+                        offset += 2;
+                    }
+                }
+                visitor.game(moves, count, winner);
+                position = position(chunk, offset);
+            }
+        }
+
+        private long position(int chunk, int offset) {
+            return offset < chunks[chunk].limit() ? (long) chunk << 32 | offset : (long) (chunk + 1) << 32;
+        }
+
+        /**
+         * Returns the position of the first record.
+         *
+         * @return start position
+         */
+        long start() {
+            return 0;
+        }
+
+        /**
+         * Returns the position just after the record at a given position.
+         *
+         * @param position position of a record
+         * @return position of the next record
+         */
+        long nextRecord(long position) {
+            int chunk = (int) (position >>> 32);
+            int offset = (int) position;
+            return position(chunk, offset + 3 + (chunks[chunk].getShort(offset) & 0xFFFF) * cellWidth);
+        }
+
+        /**
+         * Returns the position just past the last record.
+         *
+         * @return end position
+         */
+        long end() {
+            return (long) chunks.length << 32;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Immutable description of a single change in a game's state.
+ * Published by {@link GameEventPublisher} to spectators, loggers and other consumers.
+ */
+public final class GameEvent {
+    /**
+     * Kinds of state change a game can go through.
+     */
+    public enum Type {
+        STONE_PLACED,
+        STONES_CAPTURED,
+        TURN_CHANGED,
+        MOVE_UNDONE,
+        GAME_OVER,
+        GAME_RESET
+    }
+
+    /**
+     * Constructs a GameEvent.
+     *
+     * @param sequence position of the event in the stream, starting at 0
+     * @param type     kind of event
+     * @param cell     cell involved, or null if the event is not about a single cell
+     * @param isRed    player the event refers to (placer, capturer, player to move or winner)
+     * @param captured stones removed by a capture, empty for other events
+     */
+    public GameEvent(long sequence, Type type, Point cell, boolean isRed, Set<Point> captured) {
+        this.sequence = sequence;
+        this.type = type;
+        this.cell = cell;
+        this.isRed = isRed;
+        this.captured = captured == null ? Collections.emptySet() : captured;
+        this.timestampNanos = System.nanoTime();
+    }
+    public final long sequence;
+    public final Type type;
+    public final Point cell;
+    public final boolean isRed;
+    public final Set<Point> captured;
+    public final long timestampNanos;
+
+    @Override
+    public String toString() {
+        return "GameEvent{" + sequence + " " + type + (isRed ? " red" : " blue")
+                + (cell != null ? " at (" + cell.x + ", " + cell.y + ")" : "")
+                + (captured.isEmpty() ? "" : " captured=" + captured.size()) + "}";
+    }
+}
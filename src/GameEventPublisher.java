@@ -0,0 +1,124 @@
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes every state change of a game as a {@link GameEvent} through a {@link Flow.Publisher}.
+ * Register it on a {@link HexGrid} with {@code addGameListener}. Each subscriber gets its own
+ * bounded buffer and is served on a background thread, so the game never waits for a consumer:
+ * when a subscriber's buffer is full the event is dropped for that subscriber and counted.
+ */
+public class GameEventPublisher implements GameListener, Flow.Publisher<GameEvent>, AutoCloseable {
+    /**
+     * Default number of events buffered per subscriber.
+     */
+    public static final int DEFAULT_BUFFER = 256;
+
+    private final SubmissionPublisher<GameEvent> publisher;
+    private final ExecutorService executor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Constructs a publisher with the default per-subscriber buffer size.
+     */
+    public GameEventPublisher() {
+        this(DEFAULT_BUFFER);
+    }
+
+    /**
+     * Constructs a publisher with the given per-subscriber buffer size.
+     *
+     * @param bufferSize maximum events buffered for each subscriber (rounded up to a power of two)
+     */
+    public GameEventPublisher(int bufferSize) {
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "game-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher = new SubmissionPublisher<>(executor, bufferSize);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Returns how many events were dropped because a subscriber's buffer was full.
+     *
+     * @return total dropped deliveries over all subscribers
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of current subscribers.
+     *
+     * @return subscriber count
+     */
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Offers an event to all subscribers without blocking the caller.
+     *
+     * @param type     kind of event
+     * @param cell     cell involved, or null
+     * @param isRed    player the event refers to
+     * @param captured captured stones, or null
+     */
+    private void publish(GameEvent.Type type, Point cell, boolean isRed, Set<Point> captured) {
+        if (publisher.isClosed()) return;
+        GameEvent event = new GameEvent(sequence.getAndIncrement(), type, cell, isRed, captured);
+        publisher.offer(event, (subscriber, item) -> {
+            dropped.incrementAndGet();
+            return false; // never retry, the game loop must not wait
+        });
+    }
+
+    @Override
+    public void stonePlaced(Point cell, boolean isRed) {
+        publish(GameEvent.Type.STONE_PLACED, cell, isRed, null);
+    }
+
+    @Override
+    public void stonesCaptured(Set<Point> captured, boolean byRed) {
+        publish(GameEvent.Type.STONES_CAPTURED, null, byRed, captured);
+    }
+
+    @Override
+    public void turnChanged(boolean isRedTurn) {
+        publish(GameEvent.Type.TURN_CHANGED, null, isRedTurn, null);
+    }
+
+    @Override
+    public void moveUndone() {
+        publish(GameEvent.Type.MOVE_UNDONE, null, false, null);
+    }
+
+    @Override
+    public void gameOver(boolean redWins) {
+        publish(GameEvent.Type.GAME_OVER, null, redWins, null);
+    }
+
+    @Override
+    public void gameReset() {
+        publish(GameEvent.Type.GAME_RESET, null, true, null);
+    }
+
+    /**
+     * Completes all subscriptions and stops the delivery threads.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,106 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+
+public class GameEventPublisherTest {
+
+    private HexGrid hexGrid;
+    private Point first;
+    private Point second;
+
+    @Before
+    public void setUp() {
+        Layout layout = new Layout(Layout.flat, new Point(25, 25), new Point(300, 300));
+        ArrayList<ArrayList<Point>> hexagons = new ArrayList<>();
+        hexagons.add(layout.polygonCorners(new HexCube(0, 0, 0)));
+        hexagons.add(layout.polygonCorners(new HexCube(1, 0, -1)));
+        hexGrid = new HexGrid(hexagons);
+        first = hexGrid.getHexCenter(hexagons.get(0));
+        second = hexGrid.getHexCenter(hexagons.get(1));
+    }
+
+    // Subscriber that requests everything and collects the events
+    private static class CollectingSubscriber implements Flow.Subscriber<GameEvent> {
+        final List<GameEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch;
+
+        CollectingSubscriber(int expected) {
+            latch = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) { subscription.request(Long.MAX_VALUE); }
+
+        @Override
+        public void onNext(GameEvent item) {
+            events.add(item);
+            latch.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {}
+
+        @Override
+        public void onComplete() {}
+    }
+
+    // Checks that placements, turn changes and undo arrive in order with increasing sequence numbers
+    @Test
+    public void testEventsPublishedInOrder() throws InterruptedException {
+        CollectingSubscriber subscriber = new CollectingSubscriber(5);
+        hexGrid.getEventStream().subscribe(subscriber);
+
+        hexGrid.placeStone(first);
+        hexGrid.placeStone(second);
+        hexGrid.undoLastMove();
+
+        assertTrue(subscriber.latch.await(5, TimeUnit.SECONDS));
+        assertEquals(GameEvent.Type.STONE_PLACED, subscriber.events.get(0).type);
+        assertTrue(subscriber.events.get(0).isRed);
+        assertEquals(first, subscriber.events.get(0).cell);
+        assertEquals(GameEvent.Type.TURN_CHANGED, subscriber.events.get(1).type);
+        assertFalse(subscriber.events.get(1).isRed);
+        assertEquals(GameEvent.Type.STONE_PLACED, subscriber.events.get(2).type);
+        assertEquals(GameEvent.Type.MOVE_UNDONE, subscriber.events.get(4).type);
+        for (int i = 0; i < subscriber.events.size(); i++) {
+            assertEquals(i, subscriber.events.get(i).sequence);
+        }
+        hexGrid.getEventStream().close();
+    }
+
+    // Checks that a subscriber which never requests events cannot block the game
+    @Test
+    public void testSlowSubscriberDropsInsteadOfBlocking() {
+        GameEventPublisher publisher = new GameEventPublisher(1);
+        hexGrid.addGameListener(publisher);
+        publisher.subscribe(new Flow.Subscriber<GameEvent>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {}
+
+            @Override
+            public void onNext(GameEvent item) {}
+
+            @Override
+            public void onError(Throwable throwable) {}
+
+            @Override
+            public void onComplete() {}
+        });
+
+        for (int i = 0; i < 50; i++) {
+            hexGrid.placeStone(first);
+            hexGrid.undoLastMove();
+        }
+
+        assertTrue(hexGrid.redStones.isEmpty());
+        assertTrue(publisher.getDroppedCount() > 0);
+        publisher.close();
+    }
+}
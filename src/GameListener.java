@@ -0,0 +1,56 @@
+import java.util.Set;
+
+/**
+ * Receives game events from a {@link HexGrid} panel.
+ * All methods have empty default implementations so listeners only override what they need.
+ * Events are delivered on the thread that changed the game state (normally the Swing EDT).
+ */
+public interface GameListener {
+    /**
+     * Called after a stone has been placed on the board.
+     *
+     * @param cell  center of the cell the stone was placed on
+     * @param isRed true if the stone is red, false if blue
+     */
+    default void stonePlaced(Point cell, boolean isRed) {}
+
+    /**
+     * Called after a group of opponent stones has been removed by a capture.
+     *
+     * @param captured stones that were removed
+     * @param byRed    true if red made the capture
+     */
+    default void stonesCaptured(Set<Point> captured, boolean byRed) {}
+
+    /**
+     * Called when the player to move changes.
+     *
+     * @param isRedTurn true if it is now red's turn
+     */
+    default void turnChanged(boolean isRedTurn) {}
+
+    /**
+     * Called when a placement is refused by the rules.
+     *
+     * @param cell   center of the refused cell
+     * @param reason short human readable reason
+     */
+    default void moveRejected(Point cell, String reason) {}
+
+    /**
+     * Called after the last move has been undone.
+     */
+    default void moveUndone() {}
+
+    /**
+     * Called when one player has no stones left.
+     *
+     * @param redWins true if red won the game
+     */
+    default void gameOver(boolean redWins) {}
+
+    /**
+     * Called after the board has been cleared for a new game.
+     */
+    default void gameReset() {}
+}
@@ -0,0 +1,68 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Compact binary protocol spoken between {@link GameServer} and {@link GameClient}.
+ * Every message is one opcode byte followed by a fixed-size payload:
+ * <pre>
+ *   client -> server
+ *     JOIN     int gameId, byte radius
+ *     PLAY     short cell
+ *     LEAVE    (no payload)
+ *   server -> client
+ *     JOINED   byte colour (RED, BLUE or EMPTY for spectators), byte radius, short moveCount, moveCount x short cell
+ *     MOVED    byte colour, short cell, byte MoveResult ordinal
+ *     REJECTED short cell, byte reason (MoveResult ordinal or NOT_YOUR_TURN)
+ *     LEFT     byte colour of the player who left
+ * </pre>
+ * The server closes the connection instead of replying JOINED when the radius is outside
+ * 1 to {@link #MAX_RADIUS}.
+ */
+final class GameProtocol {
+    static final byte JOIN = 1;
+    static final byte PLAY = 2;
+    static final byte LEAVE = 3;
+    static final byte JOINED = 11;
+    static final byte MOVED = 12;
+    static final byte REJECTED = 13;
+    static final byte LEFT = 14;
+
+    /** Largest board radius whose cell ids fit in the protocol's unsigned short. */
+    static final int MAX_RADIUS = 147;
+
+    /** Rejection reason sent when a player moves out of turn or as a spectator. */
+    static final byte NOT_YOUR_TURN = 127;
+
+    private GameProtocol() {}
+
+    static void writeJoin(DataOutputStream out, int gameId, int radius) throws IOException {
+        out.writeByte(JOIN);
+        out.writeInt(gameId);
+        out.writeByte(radius);
+        out.flush();
+    }
+
+    static void writePlay(DataOutputStream out, int cell) throws IOException {
+        out.writeByte(PLAY);
+        out.writeShort(cell);
+        out.flush();
+    }
+
+    static void writeMoved(DataOutputStream out, int colour, int cell, HexBoard.MoveResult result) throws IOException {
+        out.writeByte(MOVED);
+        out.writeByte(colour);
+        out.writeShort(cell);
+        out.writeByte(result.ordinal());
+    }
+
+    static void writeRejected(DataOutputStream out, int cell, int reason) throws IOException {
+        out.writeByte(REJECTED);
+        out.writeShort(cell);
+        out.writeByte(reason);
+    }
+
+    static HexBoard.MoveResult readResult(DataInputStream in) throws IOException {
+        return HexBoard.MoveResult.values()[in.readUnsignedByte()];
+    }
+}
@@ -0,0 +1,160 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A recorded game that can be viewed at any move. Instead of a full board copy per move, the
+ * position is stored every {@link #KEYFRAME_INTERVAL} moves as a keyframe, and the moves in
+ * between are the deltas. Seeking restores at most one keyframe and plays fewer than
+ * KEYFRAME_INTERVAL moves; stepping within the current segment plays or undoes only the moves
+ * in between, so scrubbing one move at a time costs one move. Seeking does not allocate.
+ */
+public final class GameReplay {
+    /** Moves between two keyframes. */
+    static final int KEYFRAME_INTERVAL = 32;
+
+    private final HexBoard board;
+    private final int[] moves;
+    private final int length;
+    private final int winner;
+    /** Cell contents of every keyframe, one row of cellCount bytes per keyframe. */
+    private final byte[] keyframes;
+    private final boolean[] keyframeRedTurn;
+    private final int[] scratch;
+    private int ply = 0;
+    /** Ply of the last restored keyframe; the board can undo back to it. */
+    private int restored = 0;
+
+    /**
+     * Builds a replay of a game, playing it once to record the keyframes. Recording stops at
+     * the first move that cannot be placed.
+     *
+     * @param topology  board cells
+     * @param moves     cells played, in order
+     * @param moveCount number of moves
+     * @param winner    recorded result: EMPTY, RED or BLUE
+     */
+    public GameReplay(BoardTopology topology, int[] moves, int moveCount, int winner) {
+        this.board = new HexBoard(topology);
+        this.winner = winner;
+        int cells = topology.cellCount();
+        byte[] frames = new byte[(moveCount / KEYFRAME_INTERVAL + 1) * cells];
+        boolean[] frameTurns = new boolean[moveCount / KEYFRAME_INTERVAL + 1];
+        int played = 0;
+        while (true) {
+            if (played % KEYFRAME_INTERVAL == 0) {
+                int frame = played / KEYFRAME_INTERVAL;
+                for (int cell = 0; cell < cells; cell++) frames[frame * cells + cell] = (byte) board.get(cell);
+                frameTurns[frame] = board.isRedTurn();
+            }
+            if (played == moveCount || !board.play(moves[played]).isPlaced()) break;
+            played++;
+        }
+        this.length = played;
+        this.moves = java.util.Arrays.copyOf(moves, played);
+        int kept = played / KEYFRAME_INTERVAL + 1;
+        this.keyframes = java.util.Arrays.copyOf(frames, kept * cells);
+        this.keyframeRedTurn = java.util.Arrays.copyOf(frameTurns, kept);
+        this.scratch = new int[cells];
+        restore(0);
+    }
+
+    /**
+     * Loads one game of a corpus.
+     *
+     * @param corpus recorded games
+     * @param index  game number, starting at 0
+     * @return replay of the game
+     */
+    public static GameReplay load(GameCorpus.Reader corpus, int index) {
+        long position = corpus.start();
+        for (int i = 0; i < index; i++) {
+            if (position >= corpus.end()) break;
+            position = corpus.nextRecord(position);
+        }
+        if (position >= corpus.end()) throw new IllegalArgumentException("corpus has no game " + index);
+        GameReplay[] replay = new GameReplay[1];
+        BoardTopology topology = BoardTopology.of(corpus.getRadius());
+        corpus.forEach(position, corpus.nextRecord(position),
+                (moves, count, winner) -> replay[0] = new GameReplay(topology, moves, count, winner));
+        return replay[0];
+    }
+
+    /**
+     * Loads a game from a corpus file.
+     *
+     * @param path  corpus file
+     * @param index game number, starting at 0
+     * @return replay of the game
+     * @throws IOException if the file cannot be read
+     */
+    public static GameReplay load(Path path, int index) throws IOException {
+        return load(new GameCorpus.Reader(path), index);
+    }
+
+    private void restore(int frame) {
+        int cells = scratch.length;
+        for (int cell = 0; cell < cells; cell++) scratch[cell] = keyframes[frame * cells + cell];
+        board.setPosition(scratch, keyframeRedTurn[frame]);
+        ply = frame * KEYFRAME_INTERVAL;
+        restored = ply;
+    }
+
+    /**
+     * Moves the replay to the position after a number of moves.
+     *
+     * @param target number of moves played, 0 to {@link #length()}
+     * @return the replay's board at that position; read only, changed by the next seek
+     */
+    public HexBoard seek(int target) {
+        if (target < 0 || target > length) throw new IndexOutOfBoundsException("no move " + target + " in a game of " + length);
+        int frame = target / KEYFRAME_INTERVAL;
+        int frameStart = frame * KEYFRAME_INTERVAL;
+        // Play forward within the target's segment, or undo back to the restored keyframe
+        boolean reachable = target >= ply ? ply >= frameStart : target >= restored;
+        if (!reachable) restore(frame);
+        while (ply > target) {
+            board.undo();
+            ply--;
+        }
+        while (ply < target) {
+            board.play(moves[ply]);
+            ply++;
+        }
+        return board;
+    }
+
+    public HexBoard getBoard() {
+        return board;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Returns the number of moves in the game.
+     *
+     * @return move count
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns a move of the game.
+     *
+     * @param index move number, starting at 0
+     * @return cell played
+     */
+    public int move(int index) {
+        return moves[index];
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    public int keyframeCount() {
+        return keyframeRedTurn.length;
+    }
+}
@@ -0,0 +1,71 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.SplittableRandom;
+
+
+public class GameReplayTest {
+
+    private static String[] positions(HexBoard board, int[] moves, int count) {
+        String[] positions = new String[count + 1];
+        board.reset();
+        positions[0] = board.toString() + board.isRedTurn();
+        for (int i = 0; i < count; i++) {
+            board.play(moves[i]);
+            positions[i + 1] = board.toString() + board.isRedTurn();
+        }
+        return positions;
+    }
+
+    // Checks that seeking in any order gives the same positions as playing the game through
+    @Test
+    public void testSeekMatchesPlayedPositions() {
+        HexBoard board = new HexBoard(6);
+        int[] moves = new int[SelfPlay.MAX_MOVES];
+        SplittableRandom games = new SplittableRandom(9);
+        int count;
+        do {
+            count = SelfPlay.playRandomGame(board, games, moves);
+        } while (count < 3 * GameReplay.KEYFRAME_INTERVAL);
+        String[] expected = positions(board, moves, count);
+
+        GameReplay replay = new GameReplay(board.getTopology(), moves, count, board.getWinner());
+        assertEquals(count, replay.length());
+        assertEquals(count / GameReplay.KEYFRAME_INTERVAL + 1, replay.keyframeCount());
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 500; i++) {
+            int ply = random.nextInt(count + 1);
+            assertEquals("ply " + ply, expected[ply], replay.seek(ply).toString() + replay.getBoard().isRedTurn());
+            assertEquals(ply, replay.getPly());
+        }
+        for (int ply = count; ply >= 0; ply--) {
+            assertEquals(expected[ply], replay.seek(ply).toString() + replay.getBoard().isRedTurn());
+        }
+        assertTrue(replay.seek(count).isGameOver() == (board.getWinner() != HexBoard.EMPTY));
+    }
+
+    // Checks that a game is loaded from a corpus by index and illegal tails are cut off
+    @Test
+    public void testLoadFromCorpus() throws Exception {
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("corpus", ".hxgc");
+        try {
+            int[] moves = new int[SelfPlay.MAX_MOVES];
+            HexBoard board = new HexBoard(3);
+            SplittableRandom random = new SplittableRandom(5);
+            int[] lengths = new int[3];
+            try (GameCorpus.Writer writer = new GameCorpus.Writer(file, 3)) {
+                for (int game = 0; game < 3; game++) {
+                    lengths[game] = SelfPlay.playRandomGame(board, random, moves);
+                    writer.write(moves, lengths[game], board.getWinner());
+                }
+            }
+            GameReplay replay = GameReplay.load(file, 2);
+            assertEquals(lengths[2], replay.length());
+            assertEquals(board.toString(), replay.seek(replay.length()).toString());
+
+            int[] broken = {0, 0, 5};
+            assertEquals(1, new GameReplay(BoardTopology.of(3), broken, 3, HexBoard.EMPTY).length());
+        } finally {
+            java.nio.file.Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Network game server holding the authoritative state of many games as {@link HexBoard}s.
+ * Every connection is served by its own virtual thread, so thousands of concurrent games
+ * cost only their board state. The first client joining a game plays red, the second blue,
+ * and any further clients watch as spectators. Messages to a client are queued under the game's
+ * lock and written by the client's own writer thread, so a client that stops reading never holds
+ * up the rest of its game; one that falls {@link #MAX_QUEUED} messages behind is disconnected.
+ */
+public class GameServer implements AutoCloseable {
+    /** Messages that may wait for one client before it is disconnected as too slow. */
+    static final int MAX_QUEUED = 4096;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<Integer, Game> games = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    /**
+     * One game shared by its connected clients. All access goes through {@code lock}.
+     */
+    private static class Game {
+        final HexBoard board;
+        final ReentrantLock lock = new ReentrantLock();
+        final List<Connection> members = new ArrayList<>();
+        final List<Integer> moves = new ArrayList<>();
+        Connection red;
+        Connection blue;
+
+        Game(int radius) {
+            board = new HexBoard(radius);
+        }
+    }
+
+    /**
+     * A connected client. Any member's thread may queue messages for it; only its writer thread
+     * writes them to the socket, flushing once the queue is drained.
+     */
+    private static class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        final BlockingQueue<Message> outbox = new ArrayBlockingQueue<>(MAX_QUEUED);
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        /**
+         * Writes queued messages until the connection is closed.
+         */
+        void writeLoop() {
+            try {
+                while (true) {
+                    Message message = outbox.take();
+                    if (message == CLOSE) break;
+                    message.write(out);
+                    if (outbox.isEmpty()) out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // the reader thread notices the broken socket and leaves
+            }
+        }
+    }
+
+    /**
+     * Starts a server on the loopback interface.
+     *
+     * @param port TCP port, or 0 to pick a free one
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port) throws IOException {
+        this(port, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Starts a server on a given address.
+     *
+     * @param port    TCP port, or 0 to pick a free one
+     * @param address local address to bind
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, InetAddress address) throws IOException {
+        serverSocket = new ServerSocket(port, 1024, address);
+        Thread.ofVirtual().name("game-server-accept").start(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of games that currently have at least one client.
+     *
+     * @return active game count
+     */
+    public int getGameCount() {
+        return games.size();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.submit(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) System.err.println("Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Handles one client from JOIN until it leaves or disconnects.
+     *
+     * @param socket client socket
+     */
+    private void serve(Socket socket) {
+        Game game = null;
+        Connection connection = null;
+        try {
+            connection = new Connection(socket);
+            if (connection.in.readByte() != GameProtocol.JOIN) return;
+            int gameId = connection.in.readInt();
+            int radius = connection.in.readUnsignedByte();
+            if (radius < 1 || radius > GameProtocol.MAX_RADIUS) return;
+            connections.submit(connection::writeLoop);
+            game = join(gameId, radius, connection);
+
+            while (running) {
+                byte op = connection.in.readByte();
+                if (op == GameProtocol.PLAY) {
+                    play(game, connection, connection.in.readUnsignedShort());
+                } else {
+                    break;
+                }
+            }
+        } catch (EOFException | SocketException e) {
+            // client went away
+        } catch (IOException e) {
+            System.err.println("Connection failed: " + e.getMessage());
+        } finally {
+            if (game != null) leave(game, connection);
+            if (connection != null) connection.outbox.offer(CLOSE);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private Game join(int gameId, int radius, Connection connection) {
+        Game game = games.computeIfAbsent(gameId, id -> new Game(radius));
+        game.lock.lock();
+        try {
+            if (games.get(gameId) != game) {
+                // the last member left between lookup and lock, start over with a fresh game
+                return join(gameId, radius, connection);
+            }
+            game.members.add(connection);
+            int colour = HexBoard.EMPTY;
+            if (game.red == null) {
+                game.red = connection;
+                colour = HexBoard.RED;
+            } else if (game.blue == null) {
+                game.blue = connection;
+                colour = HexBoard.BLUE;
+            }
+            int joinedAs = colour;
+            int size = game.board.getRadius();
+            int[] moves = game.moves.stream().mapToInt(Integer::intValue).toArray();
+            send(connection, out -> {
+                out.writeByte(GameProtocol.JOINED);
+                out.writeByte(joinedAs);
+                out.writeByte(size);
+                out.writeShort(moves.length);
+                for (int cell : moves) out.writeShort(cell);
+            });
+        } finally {
+            game.lock.unlock();
+        }
+        return game;
+    }
+
+    private void play(Game game, Connection connection, int cell) {
+        game.lock.lock();
+        try {
+            int colour = game.board.toMove();
+            Connection expected = colour == HexBoard.RED ? game.red : game.blue;
+            if (expected != connection) {
+                send(connection, out -> GameProtocol.writeRejected(out, cell, GameProtocol.NOT_YOUR_TURN));
+                return;
+            }
+            HexBoard.MoveResult result = game.board.play(cell);
+            if (!result.isPlaced()) {
+                send(connection, out -> GameProtocol.writeRejected(out, cell, result.ordinal()));
+                return;
+            }
+            game.moves.add(cell);
+            for (Connection member : game.members) {
+                send(member, out -> GameProtocol.writeMoved(out, colour, cell, result));
+            }
+        } finally {
+            game.lock.unlock();
+        }
+    }
+
+    private void leave(Game game, Connection connection) {
+        game.lock.lock();
+        try {
+            game.members.remove(connection);
+            int colour = connection == game.red ? HexBoard.RED : connection == game.blue ? HexBoard.BLUE : HexBoard.EMPTY;
+            if (colour != HexBoard.EMPTY) {
+                for (Connection member : game.members) {
+                    send(member, out -> {
+                        out.writeByte(GameProtocol.LEFT);
+                        out.writeByte(colour);
+                    });
+                }
+            }
+            if (game.members.isEmpty()) games.values().remove(game);
+        } finally {
+            game.lock.unlock();
+        }
+    }
+
+    private interface Message {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /** Queued last to stop a connection's writer thread. */
+    private static final Message CLOSE = out -> {};
+
+    /**
+     * Queues a message for one client without blocking. A client whose queue is full is
+     * disconnected; its reader thread then fails and leaves the game.
+     */
+    private static void send(Connection connection, Message message) {
+        if (connection.outbox.offer(message)) return;
+        try {
+            connection.socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Stops accepting connections and disconnects all clients.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    /**
+     * Runs a standalone server. It listens on the loopback interface only, since games are not
+     * authenticated; pass a bind address such as 0.0.0.0 to accept other machines on purpose.
+     *
+     * @param args optional port (default 7070) and bind address (default loopback)
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        InetAddress address = args.length > 1 ? InetAddress.getByName(args[1]) : InetAddress.getLoopbackAddress();
+        GameServer server = new GameServer(port, address);
+        System.out.println("Hex-Oust server listening on " + address.getHostAddress() + " port " + server.getPort());
+        try {
+            Thread.currentThread().join(); // the accept loop runs on a daemon virtual thread
+        } catch (InterruptedException e) {
+            server.close();
+        }
+    }
+}
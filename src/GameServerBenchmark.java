@@ -0,0 +1,107 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Load test for {@link GameServer}: plays many concurrent random games over loopback with
+ * simulated clients and reports throughput and per-move round-trip latency.
+ * Usage: {@code java GameServerBenchmark [games] [radius] [maxMoves]}
+ */
+public class GameServerBenchmark {
+
+    /**
+     * Plays one side of a game with random legal moves until the game ends or the move limit is hit.
+     *
+     * @param client    joined client
+     * @param seed      random seed for move choice
+     * @param maxMoves  stop after the game reaches this many moves
+     * @param latencies receives the round-trip time in nanoseconds of each of this side's moves, may be null
+     * @param count     number of latencies written so far, shared between players
+     * @return number of moves this side played
+     */
+    static int playRandomSide(GameClient client, long seed, int maxMoves, long[] latencies, AtomicLong count)
+            throws IOException, InterruptedException {
+        Random random = new Random(seed);
+        int played = 0;
+        while (true) {
+            HexBoard board = client.awaitTurn();
+            if (board == null || board.historySize() >= maxMoves) return played;
+            int[] legal = new int[board.cellCount()];
+            int n = board.legalMoves(legal);
+            if (n == 0) return played;
+            int rejections = client.getRejections();
+            long start = System.nanoTime();
+            client.play(legal[random.nextInt(n)]);
+            client.awaitMoves(board.historySize() + 1, rejections);
+            long elapsed = System.nanoTime() - start;
+            if (latencies != null) {
+                long slot = count.getAndIncrement();
+                if (slot < latencies.length) latencies[(int) slot] = elapsed;
+            }
+            played++;
+        }
+    }
+
+    /**
+     * Plays a number of concurrent two-client games against a server.
+     *
+     * @param port      server port
+     * @param games     number of concurrent games
+     * @param radius    board radius
+     * @param maxMoves  move limit per game
+     * @param latencies receives per-move latencies, may be null
+     * @param count     number of latencies written
+     * @return total moves played
+     */
+    static long playGames(int port, int games, int radius, int maxMoves, long[] latencies, AtomicLong count)
+            throws Exception {
+        try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int game = 0; game < games; game++) {
+                int gameId = game;
+                GameClient red = new GameClient("localhost", port, gameId, radius, null);
+                GameClient blue = new GameClient("localhost", port, gameId, radius, null);
+                for (GameClient client : new GameClient[] {red, blue}) {
+                    results.add(players.submit(() -> {
+                        try (client) {
+                            return playRandomSide(client, gameId * 31L + client.getColour(), maxMoves, latencies, count);
+                        }
+                    }));
+                }
+            }
+            long total = 0;
+            for (Future<Integer> result : results) total += result.get();
+            return total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int radius = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int maxMoves = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+
+        try (GameServer server = new GameServer(0)) {
+            long[] latencies = new long[games * maxMoves];
+            AtomicLong count = new AtomicLong();
+            long start = System.nanoTime();
+            long moves = playGames(server.getPort(), games, radius, maxMoves, latencies, count);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            int samples = (int) Math.min(count.get(), latencies.length);
+            long[] sorted = Arrays.copyOf(latencies, samples);
+            Arrays.sort(sorted);
+            System.out.printf("%d concurrent games, radius %d: %d moves in %.2f s (%.0f moves/s)%n",
+                    games, radius, moves, seconds, moves / seconds);
+            if (samples > 0) {
+                System.out.printf("move latency p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                        sorted[samples / 2] / 1e3, sorted[(int) (samples * 0.99)] / 1e3, sorted[samples - 1] / 1e3);
+            }
+        }
+    }
+}
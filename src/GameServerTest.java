@@ -0,0 +1,110 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class GameServerTest {
+
+    private GameServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new GameServer(0);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    // Checks colour assignment, move confirmation and turn enforcement between two clients
+    @Test
+    public void testTwoClientsPlayOneGame() throws Exception {
+        AtomicInteger rejectedReason = new AtomicInteger(-1);
+        CountDownLatch rejected = new CountDownLatch(1);
+        try (GameClient red = new GameClient("localhost", server.getPort(), 7, 2, null);
+             GameClient blue = new GameClient("localhost", server.getPort(), 7, 2, new GameClient.Listener() {
+                 @Override
+                 public void rejected(int cell, int reason) {
+                     rejectedReason.set(reason);
+                     rejected.countDown();
+                 }
+             })) {
+            assertEquals(HexBoard.RED, red.getColour());
+            assertEquals(HexBoard.BLUE, blue.getColour());
+
+            HexBoard board = red.getBoard();
+            red.play(board.cellAt(0, 0));
+            assertNotNull(blue.awaitTurn());
+            assertEquals(HexBoard.RED, blue.getBoard().get(board.cellAt(0, 0)));
+
+            red.play(board.cellAt(1, 0)); // out of turn
+            blue.play(board.cellAt(0, 0)); // occupied
+            assertTrue(rejected.await(5, TimeUnit.SECONDS));
+            assertEquals(HexBoard.MoveResult.OCCUPIED.ordinal(), rejectedReason.get());
+            assertEquals(1, red.getBoard().historySize());
+        }
+    }
+
+    // Checks that a spectator joining late receives the moves played so far
+    @Test
+    public void testSpectatorReceivesHistory() throws Exception {
+        try (GameClient red = new GameClient("localhost", server.getPort(), 3, 3, null);
+             GameClient blue = new GameClient("localhost", server.getPort(), 3, 3, null)) {
+            red.play(red.getBoard().cellAt(0, 0));
+            blue.awaitTurn();
+            try (GameClient spectator = new GameClient("localhost", server.getPort(), 3, 3, null)) {
+                assertEquals(HexBoard.EMPTY, spectator.getColour());
+                assertEquals(1, spectator.getMoves().size());
+                assertEquals(HexBoard.RED, spectator.getBoard().get(red.getBoard().cellAt(0, 0)));
+            }
+        }
+    }
+
+    // Checks that the server hangs up on a JOIN whose radius cell ids would not fit the protocol
+    @Test
+    public void testServerRefusesUnsupportedRadius() throws Exception {
+        try (java.net.Socket socket = new java.net.Socket("localhost", server.getPort())) {
+            socket.setSoTimeout(5000);
+            GameProtocol.writeJoin(new java.io.DataOutputStream(socket.getOutputStream()), 9, 255);
+            assertEquals(-1, socket.getInputStream().read());
+        }
+        assertEquals(0, server.getGameCount());
+    }
+
+    // Checks that a listener attached after joining sees every move not in the returned history
+    @Test
+    public void testAttachSplitsHistoryAndLiveMoves() throws Exception {
+        try (GameClient red = new GameClient("localhost", server.getPort(), 5, 2, null);
+             GameClient blue = new GameClient("localhost", server.getPort(), 5, 2, null)) {
+            HexBoard board = red.getBoard();
+            red.play(board.cellAt(0, 0));
+            blue.awaitTurn();
+            java.util.List<Integer> seen = new java.util.concurrent.CopyOnWriteArrayList<>();
+            CountDownLatch moved = new CountDownLatch(1);
+            seen.addAll(blue.attach(new GameClient.Listener() {
+                @Override
+                public void moved(int colour, int cell, HexBoard.MoveResult result) {
+                    seen.add(cell);
+                    moved.countDown();
+                }
+            }));
+            blue.play(board.cellAt(2, 0));
+            assertTrue(moved.await(5, TimeUnit.SECONDS));
+            assertEquals(java.util.Arrays.asList(board.cellAt(0, 0), board.cellAt(2, 0)), seen);
+        }
+    }
+
+    // Checks that many concurrent games with simulated clients all make progress
+    @Test
+    public void testManyConcurrentGames() throws Exception {
+        AtomicLong count = new AtomicLong();
+        long moves = GameServerBenchmark.playGames(server.getPort(), 200, 3, 20, null, count);
+        assertTrue(moves >= 200 * 10);
+    }
+}
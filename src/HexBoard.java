@@ -0,0 +1,515 @@
+import java.util.Arrays;
+
+/**
+ * Headless Hex-Oust rules on a hexagonal board of a given radius, without any Swing code.
+ * Follows the same placement, capture and win rules as {@link HexGrid#placeStone(Point)},
+ * but works on integer cell ids so it can be used by servers, engines and tools.
+ * Cell ids follow the order {@code HexGrid.main} builds the grid in: q ascending, then r ascending.
+ */
+public class HexBoard {
+    public static final int EMPTY = 0;
+    public static final int RED = 1;
+    public static final int BLUE = 2;
+
+    /**
+     * Outcome of trying to place a stone.
+     */
+    public enum MoveResult {
+        /** The cell is outside the board or already holds a stone. */
+        OCCUPIED,
+        /** The placement breaks the adjacency rules. */
+        ILLEGAL,
+        /** The game is already over. */
+        FINISHED,
+        /** The stone was placed and the turn passed to the opponent. */
+        PLACED,
+        /** The stone captured at least one group and the same player moves again. */
+        CAPTURED,
+        /** The stone captured the opponent's last stones and won the game. */
+        WON;
+
+        /**
+         * Tells whether a stone was actually placed.
+         *
+         * @return true for PLACED, CAPTURED and WON
+         */
+        public boolean isPlaced() {
+            return this == PLACED || this == CAPTURED || this == WON;
+        }
+    }
+
+    private final BoardTopology topology;
+    private final int[][] neighbors;
+
+    private final byte[] cells;
+    private boolean redTurn = true;
+    private int winner = EMPTY;
+    private int redCount = 0;
+    private int blueCount = 0;
+
+    // Undo log: every cell change as (cell << 2 | previous colour), and per move (log start << 1 | red turn)
+    private int[] changeLog = new int[64];
+    private int logSize = 0;
+    private int[] moveLog = new int[32];
+    private int moveCount = 0;
+
+    // Last published snapshot and the cells changed since it was built
+    private BoardSnapshot snapshot;
+    private final int[] dirty;
+    private final boolean[] isDirty;
+    private int dirtySize = 0;
+
+    // Scratch space for group searches, reused to avoid allocation per move
+    private final int[] queue;
+    private final int[] mark;
+    private int stamp = 0;
+
+    /**
+     * Constructs an empty board with red to move.
+     *
+     * @param radius number of rings around the center cell
+     */
+    public HexBoard(int radius) {
+        this(BoardTopology.of(radius));
+    }
+
+    /**
+     * Constructs an empty board with red to move on a shared topology.
+     *
+     * @param topology cells and adjacency of the board
+     */
+    public HexBoard(BoardTopology topology) {
+        this.topology = topology;
+        int count = topology.cellCount();
+        neighbors = topology.neighborTable();
+        cells = new byte[count];
+        queue = new int[count];
+        mark = new int[count];
+        dirty = new int[count];
+        isDirty = new boolean[count];
+        snapshot = BoardSnapshot.empty(topology);
+    }
+
+    /**
+     * Constructs a board positioned at a snapshot, with no undo history.
+     *
+     * @param position snapshot to continue from
+     */
+    public HexBoard(BoardSnapshot position) {
+        this(position.getTopology());
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = (byte) position.get(cell);
+        }
+        redCount = position.stoneCount(RED);
+        blueCount = position.stoneCount(BLUE);
+        redTurn = position.isRedTurn();
+        winner = position.getWinner();
+        snapshot = position;
+    }
+
+    /**
+     * Constructs a copy of another board, including its undo history.
+     *
+     * @param other board to copy
+     */
+    public HexBoard(HexBoard other) {
+        this.topology = other.topology;
+        this.neighbors = other.neighbors;
+        this.cells = other.cells.clone();
+        this.redTurn = other.redTurn;
+        this.winner = other.winner;
+        this.redCount = other.redCount;
+        this.blueCount = other.blueCount;
+        this.changeLog = other.changeLog.clone();
+        this.logSize = other.logSize;
+        this.moveLog = other.moveLog.clone();
+        this.moveCount = other.moveCount;
+        this.snapshot = other.snapshot;
+        this.dirty = other.dirty.clone();
+        this.isDirty = other.isDirty.clone();
+        this.dirtySize = other.dirtySize;
+        this.queue = new int[cells.length];
+        this.mark = new int[cells.length];
+    }
+
+    public int getRadius() {
+        return topology.getRadius();
+    }
+
+    /**
+     * Returns the shared cells and adjacency of this board.
+     *
+     * @return board topology
+     */
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Returns the number of cells on the board.
+     *
+     * @return cell count, 3r(r+1)+1 for radius r
+     */
+    public int cellCount() {
+        return cells.length;
+    }
+
+    /**
+     * Looks up the cell id for axial coordinates.
+     *
+     * @param q cube q coordinate
+     * @param r cube r coordinate
+     * @return cell id, or -1 if the coordinates are off the board
+     */
+    public int cellAt(int q, int r) {
+        return topology.cellAt(q, r);
+    }
+
+    /**
+     * Returns the cube coordinates of a cell.
+     *
+     * @param cell cell id
+     * @return HexCube of the cell
+     */
+    public HexCube cube(int cell) {
+        return topology.cube(cell);
+    }
+
+    /**
+     * Returns the ids of the cells adjacent to a cell. The array is shared and must not be modified.
+     *
+     * @param cell cell id
+     * @return neighbor cell ids
+     */
+    public int[] neighbors(int cell) {
+        return neighbors[cell];
+    }
+
+    /**
+     * Returns the stone on a cell.
+     *
+     * @param cell cell id
+     * @return EMPTY, RED or BLUE
+     */
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    public boolean isRedTurn() {
+        return redTurn;
+    }
+
+    /**
+     * Returns the colour of the player to move.
+     *
+     * @return RED or BLUE
+     */
+    public int toMove() {
+        return redTurn ? RED : BLUE;
+    }
+
+    public boolean isGameOver() {
+        return winner != EMPTY;
+    }
+
+    /**
+     * Returns the winner of a finished game.
+     *
+     * @return RED or BLUE, or EMPTY while the game is running
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Counts the stones of one colour.
+     *
+     * @param colour RED or BLUE
+     * @return number of stones on the board
+     */
+    public int stoneCount(int colour) {
+        return colour == RED ? redCount : blueCount;
+    }
+
+    /**
+     * Returns the number of moves that can be undone.
+     *
+     * @return undo history depth
+     */
+    public int historySize() {
+        return moveCount;
+    }
+
+    /**
+     * Returns an immutable snapshot of the current position. Only the cells changed since the
+     * previous call are copied into it, so taking a snapshot after every move is cheap.
+     * The snapshot may be read from any thread; this method itself must be called by the board's owner.
+     *
+     * @return snapshot of the current position
+     */
+    public BoardSnapshot snapshot() {
+        if (dirtySize > 0) {
+            int[] colours = new int[dirtySize];
+            for (int i = 0; i < dirtySize; i++) {
+                colours[i] = cells[dirty[i]];
+                isDirty[dirty[i]] = false;
+            }
+            snapshot = snapshot.withCells(dirty, colours, dirtySize);
+            dirtySize = 0;
+        }
+        if (snapshot.isRedTurn() != redTurn || snapshot.getWinner() != winner
+                || snapshot.getMoveNumber() != moveCount) {
+            snapshot = snapshot.withStatus(redTurn, winner, moveCount);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the stones of one colour as a bitmask, bit i set for cell i.
+     * Only available for boards of at most 64 cells (radius 4).
+     *
+     * @param colour RED or BLUE
+     * @return bitmask of the colour's stones
+     */
+    public long mask(int colour) {
+        if (cells.length > 64) throw new IllegalStateException("bitmasks need a board of at most 64 cells");
+        long mask = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == colour) mask |= 1L << cell;
+        }
+        return mask;
+    }
+
+    /**
+     * Replaces the whole position with the given stones and clears the undo history.
+     * The winner is derived the same way {@code checkWinCondition} does.
+     *
+     * @param red     bitmask of red stones
+     * @param blue    bitmask of blue stones
+     * @param redTurn true if red is to move
+     */
+    public void setPosition(long red, long blue, boolean redTurn) {
+        if (cells.length > 64) throw new IllegalStateException("bitmasks need a board of at most 64 cells");
+        if ((red & blue) != 0) throw new IllegalArgumentException("a cell cannot hold two stones");
+        reset();
+        for (int cell = 0; cell < cells.length; cell++) {
+            if ((red >>> cell & 1) != 0) setCell(cell, RED);
+            else if ((blue >>> cell & 1) != 0) setCell(cell, BLUE);
+        }
+        finishSetPosition(redTurn);
+    }
+
+    /**
+     * Replaces the whole position with the given stones and clears the undo history.
+     * The winner is derived the same way {@code checkWinCondition} does.
+     *
+     * @param stones  EMPTY, RED or BLUE for every cell
+     * @param redTurn true if red is to move
+     */
+    public void setPosition(int[] stones, boolean redTurn) {
+        if (stones.length != cells.length) throw new IllegalArgumentException("expected " + cells.length + " cells");
+        reset();
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (stones[cell] != EMPTY) setCell(cell, stones[cell]);
+        }
+        finishSetPosition(redTurn);
+    }
+
+    private void finishSetPosition(boolean redTurn) {
+        this.redTurn = redTurn;
+        if (redCount + blueCount > 2) {
+            if (redCount == 0 && blueCount > 0) winner = BLUE;
+            else if (blueCount == 0 && redCount > 0) winner = RED;
+        }
+    }
+
+    /**
+     * Checks whether the player to move may place a stone on a cell.
+     *
+     * @param cell cell id
+     * @return true if the placement is allowed
+     */
+    public boolean isLegal(int cell) {
+        if (cell < 0 || cell >= cells.length || cells[cell] != EMPTY || winner != EMPTY) return false;
+        if (redCount + blueCount == 0) return true;
+        int own = toMove();
+        int enemy = own == RED ? BLUE : RED;
+        boolean hasFriendlyNeighbor = false;
+        for (int neighbor : neighbors[cell]) {
+            if (cells[neighbor] == enemy) return true;
+            if (cells[neighbor] == own) hasFriendlyNeighbor = true;
+        }
+        if (!hasFriendlyNeighbor) return true;
+        for (int neighbor : neighbors[cell]) {
+            if (cells[neighbor] == own) {
+                for (int friendNeighbor : neighbors[neighbor]) {
+                    if (cells[friendNeighbor] == enemy) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes all legal cells for the player to move into an array.
+     *
+     * @param out array of at least {@link #cellCount()} entries
+     * @return number of legal cells written
+     */
+    public int legalMoves(int[] out) {
+        int n = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (isLegal(cell)) out[n++] = cell;
+        }
+        return n;
+    }
+
+    /**
+     * Places a stone for the player to move, captures smaller adjacent enemy groups,
+     * and passes the turn unless something was captured.
+     *
+     * @param cell cell id
+     * @return outcome of the move; the board is unchanged unless a stone was placed
+     */
+    public MoveResult play(int cell) {
+        if (winner != EMPTY) return MoveResult.FINISHED;
+        if (cell < 0 || cell >= cells.length || cells[cell] != EMPTY) return MoveResult.OCCUPIED;
+        if (!isLegal(cell)) return MoveResult.ILLEGAL;
+
+        if (moveCount == moveLog.length) moveLog = Arrays.copyOf(moveLog, moveCount * 2);
+        moveLog[moveCount++] = logSize << 1 | (redTurn ? 1 : 0);
+
+        int own = toMove();
+        int enemy = own == RED ? BLUE : RED;
+        changeCell(cell, own);
+
+        int playerSize = markGroup(cell, own);
+        int playerStamp = stamp;
+        int groupEnd = playerSize;
+        int[] playerGroup = Arrays.copyOf(queue, groupEnd);
+
+        // Collect the start stone of every enemy group touching the player's group
+        boolean capturedAny = false;
+        for (int i = 0; i < groupEnd; i++) {
+            for (int neighbor : neighbors[playerGroup[i]]) {
+                if (cells[neighbor] == enemy && mark[neighbor] != playerStamp) {
+                    int enemySize = markGroup(neighbor, enemy);
+                    // mark the enemy group with the player's stamp so it is visited only once
+                    int[] enemyGroup = Arrays.copyOf(queue, enemySize);
+                    for (int stone : enemyGroup) mark[stone] = playerStamp;
+                    if (enemySize < playerSize) {
+                        for (int stone : enemyGroup) changeCell(stone, EMPTY);
+                        capturedAny = true;
+                    }
+                }
+            }
+        }
+
+        if (redCount + blueCount > 2) {
+            if (redCount == 0 && blueCount > 0) winner = BLUE;
+            else if (blueCount == 0 && redCount > 0) winner = RED;
+        }
+        if (winner != EMPTY) return MoveResult.WON;
+        if (capturedAny) return MoveResult.CAPTURED;
+        redTurn = !redTurn;
+        return MoveResult.PLACED;
+    }
+
+    /**
+     * Reverts the last placed stone, including any captures it made.
+     *
+     * @return true if a move was undone, false if there is no history
+     */
+    public boolean undo() {
+        if (moveCount == 0) return false;
+        int move = moveLog[--moveCount];
+        int start = move >>> 1;
+        for (int i = logSize - 1; i >= start; i--) {
+            setCell(changeLog[i] >>> 2, changeLog[i] & 3);
+        }
+        logSize = start;
+        redTurn = (move & 1) != 0;
+        winner = EMPTY;
+        return true;
+    }
+
+    /**
+     * Clears the board and history for a new game with red to move.
+     */
+    public void reset() {
+        Arrays.fill(cells, (byte) EMPTY);
+        redTurn = true;
+        winner = EMPTY;
+        redCount = 0;
+        blueCount = 0;
+        logSize = 0;
+        moveCount = 0;
+        Arrays.fill(isDirty, false);
+        dirtySize = 0;
+        snapshot = BoardSnapshot.empty(topology);
+    }
+
+    /**
+     * Finds the connected group containing a stone, leaving its cells in {@code queue}
+     * and marked with a fresh stamp.
+     *
+     * @param start  cell id of a stone
+     * @param colour colour of the group
+     * @return number of stones in the group
+     */
+    private int markGroup(int start, int colour) {
+        stamp++;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        mark[start] = stamp;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int neighbor : neighbors[current]) {
+                if (cells[neighbor] == colour && mark[neighbor] != stamp) {
+                    mark[neighbor] = stamp;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Sets a cell and records its previous colour in the undo log.
+     */
+    private void changeCell(int cell, int colour) {
+        if (logSize == changeLog.length) changeLog = Arrays.copyOf(changeLog, logSize * 2);
+        changeLog[logSize++] = cell << 2 | cells[cell];
+        setCell(cell, colour);
+    }
+
+    private void setCell(int cell, int colour) {
+        if (!isDirty[cell]) {
+            isDirty[cell] = true;
+            dirty[dirtySize++] = cell;
+        }
+        int old = cells[cell];
+        if (old == RED) redCount--;
+        else if (old == BLUE) blueCount--;
+        cells[cell] = (byte) colour;
+        if (colour == RED) redCount++;
+        else if (colour == BLUE) blueCount++;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        int radius = topology.getRadius();
+        for (int r = -radius; r <= radius; r++) {
+            for (int pad = 0; pad < Math.abs(r); pad++) text.append(' ');
+            for (int q = -radius; q <= radius; q++) {
+                int cell = cellAt(q, r);
+                if (cell < 0) continue;
+                text.append(cells[cell] == RED ? 'R' : cells[cell] == BLUE ? 'B' : '.').append(' ');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,121 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+public class HexBoardTest {
+
+    private HexBoard board;
+
+    @Before
+    public void setUp() {
+        board = new HexBoard(2);
+    }
+
+    // Checks the number of cells and that cell ids round trip through cube coordinates
+    @Test
+    public void testBoardShape() {
+        assertEquals(19, board.cellCount());
+        assertEquals(127, new HexBoard(6).cellCount());
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            HexCube cube = board.cube(cell);
+            assertEquals(cell, board.cellAt(cube.q, cube.r));
+        }
+        assertEquals(6, board.neighbors(board.cellAt(0, 0)).length);
+        assertEquals(-1, board.cellAt(3, 0));
+    }
+
+    // Checks that a stone next to only friendly stones without enemy contact is refused
+    @Test
+    public void testPlacementRules() {
+        assertEquals(HexBoard.MoveResult.PLACED, board.play(board.cellAt(0, 0)));   // red
+        assertEquals(HexBoard.MoveResult.PLACED, board.play(board.cellAt(2, -2)));  // blue, isolated
+        assertEquals(HexBoard.MoveResult.OCCUPIED, board.play(board.cellAt(0, 0)));
+        assertEquals(HexBoard.MoveResult.ILLEGAL, board.play(board.cellAt(-1, 0))); // only touches red
+        assertTrue(board.isRedTurn());
+        assertEquals(2, board.historySize());
+    }
+
+    // Checks that a larger group captures a smaller adjacent group and keeps the turn
+    @Test
+    public void testCaptureAndUndo() {
+        int origin = board.cellAt(0, 0);
+        int east = board.cellAt(1, 0);
+        int west = board.cellAt(-1, 0);
+        board.play(origin);  // red
+        board.play(east);    // blue
+        assertEquals(HexBoard.MoveResult.CAPTURED, board.play(west));
+
+        assertEquals(HexBoard.EMPTY, board.get(east));
+        assertEquals(2, board.stoneCount(HexBoard.RED));
+        assertEquals(0, board.stoneCount(HexBoard.BLUE));
+        assertTrue(board.isRedTurn());
+        assertFalse(board.isGameOver()); // only two stones left, same as checkWinCondition
+
+        assertTrue(board.undo());
+        assertEquals(HexBoard.BLUE, board.get(east));
+        assertEquals(HexBoard.EMPTY, board.get(west));
+        assertTrue(board.isRedTurn());
+    }
+
+    // Checks that the game ends once one player has no stones and more than two stones are on the board
+    @Test
+    public void testWinCondition() {
+        board.play(board.cellAt(0, 0));   // red
+        board.play(board.cellAt(1, 0));   // blue
+        assertEquals(HexBoard.MoveResult.CAPTURED, board.play(board.cellAt(-1, 0)));
+        assertEquals(HexBoard.MoveResult.WON, board.play(board.cellAt(-2, 2)));
+        assertEquals(HexBoard.RED, board.getWinner());
+        assertEquals(HexBoard.MoveResult.FINISHED, board.play(board.cellAt(2, 0)));
+    }
+
+    // Checks that snapshots keep their position while the board plays on and after undo
+    @Test
+    public void testSnapshotsArePersistent() {
+        BoardSnapshot empty = board.snapshot();
+        board.play(board.cellAt(0, 0));
+        board.play(board.cellAt(1, 0));
+        BoardSnapshot beforeCapture = board.snapshot();
+        board.play(board.cellAt(-1, 0));
+        BoardSnapshot afterCapture = board.snapshot();
+        board.undo();
+
+        assertEquals(0, empty.stoneCount(HexBoard.RED));
+        assertEquals(HexBoard.BLUE, beforeCapture.get(board.cellAt(1, 0)));
+        assertEquals(HexBoard.EMPTY, afterCapture.get(board.cellAt(1, 0)));
+        assertEquals(2, afterCapture.stoneCount(HexBoard.RED));
+        assertTrue(afterCapture.isRedTurn());
+        assertEquals(3, afterCapture.getMoveNumber());
+        assertEquals(beforeCapture.toString(), board.snapshot().toString());
+
+        HexBoard resumed = new HexBoard(afterCapture);
+        assertEquals(HexBoard.RED, resumed.get(board.cellAt(-1, 0)));
+        assertEquals(0, resumed.historySize());
+    }
+
+    // Checks snapshot contents against the board over long random games with undo on a large board
+    @Test
+    public void testSnapshotsMatchBoardInRandomGames() {
+        HexBoard big = new HexBoard(9);
+        Random random = new Random(42);
+        int[] legal = new int[big.cellCount()];
+        List<BoardSnapshot> snapshots = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int step = 0; step < 400; step++) {
+            int n = big.legalMoves(legal);
+            if (n == 0 || big.isGameOver() || random.nextInt(10) == 0) {
+                big.undo();
+            } else {
+                big.play(legal[random.nextInt(n)]);
+            }
+            snapshots.add(big.snapshot());
+            expected.add(big.toString());
+        }
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(expected.get(i), snapshots.get(i).toString());
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.awt.event.MouseMotionAdapter;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.*;
+import java.util.List;
 import java.util.Stack;
 
 /**
@@ -67,6 +68,19 @@ class HexCube {
     public final int r;
     public final int s;
 
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        HexCube hex = (HexCube) obj;
+        return q == hex.q && r == hex.r;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(q, r);
+    }
+
     /**
      * Adds two HexCubes.
      *
@@ -89,16 +103,15 @@ class HexCube {
         return new HexCube(q - b.q, r - b.r, s - b.s);
     }
     /**
-     * Static list of hexagonal directions.
+     * Static unmodifiable list of hexagonal directions, shared by all games.
      */
-    static public ArrayList<HexCube> directions = new ArrayList<HexCube>() {{
-        add(new HexCube(1, 0, -1));
-        add(new HexCube(1, -1, 0));
-        add(new HexCube(0, -1, 1));
-        add(new HexCube(-1, 0, 1));
-        add(new HexCube(-1, 1, 0));
-        add(new HexCube(0, 1, -1));
-    }};
+    static public final List<HexCube> directions = List.of(
+            new HexCube(1, 0, -1),
+            new HexCube(1, -1, 0),
+            new HexCube(0, -1, 1),
+            new HexCube(-1, 0, 1),
+            new HexCube(-1, 1, 0),
+            new HexCube(0, 1, -1));
 
     static public HexCube direction(int direction) {
         return HexCube.directions.get(direction);
@@ -129,6 +142,126 @@ class HexCube {
     public int distance(HexCube b) {
         return subtract(b).length();
     }
+    /**
+     * Multiplies this HexCube by a factor, as a vector from the origin.
+     *
+     * @param k factor
+     * @return new HexCube result
+     */
+    public HexCube scale(int k) {
+        return new HexCube(q * k, r * k, s * k);
+    }
+    /**
+     * Rotates this HexCube 60 degrees around the origin, moving direction i to direction i + 1.
+     *
+     * @return rotated HexCube
+     */
+    public HexCube rotateLeft() {
+        return new HexCube(-s, -q, -r);
+    }
+    /**
+     * Rotates this HexCube 60 degrees around the origin, moving direction i to direction i - 1.
+     *
+     * @return rotated HexCube
+     */
+    public HexCube rotateRight() {
+        return new HexCube(-r, -s, -q);
+    }
+    /**
+     * Reflects this HexCube across the axis through the origin on which r equals s; q is kept.
+     *
+     * @return reflected HexCube
+     */
+    public HexCube reflectQ() {
+        return new HexCube(q, s, r);
+    }
+    /**
+     * Reflects this HexCube across the axis through the origin on which q equals s; r is kept.
+     *
+     * @return reflected HexCube
+     */
+    public HexCube reflectR() {
+        return new HexCube(s, r, q);
+    }
+    /**
+     * Reflects this HexCube across the axis through the origin on which q equals r; s is kept.
+     *
+     * @return reflected HexCube
+     */
+    public HexCube reflectS() {
+        return new HexCube(r, q, s);
+    }
+    /**
+     * Lists the hexes at an exact distance from this HexCube. The ring starts at
+     * {@code this + direction(4) * radius} and walks around through directions 0 to 5.
+     * {@link HexTables} holds the same offsets as shared primitive arrays.
+     *
+     * @param radius distance from this hex, at least 0
+     * @return new list of 6 * radius hexes, or this hex alone for radius 0
+     */
+    public List<HexCube> ring(int radius) {
+        List<HexCube> ring = new ArrayList<>(Math.max(1, 6 * radius));
+        if (radius == 0) {
+            ring.add(this);
+            return ring;
+        }
+        HexCube hex = add(direction(4).scale(radius));
+        for (int side = 0; side < 6; side++) {
+            for (int step = 0; step < radius; step++) {
+                ring.add(hex);
+                hex = hex.neighbor(side);
+            }
+        }
+        return ring;
+    }
+    /**
+     * Lists the hexes within a distance of this HexCube, ring by ring from the center outwards.
+     *
+     * @param radius largest distance, at least 0
+     * @return new list of 3 * radius * (radius + 1) + 1 hexes
+     */
+    public List<HexCube> spiral(int radius) {
+        List<HexCube> spiral = new ArrayList<>(3 * radius * (radius + 1) + 1);
+        for (int k = 0; k <= radius; k++) {
+            spiral.addAll(ring(k));
+        }
+        return spiral;
+    }
+    /**
+     * Lists the hexes within a distance of this HexCube, ordered by q and then r.
+     *
+     * @param radius largest distance, at least 0
+     * @return new list of 3 * radius * (radius + 1) + 1 hexes
+     */
+    public List<HexCube> range(int radius) {
+        List<HexCube> range = new ArrayList<>(3 * radius * (radius + 1) + 1);
+        for (int dq = -radius; dq <= radius; dq++) {
+            for (int dr = Math.max(-radius, -dq - radius); dr <= Math.min(radius, -dq + radius); dr++) {
+                range.add(new HexCube(q + dq, r + dr, s - dq - dr));
+            }
+        }
+        return range;
+    }
+    /**
+     * Lists the hexes on the straight line from this HexCube to another, both included.
+     * The line is sampled at distance + 1 evenly spaced points, which are nudged by a tiny
+     * offset, different on each axis, so points on a hex edge or corner always round the same way.
+     *
+     * @param b end of the line
+     * @return new list of distance(b) + 1 hexes
+     */
+    public List<HexCube> lineTo(HexCube b) {
+        int n = distance(b);
+        List<HexCube> line = new ArrayList<>(n + 1);
+        for (int i = 0; i <= n; i++) {
+            double t = n == 0 ? 0.0 : (double) i / n;
+            line.add(new FractionalHexCube(
+                    q + 1e-6 + (b.q - q) * t,
+                    r + 2e-6 + (b.r - r) * t,
+                    s - 3e-6 + (b.s - s) * t).hexRound());
+        }
+        return line;
+    }
 }
 /**
  * Represents a hexagonal position with fractional cube coordinates.
@@ -240,7 +373,7 @@ class Layout {
     /**
      * Static flat-top orientation preset.
      */
-    static public Orientation flat = new Orientation(3.0 / 2.0, 0.0, Math.sqrt(3.0) / 2.0, Math.sqrt(3.0),
+    static public final Orientation flat = new Orientation(3.0 / 2.0, 0.0, Math.sqrt(3.0) / 2.0, Math.sqrt(3.0),
             2.0 / 3.0, 0.0, -1.0 / 3.0, Math.sqrt(3.0) / 3.0, 0.0);
     /**
      * Converts a hex coordinate to its corresponding pixel position.
@@ -311,6 +444,41 @@ public class HexGrid extends JPanel {
     Stack<ArrayList<Point>> blueStonesHistory = new Stack<>();
     Stack<Boolean> turnHistory = new Stack<>();
     private JButton undoButton;
+
+    private final List<GameListener> listeners = new java.util.concurrent.CopyOnWriteArrayList<>();
+    static final Color NOTICE_INFO = new Color(40, 40, 40, 210);
+    static final Color NOTICE_ERROR = new Color(160, 20, 20, 210);
+    private static final int NOTICE_MILLIS = 2500;
+    private String notice = null;
+    private Color noticeColor = NOTICE_INFO;
+    private final javax.swing.Timer noticeTimer;
+    private GameEventPublisher eventStream = null;
+    private GameClient remote = null;
+    private OpeningBook openingBook = null;
+    /** Position probed by the book hint, rebuilt on the first hover after the stones change. */
+    private HexBoard bookPosition = null;
+    private boolean bookListening = false;
+    /** Cell id of every hexagon center, the inverse of {@code grid}. */
+    private final Map<Point, Integer> cellIds = new HashMap<>();
+    private MctsPlayer computer = null;
+    private boolean computerIsRed;
+    private long computerMillis;
+    private boolean computerThinking = false;
+    private int computerGeneration = 0;
+    /** Set while a replay or puzzle is shown instead of the game the computer and the clock follow. */
+    private boolean gamePaused = false;
+    private TimeManager timeControl = null;
+    private GameClock clock = null;
+    private javax.swing.Timer clockTimer = null;
+    private GameReplay replay = null;
+    private MoveAnalyzer analyzer = null;
+    private MoveAnalyzer.Snapshot analysis = null;
+    private int analysisGeneration = 0;
+    private boolean analysisListening = false;
+    private JSlider replaySlider = null;
+    private List<PuzzleGenerator.Puzzle> puzzles = null;
+    private int puzzleIndex = 0;
+    private static final Font TURN_FONT = new Font("SansSerif", Font.BOLD, 20);
     /**
      * Constructs a HexGrid panel using a provided grid of hexagons.
      *
@@ -318,6 +486,15 @@ public class HexGrid extends JPanel {
      */
     public HexGrid(ArrayList<ArrayList<Point>> hexagons) {
         this.grid = hexagons;
+        for (int cell = 0; cell < hexagons.size(); cell++) {
+            cellIds.put(getHexCenter(hexagons.get(cell)), cell);
+        }
+
+        noticeTimer = new javax.swing.Timer(NOTICE_MILLIS, e -> {
+            notice = null;
+            repaint();
+        });
+        noticeTimer.setRepeats(false);
 
         // Create the Exit button
         exitButton = new JButton("Exit");
@@ -355,29 +532,8 @@ public class HexGrid extends JPanel {
 
 
             if (response == JOptionPane.YES_OPTION) {
-                // Reset game state completely
-                redStones.clear();
-                blueStones.clear();
-                isRedTurn = true;
-                hoveredCell = null;
-                gameExited = false;
-
-
-                redStonesHistory.clear();
-                blueStonesHistory.clear();
-                turnHistory.clear();
-                undoButton.setEnabled(false);
-
-
-                invalidate();
-                validate();
-                repaint();
-
-
-                JOptionPane.showMessageDialog(null,
-                        "New game started. Red player's turn.",
-                        "New Game",
-                        JOptionPane.INFORMATION_MESSAGE);
+                resetGame();
+                showNotice("New game started. Red player's turn.", NOTICE_INFO);
             }
         });
 
@@ -391,141 +547,34 @@ public class HexGrid extends JPanel {
         add(undoButton);
         add(newGameButton);
 
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('a'), "toggleAnalysis");
+        getActionMap().put("toggleAnalysis", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                setAnalysis(analyzer == null);
+            }
+        });
+
         addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
+                if (replay != null) {
+                    showNotice("Replay: drag the slider or use the arrow keys", NOTICE_INFO);
+                    return;
+                }
+                if (gameExited) return; // the game over message stays until a new game
                 Point click = new Point(e.getX(), e.getY());
 
                 for (ArrayList<Point> hexagon : grid) {
                     Point center = getHexCenter(hexagon);
                     double distance = Math.sqrt(Math.pow(center.x - click.x, 2) + Math.pow(center.y - click.y, 2));
                     if (distance <= 20) {
-                        // Check if cell is empty
-                        if (redStones.contains(center) || blueStones.contains(center)) {
-                            JOptionPane.showMessageDialog(null, "Cell is already occupied", "Error", JOptionPane.ERROR_MESSAGE);
-                            break;
-                        }
-
-                        // First stone placement is always allowed
-                        if (redStones.isEmpty() && blueStones.isEmpty()) {
-                            saveGameState();
-                            if (isRedTurn) {
-                                redStones.add(center);
-                            } else {
-                                blueStones.add(center);
-                            }
-                            isRedTurn = !isRedTurn;
-                            repaint();
-                            break;
-                        }
-
-
-                        ArrayList<Point> neighbors = getNeighborCenters(center);
-                        boolean hasAnyNeighbor = false;
-                        boolean hasEnemyNeighbor = false;
-                        boolean hasFriendlyNeighbor = false;
-
-                        for (Point neighbor : neighbors) {
-                            if (redStones.contains(neighbor) || blueStones.contains(neighbor)) {
-                                hasAnyNeighbor = true;
-                                if ((isRedTurn && blueStones.contains(neighbor)) ||
-                                        (!isRedTurn && redStones.contains(neighbor))) {
-                                    hasEnemyNeighbor = true;
-                                } else {
-                                    hasFriendlyNeighbor = true;
-                                }
-                            }
-                        }
-
-                        // Placement rules:
-                        // 1. Always allowed if no neighbors (isolated placement)
-                        // 2. Allowed if adjacent to enemy stones
-                        // 3. Allowed if adjacent only to friendly stones that are themselves connected to enemies
-                        boolean validPlacement = !hasAnyNeighbor || hasEnemyNeighbor;
-
-                        // If only friendly neighbors, check if they're connected to enemies
-                        if (!validPlacement && hasFriendlyNeighbor) {
-                            for (Point neighbor : neighbors) {
-                                if ((isRedTurn && redStones.contains(neighbor)) ||
-                                        (!isRedTurn && blueStones.contains(neighbor))) {
-                                    ArrayList<Point> friendNeighbors = getNeighborCenters(neighbor);
-                                    for (Point friendNeighbor : friendNeighbors) {
-                                        if ((isRedTurn && blueStones.contains(friendNeighbor)) ||
-                                                (!isRedTurn && redStones.contains(friendNeighbor))) {
-                                            validPlacement = true;
-                                            break;
-                                        }
-                                    }
-                                    if (validPlacement) break;
-                                }
-                            }
-                        }
-
-                        if (validPlacement) {
-                            saveGameState();
-                            if (isRedTurn) {
-                                redStones.add(center);
-                            } else {
-                                blueStones.add(center);
-                            }
-
-
-                            boolean capturedAny ;
-                            do {
-                                capturedAny = false;
-                                Set<Point> playerGroup = findGroup(center, isRedTurn ? redStones : blueStones);
-
-
-                                Set<Point> adjacentOpponentGroups = new HashSet<>();
-                                for (Point stone : playerGroup) {
-                                    ArrayList<Point> stoneNeighbors = getNeighborCenters(stone);
-                                    for (Point neighbor : stoneNeighbors) {
-                                        if ((isRedTurn && blueStones.contains(neighbor)) ||
-                                                (!isRedTurn && redStones.contains(neighbor))) {
-                                            Set<Point> opponentGroup = findGroup(neighbor, isRedTurn ? blueStones : redStones);
-                                            adjacentOpponentGroups.addAll(opponentGroup);
-                                        }
-                                    }
-                                }
-
-                                for (Point opponentStone : adjacentOpponentGroups) {
-                                    Set<Point> opponentGroup = findGroup(opponentStone, isRedTurn ? blueStones : redStones);
-                                    if (opponentGroup.size() < playerGroup.size()) {
-
-                                        if (isRedTurn) {
-                                            blueStones.removeAll(opponentGroup);
-                                        } else {
-                                            redStones.removeAll(opponentGroup);
-                                        }
-                                        capturedAny = true;
-                                    }
-                                }
-
-
-                                checkWinCondition();
-                                if (gameExited) return;
-
-
-                                if (capturedAny) {
-                                    repaint();
-                                    JOptionPane.showMessageDialog(null,
-                                            "Captured opponent's stones! Place another stone.",
-                                            "Capture Move", JOptionPane.INFORMATION_MESSAGE);
-                                    return; // Exit the current click handler - player will click again
-                                }
-                            } while (capturedAny);
-
-
-                            isRedTurn = !isRedTurn;
-                            repaint();
-                        } else {
-                            JOptionPane.showMessageDialog(null,
-                                    "Cannot place stone - must be either:\n" +
-                                            "1. Isolated (no neighbors)\n" +
-                                            "2. Adjacent to enemy stone\n" +
-                                            "3. Adjacent to friendly stone connected to enemy",
-                                    "Invalid Move", JOptionPane.ERROR_MESSAGE);
-
+                        if (computer != null && !gamePaused && (computerThinking || isRedTurn == computerIsRed)) {
+                            showNotice("The computer is thinking", NOTICE_INFO);
+                        } else if (remote != null) {
+                            sendRemoteMove(grid.indexOf(hexagon));
+                        } else if (placeStone(center) && puzzles != null) {
+                            checkPuzzle();
                         }
                         break;
                     }
@@ -553,248 +602,680 @@ public class HexGrid extends JPanel {
         });
     }
     /**
-     * Exits the game immediately and closes the application.
-     */
-    void exitGame() {
-        gameExited = true;
-        System.exit(0);
-    }
-    /**
-     * Checks if the game has been exited by the player.
+     * Attempts to place a stone for the current player on the cell with the given center.
+     * Applies the placement rules and the capture loop; after a capture the same player moves again.
+     * Never blocks: feedback is shown as an in-panel notice and published to game listeners.
+     * Once the game is over no stone is placed until a new game or puzzle starts.
      *
-     * @return true if the game was exited, false otherwise
+     * @param center center Point of the target hexagon
+     * @return true if the stone was placed, false if the move was rejected or the game is over
      */
-    public boolean isGameExited() {
-        return gameExited;
-    }
+    boolean placeStone(Point center) {
+        if (gameExited) return false;
 
-    /**
-     * Computes the center point of a hexagon by averaging its vertices.
-     *
-     * @param hexagon list of Points representing hexagon vertices
-     * @return center Point of the hexagon
-     */
-    Point getHexCenter(ArrayList<Point> hexagon) {
-        double sumX = 0;
-        double sumY = 0;
-        for (Point p : hexagon) {
-            sumX += p.x;
-            sumY += p.y;
+        // Check if cell is empty
+        if (redStones.contains(center) || blueStones.contains(center)) {
+            rejectMove(center, "Cell is already occupied");
+            return false;
         }
-        return new Point(sumX / hexagon.size(), sumY / hexagon.size());
-    }
 
-    /**
-     * Retrieves centers of adjacent hexagons around a given hex center.
-     *
-     * @param center target hexagon's center Point
-     * @return list of neighbor centers
-     */
-    ArrayList<Point> getNeighborCenters(Point center) {
-        ArrayList<Point> neighbors = new ArrayList<>();
-        for (ArrayList<Point> hexagon : grid) {
-            Point neighbor = getHexCenter(hexagon);
-            double distance = Math.sqrt(Math.pow(center.x - neighbor.x, 2) + Math.pow(center.y - neighbor.y, 2));
-            // Using 45 as the approximate center-to-center distance threshold
-            if (distance > 0 && distance <= 45) {
-                neighbors.add(neighbor);
+        // First stone placement is always allowed
+        if (redStones.isEmpty() && blueStones.isEmpty()) {
+            saveGameState();
+            if (isRedTurn) {
+                redStones.add(center);
+            } else {
+                blueStones.add(center);
             }
+            fireStonePlaced(center, isRedTurn);
+            isRedTurn = !isRedTurn;
+            fireTurnChanged();
+            repaint();
+            return true;
         }
-        return neighbors;
-    }
-    /**
-     * Checks whether a cell has a neighboring enemy stone.
-     *
-     * @param center Point to check neighbors around
-     * @param isRed  true if checking for red player's move
-     * @return true if an enemy is adjacent, false otherwise
-     */
 
-    private boolean hasEnemyConnection(Point center, boolean isRed) {
+
         ArrayList<Point> neighbors = getNeighborCenters(center);
+        boolean hasAnyNeighbor = false;
+        boolean hasEnemyNeighbor = false;
+        boolean hasFriendlyNeighbor = false;
+
         for (Point neighbor : neighbors) {
-            if (isRed && blueStones.contains(neighbor)) {
-                return true;
-            } else if (!isRed && redStones.contains(neighbor)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    /**
-     * Determines if a group of connected stones is adjacent to any enemy stones.
-     *
-     * @param center starting Point of the group
-     * @param isRed  true if red's group, false if blue's
-     * @return true if group touches enemy, false otherwise
-     */
-    private boolean isGroupConnectedToEnemy(Point center, boolean isRed) {
-        Set<Point> group = findGroup(center, isRed ? redStones : blueStones);
-        for (Point stone : group) {
-            if (hasEnemyConnection(stone, isRed)) {
-                return true;
+            if (redStones.contains(neighbor) || blueStones.contains(neighbor)) {
+                hasAnyNeighbor = true;
+                if ((isRedTurn && blueStones.contains(neighbor)) ||
+                        (!isRedTurn && redStones.contains(neighbor))) {
+                    hasEnemyNeighbor = true;
+                } else {
+                    hasFriendlyNeighbor = true;
+                }
             }
         }
-        return false;
-    }
-    /**
-     * Finds all stones connected to a given stone via neighboring positions.
-     *
-     * @param stone  starting Point
-     * @param stones list of same-color stones
-     * @return set of connected stones including the starting stone
-     */
-    Set<Point> findGroup(Point stone, ArrayList<Point> stones) {
-        Set<Point> group = new HashSet<>();
-        if (!stones.contains(stone)) return group;
-
-        Queue<Point> queue = new LinkedList<>();
-        queue.add(stone);
-        group.add(stone);
 
-        while (!queue.isEmpty()) {
-            Point current = queue.poll();
-            for (Point neighbor : getNeighborCenters(current)) {
-                if (stones.contains(neighbor) && !group.contains(neighbor)) {
-                    group.add(neighbor);
-                    queue.add(neighbor);
+        // Placement rules:
+        // 1. Always allowed if no neighbors (isolated placement)
+        // 2. Allowed if adjacent to enemy stones
+        // 3. Allowed if adjacent only to friendly stones that are themselves connected to enemies
+        boolean validPlacement = !hasAnyNeighbor || hasEnemyNeighbor;
+
+        // If only friendly neighbors, check if they're connected to enemies
+        if (!validPlacement && hasFriendlyNeighbor) {
+            for (Point neighbor : neighbors) {
+                if ((isRedTurn && redStones.contains(neighbor)) ||
+                        (!isRedTurn && blueStones.contains(neighbor))) {
+                    ArrayList<Point> friendNeighbors = getNeighborCenters(neighbor);
+                    for (Point friendNeighbor : friendNeighbors) {
+                        if ((isRedTurn && blueStones.contains(friendNeighbor)) ||
+                                (!isRedTurn && redStones.contains(friendNeighbor))) {
+                            validPlacement = true;
+                            break;
+                        }
+                    }
+                    if (validPlacement) break;
                 }
             }
         }
-        return group;
-    }
-    /**
-     * Saves the current board state (both players' stones and turn history) to enable undo.
-     */
-    void saveGameState() {
 
-        ArrayList<Point> redStonesCopy = new ArrayList<>();
-        for (Point p : redStones) {
-            redStonesCopy.add(new Point(p.x, p.y));
+        if (!validPlacement) {
+            rejectMove(center, "Must be isolated, next to an enemy stone, or next to a friendly stone touching an enemy");
+            return false;
         }
 
-        ArrayList<Point> blueStonesCopy = new ArrayList<>();
-        for (Point p : blueStones) {
-            blueStonesCopy.add(new Point(p.x, p.y));
+        saveGameState();
+        if (isRedTurn) {
+            redStones.add(center);
+        } else {
+            blueStones.add(center);
         }
+        fireStonePlaced(center, isRedTurn);
 
 
-        redStonesHistory.push(redStonesCopy);
-        blueStonesHistory.push(blueStonesCopy);
-        turnHistory.push(isRedTurn);
+        boolean capturedAny ;
+        do {
+            capturedAny = false;
+            Set<Point> playerGroup = findGroup(center, isRedTurn ? redStones : blueStones);
 
 
-        undoButton.setEnabled(true);
-    }
-    /**
-     * Reverts the game to the previous saved state from the undo stack.
-     */
-    void undoLastMove() {
-        if (redStonesHistory.isEmpty() || blueStonesHistory.isEmpty() || turnHistory.isEmpty()) {
+            Set<Point> adjacentOpponentGroups = new HashSet<>();
+            for (Point stone : playerGroup) {
+                ArrayList<Point> stoneNeighbors = getNeighborCenters(stone);
+                for (Point neighbor : stoneNeighbors) {
+                    if ((isRedTurn && blueStones.contains(neighbor)) ||
+                            (!isRedTurn && redStones.contains(neighbor))) {
+                        Set<Point> opponentGroup = findGroup(neighbor, isRedTurn ? blueStones : redStones);
+                        adjacentOpponentGroups.addAll(opponentGroup);
+                    }
+                }
+            }
 
-            undoButton.setEnabled(false);
-            return;
-        }
+            for (Point opponentStone : adjacentOpponentGroups) {
+                Set<Point> opponentGroup = findGroup(opponentStone, isRedTurn ? blueStones : redStones);
+                if (opponentGroup.size() < playerGroup.size()) {
 
+                    if (isRedTurn) {
+                        blueStones.removeAll(opponentGroup);
+                    } else {
+                        redStones.removeAll(opponentGroup);
+                    }
+                    if (!opponentGroup.isEmpty()) {
+                        fireStonesCaptured(opponentGroup, isRedTurn);
+                    }
+                    capturedAny = true;
+                }
+            }
 
-        redStones = redStonesHistory.pop();
-        blueStones = blueStonesHistory.pop();
-        isRedTurn = turnHistory.pop();
 
+            checkWinCondition();
+            if (gameExited) return true;
 
-        if (redStonesHistory.isEmpty()) {
-            undoButton.setEnabled(false);
-        }
 
-        repaint();
-    }
+            if (capturedAny) {
+                showNotice("Captured opponent's stones! Place another stone.", NOTICE_INFO);
+                return true; // Player keeps the turn and will click again
+            }
+        } while (capturedAny);
 
 
-    /**
-     * Paints the game board, stones, current player turn indicator, and move validation hints.
+        isRedTurn = !isRedTurn;
+        fireTurnChanged();
+        repaint();
+        return true;
+    }
+    /**
+     * Turns this panel into a client of a {@link GameServer}. Clicks are sent to the server and
+     * stones are only placed once the server confirms them. Cell ids are indexes into {@code grid},
+     * which matches {@link HexBoard} when the grid is built the way {@code main} builds it.
      *
-     * @param g Graphics context
+     * @param client connected client for the game to show
      */
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
+    void connectTo(GameClient client) {
+        remote = client;
+        undoButton.setVisible(false);
+        newGameButton.setVisible(false);
+        List<Integer> played = client.attach(new GameClient.Listener() {
+            @Override
+            public void moved(int colour, int cell, HexBoard.MoveResult result) {
+                SwingUtilities.invokeLater(() -> placeStone(getHexCenter(grid.get(cell))));
+            }
 
-        g2.setColor(Color.BLACK);
-        g2.setStroke(new BasicStroke(3));
+            @Override
+            public void rejected(int cell, int reason) {
+                SwingUtilities.invokeLater(() -> showNotice(reason == GameProtocol.NOT_YOUR_TURN
+                        ? "Wait for your turn" : "Server refused the move", NOTICE_ERROR));
+            }
 
-        int circleX = 30;
-        int circleY = getHeight() - 50;
-        int circleDiameter = 30;
+            @Override
+            public void playerLeft(int colour) {
+                SwingUtilities.invokeLater(() -> showNotice((colour == HexBoard.RED ? "Red" : "Blue")
+                        + " player left the game", NOTICE_INFO));
+            }
 
-        // Draw vertices of each hexagon for reference.
-        for (ArrayList<Point> hexagon : grid) {
-            for (Point p : hexagon) {
-                int x = (int) Math.round(p.x);
-                int y = (int) Math.round(p.y);
-                g.fillOval(x - 3, y - 3, 6, 6);
+            @Override
+            public void disconnected() {
+                SwingUtilities.invokeLater(() -> showNotice("Disconnected from server", NOTICE_ERROR));
             }
+        });
+        for (int cell : played) {
+            placeStone(getHexCenter(grid.get(cell)));
         }
+        String role = client.getColour() == HexBoard.RED ? "red"
+                : client.getColour() == HexBoard.BLUE ? "blue" : "a spectator";
+        showNotice("Connected to server as " + role, NOTICE_INFO);
+    }
 
+    /**
+     * Lets the computer play one colour. Every stone placed on the panel advances the player's
+     * search tree, and the player ponders on a background thread while the human thinks.
+     * Undo and New Game restart its tree from the current position.
+     *
+     * @param player   search engine for this board size
+     * @param playsRed true if the computer plays red
+     * @param millis   thinking time per move in milliseconds, used when no time control is set
+     */
+    void setComputerPlayer(MctsPlayer player, boolean playsRed, long millis) {
+        HexBoard position = toBoard();
+        if (position == null) throw new IllegalStateException("the computer needs a full hexagonal board");
+        computer = player;
+        computerIsRed = playsRed;
+        computerMillis = millis;
+        player.reset(position);
+        addGameListener(new GameListener() {
+            @Override
+            public void stonePlaced(Point cell, boolean isRed) {
+                if (gameExited || gamePaused || computer != player || player.isClosed()) return;
+                player.play(cellIndex(cell));
+                SwingUtilities.invokeLater(HexGrid.this::computerTurn);
+            }
 
-        if (isRedTurn) {
-            g.setColor(Color.RED);
-            g.fillOval(circleX, circleY, circleDiameter, circleDiameter);
-            g.setColor(Color.BLACK);
-            g.setFont(new Font("SansSerif", Font.BOLD, 20));
-            g.drawString("Red Player's Turn", circleX + circleDiameter + 10, circleY + 23);
-        } else {
-            g.setColor(Color.BLUE);
-            g.fillOval(circleX, circleY, circleDiameter, circleDiameter);
-            g.setColor(Color.BLACK);
-            g.setFont(new Font("SansSerif", Font.BOLD, 20));
-            g.drawString("Blue Player's Turn", circleX + circleDiameter + 10, circleY + 23);
+            @Override
+            public void moveUndone() {
+                if (computer == player) restartComputer();
+            }
+
+            @Override
+            public void gameReset() {
+                if (computer == player) restartComputer();
+            }
+
+            @Override
+            public void gameOver(boolean redWins) {
+                if (computer != player) return;
+                // drop a move still being searched, whether the game ended on the board or on time
+                computerGeneration++;
+                computerThinking = false;
+                player.abort();
+            }
+        });
+        computerTurn();
+    }
+
+    private void restartComputer() {
+        if (computer == null || computer.isClosed()) return;
+        computerGeneration++;
+        computerThinking = false;
+        computer.abort(); // a search in progress would hold the player for its whole budget
+        computer.reset(toBoard());
+        SwingUtilities.invokeLater(this::computerTurn);
+    }
+
+    /**
+     * Starts the computer's search on a worker thread when it is to move, or lets it ponder otherwise.
+     */
+    private void computerTurn() {
+        if (computer == null || computer.isClosed() || computerThinking || gameExited || gamePaused) return;
+        if (isRedTurn != computerIsRed) {
+            computer.startPondering();
+            return;
         }
+        HexBoard position = toBoard();
+        int generation = computerGeneration;
+        computerThinking = true;
+        repaint();
+        Thread thinker = new Thread(() -> {
+            TimeManager.Budget budget = timeControl == null ? TimeManager.Budget.fixed(computerMillis)
+                    : timeControl.budget(clock == null ? 0 : clock.remainingMillis(computerIsRed), position);
+            int move = computer.chooseMove(position, budget);
+            SwingUtilities.invokeLater(() -> {
+                if (generation != computerGeneration) return; // the game changed while thinking
+                computerThinking = false;
+                if (move >= 0) placeStone(getHexCenter(grid.get(move)));
+            });
+        }, "computer-move");
+        thinker.setDaemon(true);
+        thinker.start();
+    }
 
+    /**
+     * Sets the time control. A game clock is shown for both players and switched on every turn
+     * change; a player whose time runs out loses. The computer player plans its thinking time
+     * with the control.
+     *
+     * @param control time per move or game clock, null to remove the clocks
+     */
+    void setTimeControl(TimeManager control) {
+        if (clockTimer != null) clockTimer.stop();
+        timeControl = control;
+        clock = control == null ? null : control.newClock();
+        if (clock == null) {
+            repaint();
+            return;
+        }
+        if (clockTimer == null) {
+            addGameListener(new GameListener() {
+                @Override
+                public void turnChanged(boolean isRedTurn) {
+                    if (clock != null && !gameExited && !gamePaused) clock.switchTo(isRedTurn);
+                }
+
+                @Override
+                public void moveUndone() {
+                    if (clock != null && !gameExited && !gamePaused) clock.resume(isRedTurn);
+                }
+
+                @Override
+                public void gameOver(boolean redWins) {
+                    if (clock != null) clock.stop();
+                }
+
+                @Override
+                public void gameReset() {
+                    if (clock != null) {
+                        clock.reset();
+                        clock.switchTo(true);
+                    }
+                }
+            });
+            clockTimer = new javax.swing.Timer(100, e -> checkClock());
+        }
+        if (!gameExited && !gamePaused) clock.switchTo(isRedTurn);
+        clockTimer.start();
+    }
+
+    GameClock getClock() {
+        return clock;
+    }
 
+    /**
+     * Repaints the clocks and ends the game when the player to move has run out of time.
+     */
+    private void checkClock() {
+        if (clock == null) return;
+        repaint();
+        if (gameExited || gamePaused || !clock.isFlagged(isRedTurn)) return;
+        gameExited = true;
+        clock.stop();
+        undoButton.setEnabled(false);
+        showGameOver((isRedTurn ? "Red" : "Blue") + " ran out of time. "
+                + (isRedTurn ? "Blue" : "Red") + " player wins!");
+        for (GameListener listener : listeners) {
+            listener.gameOver(!isRedTurn);
+        }
+    }
+
+    /**
+     * Draws both players' remaining time at the bottom right, the running clock in its colour.
+     */
+    private void drawClocks(Graphics2D g2, int baseline) {
+        g2.setFont(new Font("Monospaced", Font.BOLD, 20));
+        FontMetrics metrics = g2.getFontMetrics();
+        String red = "Red " + GameClock.format(clock.remainingMillis(true));
+        String blue = "Blue " + GameClock.format(clock.remainingMillis(false));
+        int x = getWidth() - 30 - metrics.stringWidth(red) - 20 - metrics.stringWidth(blue);
+        g2.setColor(clock.getRunning() == HexBoard.RED ? Color.RED : Color.GRAY);
+        g2.drawString(red, x, baseline);
+        g2.setColor(clock.getRunning() == HexBoard.BLUE ? Color.BLUE : Color.GRAY);
+        g2.drawString(blue, x + metrics.stringWidth(red) + 20, baseline);
+    }
+
+    /**
+     * Returns the cell id of a cell center, which is its index in the grid.
+     *
+     * @param center center of a hexagon
+     * @return index in {@code grid}, or -1 if no hexagon has this center
+     */
+    int cellIndex(Point center) {
+        Integer cell = cellIds.get(center);
+        return cell == null ? -1 : cell;
+    }
+
+    private void sendRemoteMove(int cell) {
+        try {
+            remote.play(cell);
+        } catch (java.io.IOException ex) {
+            showNotice("Could not reach server: " + ex.getMessage(), NOTICE_ERROR);
+        }
+    }
+    /**
+     * Reports a refused placement as a notice and to all game listeners.
+     *
+     * @param center center of the refused cell
+     * @param reason why the placement was refused
+     */
+    private void rejectMove(Point center, String reason) {
+        showNotice(reason, NOTICE_ERROR);
+        for (GameListener listener : listeners) {
+            listener.moveRejected(center, reason);
+        }
+    }
+    /**
+     * Returns the stream of typed game events for this panel, creating it on first use.
+     * Subscribers are served on background threads with bounded buffers and never slow the game down.
+     *
+     * @return publisher of this panel's game events
+     */
+    public GameEventPublisher getEventStream() {
+        if (eventStream == null) {
+            eventStream = new GameEventPublisher();
+            addGameListener(eventStream);
+        }
+        return eventStream;
+    }
+    /**
+     * Registers a listener to receive game events from this panel.
+     *
+     * @param listener listener to add
+     */
+    public void addGameListener(GameListener listener) {
+        listeners.add(listener);
+    }
+    /**
+     * Removes a previously registered game listener.
+     *
+     * @param listener listener to remove
+     */
+    public void removeGameListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireStonePlaced(Point cell, boolean isRed) {
+        for (GameListener listener : listeners) {
+            listener.stonePlaced(cell, isRed);
+        }
+    }
+
+    private void fireStonesCaptured(Set<Point> captured, boolean byRed) {
+        Set<Point> copy = Collections.unmodifiableSet(new HashSet<>(captured));
+        for (GameListener listener : listeners) {
+            listener.stonesCaptured(copy, byRed);
+        }
+    }
+
+    private void fireTurnChanged() {
+        for (GameListener listener : listeners) {
+            listener.turnChanged(isRedTurn);
+        }
+    }
+    /**
+     * Shows a short message drawn on top of the board. The message disappears on its own
+     * after a few seconds, so the player is never stopped by a modal dialog.
+     *
+     * @param message text to display
+     * @param color   background color of the notice
+     */
+    void showNotice(String message, Color color) {
+        notice = message;
+        noticeColor = color;
+        noticeTimer.restart();
+        repaint();
+    }
+    /**
+     * Returns the notice currently shown on the board.
+     *
+     * @return notice text, or null if none is shown
+     */
+    String getNotice() {
+        return notice;
+    }
+    /**
+     * Exits the game immediately and closes the application.
+     */
+    void exitGame() {
+        gameExited = true;
+        System.exit(0);
+    }
+    /**
+     * Checks if the game has been exited by the player.
+     *
+     * @return true if the game was exited, false otherwise
+     */
+    public boolean isGameExited() {
+        return gameExited;
+    }
+
+    /**
+     * Computes the center point of a hexagon by averaging its vertices.
+     *
+     * @param hexagon list of Points representing hexagon vertices
+     * @return center Point of the hexagon
+     */
+    Point getHexCenter(ArrayList<Point> hexagon) {
+        return hexCenter(hexagon);
+    }
+
+    /**
+     * Computes the center point of a hexagon without a panel, for code that works on the
+     * geometry alone.
+     *
+     * @param hexagon list of Points representing hexagon vertices
+     * @return center Point of the hexagon
+     */
+    static Point hexCenter(ArrayList<Point> hexagon) {
+        double sumX = 0;
+        double sumY = 0;
+        for (Point p : hexagon) {
+            sumX += p.x;
+            sumY += p.y;
+        }
+        return new Point(sumX / hexagon.size(), sumY / hexagon.size());
+    }
+
+    /**
+     * Retrieves centers of adjacent hexagons around a given hex center.
+     *
+     * @param center target hexagon's center Point
+     * @return list of neighbor centers
+     */
+    ArrayList<Point> getNeighborCenters(Point center) {
+        ArrayList<Point> neighbors = new ArrayList<>();
+        for (ArrayList<Point> hexagon : grid) {
+            Point neighbor = getHexCenter(hexagon);
+            double distance = Math.sqrt(Math.pow(center.x - neighbor.x, 2) + Math.pow(center.y - neighbor.y, 2));
+            // Using 45 as the approximate center-to-center distance threshold
+            if (distance > 0 && distance <= 45) {
+                neighbors.add(neighbor);
+            }
+        }
+        return neighbors;
+    }
+    /**
+     * Checks whether a cell has a neighboring enemy stone.
+     *
+     * @param center Point to check neighbors around
+     * @param isRed  true if checking for red player's move
+     * @return true if an enemy is adjacent, false otherwise
+     */
+
+    private boolean hasEnemyConnection(Point center, boolean isRed) {
+        ArrayList<Point> neighbors = getNeighborCenters(center);
+        for (Point neighbor : neighbors) {
+            if (isRed && blueStones.contains(neighbor)) {
+                return true;
+            } else if (!isRed && redStones.contains(neighbor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Determines if a group of connected stones is adjacent to any enemy stones.
+     *
+     * @param center starting Point of the group
+     * @param isRed  true if red's group, false if blue's
+     * @return true if group touches enemy, false otherwise
+     */
+    private boolean isGroupConnectedToEnemy(Point center, boolean isRed) {
+        Set<Point> group = findGroup(center, isRed ? redStones : blueStones);
+        for (Point stone : group) {
+            if (hasEnemyConnection(stone, isRed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Finds all stones connected to a given stone via neighboring positions.
+     *
+     * @param stone  starting Point
+     * @param stones list of same-color stones
+     * @return set of connected stones including the starting stone
+     */
+    Set<Point> findGroup(Point stone, ArrayList<Point> stones) {
+        Set<Point> group = new HashSet<>();
+        if (!stones.contains(stone)) return group;
+
+        Queue<Point> queue = new LinkedList<>();
+        queue.add(stone);
+        group.add(stone);
+
+        while (!queue.isEmpty()) {
+            Point current = queue.poll();
+            for (Point neighbor : getNeighborCenters(current)) {
+                if (stones.contains(neighbor) && !group.contains(neighbor)) {
+                    group.add(neighbor);
+                    queue.add(neighbor);
+                }
+            }
+        }
+        return group;
+    }
+    /**
+     * Saves the current board state (both players' stones and turn history) to enable undo.
+     */
+    void saveGameState() {
+
+        ArrayList<Point> redStonesCopy = new ArrayList<>();
         for (Point p : redStones) {
-            g2.setColor(Color.RED);
-            int radius = 15;
-            g2.fillOval((int)(p.x - radius), (int)(p.y - radius), 2 * radius, 2 * radius);
+            redStonesCopy.add(new Point(p.x, p.y));
         }
+
+        ArrayList<Point> blueStonesCopy = new ArrayList<>();
         for (Point p : blueStones) {
-            g2.setColor(Color.BLUE);
-            int radius = 15;
-            g2.fillOval((int)(p.x - radius), (int)(p.y - radius), 2 * radius, 2 * radius);
+            blueStonesCopy.add(new Point(p.x, p.y));
+        }
+
+
+        redStonesHistory.push(redStonesCopy);
+        blueStonesHistory.push(blueStonesCopy);
+        turnHistory.push(isRedTurn);
+
+
+        undoButton.setEnabled(true);
+    }
+    /**
+     * Clears the board and the undo history and gives the first move to red.
+     */
+    void resetGame() {
+        if (replay != null) {
+            endReplay();
+        }
+        if (puzzles != null) {
+            endPuzzles();
+        }
+        redStones.clear();
+        blueStones.clear();
+        isRedTurn = true;
+        hoveredCell = null;
+        gameExited = false;
+        gamePaused = false; // the gameReset listeners below restart the computer and the clock
+
+
+        redStonesHistory.clear();
+        blueStonesHistory.clear();
+        turnHistory.clear();
+        undoButton.setEnabled(false);
+
+
+        invalidate();
+        validate();
+        repaint();
+
+        for (GameListener listener : listeners) {
+            listener.gameReset();
+        }
+    }
+    /**
+     * Reverts the game to the previous saved state from the undo stack.
+     */
+    void undoLastMove() {
+        if (redStonesHistory.isEmpty() || blueStonesHistory.isEmpty() || turnHistory.isEmpty()) {
+
+            undoButton.setEnabled(false);
+            return;
+        }
+
+
+        redStones = redStonesHistory.pop();
+        blueStones = blueStonesHistory.pop();
+        isRedTurn = turnHistory.pop();
+
+
+        if (redStonesHistory.isEmpty()) {
+            undoButton.setEnabled(false);
         }
 
-        g2.setColor(Color.BLACK);
+        for (GameListener listener : listeners) {
+            listener.moveUndone();
+        }
+        repaint();
+    }
 
-        for (ArrayList<Point> hexagon : grid) {
-            g.setColor(Color.BLACK);
-            int p1xi, p1yi, p2xi, p2yi;
-            Point p1 = hexagon.get(0), p2;
-            for (int i = 1; i < hexagon.size(); i++) {
-                p2 = hexagon.get(i);
-                p1xi = (int) Math.round(p1.x);
-                p1yi = (int) Math.round(p1.y);
-                p2xi = (int) Math.round(p2.x);
-                p2yi = (int) Math.round(p2.y);
-                g.drawLine(p1xi, p1yi, p2xi, p2yi);
-                p1 = p2;
-            }
-            p2 = hexagon.get(0);
-            p1xi = (int) Math.round(p1.x);
-            p1yi = (int) Math.round(p1.y);
-            p2xi = (int) Math.round(p2.x);
-            p2yi = (int) Math.round(p2.y);
-            g.drawLine(p1xi, p1yi, p2xi, p2yi);
 
+    /**
+     * Paints the game board, stones, current player turn indicator, and move validation hints.
+     *
+     * @param g Graphics context
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
 
-            Point center = getHexCenter(hexagon);
-            if (redStones.contains(center)) {
-                g.setColor(Color.RED);
-                fillHexagon(g, hexagon);
-            } else if (blueStones.contains(center)) {
-                g.setColor(Color.BLUE);
-                fillHexagon(g, hexagon);
-            }
+        int[] stones = new int[grid.size()];
+        for (int cell = 0; cell < grid.size(); cell++) {
+            Point center = getHexCenter(grid.get(cell));
+            if (redStones.contains(center)) stones[cell] = HexBoard.RED;
+            else if (blueStones.contains(center)) stones[cell] = HexBoard.BLUE;
         }
+        drawBoard(g2, grid, stones);
+        drawTurn(g2, isRedTurn, getHeight());
+        if (analysis != null) {
+            drawAnalysis(g2, analysis);
+        }
+
+        if (clock != null) {
+            drawClocks(g2, getHeight() - 50 + 23);
+        }
+
         if (hoveredCell != null) {
             boolean isValidMove = true;
 
@@ -858,11 +1339,422 @@ public class HexGrid extends JPanel {
             if (isValidMove) {
                 g.setColor(Color.GREEN);
                 g.drawString("✔", (int) hoveredCell.x - 10, (int) hoveredCell.y + 10);
+                drawBookHint(g2, hoveredCell);
             } else {
                 g.setColor(Color.RED);
                 g.drawString("✘", (int) hoveredCell.x - 10, (int) hoveredCell.y + 10);
             }
         }
+
+        if (replay != null) {
+            g2.setFont(new Font("SansSerif", Font.BOLD, 14));
+            g2.setColor(Color.BLACK);
+            g2.drawString("Move " + replay.getPly() + " of " + replay.length(), 400, 75);
+        }
+
+        if (puzzles != null) {
+            PuzzleGenerator.Puzzle puzzle = puzzles.get(puzzleIndex);
+            g2.setFont(new Font("SansSerif", Font.BOLD, 14));
+            g2.setColor(Color.BLACK);
+            g2.drawString("Puzzle " + (puzzleIndex + 1) + " of " + puzzles.size() + ": win in "
+                    + puzzle.depth() + (puzzle.depth() == 1 ? " capture" : " captures"), 400, 75);
+        }
+
+        if (notice != null) {
+            drawNotice(g2, notice, noticeColor);
+        }
+    }
+    /**
+     * Shows a recorded game instead of the live one. Moves are chosen with a slider or the
+     * arrow, Home and End keys; clicks on the board are ignored until New Game is pressed.
+     *
+     * @param game recorded game on a board with the same cells as this grid
+     */
+    void startReplay(GameReplay game) {
+        if (game.getBoard().cellCount() != grid.size()) {
+            throw new IllegalArgumentException("the game was played on a different board size");
+        }
+        if (replay != null) {
+            endReplay();
+        }
+        if (puzzles != null) {
+            endPuzzles();
+        }
+        pauseGame();
+        replay = game;
+        undoButton.setEnabled(false);
+        replaySlider = new JSlider(0, game.length(), 0);
+        replaySlider.setBounds(400, 20, 360, 40);
+        replaySlider.setOpaque(false);
+        replaySlider.addChangeListener(e -> showReplayMove(replaySlider.getValue()));
+        add(replaySlider);
+
+        InputMap keys = getInputMap(WHEN_IN_FOCUSED_WINDOW);
+        keys.put(KeyStroke.getKeyStroke("LEFT"), "replayBack");
+        keys.put(KeyStroke.getKeyStroke("RIGHT"), "replayForward");
+        keys.put(KeyStroke.getKeyStroke("HOME"), "replayStart");
+        keys.put(KeyStroke.getKeyStroke("END"), "replayEnd");
+        getActionMap().put("replayBack", replayAction(-1));
+        getActionMap().put("replayForward", replayAction(1));
+        getActionMap().put("replayStart", replayAction(-Integer.MAX_VALUE));
+        getActionMap().put("replayEnd", replayAction(Integer.MAX_VALUE));
+        showReplayMove(0);
+        revalidate();
+    }
+
+    private Action replayAction(int step) {
+        return new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                if (replaySlider == null) return;
+                long target = (long) replaySlider.getValue() + step;
+                replaySlider.setValue((int) Math.max(0, Math.min(replay.length(), target)));
+            }
+        };
+    }
+
+    /**
+     * Shows the replayed game after a number of moves.
+     *
+     * @param ply number of moves played
+     */
+    void showReplayMove(int ply) {
+        if (replay == null) return;
+        showPosition(replay.seek(ply));
+        if (replaySlider != null && replaySlider.getValue() != ply) {
+            replaySlider.setValue(ply);
+        }
+        repaint();
+    }
+
+    /**
+     * Stops the computer's search and the clock while the board shows something other than the
+     * game. They stay stopped until {@link #resetGame()} starts a new game.
+     */
+    private void pauseGame() {
+        gamePaused = true;
+        computerGeneration++;
+        computerThinking = false;
+        if (computer != null) {
+            computer.abort(); // ends a search or pondering at its next iteration
+            computer.stopPondering();
+        }
+        if (clock != null) clock.stop();
+    }
+
+    /**
+     * Leaves replay mode and removes its controls; the board keeps the shown position until reset.
+     */
+    private void endReplay() {
+        replay = null;
+        if (replaySlider != null) {
+            remove(replaySlider);
+            replaySlider = null;
+        }
+        InputMap keys = getInputMap(WHEN_IN_FOCUSED_WINDOW);
+        for (String key : new String[] {"LEFT", "RIGHT", "HOME", "END"}) {
+            keys.remove(KeyStroke.getKeyStroke(key));
+        }
+        repaint();
+    }
+
+    GameReplay getReplay() {
+        return replay;
+    }
+
+    /**
+     * Replaces the stones and the turn with a headless board's position and restarts the
+     * analysis on it, since no game listener hears of the change.
+     */
+    private void showPosition(HexBoard board) {
+        redStones.clear();
+        blueStones.clear();
+        for (int cell = 0; cell < grid.size(); cell++) {
+            int stone = board.get(cell);
+            if (stone == HexBoard.RED) redStones.add(getHexCenter(grid.get(cell)));
+            else if (stone == HexBoard.BLUE) blueStones.add(getHexCenter(grid.get(cell)));
+        }
+        isRedTurn = board.isRedTurn();
+        hoveredCell = null;
+        bookPosition = null;
+        restartAnalysis();
+    }
+
+    /**
+     * Starts puzzle mode: the player to move must win with captures alone. A move that does not
+     * capture restarts the puzzle; N goes to the next puzzle and R restarts the current one.
+     *
+     * @param list  puzzles made by {@link PuzzleGenerator} for a board with the same cells as this grid
+     * @param index puzzle to show first
+     */
+    void startPuzzles(List<PuzzleGenerator.Puzzle> list, int index) {
+        if (list.isEmpty() || BoardTopology.of(list.get(0).getRadius()).cellCount() != grid.size()) {
+            throw new IllegalArgumentException("the puzzles are for a different board size");
+        }
+        if (replay != null) {
+            endReplay();
+        }
+        pauseGame();
+        puzzles = list;
+        InputMap keys = getInputMap(WHEN_IN_FOCUSED_WINDOW);
+        keys.put(KeyStroke.getKeyStroke('n'), "puzzleNext");
+        keys.put(KeyStroke.getKeyStroke('r'), "puzzleRestart");
+        getActionMap().put("puzzleNext", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                if (puzzles != null) showPuzzle((puzzleIndex + 1) % puzzles.size());
+            }
+        });
+        getActionMap().put("puzzleRestart", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                if (puzzles != null) showPuzzle(puzzleIndex);
+            }
+        });
+        showPuzzle(Math.floorMod(index, list.size()));
+    }
+
+    /**
+     * Sets up one puzzle's position with an empty undo history.
+     *
+     * @param index puzzle number, starting at 0
+     */
+    void showPuzzle(int index) {
+        if (puzzles == null) return;
+        pauseGame();
+        puzzleIndex = index;
+        PuzzleGenerator.Puzzle puzzle = puzzles.get(index);
+        gameExited = false;
+        showPosition(puzzle.toBoard());
+        redStonesHistory.clear();
+        blueStonesHistory.clear();
+        turnHistory.clear();
+        undoButton.setEnabled(false);
+        showNotice((puzzle.isRedTurn() ? "Red" : "Blue") + " to move: capture until every enemy stone is gone", NOTICE_INFO);
+    }
+
+    /**
+     * Judges the move just placed in puzzle mode: a win solves the puzzle, a capture keeps the
+     * turn and the puzzle goes on, and any other move restarts it.
+     */
+    private void checkPuzzle() {
+        PuzzleGenerator.Puzzle puzzle = puzzles.get(puzzleIndex);
+        if (gameExited) {
+            showGameOver("Puzzle solved! Press N for the next puzzle.");
+        } else if (isRedTurn != puzzle.isRedTurn()) {
+            showPuzzle(puzzleIndex);
+            showNotice("That move did not capture. Try again.", NOTICE_ERROR);
+        }
+    }
+
+    /**
+     * Leaves puzzle mode; the board keeps the shown position until reset.
+     */
+    private void endPuzzles() {
+        puzzles = null;
+        InputMap keys = getInputMap(WHEN_IN_FOCUSED_WINDOW);
+        keys.remove(KeyStroke.getKeyStroke('n'));
+        keys.remove(KeyStroke.getKeyStroke('r'));
+        repaint();
+    }
+
+    /**
+     * Returns the puzzle being shown.
+     *
+     * @return puzzle, or null outside puzzle mode
+     */
+    PuzzleGenerator.Puzzle getPuzzle() {
+        return puzzles == null ? null : puzzles.get(puzzleIndex);
+    }
+
+    /**
+     * Turns the analysis overlay on or off. While on, every legal cell is shaded by the
+     * estimated win probability of playing there, from playouts that keep running in the
+     * background and are redrawn about every 100 ms. The analysis restarts after every move.
+     *
+     * @param on true to show the overlay
+     */
+    void setAnalysis(boolean on) {
+        if (!on) {
+            if (analyzer != null) {
+                analyzer.close();
+                analyzer = null;
+            }
+            analysis = null;
+            repaint();
+            return;
+        }
+        if (analyzer != null) return;
+        analyzer = new MoveAnalyzer(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), System.nanoTime());
+        if (!analysisListening) {
+            // The listener stays registered; it does nothing while the analysis is off
+            analysisListening = true;
+            addGameListener(new GameListener() {
+                @Override
+                public void stonePlaced(Point cell, boolean isRed) {
+                    SwingUtilities.invokeLater(HexGrid.this::restartAnalysis);
+                }
+
+                @Override
+                public void moveUndone() {
+                    SwingUtilities.invokeLater(HexGrid.this::restartAnalysis);
+                }
+
+                @Override
+                public void gameReset() {
+                    SwingUtilities.invokeLater(HexGrid.this::restartAnalysis);
+                }
+            });
+        }
+        restartAnalysis();
+    }
+
+    /**
+     * Starts analysing the shown position and drops the estimates of the previous one.
+     */
+    void restartAnalysis() {
+        if (analyzer == null) return;
+        int generation = ++analysisGeneration;
+        analysis = null;
+        HexBoard board = toBoard();
+        if (board == null || gameExited) {
+            analyzer.stop();
+            repaint();
+            return;
+        }
+        analyzer.start(board, generation, snapshot -> SwingUtilities.invokeLater(() -> {
+            if (analyzer != null && snapshot.generation == analysisGeneration) {
+                analysis = snapshot;
+                repaint();
+            }
+        }));
+        repaint();
+    }
+
+    MoveAnalyzer.Snapshot getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * Shades each analysed cell from red (likely loss) to green (likely win) for the player to
+     * move and prints the estimate in percent.
+     */
+    private void drawAnalysis(Graphics2D g2, MoveAnalyzer.Snapshot snapshot) {
+        g2.setFont(new Font("SansSerif", Font.BOLD, 11));
+        FontMetrics metrics = g2.getFontMetrics();
+        for (int cell = 0; cell < grid.size(); cell++) {
+            double rate = snapshot.winRate(cell);
+            if (Double.isNaN(rate)) continue;
+            int red = (int) Math.round(255 * Math.min(1, 2 * (1 - rate)));
+            int green = (int) Math.round(255 * Math.min(1, 2 * rate));
+            g2.setColor(new Color(red, green, 0, 120));
+            fillHexagon(g2, grid.get(cell));
+            Point center = getHexCenter(grid.get(cell));
+            String text = Math.round(rate * 100) + "";
+            g2.setColor(Color.BLACK);
+            g2.drawString(text, (int) center.x - metrics.stringWidth(text) / 2, (int) center.y + metrics.getAscent() / 2);
+        }
+        g2.drawString(String.format("Analysis: %,d playouts", snapshot.totalPlayouts()), 400, 90);
+    }
+
+    /**
+     * Sets the opening book used for the hover hint; null disables the hint.
+     *
+     * @param book opening book for this board size
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.openingBook = book;
+        bookPosition = null;
+        if (!bookListening) {
+            // The listener stays registered; it only drops the cached position
+            bookListening = true;
+            addGameListener(new GameListener() {
+                @Override
+                public void stonePlaced(Point cell, boolean isRed) {
+                    bookPosition = null;
+                }
+
+                @Override
+                public void stonesCaptured(Set<Point> captured, boolean byRed) {
+                    bookPosition = null;
+                }
+
+                @Override
+                public void turnChanged(boolean isRedTurn) {
+                    bookPosition = null;
+                }
+
+                @Override
+                public void moveUndone() {
+                    bookPosition = null;
+                }
+
+                @Override
+                public void gameReset() {
+                    bookPosition = null;
+                }
+            });
+        }
+        repaint();
+    }
+
+    /**
+     * Builds a headless board holding the current position. Cell ids follow the grid order,
+     * which matches {@link BoardTopology} when the grid was built from it.
+     *
+     * @return board, or null if the grid is not a full hexagonal board
+     */
+    HexBoard toBoard() {
+        int radius = 0;
+        while (3 * radius * (radius + 1) + 1 < grid.size()) radius++;
+        if (3 * radius * (radius + 1) + 1 != grid.size()) return null;
+        int[] stones = new int[grid.size()];
+        for (Point stone : redStones) {
+            int cell = cellIndex(stone);
+            if (cell >= 0) stones[cell] = HexBoard.RED;
+        }
+        for (Point stone : blueStones) {
+            int cell = cellIndex(stone);
+            if (cell >= 0) stones[cell] = HexBoard.BLUE;
+        }
+        HexBoard board = new HexBoard(radius);
+        board.setPosition(stones, isRedTurn);
+        return board;
+    }
+
+    /**
+     * Draws the opening book score of a hovered move next to its indicator.
+     */
+    private void drawBookHint(Graphics2D g2, Point cell) {
+        if (openingBook == null) return;
+        if (bookPosition == null) bookPosition = toBoard();
+        if (bookPosition == null) return;
+        OpeningBook.Entry entry = openingBook.probe(bookPosition, cellIndex(cell));
+        if (entry == null) return;
+        g2.setFont(new Font("SansSerif", Font.BOLD, 12));
+        g2.setColor(Color.BLACK);
+        g2.drawString(String.format("%.0f%% of %d", entry.winRate() * 100, entry.games),
+                (int) cell.x - 18, (int) cell.y + 24);
+    }
+
+    /**
+     * Draws a notice banner centered near the top of the panel, below the buttons.
+     *
+     * @param g2      Graphics context
+     * @param message text to display
+     * @param color   banner background color
+     */
+    private void drawNotice(Graphics2D g2, String message, Color color) {
+        g2.setFont(new Font("SansSerif", Font.BOLD, 16));
+        FontMetrics metrics = g2.getFontMetrics();
+        int width = metrics.stringWidth(message) + 30;
+        int height = metrics.getHeight() + 16;
+        int x = Math.max(10, (getWidth() - width) / 2);
+        int y = 75;
+        g2.setColor(color);
+        g2.fillRoundRect(x, y, width, height, 16, 16);
+        g2.setColor(Color.WHITE);
+        g2.drawString(message, x + 15, y + 8 + metrics.getAscent());
     }
     /**
      * Checks for a win condition after each move. Ends the game if one player has no stones left.
@@ -877,25 +1769,116 @@ public class HexGrid extends JPanel {
         if (redStones.isEmpty() && !blueStones.isEmpty()) {
             gameExited = true;
             undoButton.setEnabled(false);  // Disable undo button
-            JOptionPane.showMessageDialog(this,
-                    "Blue player wins! All red stones have been captured.",
-                    "Game Over", JOptionPane.INFORMATION_MESSAGE);
+            showGameOver("Blue player wins! All red stones have been captured.");
+            for (GameListener listener : listeners) {
+                listener.gameOver(false);
+            }
         }
         else if (blueStones.isEmpty() && !redStones.isEmpty()) {
             gameExited = true;
             undoButton.setEnabled(false);  // Disable undo button
-            JOptionPane.showMessageDialog(this,
-                    "Red player wins! All blue stones have been captured.",
-                    "Game Over", JOptionPane.INFORMATION_MESSAGE);
+            showGameOver("Red player wins! All blue stones have been captured.");
+            for (GameListener listener : listeners) {
+                listener.gameOver(true);
+            }
+        }
+    }
+    /**
+     * Shows a game over message that stays on the board until a new game is started.
+     *
+     * @param message text to display
+     */
+    private void showGameOver(String message) {
+        noticeTimer.stop();
+        notice = message;
+        noticeColor = NOTICE_INFO;
+        repaint();
+    }
+    /**
+     * Draws the board: hexagon outlines with their vertices, and the stones. Shared by the panel
+     * and by {@link BoardRenderer}, which draws on off-screen images.
+     *
+     * @param g2     Graphics context
+     * @param grid   hexagon vertex lists, one per cell
+     * @param stones EMPTY, RED or BLUE per cell, in grid order
+     */
+    static void drawBoard(Graphics2D g2, List<ArrayList<Point>> grid, int[] stones) {
+        g2.setColor(Color.BLACK);
+        g2.setStroke(new BasicStroke(3));
+
+        // Draw vertices of each hexagon for reference.
+        for (ArrayList<Point> hexagon : grid) {
+            for (Point p : hexagon) {
+                int x = (int) Math.round(p.x);
+                int y = (int) Math.round(p.y);
+                g2.fillOval(x - 3, y - 3, 6, 6);
+            }
+        }
+
+        for (int cell = 0; cell < grid.size(); cell++) {
+            if (stones[cell] == HexBoard.EMPTY) continue;
+            Point p = hexCenter(grid.get(cell));
+            g2.setColor(stones[cell] == HexBoard.RED ? Color.RED : Color.BLUE);
+            int radius = 15;
+            g2.fillOval((int)(p.x - radius), (int)(p.y - radius), 2 * radius, 2 * radius);
+        }
+
+        for (int cell = 0; cell < grid.size(); cell++) {
+            ArrayList<Point> hexagon = grid.get(cell);
+            g2.setColor(Color.BLACK);
+            int p1xi, p1yi, p2xi, p2yi;
+            Point p1 = hexagon.get(0), p2;
+            for (int i = 1; i < hexagon.size(); i++) {
+                p2 = hexagon.get(i);
+                p1xi = (int) Math.round(p1.x);
+                p1yi = (int) Math.round(p1.y);
+                p2xi = (int) Math.round(p2.x);
+                p2yi = (int) Math.round(p2.y);
+                g2.drawLine(p1xi, p1yi, p2xi, p2yi);
+                p1 = p2;
+            }
+            p2 = hexagon.get(0);
+            p1xi = (int) Math.round(p1.x);
+            p1yi = (int) Math.round(p1.y);
+            p2xi = (int) Math.round(p2.x);
+            p2yi = (int) Math.round(p2.y);
+            g2.drawLine(p1xi, p1yi, p2xi, p2yi);
+
+            if (stones[cell] == HexBoard.RED) {
+                g2.setColor(Color.RED);
+                fillHexagon(g2, hexagon);
+            } else if (stones[cell] == HexBoard.BLUE) {
+                g2.setColor(Color.BLUE);
+                fillHexagon(g2, hexagon);
+            }
         }
     }
+
+    /**
+     * Draws the turn indicator in the bottom left corner.
+     *
+     * @param g         Graphics context
+     * @param isRedTurn true if red is to move
+     * @param height    height of the drawing area
+     */
+    static void drawTurn(Graphics g, boolean isRedTurn, int height) {
+        int circleX = 30;
+        int circleY = height - 50;
+        int circleDiameter = 30;
+        g.setColor(isRedTurn ? Color.RED : Color.BLUE);
+        g.fillOval(circleX, circleY, circleDiameter, circleDiameter);
+        g.setColor(Color.BLACK);
+        g.setFont(TURN_FONT);
+        g.drawString(isRedTurn ? "Red Player's Turn" : "Blue Player's Turn", circleX + circleDiameter + 10, circleY + 23);
+    }
+
     /**
      * Fills a hexagon on the board with the current player's color.
      *
      * @param g       Graphics context
      * @param hexagon list of vertices defining the hexagon
      */
-    private void fillHexagon(Graphics g, ArrayList<Point> hexagon) {
+    private static void fillHexagon(Graphics g, ArrayList<Point> hexagon) {
         int[] xPoints = new int[hexagon.size()];
         int[] yPoints = new int[hexagon.size()];
         for (int i = 0; i < hexagon.size(); i++) {
@@ -908,11 +1891,18 @@ public class HexGrid extends JPanel {
      * Main application entry point. Creates a hexagonal grid layout, initializes the JFrame,
      * and starts a text-based quit option listener.
      *
-     * @param args expects three arguments: size, originx, originy
+     * @param args expects three arguments: size, originx, originy,
+     *             optionally followed by a server host:port and game id to play over the network
      */
-    public static void main(String[] args) {
-        if (args.length != 3) {
-            System.err.println("java HexGrid <size> <originx> <originy>");
+    public static void main(String[] args) throws java.io.IOException {
+        if (args.length > 0 && args[0].equals("--engine")) {
+            // Headless engine protocol on stdin/stdout, no window
+            EngineProtocol.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length != 3 && args.length != 5) {
+            System.err.println("java HexGrid <size> <originx> <originy> [<host:port> <gameId>]");
+            System.err.println("java HexGrid --engine [--batch] [radius]");
             System.exit(1);
         }
 
@@ -931,50 +1921,136 @@ public class HexGrid extends JPanel {
                 new Point(originx, originy));
 
         int baseN = 6;
-        ArrayList<ArrayList<Point>> grid = new ArrayList<>();
-        for (int q = -baseN; q <= baseN; q++) {
-            for (int r = -baseN; r <= baseN; r++) {
-                for (int s = -baseN; s <= baseN; s++) {
-                    if ((q + r + s) == 0) {
-                        HexCube h = new HexCube(q, r, s);
-                        ArrayList<Point> corners = flat.polygonCorners(h);
-                        grid.add(corners);
-                    }
+        // With a cache file the corners are read back instead of computed
+        String geometryCache = System.getProperty("hexoust.geometryCache");
+        BoardTopology topology = BoardTopology.of(baseN);
+        ArrayList<ArrayList<Point>> grid = (geometryCache != null
+                ? topology.geometry(flat, java.nio.file.Path.of(geometryCache)) : topology.geometry(flat)).hexagons();
+
+        // The window is built on the event thread while this thread loads the optional parts,
+        // which are handed to the panel once it is showing
+        JFrame[] frame = new JFrame[1];
+        HexGrid[] panel = new HexGrid[1];
+        SwingUtilities.invokeLater(() -> {
+            frame[0] = new JFrame("HexGrid");
+            panel[0] = new HexGrid(grid);
+            frame[0].add(panel[0]);
+            frame[0].setSize(800, 1000);
+            frame[0].setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame[0].setLocationRelativeTo(null);
+            frame[0].addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    // Center the window after it's shown
+                    frame[0].setLocationRelativeTo(null);
                 }
+            });
+            frame[0].setVisible(true);
+        });
+
+        String book = System.getProperty("hexoust.book");
+        OpeningBook openingBook = null;
+        if (book != null) {
+            try {
+                openingBook = OpeningBook.open(java.nio.file.Path.of(book));
+                OpeningBook hints = openingBook;
+                SwingUtilities.invokeLater(() -> panel[0].setOpeningBook(hints));
+            } catch (java.io.IOException e) {
+                System.err.println("Could not open opening book " + book + ": " + e.getMessage());
             }
         }
-
-        JFrame frame = new JFrame("HexGrid");
-        HexGrid panel = new HexGrid(grid);
-        frame.add(panel);
-        frame.setSize(800, 1000);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-
-
-        frame.setLocationRelativeTo(null);
-
-
-        frame.addWindowListener(new WindowAdapter() {
-            @Override
-            public void windowOpened(WindowEvent e) {
-                // Center the window after it's shown
-                frame.setLocationRelativeTo(null);
+        String replayFile = System.getProperty("hexoust.replay");
+        if (replayFile != null) {
+            // file or file#index, the first game by default
+            int hash = replayFile.lastIndexOf('#');
+            try {
+                GameReplay game = hash < 0 ? GameReplay.load(java.nio.file.Path.of(replayFile), 0)
+                        : GameReplay.load(java.nio.file.Path.of(replayFile.substring(0, hash)), Integer.parseInt(replayFile.substring(hash + 1)));
+                SwingUtilities.invokeLater(() -> panel[0].startReplay(game));
+            } catch (java.io.IOException | IllegalArgumentException e) {
+                System.err.println("Could not replay " + replayFile + ": " + e.getMessage());
             }
-        });
-
-        frame.setVisible(true);
+        }
+        String puzzleFile = System.getProperty("hexoust.puzzles");
+        if (puzzleFile != null) {
+            // file or file#index, the first puzzle by default
+            int hash = puzzleFile.lastIndexOf('#');
+            try {
+                List<PuzzleGenerator.Puzzle> list = PuzzleGenerator.load(java.nio.file.Path.of(hash < 0 ? puzzleFile : puzzleFile.substring(0, hash)));
+                int index = hash < 0 ? 0 : Integer.parseInt(puzzleFile.substring(hash + 1));
+                SwingUtilities.invokeLater(() -> panel[0].startPuzzles(list, index));
+            } catch (java.io.IOException | IllegalArgumentException e) {
+                System.err.println("Could not load puzzles " + puzzleFile + ": " + e.getMessage());
+            }
+        }
+        if (Boolean.getBoolean("hexoust.analysis")) {
+            SwingUtilities.invokeLater(() -> panel[0].setAnalysis(true));
+        }
+        String time = System.getProperty("hexoust.time");
+        if (time != null) {
+            try {
+                TimeManager timeControl = TimeManager.parse(time);
+                SwingUtilities.invokeLater(() -> panel[0].setTimeControl(timeControl));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid time control " + time + ": " + e.getMessage());
+            }
+        }
+        String computer = System.getProperty("hexoust.computer");
+        if (computer != null) {
+            long millis = Long.getLong("hexoust.thinkMillis", 1000);
+            MctsPlayer player = new MctsPlayer(topology, System.nanoTime());
+            String patterns = System.getProperty("hexoust.patterns");
+            if (patterns != null) {
+                try {
+                    player.setPatterns(PatternDatabase.load(java.nio.file.Path.of(patterns)));
+                } catch (java.io.IOException e) {
+                    System.err.println("Could not load patterns " + patterns + ": " + e.getMessage());
+                }
+            }
+            if (openingBook != null) {
+                try {
+                    player.setOpeningBook(openingBook, MctsPlayer.BOOK_MIN_GAMES);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Opening book not used by the computer: " + e.getMessage());
+                }
+            }
+            SwingUtilities.invokeLater(() -> panel[0].setComputerPlayer(player, computer.equalsIgnoreCase("red"), millis));
+        }
 
-        Scanner scanner = new Scanner(System.in);
-        while (true) {
-            System.out.print("Type quit to exit: ");
-            String input = scanner.next().toLowerCase();
-            if (input.equals("quit")) {
-                System.out.println("Exiting Game...");
-                System.out.println("GoodBye :)");
-                frame.dispose();
-                System.exit(0);
+        if (args.length == 5) {
+            try {
+                String[] address = args[3].split(":");
+                GameClient client = new GameClient(address[0], Integer.parseInt(address[1]),
+                        Integer.parseInt(args[4]), baseN, null);
+                SwingUtilities.invokeLater(() -> panel[0].connectTo(client));
+            } catch (java.io.IOException | RuntimeException e) {
+                System.err.println("Could not join network game: " + e.getMessage());
+                System.exit(1);
             }
         }
+
+        // The console only listens for quit; a daemon thread keeps main free and ends with the window
+        Thread console = new Thread(() -> {
+            try (java.io.BufferedReader in = new java.io.BufferedReader(new java.io.InputStreamReader(System.in))) {
+                System.out.print("Type quit to exit: ");
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    if (line.trim().equalsIgnoreCase("quit")) {
+                        System.out.println("Exiting Game...");
+                        System.out.println("GoodBye :)");
+                        SwingUtilities.invokeLater(() -> {
+                            frame[0].dispose();
+                            System.exit(0);
+                        });
+                        return;
+                    }
+                    System.out.print("Type quit to exit: ");
+                }
+            } catch (java.io.IOException e) {
+                // no console, the window's own controls remain
+            }
+        }, "console");
+        console.setDaemon(true);
+        console.start();
     }
 }
 
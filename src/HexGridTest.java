@@ -2,6 +2,9 @@ import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 
 public class HexGridTest {
@@ -291,4 +294,304 @@ public class HexGridTest {
     }
 
 
-}
\ No newline at end of file
+    // Builds a board where neighbouring centers are within the 45px neighbour threshold
+    private HexGrid createPlayableGrid(int radius) {
+        Layout layout = new Layout(Layout.flat, new Point(25, 25), new Point(300, 300));
+        return new HexGrid(BoardTopology.of(radius).geometry(layout).hexagons());
+    }
+
+    // Listener that records the events it receives
+    private static class RecordingListener implements GameListener {
+        int placed, rejected, turns, undone;
+        Set<Point> lastCaptured;
+
+        @Override
+        public void stonePlaced(Point cell, boolean isRed) { placed++; }
+
+        @Override
+        public void stonesCaptured(Set<Point> captured, boolean byRed) { lastCaptured = captured; }
+
+        @Override
+        public void turnChanged(boolean isRedTurn) { turns++; }
+
+        @Override
+        public void moveRejected(Point cell, String reason) { rejected++; }
+
+        @Override
+        public void moveUndone() { undone++; }
+    }
+
+    // NOTIFICATION AND LISTENER TESTS
+
+    // Checks that placing on an occupied cell is rejected with a notice instead of a dialog
+    @Test
+    public void testOccupiedCellRejectedWithNotice() {
+        RecordingListener listener = new RecordingListener();
+        hexGrid.addGameListener(listener);
+        Point center = hexGrid.getHexCenter(testGrid.get(0));
+
+        assertTrue(hexGrid.placeStone(center));
+        assertFalse(hexGrid.placeStone(center));
+
+        assertEquals(1, listener.placed);
+        assertEquals(1, listener.turns);
+        assertEquals(1, listener.rejected);
+        assertEquals("Cell is already occupied", hexGrid.getNotice());
+    }
+
+    // Checks that a capture removes the smaller group, keeps the turn and notifies listeners
+    @Test
+    public void testCaptureKeepsTurnAndNotifies() {
+        HexGrid board = createPlayableGrid(2);
+        RecordingListener listener = new RecordingListener();
+        board.addGameListener(listener);
+        Layout layout = new Layout(Layout.flat, new Point(25, 25), new Point(300, 300));
+        Point origin = board.getHexCenter(layout.polygonCorners(new HexCube(0, 0, 0)));
+        Point east = board.getHexCenter(layout.polygonCorners(new HexCube(1, 0, -1)));
+        Point west = board.getHexCenter(layout.polygonCorners(new HexCube(-1, 0, 1)));
+
+        assertTrue(board.placeStone(origin)); // red
+        assertTrue(board.placeStone(east));   // blue
+        assertTrue(board.placeStone(west));   // red captures the single blue stone
+
+        assertTrue(board.blueStones.isEmpty());
+        assertTrue(board.isRedTurn);
+        assertEquals(1, listener.lastCaptured.size());
+        assertTrue(listener.lastCaptured.contains(east));
+
+        board.undoLastMove();
+        assertEquals(1, listener.undone);
+        assertTrue(board.blueStones.contains(east));
+    }
+
+    // Checks that no stone is placed or announced once a player has won
+    @Test
+    public void testFinishedGameRefusesMoves() {
+        HexGrid board = createPlayableGrid(2);
+        RecordingListener listener = new RecordingListener();
+        board.addGameListener(listener);
+        Layout layout = new Layout(Layout.flat, new Point(25, 25), new Point(300, 300));
+
+        assertTrue(board.placeStone(board.getHexCenter(layout.polygonCorners(new HexCube(0, 0, 0)))));   // red
+        assertTrue(board.placeStone(board.getHexCenter(layout.polygonCorners(new HexCube(1, 0, -1)))));  // blue
+        assertTrue(board.placeStone(board.getHexCenter(layout.polygonCorners(new HexCube(-1, 0, 1)))));  // red captures
+        assertTrue(board.placeStone(board.getHexCenter(layout.polygonCorners(new HexCube(2, -2, 0)))));  // red wins
+        assertTrue(board.isGameExited());
+
+        Point empty = board.getHexCenter(layout.polygonCorners(new HexCube(0, 2, -2)));
+        assertFalse(board.placeStone(empty));
+        assertEquals(3, board.redStones.size());
+        assertTrue(board.blueStones.isEmpty());
+        assertEquals(4, listener.placed);
+        assertEquals(0, listener.rejected);
+    }
+
+    // Checks that the computer answers a human move and ponders while the human is to move
+    @Test
+    public void testComputerPlayerReplies() throws Exception {
+        HexGrid board = createPlayableGrid(2);
+        try (MctsPlayer player = new MctsPlayer(BoardTopology.of(2), 5)) {
+            javax.swing.SwingUtilities.invokeAndWait(() -> board.setComputerPlayer(player, false, 50));
+            javax.swing.SwingUtilities.invokeAndWait(() -> assertTrue(board.placeStone(board.getHexCenter(board.grid.get(0)))));
+            // The reply and the pondering that follows it are both queued on the EDT, so read there
+            boolean[] state = new boolean[2];
+            long deadline = System.currentTimeMillis() + 5000;
+            do {
+                Thread.sleep(10);
+                javax.swing.SwingUtilities.invokeAndWait(() -> {
+                    state[0] = board.blueStones.size() == 1 && board.isRedTurn;
+                    state[1] = player.isPondering();
+                });
+            } while (!(state[0] && state[1]) && System.currentTimeMillis() < deadline);
+            assertTrue(state[0]);
+            assertTrue(state[1]);
+        }
+    }
+
+    // Checks that replay mode shows the recorded position at any move and New Game leaves it
+    @Test
+    public void testReplayShowsRecordedPositions() {
+        HexGrid board = createPlayableGrid(2);
+        HexBoard game = new HexBoard(2);
+        int[] moves = new int[SelfPlay.MAX_MOVES];
+        int count = SelfPlay.playRandomGame(game, new java.util.SplittableRandom(4), moves);
+        board.startReplay(new GameReplay(BoardTopology.of(2), moves, count, game.getWinner()));
+        board.showReplayMove(count);
+        assertEquals(game.stoneCount(HexBoard.RED), board.redStones.size());
+        assertEquals(game.stoneCount(HexBoard.BLUE), board.blueStones.size());
+        board.showReplayMove(1);
+        assertEquals(1, board.redStones.size());
+        assertFalse(board.isRedTurn);
+        board.resetGame();
+        assertNull(board.getReplay());
+        assertTrue(board.redStones.isEmpty());
+    }
+
+    // Checks that a replay stops the computer's search and the clock until New Game restarts them
+    @Test
+    public void testReplayPausesComputerAndClock() throws Exception {
+        HexGrid board = createPlayableGrid(2);
+        HexBoard game = new HexBoard(2);
+        int[] moves = new int[SelfPlay.MAX_MOVES];
+        int count = SelfPlay.playRandomGame(game, new java.util.SplittableRandom(4), moves);
+        try (MctsPlayer player = new MctsPlayer(BoardTopology.of(2), 5)) {
+            javax.swing.SwingUtilities.invokeAndWait(() -> {
+                board.setTimeControl(TimeManager.clock(1000, 0)); // moves of about 80 ms
+                board.setComputerPlayer(player, true, 50); // red, so it starts thinking at once
+                board.startReplay(new GameReplay(BoardTopology.of(2), moves, count, game.getWinner()));
+                assertEquals(HexBoard.EMPTY, board.getClock().getRunning());
+            });
+            // A search left running would place its stone on the replayed position
+            Thread.sleep(300);
+            javax.swing.SwingUtilities.invokeAndWait(() -> {
+                assertTrue(board.redStones.isEmpty());
+                assertEquals(HexBoard.EMPTY, board.getClock().getRunning());
+                assertFalse(player.isPondering());
+                board.resetGame();
+            });
+            boolean[] replied = new boolean[1];
+            long deadline = System.currentTimeMillis() + 5000;
+            do {
+                Thread.sleep(10);
+                javax.swing.SwingUtilities.invokeAndWait(() -> replied[0] = board.redStones.size() == 1
+                        && board.getClock().getRunning() == HexBoard.BLUE);
+            } while (!replied[0] && System.currentTimeMillis() < deadline);
+            assertTrue(replied[0]);
+        } finally {
+            javax.swing.SwingUtilities.invokeAndWait(() -> board.setTimeControl(null));
+        }
+    }
+
+    // Checks that the analysis overlay receives estimates and restarts after a move or a replay seek
+    @Test
+    public void testAnalysisOverlayRefreshes() throws Exception {
+        HexGrid board = createPlayableGrid(2);
+        javax.swing.SwingUtilities.invokeAndWait(() -> board.setAnalysis(true));
+        try {
+            MoveAnalyzer.Snapshot[] seen = new MoveAnalyzer.Snapshot[1];
+            long deadline = System.currentTimeMillis() + 3000;
+            while (seen[0] == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+                javax.swing.SwingUtilities.invokeAndWait(() -> seen[0] = board.getAnalysis());
+            }
+            assertNotNull(seen[0]);
+            assertTrue(seen[0].totalPlayouts() > 0);
+            javax.swing.SwingUtilities.invokeAndWait(() -> board.placeStone(board.getHexCenter(board.grid.get(0))));
+            javax.swing.SwingUtilities.invokeAndWait(() -> seen[0] = board.getAnalysis());
+            assertNull(seen[0]);
+
+            // Scrubbing a replay changes the position without a game event
+            deadline = System.currentTimeMillis() + 3000;
+            while (seen[0] == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+                javax.swing.SwingUtilities.invokeAndWait(() -> seen[0] = board.getAnalysis());
+            }
+            assertNotNull(seen[0]);
+            HexBoard game = new HexBoard(2);
+            int[] moves = new int[SelfPlay.MAX_MOVES];
+            int count = SelfPlay.playRandomGame(game, new java.util.SplittableRandom(4), moves);
+            javax.swing.SwingUtilities.invokeAndWait(() -> {
+                board.startReplay(new GameReplay(BoardTopology.of(2), moves, count, game.getWinner()));
+                seen[0] = board.getAnalysis();
+            });
+            assertNull(seen[0]);
+        } finally {
+            javax.swing.SwingUtilities.invokeAndWait(() -> board.setAnalysis(false));
+        }
+    }
+
+    // Checks that puzzle mode restarts after a move that does not capture and is solved by the stored chain
+    @Test
+    public void testPuzzleModeJudgesMoves() {
+        List<PuzzleGenerator.Puzzle> puzzles = PuzzleGenerator.generate(3, 2, 2, 3, 20_000, 3);
+        HexGrid board = createPlayableGrid(3);
+        board.startPuzzles(puzzles, 0);
+        PuzzleGenerator.Puzzle puzzle = board.getPuzzle();
+        HexBoard position = puzzle.toBoard();
+        assertEquals(position.stoneCount(HexBoard.RED), board.redStones.size());
+        assertEquals(puzzle.isRedTurn(), board.isRedTurn);
+
+        // A legal move that does not capture puts the puzzle back
+        PuzzleGenerator.Solver solver = new PuzzleGenerator.Solver(BoardTopology.of(3), 1);
+        solver.board.setPosition(position.mask(HexBoard.RED), position.mask(HexBoard.BLUE), position.isRedTurn());
+        int[] captures = new int[position.cellCount()];
+        Set<Integer> capturing = new HashSet<>();
+        for (int i = solver.captureMoves(captures) - 1; i >= 0; i--) capturing.add(captures[i]);
+        int[] legal = new int[position.cellCount()];
+        int quiet = -1;
+        for (int i = position.legalMoves(legal) - 1; i >= 0; i--) {
+            if (!capturing.contains(legal[i])) quiet = legal[i];
+        }
+        if (quiet >= 0) {
+            click(board, quiet);
+            assertEquals(puzzle.isRedTurn(), board.isRedTurn);
+            assertEquals(position.stoneCount(HexBoard.RED) + position.stoneCount(HexBoard.BLUE),
+                    board.redStones.size() + board.blueStones.size());
+            assertEquals("That move did not capture. Try again.", board.getNotice());
+        }
+
+        for (int i = 0; i < puzzle.depth(); i++) click(board, puzzle.solutionMove(i));
+        assertTrue(board.isGameExited());
+        assertEquals("Puzzle solved! Press N for the next puzzle.", board.getNotice());
+        board.showPuzzle(1);
+        assertFalse(board.isGameExited());
+        board.resetGame();
+        assertNull(board.getPuzzle());
+
+        // Replay and puzzle mode never run together
+        board.startPuzzles(puzzles, 0);
+        HexBoard game = new HexBoard(3);
+        int[] moves = new int[SelfPlay.MAX_MOVES];
+        int count = SelfPlay.playRandomGame(game, new java.util.SplittableRandom(5), moves);
+        board.startReplay(new GameReplay(BoardTopology.of(3), moves, count, game.getWinner()));
+        assertNull(board.getPuzzle());
+        board.startPuzzles(puzzles, 0);
+        assertNull(board.getReplay());
+    }
+
+    // Checks that puzzle mode keeps the computer and the clock out of the puzzle until New Game
+    @Test
+    public void testPuzzleModePausesComputerAndClock() throws Exception {
+        List<PuzzleGenerator.Puzzle> puzzles = PuzzleGenerator.generate(3, 2, 2, 3, 20_000, 3);
+        PuzzleGenerator.Puzzle puzzle = puzzles.get(0);
+        HexGrid board = createPlayableGrid(3);
+        try (MctsPlayer player = new MctsPlayer(BoardTopology.of(3), 5)) {
+            // The computer plays red and starts thinking at once on the empty board
+            javax.swing.SwingUtilities.invokeAndWait(() -> {
+                board.setTimeControl(TimeManager.clock(1000, 0)); // moves of about 80 ms
+                board.setComputerPlayer(player, true, 50);
+                board.startPuzzles(puzzles, 0);
+                assertEquals(HexBoard.EMPTY, board.getClock().getRunning());
+            });
+            Thread.sleep(300);
+            javax.swing.SwingUtilities.invokeAndWait(() -> {
+                HexBoard position = puzzle.toBoard();
+                assertEquals(position.stoneCount(HexBoard.RED), board.redStones.size());
+                assertEquals(position.stoneCount(HexBoard.BLUE), board.blueStones.size());
+                assertFalse(player.isPondering());
+                // The solver's moves are accepted whichever colour the computer plays
+                for (int i = 0; i < puzzle.depth(); i++) click(board, puzzle.solutionMove(i));
+                assertTrue(board.isGameExited());
+                board.showPuzzle(0);
+                assertEquals(HexBoard.EMPTY, board.getClock().getRunning());
+                board.resetGame();
+            });
+            boolean[] replied = new boolean[1];
+            long deadline = System.currentTimeMillis() + 5000;
+            do {
+                Thread.sleep(10);
+                javax.swing.SwingUtilities.invokeAndWait(() -> replied[0] = board.redStones.size() == 1
+                        && board.getClock().getRunning() == HexBoard.BLUE);
+            } while (!replied[0] && System.currentTimeMillis() < deadline);
+            assertTrue(replied[0]);
+        } finally {
+            javax.swing.SwingUtilities.invokeAndWait(() -> board.setTimeControl(null));
+        }
+    }
+
+    private static void click(HexGrid board, int cell) {
+        Point center = board.getHexCenter(board.grid.get(cell));
+        board.dispatchEvent(new java.awt.event.MouseEvent(board, java.awt.event.MouseEvent.MOUSE_CLICKED,
+                System.currentTimeMillis(), 0, (int) Math.round(center.x), (int) Math.round(center.y), 1, false));
+    }
+}
@@ -0,0 +1,18 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Entry point of the application jar. The engine protocol is started without loading any
+ * Swing or AWT class, so headless tools pay only for the rules and the search; everything else
+ * is passed to {@link HexGrid#main(String[])}, which opens the window.
+ * Usage: {@code java HexOust --engine [--batch] [radius]} or {@code java HexOust <size> <originx> <originy> [<host:port> <gameId>]}
+ */
+public class HexOust {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--engine")) {
+            EngineProtocol.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        HexGrid.main(args);
+    }
+}
@@ -0,0 +1,204 @@
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared primitive tables for the hex shapes of {@link HexCube}, so evaluation, pattern extraction
+ * and rendering can walk rings, ranges and lines over cell ids without creating HexCube lists.
+ * Offsets are stored once per board radius, in the spiral order of {@link HexCube#spiral(int)},
+ * and reach twice the radius so every cell of the board can be reached from every other.
+ * Ring k is the offset range [{@link #ringStart(int)}, {@link #ringEnd(int)}); the cells within
+ * distance k are the prefix ending at ringEnd(k). The line to every offset is stored as well.
+ * The 12 board symmetries of {@link BoardSymmetry} are available as integer matrices on offsets.
+ * Obtain instances with {@link #of(int)}; they are immutable and shared. No query allocates.
+ */
+public final class HexTables {
+    private static final ConcurrentHashMap<Integer, HexTables> TABLES = new ConcurrentHashMap<>();
+    /** Per transform of BoardSymmetry: q' = m[0] * q + m[1] * r and r' = m[2] * q + m[3] * r. */
+    private static final int[] TRANSFORMS = new int[BoardSymmetry.TRANSFORMS * 4];
+
+    static {
+        for (int t = 0; t < BoardSymmetry.TRANSFORMS; t++) {
+            HexCube q = BoardSymmetry.apply(t, new HexCube(1, 0, -1));
+            HexCube r = BoardSymmetry.apply(t, new HexCube(0, 1, -1));
+            TRANSFORMS[t * 4] = q.q;
+            TRANSFORMS[t * 4 + 1] = r.q;
+            TRANSFORMS[t * 4 + 2] = q.r;
+            TRANSFORMS[t * 4 + 3] = r.r;
+        }
+    }
+
+    private final BoardTopology topology;
+    private final int reach;
+    private final int side;
+    private final int[] offsetQ;
+    private final int[] offsetR;
+    /** Start of the line to each offset in lineQ and lineR, indexed by slot(q, r). */
+    private final int[] lineStart;
+    private final int[] lineQ;
+    private final int[] lineR;
+
+    /**
+     * Returns the shared tables for a board radius.
+     *
+     * @param radius board radius
+     * @return shared tables
+     */
+    public static HexTables of(int radius) {
+        return TABLES.computeIfAbsent(radius, r -> new HexTables(BoardTopology.of(r)));
+    }
+
+    private HexTables(BoardTopology topology) {
+        this.topology = topology;
+        reach = 2 * topology.getRadius();
+        side = 2 * reach + 1;
+        HexCube origin = new HexCube(0, 0, 0);
+        List<HexCube> spiral = origin.spiral(reach);
+        offsetQ = new int[spiral.size()];
+        offsetR = new int[spiral.size()];
+        lineStart = new int[side * side];
+        int total = 0;
+        for (int i = 0; i < spiral.size(); i++) {
+            offsetQ[i] = spiral.get(i).q;
+            offsetR[i] = spiral.get(i).r;
+            total += spiral.get(i).length() + 1;
+        }
+        lineQ = new int[total];
+        lineR = new int[total];
+        int next = 0;
+        for (HexCube target : spiral) {
+            lineStart[slot(target.q, target.r)] = next;
+            for (HexCube hex : origin.lineTo(target)) {
+                lineQ[next] = hex.q;
+                lineR[next] = hex.r;
+                next++;
+            }
+        }
+    }
+
+    private int slot(int q, int r) {
+        return (q + reach) * side + (r + reach);
+    }
+
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Returns the largest distance the tables cover, twice the board radius.
+     *
+     * @return largest ring index
+     */
+    public int reach() {
+        return reach;
+    }
+
+    /**
+     * Returns the index of the first offset of a ring.
+     *
+     * @param k ring distance
+     * @return offset index
+     */
+    public static int ringStart(int k) {
+        return k == 0 ? 0 : 3 * k * (k - 1) + 1;
+    }
+
+    /**
+     * Returns the index just after the last offset of a ring, which is also the number of
+     * offsets within distance k.
+     *
+     * @param k ring distance
+     * @return offset index
+     */
+    public static int ringEnd(int k) {
+        return 3 * k * (k + 1) + 1;
+    }
+
+    public int offsetQ(int index) {
+        return offsetQ[index];
+    }
+
+    public int offsetR(int index) {
+        return offsetR[index];
+    }
+
+    /**
+     * Writes the on-board cells at an exact distance from a cell, in ring order.
+     *
+     * @param cell center cell id
+     * @param k    distance, at most {@link #reach()}
+     * @param out  receives cell ids; needs room for 6 * k cells, or the board size
+     * @return number of cells written
+     */
+    public int ring(int cell, int k, int[] out) {
+        return collect(cell, ringStart(k), ringEnd(k), out);
+    }
+
+    /**
+     * Writes the on-board cells within a distance of a cell, ring by ring from the cell outwards.
+     *
+     * @param cell center cell id
+     * @param k    largest distance, at most {@link #reach()}
+     * @param out  receives cell ids; needs room for ringEnd(k) cells, or the board size
+     * @return number of cells written
+     */
+    public int range(int cell, int k, int[] out) {
+        return collect(cell, 0, ringEnd(k), out);
+    }
+
+    private int collect(int cell, int from, int to, int[] out) {
+        int q = topology.q(cell);
+        int r = topology.r(cell);
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int id = topology.cellAt(q + offsetQ[i], r + offsetR[i]);
+            if (id >= 0) out[count++] = id;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the cells on the straight line between two cells, both included, in the order of
+     * {@link HexCube#lineTo(HexCube)}. The board is convex, so every cell of the line is on it.
+     *
+     * @param from first cell id
+     * @param to   last cell id
+     * @param out  receives cell ids; needs room for the distance + 1
+     * @return number of cells written, the distance + 1
+     */
+    public int line(int from, int to, int[] out) {
+        int q = topology.q(from);
+        int r = topology.r(from);
+        int dq = topology.q(to) - q;
+        int dr = topology.r(to) - r;
+        int start = lineStart[slot(dq, dr)];
+        int length = (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2 + 1;
+        for (int i = 0; i < length; i++) {
+            out[i] = topology.cellAt(q + lineQ[start + i], r + lineR[start + i]);
+        }
+        return length;
+    }
+
+    /**
+     * Returns the q coordinate of an offset after one of the board symmetries.
+     *
+     * @param t transform 0-11, numbered as in {@link BoardSymmetry}
+     * @param q offset q coordinate
+     * @param r offset r coordinate
+     * @return transformed q coordinate
+     */
+    public static int transformQ(int t, int q, int r) {
+        return TRANSFORMS[t * 4] * q + TRANSFORMS[t * 4 + 1] * r;
+    }
+
+    /**
+     * Returns the r coordinate of an offset after one of the board symmetries.
+     *
+     * @param t transform 0-11, numbered as in {@link BoardSymmetry}
+     * @param q offset q coordinate
+     * @param r offset r coordinate
+     * @return transformed r coordinate
+     */
+    public static int transformR(int t, int q, int r) {
+        return TRANSFORMS[t * 4 + 2] * q + TRANSFORMS[t * 4 + 3] * r;
+    }
+}
@@ -0,0 +1,115 @@
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Compares the {@link HexTables} queries with the HexCube list methods they replace: time per
+ * query and bytes allocated per query, measured with the thread allocation counter. Every query
+ * runs from every cell of the board; lines run from every cell to a cell on the opposite side.
+ * Usage: {@code java HexTablesBenchmark [rounds] [radius...]}
+ */
+public class HexTablesBenchmark {
+
+    public enum Query { RING, RANGE, LINE }
+
+    /**
+     * Time and allocation of one kind of query.
+     */
+    public static final class Result {
+        public final double nanosPerQuery;
+        /** Bytes per query, or -1 if the JVM cannot measure allocation. */
+        public final double bytesPerQuery;
+
+        Result(double nanosPerQuery, double bytesPerQuery) {
+            this.nanosPerQuery = nanosPerQuery;
+            this.bytesPerQuery = bytesPerQuery;
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean MEMORY = ManagementFactory.getThreadMXBean()
+            instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+
+    private final BoardTopology topology;
+    private final HexTables tables;
+    private final int[] out;
+    private long sink;
+
+    public HexTablesBenchmark(int radius) {
+        topology = BoardTopology.of(radius);
+        tables = HexTables.of(radius);
+        out = new int[topology.cellCount()];
+    }
+
+    /**
+     * Runs every cell once through a query.
+     */
+    private void pass(Query query, boolean primitive) {
+        int cells = topology.cellCount();
+        int k = Math.max(1, topology.getRadius() / 2);
+        for (int cell = 0; cell < cells; cell++) {
+            switch (query) {
+                case RING:
+                    if (primitive) sink += tables.ring(cell, k, out);
+                    else sink += cells(topology.cube(cell).ring(k));
+                    break;
+                case RANGE:
+                    if (primitive) sink += tables.range(cell, k, out);
+                    else sink += cells(topology.cube(cell).range(k));
+                    break;
+                case LINE: {
+                    int to = cells - 1 - cell;
+                    if (primitive) sink += tables.line(cell, to, out);
+                    else sink += topology.cube(cell).lineTo(topology.cube(to)).size();
+                    break;
+                }
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+    }
+
+    private int cells(List<HexCube> hexes) {
+        int count = 0;
+        for (HexCube hex : hexes) {
+            if (topology.cellAt(hex.q, hex.r) >= 0) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Measures one kind of query.
+     *
+     * @param query     shape to query
+     * @param primitive true for the HexTables query, false for the HexCube list method
+     * @param rounds    passes over the board; a first round of the same size warms up the JIT
+     * @return time and allocation per query
+     */
+    public Result run(Query query, boolean primitive, int rounds) {
+        for (int i = 0; i < rounds; i++) pass(query, primitive);
+        long before = MEMORY == null ? 0 : MEMORY.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) pass(query, primitive);
+        long nanos = System.nanoTime() - start;
+        long bytes = MEMORY == null ? -1 : MEMORY.getCurrentThreadAllocatedBytes() - before;
+        long queries = (long) rounds * topology.cellCount();
+        return new Result((double) nanos / queries, bytes < 0 ? -1 : (double) bytes / queries);
+    }
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int[] radii = args.length > 1 ? java.util.Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[] {4, 6, 10};
+        System.out.println("radius  query  tables ns  tables bytes  HexCube ns  HexCube bytes");
+        long sink = 0;
+        for (int radius : radii) {
+            HexTablesBenchmark benchmark = new HexTablesBenchmark(radius);
+            for (Query query : Query.values()) {
+                Result tables = benchmark.run(query, true, rounds);
+                Result lists = benchmark.run(query, false, rounds);
+                System.out.printf("%6d  %-5s  %9.1f  %12.1f  %10.1f  %13.1f%n", radius, query.name().toLowerCase(),
+                        tables.nanosPerQuery, tables.bytesPerQuery, lists.nanosPerQuery, lists.bytesPerQuery);
+            }
+            sink += benchmark.sink;
+        }
+        if (sink == 42) System.out.println();
+    }
+}
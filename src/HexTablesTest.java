@@ -0,0 +1,104 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+public class HexTablesTest {
+
+    // Checks the HexCube shapes: ring sizes and distances, spiral order, range contents and rotations
+    @Test
+    public void testHexCubeShapes() {
+        HexCube center = new HexCube(2, -1, -1);
+        for (int k = 0; k <= 4; k++) {
+            List<HexCube> ring = center.ring(k);
+            assertEquals(k == 0 ? 1 : 6 * k, ring.size());
+            assertEquals(ring.size(), new HashSet<>(ring).size());
+            for (int i = 0; i < ring.size(); i++) {
+                assertEquals(k, center.distance(ring.get(i)));
+                // Consecutive hexes of a ring are neighbours, including the last and the first
+                if (k > 0) assertEquals(1, ring.get(i).distance(ring.get((i + 1) % ring.size())));
+            }
+            List<HexCube> spiral = center.spiral(k);
+            assertEquals(new HashSet<>(center.range(k)), new HashSet<>(spiral));
+            assertEquals(3 * k * (k + 1) + 1, spiral.size());
+        }
+        HexCube hex = new HexCube(3, -1, -2);
+        HexCube turned = hex;
+        for (int i = 0; i < 6; i++) {
+            assertEquals(hex.length(), turned.length());
+            assertEquals(turned, turned.rotateLeft().rotateRight());
+            turned = turned.rotateLeft();
+        }
+        assertEquals(hex, turned);
+        assertEquals(HexCube.direction(1), HexCube.direction(0).rotateLeft());
+        assertEquals(hex, hex.reflectQ().reflectQ());
+        assertEquals(hex.r, hex.reflectR().r);
+        assertEquals(hex.s, hex.reflectS().s);
+    }
+
+    // Checks that the ring, range and line tables match the HexCube methods from every cell
+    @Test
+    public void testTablesMatchHexCube() {
+        BoardTopology topology = BoardTopology.of(4);
+        HexTables tables = HexTables.of(4);
+        assertSame(tables, HexTables.of(4));
+        int[] out = new int[topology.cellCount()];
+        for (int cell = 0; cell < topology.cellCount(); cell++) {
+            HexCube hex = topology.cube(cell);
+            for (int k = 0; k <= tables.reach(); k++) {
+                assertEquals(onBoard(topology, hex.ring(k)), list(out, tables.ring(cell, k, out)));
+                assertEquals(onBoard(topology, hex.spiral(k)), list(out, tables.range(cell, k, out)));
+            }
+            for (int to = 0; to < topology.cellCount(); to++) {
+                List<Integer> line = onBoard(topology, hex.lineTo(topology.cube(to)));
+                assertEquals(hex.distance(topology.cube(to)) + 1, line.size());
+                assertEquals(line, list(out, tables.line(cell, to, out)));
+            }
+        }
+    }
+
+    // Checks that the offset transforms match the board symmetries
+    @Test
+    public void testTransformsMatchSymmetries() {
+        BoardSymmetry symmetry = BoardSymmetry.of(3);
+        BoardTopology topology = symmetry.getTopology();
+        for (int t = 0; t < BoardSymmetry.TRANSFORMS; t++) {
+            for (int cell = 0; cell < topology.cellCount(); cell++) {
+                int q = topology.q(cell);
+                int r = topology.r(cell);
+                assertEquals(symmetry.transform(t, cell), topology.cellAt(HexTables.transformQ(t, q, r), HexTables.transformR(t, q, r)));
+            }
+        }
+    }
+
+    // Checks that the table queries allocate nothing once the JIT has compiled them
+    @Test
+    public void testQueriesDoNotAllocate() {
+        HexTablesBenchmark benchmark = new HexTablesBenchmark(6);
+        for (HexTablesBenchmark.Query query : HexTablesBenchmark.Query.values()) {
+            HexTablesBenchmark.Result tables = benchmark.run(query, true, 200);
+            HexTablesBenchmark.Result lists = benchmark.run(query, false, 200);
+            if (tables.bytesPerQuery < 0) return; // allocation cannot be measured on this JVM
+            assertTrue(query + " allocates " + tables.bytesPerQuery, tables.bytesPerQuery < 1);
+            assertTrue(lists.bytesPerQuery > 100);
+        }
+    }
+
+    private static List<Integer> onBoard(BoardTopology topology, List<HexCube> hexes) {
+        List<Integer> cells = new ArrayList<>();
+        for (HexCube hex : hexes) {
+            int cell = topology.cellAt(hex.q, hex.r);
+            if (cell >= 0) cells.add(cell);
+        }
+        return cells;
+    }
+
+    private static List<Integer> list(int[] cells, int count) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) list.add(cells[i]);
+        return list;
+    }
+}
@@ -0,0 +1,519 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Computer player using Monte Carlo tree search with random playouts on a {@link HexBoard}.
+ * The tree is kept between moves: every move played in the game is passed to {@link #play(int)},
+ * which makes the matching child the new root, so the statistics gathered for that line are reused.
+ * While the opponent thinks, {@link #startPondering()} keeps searching from the current root on a
+ * background thread; the next {@link #chooseMove} continues from the grown tree.
+ * <p>
+ * A capture keeps the same player on move, so every node records the colour that made its move and
+ * its wins are counted for that colour.
+ * All public methods are thread-safe; only one search runs at a time.
+ */
+public class MctsPlayer implements AutoCloseable {
+    /** Exploration constant of the UCT formula for win rates in [0, 1]. */
+    static final double EXPLORATION = 0.7;
+    /** Playouts stop after this many moves and score as a draw. */
+    static final int MAX_PLAYOUT_MOVES = 400;
+    /** Trees stop growing once the root has been visited this often; playouts still run. */
+    static final int MAX_NODES = 2_000_000;
+    /** With patterns, each playout move is the best of this many random legal moves. */
+    static final int PLAYOUT_CANDIDATES = 3;
+    /** Games a book move needs before the command-line players play it without searching. */
+    static final int BOOK_MIN_GAMES = 10;
+
+    /**
+     * Search tree node, reached from its parent by one stone placement.
+     */
+    static final class Node {
+        final int move;
+        final int mover;
+        Node[] children = new Node[0];
+        int childCount;
+        int[] untried;
+        int untriedCount;
+        int visits;
+        double wins;
+
+        Node(int move, int mover) {
+            this.move = move;
+            this.mover = mover;
+        }
+
+        Node child(int move) {
+            for (int i = 0; i < childCount; i++) {
+                if (children[i].move == move) return children[i];
+            }
+            return null;
+        }
+
+        void addChild(Node child) {
+            if (childCount == children.length) children = java.util.Arrays.copyOf(children, Math.max(4, childCount * 2));
+            children[childCount++] = child;
+        }
+    }
+
+    private final BoardTopology topology;
+    private final BoardSymmetry symmetry;
+    private final SplittableRandom random;
+    private final ExecutorService ponderThread;
+    private final Object searchLock = new Object();
+    private final Node[] path = new Node[MAX_PLAYOUT_MOVES + 1];
+    private final int[] legal;
+    private final long[] ordered;
+    private PatternDatabase patterns;
+    private OpeningBook book;
+    private int bookMinGames;
+
+    private HexBoard board;
+    private Node root;
+    private volatile boolean stop;
+    private volatile boolean aborted;
+    private volatile boolean closed;
+    private Future<?> ponder;
+    private long lastIterations;
+    private long lastSearchNanos;
+    private boolean lastExtended;
+    private int reusedVisits;
+
+    /**
+     * Creates a player for a board size, starting from an empty board.
+     *
+     * @param topology board cells
+     * @param seed     random seed for the playouts
+     */
+    public MctsPlayer(BoardTopology topology, long seed) {
+        this.topology = topology;
+        symmetry = BoardSymmetry.of(topology.getRadius());
+        random = new SplittableRandom(seed);
+        legal = new int[topology.cellCount()];
+        ordered = new long[topology.cellCount()];
+        ponderThread = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "mcts-ponder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        board = new HexBoard(topology);
+        root = new Node(-1, HexBoard.EMPTY);
+    }
+
+    /**
+     * Uses learned pattern win rates to order new tree moves (best pattern expanded first)
+     * and to bias playouts towards better local moves.
+     *
+     * @param database pattern database, null for uniform random moves
+     */
+    public synchronized void setPatterns(PatternDatabase database) {
+        stopPondering();
+        patterns = database == null ? null : database.copy();
+    }
+
+    /**
+     * Plays the book's best move without searching in positions the book covers, and searches
+     * as usual once the game leaves the book.
+     *
+     * @param book     opening book for this board size, null to always search
+     * @param minGames minimum number of games for a book move to be trusted
+     */
+    public synchronized void setOpeningBook(OpeningBook book, int minGames) {
+        if (book != null && book.getRadius() != topology.getRadius()) {
+            throw new IllegalArgumentException("the opening book is for radius " + book.getRadius());
+        }
+        this.book = book;
+        bookMinGames = minGames;
+    }
+
+    /**
+     * Restarts from a position, dropping the tree.
+     *
+     * @param position new root position
+     */
+    public synchronized void reset(HexBoard position) {
+        stopPondering();
+        aborted = false;
+        board = new HexBoard(position.snapshot());
+        root = new Node(-1, HexBoard.EMPTY);
+    }
+
+    /**
+     * Makes a search running on another thread return its most visited move at the next
+     * iteration, so a caller about to {@link #reset} does not wait for its whole budget. Not
+     * synchronized, so it takes effect while the search holds the player; searches stay
+     * aborted until the next reset.
+     */
+    public void abort() {
+        aborted = true;
+    }
+
+    /**
+     * Advances the root over a move played in the game, keeping the subtree below it.
+     *
+     * @param cell cell the stone was placed on
+     * @return true if the move was found in the tree and its statistics were kept
+     */
+    public synchronized boolean play(int cell) {
+        stopPondering();
+        if (!board.play(cell).isPlaced()) throw new IllegalArgumentException("illegal move " + cell);
+        Node child = root.child(cell);
+        root = child != null ? child : new Node(cell, HexBoard.EMPTY);
+        return child != null;
+    }
+
+    /**
+     * Searches the current position until a deadline and returns the most visited move.
+     * If the given position is not the root position (moves were missed), the tree is rebuilt.
+     *
+     * @param position position to move in
+     * @param millis   thinking time in milliseconds
+     * @return chosen cell, or -1 if there is no legal move
+     */
+    public int chooseMove(HexBoard position, long millis) {
+        return chooseMove(position, TimeManager.Budget.fixed(millis));
+    }
+
+    /**
+     * Searches the current position within a time budget and returns the most visited move.
+     * The search stops at the soft limit if the most visited move also has the best win rate,
+     * and otherwise keeps going until that holds or the hard limit is reached.
+     * A position covered by the opening book gets the book move without a search.
+     *
+     * @param position position to move in
+     * @param budget   soft and hard thinking time
+     * @return chosen cell, or -1 if there is no legal move
+     */
+    public synchronized int chooseMove(HexBoard position, TimeManager.Budget budget) {
+        stopPondering();
+        int bookMove = bookMove(position);
+        if (bookMove >= 0) return bookMove;
+        if (hash(position) != hash(board)) reset(position);
+        reusedVisits = root.visits;
+        long start = System.nanoTime();
+        lastIterations = search(start + budget.softMillis * 1_000_000L, start + budget.hardMillis * 1_000_000L, Long.MAX_VALUE);
+        lastSearchNanos = System.nanoTime() - start;
+        lastExtended = lastSearchNanos > budget.softMillis * 1_000_000L;
+        return bestMove();
+    }
+
+    /**
+     * Runs a fixed number of playouts from the position and returns the most visited move.
+     * Independent of machine speed and load, so engine comparisons run in parallel are reproducible.
+     * A position covered by the opening book gets the book move without a search.
+     *
+     * @param position position to move in
+     * @param playouts number of iterations to run
+     * @return chosen cell, or -1 if there is no legal move
+     */
+    public synchronized int choosePlayouts(HexBoard position, long playouts) {
+        stopPondering();
+        int bookMove = bookMove(position);
+        if (bookMove >= 0) return bookMove;
+        if (hash(position) != hash(board)) reset(position);
+        reusedVisits = root.visits;
+        long start = System.nanoTime();
+        long never = start + Long.MAX_VALUE / 2;
+        lastIterations = search(never, never, playouts);
+        lastSearchNanos = System.nanoTime() - start;
+        lastExtended = false;
+        return bestMove();
+    }
+
+    /**
+     * Returns the most visited child of the root without searching further. Stops pondering.
+     *
+     * @return cell, or -1 if the root has no children
+     */
+    public synchronized int bestMove() {
+        stopPondering();
+        Node best = null;
+        for (int i = 0; i < root.childCount; i++) {
+            Node child = root.children[i];
+            if (best == null || child.visits > best.visits) best = child;
+        }
+        if (best != null) return best.move;
+        return board.legalMoves(legal) > 0 ? legal[0] : -1;
+    }
+
+    /**
+     * Starts searching the current root on the background thread until the next call that
+     * changes or reads the tree. Does nothing once the player is closed.
+     */
+    public synchronized void startPondering() {
+        if (closed || ponder != null || board.isGameOver()) return;
+        stop = false;
+        ponder = ponderThread.submit(() -> {
+            long never = System.nanoTime() + Long.MAX_VALUE / 2;
+            return search(never, never, Long.MAX_VALUE);
+        });
+    }
+
+    /**
+     * Stops a background search and waits for it to finish its current iteration.
+     */
+    public synchronized void stopPondering() {
+        if (ponder == null) return;
+        stop = true;
+        try {
+            ponder.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("pondering failed", e);
+        } finally {
+            ponder = null;
+            stop = false;
+        }
+    }
+
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    public synchronized boolean isPondering() {
+        return ponder != null;
+    }
+
+    /**
+     * Returns the number of playouts through the root, including those kept from earlier searches.
+     *
+     * @return root visits
+     */
+    public synchronized int getRootVisits() {
+        return root.visits;
+    }
+
+    /**
+     * Returns the root visits that were already in the tree when the last {@link #chooseMove} started,
+     * from tree reuse and pondering.
+     *
+     * @return reused visits
+     */
+    public synchronized int getReusedVisits() {
+        return reusedVisits;
+    }
+
+    /**
+     * Returns the number of playouts run by the last {@link #chooseMove}.
+     *
+     * @return iterations
+     */
+    public synchronized long getLastIterations() {
+        return lastIterations;
+    }
+
+    /**
+     * Returns how long the last {@link #chooseMove} searched.
+     *
+     * @return search time in milliseconds
+     */
+    public synchronized long getLastSearchMillis() {
+        return lastSearchNanos / 1_000_000L;
+    }
+
+    /**
+     * Tells whether the last {@link #chooseMove} searched past its soft limit because the best
+     * move was not settled.
+     *
+     * @return true if the search was extended
+     */
+    public synchronized boolean wasExtended() {
+        return lastExtended;
+    }
+
+    /**
+     * Writes the visit count and win rate of every searched root move. Stops pondering.
+     *
+     * @param visits   receives the visits per cell
+     * @param winRates receives the win rate per cell for the player to move, NaN if unvisited
+     */
+    public synchronized void rootStatistics(int[] visits, double[] winRates) {
+        stopPondering();
+        java.util.Arrays.fill(visits, 0);
+        java.util.Arrays.fill(winRates, Double.NaN);
+        for (int i = 0; i < root.childCount; i++) {
+            Node child = root.children[i];
+            visits[child.move] = child.visits;
+            if (child.visits > 0) winRates[child.move] = child.wins / child.visits;
+        }
+    }
+
+    /**
+     * Stops pondering and the background thread. A search in progress ends at its next
+     * iteration; later calls to {@link #startPondering()} do nothing.
+     */
+    @Override
+    public void close() {
+        aborted = true;
+        synchronized (this) {
+            closed = true;
+            stopPondering();
+        }
+        ponderThread.shutdownNow();
+    }
+
+    /**
+     * Tells whether {@link #close()} was called. Does not wait for a running search.
+     *
+     * @return true once closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Looks the position up in the opening book and, on a hit, records an empty search.
+     *
+     * @return book move, or -1 if there is no book or the position is not covered
+     */
+    private int bookMove(HexBoard position) {
+        if (book == null) return -1;
+        int move = book.bestMove(position, bookMinGames);
+        if (move < 0 || !position.isLegal(move)) return -1;
+        reusedVisits = 0;
+        lastIterations = 0;
+        lastSearchNanos = 0;
+        lastExtended = false;
+        return move;
+    }
+
+    private long hash(HexBoard position) {
+        return PositionHash.hash(position, symmetry, 0);
+    }
+
+    /**
+     * Runs iterations until stopped, until the hard deadline, or past the soft deadline once the
+     * best move is stable. The clock is read before every iteration so the hard deadline is
+     * overrun by at most one playout.
+     *
+     * @param softDeadline System.nanoTime() value after which a stable search stops
+     * @param hardDeadline System.nanoTime() value at which the search always stops
+     * @param maxIterations number of iterations after which the search stops
+     * @return number of iterations
+     */
+    private long search(long softDeadline, long hardDeadline, long maxIterations) {
+        synchronized (searchLock) {
+            long iterations = 0;
+            int base = board.historySize();
+            while (!stop && !aborted && iterations < maxIterations) {
+                long now = System.nanoTime();
+                if (now - hardDeadline >= 0) break;
+                if (now - softDeadline >= 0 && isStable()) break;
+                iterate(base);
+                iterations++;
+            }
+            return iterations;
+        }
+    }
+
+    /**
+     * Checks that no root move with at least half the visits of the most visited one has a
+     * better win rate than it.
+     */
+    private boolean isStable() {
+        Node best = null;
+        for (int i = 0; i < root.childCount; i++) {
+            if (best == null || root.children[i].visits > best.visits) best = root.children[i];
+        }
+        if (best == null) return true;
+        double bestRate = best.wins / best.visits;
+        for (int i = 0; i < root.childCount; i++) {
+            Node child = root.children[i];
+            if (child != best && child.visits * 2 >= best.visits && child.wins / child.visits > bestRate) return false;
+        }
+        return true;
+    }
+
+    /**
+     * One iteration: select down the tree with UCT, expand one child, play out randomly, back up.
+     */
+    private void iterate(int base) {
+        Node node = root;
+        int depth = 0;
+        path[depth++] = node;
+        while (!board.isGameOver()) {
+            if (node.untried == null) {
+                node.untriedCount = board.legalMoves(legal);
+                if (patterns != null) orderByPattern(node.untriedCount);
+                node.untried = java.util.Arrays.copyOf(legal, node.untriedCount);
+            }
+            if (node.untriedCount > 0 && root.visits < MAX_NODES) {
+                int pick = patterns != null ? node.untriedCount - 1 : random.nextInt(node.untriedCount);
+                int move = node.untried[pick];
+                node.untried[pick] = node.untried[--node.untriedCount];
+                Node child = new Node(move, board.toMove());
+                node.addChild(child);
+                board.play(move);
+                path[depth++] = child;
+                break;
+            }
+            if (node.childCount == 0) break;
+            node = select(node);
+            board.play(node.move);
+            path[depth++] = node;
+            if (depth == path.length) break;
+        }
+
+        int winner = playout(base + depth - 1);
+        for (int i = 0; i < depth; i++) {
+            Node visited = path[i];
+            visited.visits++;
+            visited.wins += winner == visited.mover ? 1 : winner == HexBoard.EMPTY ? 0.5 : 0;
+        }
+        while (board.historySize() > base) board.undo();
+    }
+
+    private Node select(Node node) {
+        double logVisits = Math.log(node.visits);
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < node.childCount; i++) {
+            Node child = node.children[i];
+            double value = child.wins / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays random legal moves until the game ends or the move limit is reached.
+     *
+     * @return winner, or EMPTY for a draw
+     */
+    private int playout(int startHistory) {
+        int limit = startHistory + MAX_PLAYOUT_MOVES;
+        while (!board.isGameOver() && board.historySize() < limit) {
+            int n = board.legalMoves(legal);
+            if (n == 0) break;
+            int move = legal[random.nextInt(n)];
+            if (patterns != null) {
+                float best = patterns.weight(board, move);
+                for (int i = 1; i < PLAYOUT_CANDIDATES; i++) {
+                    int candidate = legal[random.nextInt(n)];
+                    float weight = patterns.weight(board, candidate);
+                    if (weight > best) {
+                        best = weight;
+                        move = candidate;
+                    }
+                }
+            }
+            board.play(move);
+        }
+        return board.getWinner();
+    }
+
+    /**
+     * Sorts the first n legal moves by ascending pattern win rate, so the best is last.
+     * Positive floats order like their bit patterns, so moves are sorted as packed longs.
+     */
+    private void orderByPattern(int n) {
+        for (int i = 0; i < n; i++) {
+            ordered[i] = (long) Float.floatToIntBits(patterns.weight(board, legal[i])) << 32 | legal[i];
+        }
+        java.util.Arrays.sort(ordered, 0, n);
+        for (int i = 0; i < n; i++) legal[i] = (int) ordered[i];
+    }
+}
@@ -0,0 +1,136 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+public class MctsPlayerTest {
+
+    private MctsPlayer player;
+
+    @After
+    public void tearDown() {
+        if (player != null) player.close();
+    }
+
+    // Checks that the search finds the capture that wins the game
+    @Test
+    public void testFindsWinningCapture() {
+        HexBoard board = new HexBoard(2);
+        board.play(board.cellAt(0, 0));
+        board.play(board.cellAt(1, 0));
+        player = new MctsPlayer(board.getTopology(), 1);
+        int move = player.chooseMove(board, 300);
+        assertEquals(HexBoard.MoveResult.CAPTURED, board.play(move));
+    }
+
+    // Checks that moves played in the game keep the matching subtree
+    @Test
+    public void testTreeIsReusedAcrossMoves() {
+        HexBoard board = new HexBoard(3);
+        player = new MctsPlayer(board.getTopology(), 2);
+        int move = player.chooseMove(board, 200);
+        assertTrue(player.play(move));
+        board.play(move);
+
+        int reply = player.bestMove();
+        assertTrue(player.play(reply));
+        board.play(reply);
+        player.chooseMove(board, 50);
+        assertTrue(player.getReusedVisits() > 0);
+        assertTrue(player.getRootVisits() >= player.getReusedVisits() + player.getLastIterations());
+    }
+
+    // Checks that pondering grows the tree in the background and the next search continues from it
+    @Test
+    public void testPonderingGrowsTree() throws Exception {
+        HexBoard board = new HexBoard(3);
+        player = new MctsPlayer(board.getTopology(), 3);
+        player.startPondering();
+        assertTrue(player.isPondering());
+        Thread.sleep(200);
+        int move = player.chooseMove(board, 0);
+        assertFalse(player.isPondering());
+        assertTrue(player.getReusedVisits() > 100);
+        assertTrue(board.isLegal(move));
+    }
+
+    // Checks that a position the player has not followed rebuilds the tree instead of using a wrong one
+    @Test
+    public void testUnknownPositionResetsTree() {
+        HexBoard board = new HexBoard(3);
+        player = new MctsPlayer(board.getTopology(), 4);
+        player.chooseMove(board, 50);
+        board.play(board.cellAt(0, 0));
+        board.play(board.cellAt(2, -1));
+        int move = player.chooseMove(board, 50);
+        assertEquals(0, player.getReusedVisits());
+        assertTrue(board.isLegal(move));
+    }
+
+    // Checks that aborting from another thread ends a long search early and reset clears the abort
+    @Test
+    public void testAbortEndsSearch() throws Exception {
+        HexBoard board = new HexBoard(3);
+        player = new MctsPlayer(board.getTopology(), 6);
+        Thread aborter = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            player.abort();
+        });
+        aborter.start();
+        long start = System.currentTimeMillis();
+        int move = player.chooseMove(board, 10000);
+        aborter.join();
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertTrue(board.isLegal(move));
+
+        player.reset(board);
+        player.chooseMove(board, 30);
+        assertTrue(player.getLastIterations() > 0);
+    }
+
+    // Checks that a closed player ignores requests to ponder instead of submitting to its stopped thread
+    @Test
+    public void testClosedPlayerDoesNotPonder() {
+        HexBoard board = new HexBoard(2);
+        player = new MctsPlayer(board.getTopology(), 7);
+        player.close();
+        assertTrue(player.isClosed());
+        player.startPondering();
+        assertFalse(player.isPondering());
+    }
+
+    // Checks that a position in the opening book gets the book move without a search, and other positions are searched
+    @Test
+    public void testBookMoveSkipsSearch() throws Exception {
+        Path corpus = Files.createTempFile("corpus", ".hxgc");
+        Path file = Files.createTempFile("book", ".hxob");
+        try {
+            try (GameCorpus.Writer writer = new GameCorpus.Writer(corpus, 3)) {
+                SelfPlay.generate(writer, 3, 500, 12);
+            }
+            OpeningBook.build(new GameCorpus.Reader(corpus), 4, 1, file);
+            OpeningBook book = OpeningBook.open(file);
+            HexBoard board = new HexBoard(3);
+            player = new MctsPlayer(board.getTopology(), 8);
+            player.setOpeningBook(book, 1);
+            assertEquals(book.bestMove(board, 1), player.chooseMove(board, 1000));
+            assertEquals(0, player.getLastIterations());
+            assertEquals(0, player.getRootVisits());
+            assertEquals(book.bestMove(board, 1), player.choosePlayouts(board, 1000));
+            assertEquals(0, player.getLastIterations());
+
+            // No move was played often enough, so the book misses and the player searches
+            player.setOpeningBook(book, Integer.MAX_VALUE);
+            assertTrue(board.isLegal(player.chooseMove(board, 30)));
+            assertTrue(player.getLastIterations() > 0);
+        } finally {
+            Files.deleteIfExists(corpus);
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Estimates the win probability of every legal move of a position with random playouts, for the
+ * analysis overlay. Worker threads cycle through all candidate moves, each with its own board and
+ * counters, so they never contend. Every {@link #PUBLISH_MILLIS} ms the counters are summed into
+ * an immutable {@link Snapshot} and handed to a listener, so the estimates refine for as long as
+ * the analysis runs.
+ */
+public final class MoveAnalyzer implements AutoCloseable {
+    /** Interval between published snapshots. */
+    static final long PUBLISH_MILLIS = 100;
+    /** Playouts stop after this many moves and count as draws. */
+    static final int MAX_PLAYOUT_MOVES = 400;
+
+    /**
+     * Estimates at one moment of the analysis.
+     */
+    public static final class Snapshot {
+        /** Number given to {@link MoveAnalyzer#start}, to match the snapshot to the position. */
+        public final int generation;
+        private final double[] winRates;
+        private final long[] playouts;
+        private final long total;
+
+        Snapshot(int generation, double[] winRates, long[] playouts, long total) {
+            this.generation = generation;
+            this.winRates = winRates;
+            this.playouts = playouts;
+            this.total = total;
+        }
+
+        /**
+         * Returns the estimated win probability of a move for the player to move.
+         *
+         * @param cell cell id
+         * @return probability in [0, 1], NaN if the cell is not a legal move or has no playouts yet
+         */
+        public double winRate(int cell) {
+            return winRates[cell];
+        }
+
+        public long playouts(int cell) {
+            return playouts[cell];
+        }
+
+        public long totalPlayouts() {
+            return total;
+        }
+
+        /**
+         * Returns the move with the highest estimate.
+         *
+         * @return cell id, or -1 if no move has been tried
+         */
+        public int bestMove() {
+            int best = -1;
+            for (int cell = 0; cell < winRates.length; cell++) {
+                if (!Double.isNaN(winRates[cell]) && (best < 0 || winRates[cell] > winRates[best])) best = cell;
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Counters of one analysis run, one row per worker. Scores are in half points, so a win
+     * counts 2 and a draw 1.
+     */
+    private static final class Run {
+        final int generation;
+        final int[] candidates;
+        final AtomicLongArray[] playouts;
+        final AtomicLongArray[] scores;
+        volatile boolean stopped = false;
+
+        Run(int generation, int[] candidates, int workers, int cells) {
+            this.generation = generation;
+            this.candidates = candidates;
+            playouts = new AtomicLongArray[workers];
+            scores = new AtomicLongArray[workers];
+            for (int i = 0; i < workers; i++) {
+                playouts[i] = new AtomicLongArray(cells);
+                scores[i] = new AtomicLongArray(cells);
+            }
+        }
+    }
+
+    private final int threads;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService publisher;
+    private Run run = null;
+    private Future<?>[] tasks = new Future<?>[0];
+    private ScheduledFuture<?> publishing = null;
+    private long seed;
+
+    /**
+     * Creates an analyser.
+     *
+     * @param threads worker threads for playouts
+     * @param seed    random seed
+     */
+    public MoveAnalyzer(int threads, long seed) {
+        this.threads = threads;
+        this.seed = seed;
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "analysis");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analysis-publish");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts analysing a position, replacing any running analysis. The position is copied.
+     *
+     * @param position   position to analyse
+     * @param generation number passed back in the snapshots
+     * @param listener   receives a snapshot every PUBLISH_MILLIS, on the publishing thread
+     */
+    public synchronized void start(HexBoard position, int generation, Consumer<Snapshot> listener) {
+        stop();
+        int[] legal = new int[position.cellCount()];
+        int count = position.isGameOver() ? 0 : position.legalMoves(legal);
+        Run current = new Run(generation, Arrays.copyOf(legal, count), threads, position.cellCount());
+        run = current;
+        if (count == 0) return;
+        tasks = new Future<?>[threads];
+        for (int worker = 0; worker < threads; worker++) {
+            int index = worker;
+            long workerSeed = PositionHash.mix(seed++);
+            HexBoard board = new HexBoard(position);
+            tasks[worker] = workers.submit(() -> work(current, index, board, new SplittableRandom(workerSeed)));
+        }
+        publishing = publisher.scheduleAtFixedRate(() -> listener.accept(snapshot(current)),
+                PUBLISH_MILLIS, PUBLISH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the running analysis; no snapshots are published after this returns.
+     */
+    public synchronized void stop() {
+        if (run == null) return;
+        run.stopped = true;
+        for (Future<?> task : tasks) task.cancel(false);
+        if (publishing != null) {
+            publishing.cancel(false);
+            // Wait for a publish in progress, so no snapshot of the old position arrives late
+            try {
+                publisher.submit(() -> { }).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (java.util.concurrent.ExecutionException e) {
+                // an empty task cannot fail
+            }
+        }
+        run = null;
+        tasks = new Future<?>[0];
+        publishing = null;
+    }
+
+    public synchronized boolean isRunning() {
+        return run != null && !run.stopped;
+    }
+
+    /**
+     * Sums the counters of a run.
+     */
+    private static Snapshot snapshot(Run run) {
+        int cells = run.playouts[0].length();
+        double[] winRates = new double[cells];
+        long[] playouts = new long[cells];
+        Arrays.fill(winRates, Double.NaN);
+        long total = 0;
+        for (int cell : run.candidates) {
+            long games = 0;
+            long score = 0;
+            for (int worker = 0; worker < run.playouts.length; worker++) {
+                games += run.playouts[worker].get(cell);
+                score += run.scores[worker].get(cell);
+            }
+            playouts[cell] = games;
+            total += games;
+            if (games > 0) winRates[cell] = score / (2.0 * games);
+        }
+        return new Snapshot(run.generation, winRates, playouts, total);
+    }
+
+    /**
+     * Returns the current estimates without waiting for the next publication.
+     *
+     * @return snapshot, or null if no analysis is running
+     */
+    public synchronized Snapshot snapshot() {
+        return run == null ? null : snapshot(run);
+    }
+
+    /**
+     * Plays playouts for every candidate in turn, starting at a different candidate per worker.
+     * Moves are undone after each playout, so the board returns to the analysed position.
+     */
+    private static void work(Run run, int worker, HexBoard board, SplittableRandom random) {
+        int[] legal = new int[board.cellCount()];
+        int mover = board.toMove();
+        int base = board.historySize();
+        AtomicLongArray playouts = run.playouts[worker];
+        AtomicLongArray scores = run.scores[worker];
+        for (int i = worker; !run.stopped; i++) {
+            int move = run.candidates[i % run.candidates.length];
+            board.play(move);
+            while (!board.isGameOver() && board.historySize() - base < MAX_PLAYOUT_MOVES) {
+                int n = board.legalMoves(legal);
+                if (n == 0) break;
+                board.play(legal[random.nextInt(n)]);
+            }
+            int winner = board.getWinner();
+            while (board.historySize() > base) board.undo();
+            // Each row has a single writer, so ordered writes are enough for the publisher to read
+            playouts.lazySet(move, playouts.get(move) + 1);
+            scores.lazySet(move, scores.get(move) + (winner == mover ? 2 : winner == HexBoard.EMPTY ? 1 : 0));
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+        workers.shutdownNow();
+        publisher.shutdownNow();
+    }
+}
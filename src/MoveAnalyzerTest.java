@@ -0,0 +1,57 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+public class MoveAnalyzerTest {
+
+    // Checks that snapshots keep arriving with more playouts and stop after stop()
+    @Test
+    public void testSnapshotsRefineUntilStopped() throws Exception {
+        CopyOnWriteArrayList<MoveAnalyzer.Snapshot> snapshots = new CopyOnWriteArrayList<>();
+        HexBoard board = new HexBoard(3);
+        board.play(board.cellAt(0, 0));
+        try (MoveAnalyzer analyzer = new MoveAnalyzer(2, 1)) {
+            analyzer.start(board, 7, snapshots::add);
+            Thread.sleep(450);
+            analyzer.stop();
+            int published = snapshots.size();
+            assertTrue("published " + published, published >= 2);
+            MoveAnalyzer.Snapshot first = snapshots.get(0);
+            MoveAnalyzer.Snapshot last = snapshots.get(published - 1);
+            assertEquals(7, last.generation);
+            assertTrue(last.totalPlayouts() > first.totalPlayouts());
+
+            int[] legal = new int[board.cellCount()];
+            int n = board.legalMoves(legal);
+            long counted = 0;
+            for (int i = 0; i < n; i++) counted += last.playouts(legal[i]);
+            assertEquals(last.totalPlayouts(), counted);
+            assertTrue(Double.isNaN(last.winRate(board.cellAt(0, 0))));
+            Thread.sleep(250);
+            assertEquals(published, snapshots.size());
+            assertFalse(analyzer.isRunning());
+        }
+    }
+
+    // Checks that the moves capturing the last enemy stone get the best estimates
+    @Test
+    public void testWinningMoveRatedBest() throws Exception {
+        HexBoard board = new HexBoard(2);
+        int[] stones = new int[board.cellCount()];
+        stones[board.cellAt(0, 0)] = HexBoard.BLUE;
+        stones[board.cellAt(1, 0)] = HexBoard.RED;
+        stones[board.cellAt(-2, 2)] = HexBoard.RED;
+        board.setPosition(stones, true);
+        // Both cells next to the red and the blue stone capture with a group of two
+        int[] winning = {board.cellAt(0, 1), board.cellAt(1, -1)};
+        try (MoveAnalyzer analyzer = new MoveAnalyzer(2, 3)) {
+            analyzer.start(board, 1, snapshot -> { });
+            Thread.sleep(300);
+            MoveAnalyzer.Snapshot snapshot = analyzer.snapshot();
+            assertEquals(1.0, snapshot.winRate(snapshot.bestMove()), 1e-9);
+            assertEquals(1.0, snapshot.winRate(winning[0]), 1e-9);
+            assertEquals(1.0, snapshot.winRate(winning[1]), 1e-9);
+        }
+    }
+}
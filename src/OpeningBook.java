@@ -0,0 +1,281 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opening book built from a {@link GameCorpus}: win statistics per canonical position and move for
+ * the first plies of recorded games. Symmetric positions and symmetric moves share one entry.
+ * The book file holds fixed-size records sorted by position hash and is memory-mapped for lookup,
+ * so a probe is a binary search over the file without loading it onto the heap.
+ * <pre>
+ *   header: int magic, int version, int radius, int record count
+ *   record: long position hash, u16 canonical move, int games, int wins, int draws
+ * </pre>
+ */
+public class OpeningBook {
+    private static final int MAGIC = 0x48584F42; // "HXOB"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int RECORD = 22;
+
+    /**
+     * Statistics of one move in a book position, seen from the player making the move.
+     */
+    public static final class Entry {
+        public final int cell;
+        public final int games;
+        public final int wins;
+        public final int draws;
+
+        Entry(int cell, int games, int wins, int draws) {
+            this.cell = cell;
+            this.games = games;
+            this.wins = wins;
+            this.draws = draws;
+        }
+
+        /**
+         * Returns the score of the move, counting draws as half a win.
+         *
+         * @return score between 0 and 1
+         */
+        public double winRate() {
+            return games == 0 ? 0 : (wins + 0.5 * draws) / games;
+        }
+    }
+
+    private final ByteBuffer data;
+    private final int radius;
+    private final int count;
+    private final BoardSymmetry symmetry;
+
+    private OpeningBook(ByteBuffer data) throws IOException {
+        if (data.limit() < HEADER || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Not an opening book file");
+        }
+        this.data = data;
+        radius = data.getInt(8);
+        count = data.getInt(12);
+        if (data.limit() != HEADER + (long) count * RECORD) throw new IOException("Opening book file has the wrong size");
+        symmetry = BoardSymmetry.of(radius);
+    }
+
+    /**
+     * Memory-maps a book file.
+     *
+     * @param path book file
+     * @return opening book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns the number of position and move records in the book.
+     *
+     * @return record count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Maps a move to its canonical form in a position: the smallest image among the
+     * transforms that take the position to its canonical form.
+     *
+     * @param symmetry  symmetry tables of the board's radius
+     * @param hashes    hash of the position under every transform
+     * @param canonical hash of the canonical position
+     * @param cell      move to map
+     * @return canonical move
+     */
+    private static int canonicalMove(BoardSymmetry symmetry, long[] hashes, long canonical, int cell) {
+        int best = Integer.MAX_VALUE;
+        for (int t = 0; t < BoardSymmetry.TRANSFORMS; t++) {
+            if (hashes[t] == canonical) best = Math.min(best, symmetry.transform(t, cell));
+        }
+        return best;
+    }
+
+    /**
+     * Hashes a position under all 12 transforms and returns the canonical hash (the smallest).
+     */
+    private static long hashes(HexBoard board, BoardSymmetry symmetry, long[] out) {
+        long canonical = Long.MAX_VALUE;
+        for (int t = 0; t < BoardSymmetry.TRANSFORMS; t++) {
+            out[t] = PositionHash.hash(board, symmetry, t);
+            canonical = Math.min(canonical, out[t]);
+        }
+        return canonical;
+    }
+
+    /**
+     * Looks up the statistics of one move in a position.
+     *
+     * @param board position on the book's board size
+     * @param cell  move to look up
+     * @return statistics, or null if the move is not in the book
+     */
+    public Entry probe(HexBoard board, int cell) {
+        if (board.getRadius() != radius) return null;
+        long[] hashes = new long[BoardSymmetry.TRANSFORMS];
+        long canonical = hashes(board, symmetry, hashes);
+        int move = canonicalMove(symmetry, hashes, canonical, cell);
+        for (int record = firstRecord(canonical); record < count && hashAt(record) == canonical; record++) {
+            if (moveAt(record) == move) {
+                int offset = HEADER + record * RECORD + 10;
+                return new Entry(cell, data.getInt(offset), data.getInt(offset + 4), data.getInt(offset + 8));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lists the book moves of a position, one representative cell per group of symmetric moves.
+     *
+     * @param board position on the book's board size
+     * @return entries in the position's own cell ids, empty if the position is not in the book
+     */
+    public List<Entry> moves(HexBoard board) {
+        List<Entry> entries = new ArrayList<>();
+        if (board.getRadius() != radius) return entries;
+        long[] hashes = new long[BoardSymmetry.TRANSFORMS];
+        long canonical = hashes(board, symmetry, hashes);
+        int transform = 0;
+        while (hashes[transform] != canonical) transform++;
+        int back = symmetry.inverse(transform);
+        for (int record = firstRecord(canonical); record < count && hashAt(record) == canonical; record++) {
+            int offset = HEADER + record * RECORD + 10;
+            entries.add(new Entry(symmetry.transform(back, moveAt(record)),
+                    data.getInt(offset), data.getInt(offset + 4), data.getInt(offset + 8)));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the book move with the best score among moves played at least a number of times.
+     *
+     * @param board    position
+     * @param minGames minimum number of games for a move to be considered
+     * @return best cell, or -1 if there is no such move
+     */
+    public int bestMove(HexBoard board, int minGames) {
+        Entry best = null;
+        for (Entry entry : moves(board)) {
+            if (entry.games >= minGames && (best == null || entry.winRate() > best.winRate())) best = entry;
+        }
+        return best == null ? -1 : best.cell;
+    }
+
+    private long hashAt(int record) {
+        return data.getLong(HEADER + record * RECORD);
+    }
+
+    private int moveAt(int record) {
+        return data.getShort(HEADER + record * RECORD + 8) & 0xFFFF;
+    }
+
+    /**
+     * Binary search for the first record of a position.
+     */
+    private int firstRecord(long hash) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (hashAt(mid) < hash) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Builds a book from the first plies of every game in a corpus.
+     *
+     * @param corpus   recorded games
+     * @param maxPly   number of plies per game to include
+     * @param minGames drop moves seen in fewer games than this
+     * @param out      book file to write
+     * @return number of records written
+     * @throws IOException if writing fails
+     */
+    public static int build(GameCorpus.Reader corpus, int maxPly, int minGames, Path out) throws IOException {
+        int radius = corpus.getRadius();
+        BoardSymmetry symmetry = BoardSymmetry.of(radius);
+        HexBoard board = new HexBoard(radius);
+        long[] hashes = new long[BoardSymmetry.TRANSFORMS];
+        Map<Long, Map<Integer, int[]>> stats = new HashMap<>();
+
+        corpus.forEach((moves, moveCount, winner) -> {
+            board.reset();
+            for (int ply = 0; ply < Math.min(maxPly, moveCount); ply++) {
+                long canonical = hashes(board, symmetry, hashes);
+                int move = canonicalMove(symmetry, hashes, canonical, moves[ply]);
+                int[] counts = stats.computeIfAbsent(canonical, k -> new HashMap<>())
+                        .computeIfAbsent(move, k -> new int[3]);
+                counts[0]++;
+                if (winner == board.toMove()) counts[1]++;
+                else if (winner == HexBoard.EMPTY) counts[2]++;
+                if (!board.play(moves[ply]).isPlaced()) break;
+            }
+        });
+
+        List<long[]> records = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, int[]>> position : stats.entrySet()) {
+            for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+                int[] counts = move.getValue();
+                if (counts[0] < minGames) continue;
+                records.add(new long[] {position.getKey(), move.getKey(), counts[0], counts[1], counts[2]});
+            }
+        }
+        records.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        try (DataOutputStream file = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out)))) {
+            file.writeInt(MAGIC);
+            file.writeInt(VERSION);
+            file.writeInt(radius);
+            file.writeInt(records.size());
+            for (long[] record : records) {
+                file.writeLong(record[0]);
+                file.writeShort((int) record[1]);
+                file.writeInt((int) record[2]);
+                file.writeInt((int) record[3]);
+                file.writeInt((int) record[4]);
+            }
+        }
+        return records.size();
+    }
+
+    /**
+     * Builds a book file from a corpus file.
+     *
+     * @param args corpus file, book file, optional max ply (default 12) and min games (default 5)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("java OpeningBook <corpus> <book> [maxPly] [minGames]");
+            System.exit(1);
+        }
+        int maxPly = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+        int minGames = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        long start = System.nanoTime();
+        int records = build(new GameCorpus.Reader(Path.of(args[0])), maxPly, minGames, Path.of(args[1]));
+        System.out.printf("Wrote %d book records in %.1f s%n", records, (System.nanoTime() - start) / 1e9);
+    }
+}
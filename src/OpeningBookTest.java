@@ -0,0 +1,81 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+
+public class OpeningBookTest {
+
+    // Checks that games written to a corpus are read back move for move
+    @Test
+    public void testCorpusRoundTrip() throws Exception {
+        Path file = Files.createTempFile("corpus", ".hxgc");
+        try {
+            HexBoard board = new HexBoard(3);
+            SplittableRandom random = new SplittableRandom(7);
+            int[] moves = new int[SelfPlay.MAX_MOVES];
+            List<int[]> games = new ArrayList<>();
+            try (GameCorpus.Writer writer = new GameCorpus.Writer(file, 3)) {
+                for (int game = 0; game < 50; game++) {
+                    int count = SelfPlay.playRandomGame(board, random, moves);
+                    int[] record = java.util.Arrays.copyOf(moves, count + 1);
+                    record[count] = board.getWinner();
+                    games.add(record);
+                    writer.write(moves, count, board.getWinner());
+                }
+            }
+            GameCorpus.Reader reader = new GameCorpus.Reader(file);
+            assertEquals(3, reader.getRadius());
+            List<int[]> read = new ArrayList<>();
+            reader.forEach((played, count, winner) -> {
+                int[] record = java.util.Arrays.copyOf(played, count + 1);
+                record[count] = winner;
+                read.add(record);
+            });
+            assertEquals(games.size(), read.size());
+            for (int i = 0; i < games.size(); i++) assertArrayEquals(games.get(i), read.get(i));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Checks that symmetric positions and symmetric moves share the same book statistics
+    @Test
+    public void testSymmetricPositionsShareEntries() throws Exception {
+        Path corpus = Files.createTempFile("corpus", ".hxgc");
+        Path book = Files.createTempFile("book", ".hxob");
+        try {
+            try (GameCorpus.Writer writer = new GameCorpus.Writer(corpus, 3)) {
+                SelfPlay.generate(writer, 3, 2000, 11);
+            }
+            assertTrue(OpeningBook.build(new GameCorpus.Reader(corpus), 4, 1, book) > 0);
+            OpeningBook opening = OpeningBook.open(book);
+            BoardSymmetry symmetry = BoardSymmetry.of(3);
+
+            // Every first move is in the book and all first moves add up to the number of games
+            HexBoard board = new HexBoard(3);
+            int total = 0;
+            for (OpeningBook.Entry entry : opening.moves(board)) total += entry.games;
+            assertEquals(2000, total);
+
+            board.play(board.cellAt(1, 0));
+            OpeningBook.Entry reply = opening.probe(board, board.cellAt(2, 0));
+            assertNotNull(reply);
+            for (int t = 1; t < BoardSymmetry.TRANSFORMS; t++) {
+                HexBoard image = new HexBoard(3);
+                image.play(symmetry.transform(t, board.cellAt(1, 0)));
+                OpeningBook.Entry mapped = opening.probe(image, symmetry.transform(t, board.cellAt(2, 0)));
+                assertNotNull(mapped);
+                assertEquals(reply.games, mapped.games);
+                assertEquals(reply.wins, mapped.wins);
+            }
+            assertTrue(board.isLegal(opening.bestMove(board, 1)));
+        } finally {
+            Files.deleteIfExists(corpus);
+            Files.deleteIfExists(book);
+        }
+    }
+}
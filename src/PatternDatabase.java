@@ -0,0 +1,310 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Win rates of local patterns around a cell, learned from recorded games, for move ordering and
+ * playout policies. A pattern is the content of the 18 cells within distance 2 of a move,
+ * from the mover's point of view (empty, own or enemy) plus which of them are off the board.
+ * <p>
+ * Patterns are exact non-negative ints: the off-board cells select one of a few edge shapes,
+ * and the on-board cells are a base-3 number added to that shape's offset. When a 2-ring pattern
+ * was not seen often enough, the 1-ring pattern (6 cells, base 4 with off-board) is used instead,
+ * stored under a negative key. Lookups go through {@link PatternTable} and do not allocate.
+ */
+public final class PatternDatabase {
+    /** Number of cells in the 2-ring neighbourhood. */
+    static final int RING_CELLS = 18;
+    /** Value of a pattern that is not in the database. */
+    static final float UNKNOWN = 0.5f;
+
+    private static final int MAGIC = 0x48585044; // "HXPD"
+    private static final int[] SHAPE_MASKS;
+    private static final int[] SHAPE_OFFSETS;
+    private static final ConcurrentHashMap<BoardTopology, Neighborhood> NEIGHBORHOODS = new ConcurrentHashMap<>();
+
+    static {
+        // Off-board shapes only depend on the nearest edges, so small boards contain all of them
+        TreeSet<Integer> masks = new TreeSet<>();
+        for (int radius = 0; radius <= 4; radius++) {
+            BoardTopology topology = BoardTopology.of(radius);
+            for (int cell = 0; cell < topology.cellCount(); cell++) {
+                masks.add(offBoardMask(ringCells(topology, cell)));
+            }
+        }
+        SHAPE_MASKS = masks.stream().mapToInt(Integer::intValue).toArray();
+        SHAPE_OFFSETS = new int[SHAPE_MASKS.length];
+        long offset = 0;
+        for (int i = 0; i < SHAPE_MASKS.length; i++) {
+            SHAPE_OFFSETS[i] = (int) offset;
+            long combinations = 1;
+            for (int j = 0; j < RING_CELLS - Integer.bitCount(SHAPE_MASKS[i]); j++) combinations *= 3;
+            offset += combinations;
+        }
+        if (offset > Integer.MAX_VALUE) throw new IllegalStateException("patterns do not fit in an int");
+    }
+
+    /**
+     * Cells around every cell of a board in pattern order, and the offset of each cell's edge shape.
+     */
+    static final class Neighborhood {
+        final BoardTopology topology;
+        final int[] ring;
+        final int[] offsets;
+
+        Neighborhood(BoardTopology topology) {
+            this.topology = topology;
+            int count = topology.cellCount();
+            ring = new int[count * RING_CELLS];
+            offsets = new int[count];
+            for (int cell = 0; cell < count; cell++) {
+                int[] cells = ringCells(topology, cell);
+                System.arraycopy(cells, 0, ring, cell * RING_CELLS, RING_CELLS);
+                int shape = Arrays.binarySearch(SHAPE_MASKS, offBoardMask(cells));
+                if (shape < 0) throw new IllegalStateException("unknown edge shape at cell " + cell);
+                offsets[cell] = SHAPE_OFFSETS[shape];
+            }
+        }
+    }
+
+    private final PatternTable weights;
+    private Neighborhood last;
+
+    private PatternDatabase(PatternTable weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Lists the cells within distance 2 of a cell: the 6 neighbours, the 6 cells two steps in a
+     * straight line, then the 6 cells between those.
+     *
+     * @return cell ids, -1 for cells off the board
+     */
+    static int[] ringCells(BoardTopology topology, int cell) {
+        HexCube center = topology.cube(cell);
+        int[] cells = new int[RING_CELLS];
+        for (int d = 0; d < 6; d++) {
+            HexCube near = center.neighbor(d);
+            HexCube straight = near.neighbor(d);
+            HexCube between = near.neighbor((d + 1) % 6);
+            cells[d] = topology.cellAt(near.q, near.r);
+            cells[6 + d] = topology.cellAt(straight.q, straight.r);
+            cells[12 + d] = topology.cellAt(between.q, between.r);
+        }
+        return cells;
+    }
+
+    private static int offBoardMask(int[] cells) {
+        int mask = 0;
+        for (int i = 0; i < RING_CELLS; i++) {
+            if (cells[i] < 0) mask |= 1 << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the shared neighbourhood tables of a board size.
+     *
+     * @param topology board cells
+     * @return tables, built on first use
+     */
+    static Neighborhood neighborhood(BoardTopology topology) {
+        return NEIGHBORHOODS.computeIfAbsent(topology, Neighborhood::new);
+    }
+
+    /**
+     * Encodes the 2-ring pattern of a cell.
+     *
+     * @param area  neighbourhood tables of the board
+     * @param board position
+     * @param cell  cell at the center of the pattern
+     * @param own   colour of the player the pattern is seen from
+     * @return non-negative pattern
+     */
+    static int pattern(Neighborhood area, HexBoard board, int cell, int own) {
+        int code = 0;
+        int base = cell * RING_CELLS;
+        for (int i = RING_CELLS - 1; i >= 0; i--) {
+            int neighbor = area.ring[base + i];
+            if (neighbor < 0) continue;
+            int stone = board.get(neighbor);
+            code = code * 3 + (stone == HexBoard.EMPTY ? 0 : stone == own ? 1 : 2);
+        }
+        return area.offsets[cell] + code;
+    }
+
+    /**
+     * Encodes the 1-ring pattern of a cell as a negative key.
+     *
+     * @param area  neighbourhood tables of the board
+     * @param board position
+     * @param cell  cell at the center of the pattern
+     * @param own   colour of the player the pattern is seen from
+     * @return negative pattern
+     */
+    static int smallPattern(Neighborhood area, HexBoard board, int cell, int own) {
+        int code = 0;
+        int base = cell * RING_CELLS;
+        for (int i = 5; i >= 0; i--) {
+            int neighbor = area.ring[base + i];
+            int stone = neighbor < 0 ? 3 : board.get(neighbor);
+            code = code * 4 + (stone == HexBoard.EMPTY ? 0 : stone == own ? 1 : stone == 3 ? 3 : 2);
+        }
+        return -1 - code;
+    }
+
+    /**
+     * Returns the learned win rate of playing a cell for the player to move.
+     * Safe to call from one thread per database instance; does not allocate.
+     *
+     * @param board position
+     * @param cell  candidate move
+     * @return win rate in (0, 1), UNKNOWN if neither pattern is known
+     */
+    public float weight(HexBoard board, int cell) {
+        Neighborhood area = last;
+        if (area == null || area.topology != board.getTopology()) {
+            area = neighborhood(board.getTopology());
+            last = area;
+        }
+        int own = board.toMove();
+        float value = weights.get(pattern(area, board, cell, own), Float.NaN);
+        if (!Float.isNaN(value)) return value;
+        return weights.get(smallPattern(area, board, cell, own), UNKNOWN);
+    }
+
+    /**
+     * Returns a copy that can be used on another thread.
+     *
+     * @return database sharing the learned table
+     */
+    public PatternDatabase copy() {
+        return new PatternDatabase(weights);
+    }
+
+    /**
+     * Returns the number of stored patterns, both sizes.
+     *
+     * @return pattern count
+     */
+    public int size() {
+        return weights.size();
+    }
+
+    /**
+     * Learns pattern win rates from the moves of recorded games. Each played move counts a game
+     * for its 2-ring and 1-ring pattern, and a win (or half a win for a draw) if its player won.
+     * Stored rates are smoothed as (wins + 1) / (games + 2).
+     *
+     * @param corpus   recorded games
+     * @param minGames patterns seen fewer times are left out
+     * @return learned database
+     */
+    public static PatternDatabase learn(GameCorpus.Reader corpus, int minGames) {
+        PatternTable games = new PatternTable(1 << 16);
+        PatternTable wins = new PatternTable(1 << 16);
+        Neighborhood area = neighborhood(BoardTopology.of(corpus.getRadius()));
+        HexBoard board = new HexBoard(area.topology);
+        corpus.forEach((moves, moveCount, winner) -> {
+            board.reset();
+            for (int ply = 0; ply < moveCount; ply++) {
+                int own = board.toMove();
+                float score = winner == own ? 1 : winner == HexBoard.EMPTY ? 0.5f : 0;
+                int large = pattern(area, board, moves[ply], own);
+                int small = smallPattern(area, board, moves[ply], own);
+                games.add(large, 1);
+                wins.add(large, score);
+                games.add(small, 1);
+                wins.add(small, score);
+                if (!board.play(moves[ply]).isPlaced()) break;
+            }
+        });
+        PatternTable weights = new PatternTable(games.size());
+        games.forEach((key, count) -> {
+            if (count >= minGames) weights.put(key, (wins.get(key, 0) + 1) / (count + 2));
+        });
+        return new PatternDatabase(weights);
+    }
+
+    /**
+     * Writes the database to a file.
+     *
+     * @param path file to write
+     * @throws IOException if writing fails
+     */
+    public void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(weights.size());
+            IOException[] failure = new IOException[1];
+            weights.forEach((key, value) -> {
+                try {
+                    out.writeInt(key);
+                    out.writeFloat(value);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+        }
+    }
+
+    /**
+     * Reads a database written by {@link #save(Path)}.
+     *
+     * @param path file to read
+     * @return database
+     * @throws IOException if the file cannot be read or is not a pattern database
+     */
+    public static PatternDatabase load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a pattern database: " + path);
+            int count = in.readInt();
+            PatternTable weights = new PatternTable(count);
+            for (int i = 0; i < count; i++) weights.put(in.readInt(), in.readFloat());
+            return new PatternDatabase(weights);
+        }
+    }
+
+    /**
+     * Learns a database from a corpus file and reports the lookup rate.
+     *
+     * @param args corpus file, database file, optional minimum games per pattern (default 10)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("java PatternDatabase <corpus> <patterns> [minGames]");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        GameCorpus.Reader corpus = new GameCorpus.Reader(Path.of(args[0]));
+        PatternDatabase database = learn(corpus, args.length > 2 ? Integer.parseInt(args[2]) : 10);
+        database.save(Path.of(args[1]));
+        System.out.printf("Learned %d patterns in %.1f s%n", database.size(), (System.nanoTime() - start) / 1e9);
+
+        HexBoard board = new HexBoard(corpus.getRadius());
+        int[] legal = new int[board.cellCount()];
+        java.util.SplittableRandom random = new java.util.SplittableRandom(1);
+        long lookups = 0;
+        double sink = 0;
+        start = System.nanoTime();
+        while (System.nanoTime() - start < 2_000_000_000L) {
+            int n = board.legalMoves(legal);
+            if (n == 0 || board.isGameOver()) {
+                board.reset();
+                continue;
+            }
+            for (int i = 0; i < n; i++) sink += database.weight(board, legal[i]);
+            lookups += n;
+            board.play(legal[random.nextInt(n)]);
+        }
+        System.out.printf("%.1f M lookups/s%s%n", lookups / ((System.nanoTime() - start) / 1e9) / 1e6, sink < 0 ? "" : "");
+    }
+}
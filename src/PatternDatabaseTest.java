@@ -0,0 +1,114 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+
+public class PatternDatabaseTest {
+
+    // Checks put, add, growth and missing keys of the primitive table
+    @Test
+    public void testPatternTable() {
+        PatternTable table = new PatternTable(4);
+        for (int key = -500; key < 500; key++) table.put(key, key * 0.5f);
+        table.add(7, 1);
+        table.add(100000, 2);
+        assertEquals(1001, table.size());
+        assertEquals(4.5f, table.get(7, -1), 0);
+        assertEquals(2f, table.get(100000, -1), 0);
+        assertEquals(-250f, table.get(-500, -1), 0);
+        assertEquals(-1f, table.get(12345, -1), 0);
+        assertFalse(table.contains(500));
+    }
+
+    // Checks that equal patterns always mean equal neighbourhoods, seen from the mover
+    @Test
+    public void testPatternsAreExact() {
+        BoardTopology topology = BoardTopology.of(3);
+        PatternDatabase.Neighborhood area = PatternDatabase.neighborhood(topology);
+        Map<Integer, String> seen = new HashMap<>();
+        for (HexBoard board : EvaluatorBenchmark.samplePositions(3, 300, 5)) {
+            int own = board.toMove();
+            for (int cell = 0; cell < board.cellCount(); cell++) {
+                StringBuilder contents = new StringBuilder();
+                for (int neighbor : PatternDatabase.ringCells(topology, cell)) {
+                    int stone = neighbor < 0 ? 3 : board.get(neighbor);
+                    contents.append(stone == HexBoard.EMPTY || stone == 3 ? stone : stone == own ? 1 : 2);
+                }
+                int pattern = PatternDatabase.pattern(area, board, cell, own);
+                assertTrue(pattern >= 0);
+                String previous = seen.putIfAbsent(pattern, contents.toString());
+                if (previous != null) assertEquals(previous, contents.toString());
+                assertTrue(PatternDatabase.smallPattern(area, board, cell, own) < 0);
+            }
+        }
+    }
+
+    // Checks learning, saving and loading, and allocation-free lookups
+    @Test
+    public void testLearnSaveLoad() throws Exception {
+        Path corpus = Files.createTempFile("corpus", ".hxgc");
+        Path file = Files.createTempFile("patterns", ".hxpd");
+        try {
+            try (GameCorpus.Writer writer = new GameCorpus.Writer(corpus, 3)) {
+                SelfPlay.generate(writer, 3, 300, 21);
+            }
+            PatternDatabase learned = PatternDatabase.learn(new GameCorpus.Reader(corpus), 2);
+            assertTrue(learned.size() > 0);
+            learned.save(file);
+            PatternDatabase loaded = PatternDatabase.load(file);
+            assertEquals(learned.size(), loaded.size());
+
+            HexBoard board = new HexBoard(3);
+            board.play(board.cellAt(0, 0));
+            board.play(board.cellAt(1, 0));
+            board.play(board.cellAt(-2, 3));
+            int[] legal = new int[board.cellCount()];
+            int n = board.legalMoves(legal);
+            for (int i = 0; i < n; i++) {
+                float weight = loaded.weight(board, legal[i]);
+                assertEquals(learned.weight(board, legal[i]), weight, 0);
+                assertTrue(weight > 0 && weight < 1);
+            }
+
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean memory = (com.sun.management.ThreadMXBean) threads;
+                long id = Thread.currentThread().threadId();
+                double sink = 0;
+                for (int i = 0; i < 20000; i++) sink += loaded.weight(board, legal[i % n]); // warm up
+                long before = memory.getThreadAllocatedBytes(id);
+                for (int i = 0; i < 100000; i++) sink += loaded.weight(board, legal[i % n]);
+                long allocated = memory.getThreadAllocatedBytes(id) - before;
+                assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+                assertTrue(sink > 0);
+            }
+        } finally {
+            Files.deleteIfExists(corpus);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Checks that a player using patterns still finds the winning capture
+    @Test
+    public void testSearchWithPatterns() throws Exception {
+        Path corpus = Files.createTempFile("corpus", ".hxgc");
+        try {
+            try (GameCorpus.Writer writer = new GameCorpus.Writer(corpus, 2)) {
+                SelfPlay.generate(writer, 2, 200, 4);
+            }
+            HexBoard board = new HexBoard(2);
+            board.play(board.cellAt(0, 0));
+            board.play(board.cellAt(1, 0));
+            try (MctsPlayer player = new MctsPlayer(board.getTopology(), 6)) {
+                player.setPatterns(PatternDatabase.learn(new GameCorpus.Reader(corpus), 1));
+                assertEquals(HexBoard.MoveResult.CAPTURED, board.play(player.chooseMove(board, 300)));
+            }
+        } finally {
+            Files.deleteIfExists(corpus);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from int keys to float values, stored in two primitive arrays with
+ * linear probing. Lookups do not allocate, so it can be used inside search loops.
+ * {@link Integer#MIN_VALUE} marks free slots and cannot be used as a key.
+ */
+final class PatternTable {
+    static final int FREE = Integer.MIN_VALUE;
+
+    /**
+     * Receives the entries of a table.
+     */
+    interface Visitor {
+        void entry(int key, float value);
+    }
+
+    private int[] keys;
+    private float[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates a table sized for a number of entries at a load factor of at most one half.
+     *
+     * @param expected expected number of entries
+     */
+    PatternTable(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        values = new float[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int slot(int key) {
+        int slot = (key * 0x9E3779B9) >>> 7 & mask;
+        while (keys[slot] != FREE && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key     key to look up
+     * @param missing value to return if the key is absent
+     * @return stored value or {@code missing}
+     */
+    float get(int key, float missing) {
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : missing;
+    }
+
+    boolean contains(int key) {
+        return keys[slot(key)] == key;
+    }
+
+    /**
+     * Stores a value, replacing any previous one.
+     *
+     * @param key   key, not FREE
+     * @param value value to store
+     */
+    void put(int key, float value) {
+        int slot = insert(key);
+        values[slot] = value;
+    }
+
+    /**
+     * Adds to the value of a key, starting from 0 if it is absent.
+     *
+     * @param key   key, not FREE
+     * @param delta amount to add
+     */
+    void add(int key, float delta) {
+        int slot = insert(key);
+        values[slot] += delta;
+    }
+
+    private int insert(int key) {
+        if (key == FREE) throw new IllegalArgumentException("reserved key");
+        int slot = slot(key);
+        if (keys[slot] == key) return slot;
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+            slot = slot(key);
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        float[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Visits every entry in slot order.
+     *
+     * @param visitor receiver of the entries
+     */
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) visitor.entry(keys[i], values[i]);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.stream.IntStream;
+
+/**
+ * Counts the move sequences of a given length from a position ("perft"), using {@link HexBoard}.
+ * Every stone placement is one ply, including the extra placement a player gets after a capture.
+ * Finished games end a sequence early and are not counted at later depths.
+ * The counts pin down the placement and capture rules exactly, so they are checked against
+ * reference values in the tests whenever the rules engine changes, and the run time measures
+ * raw rules throughput.
+ * Usage: {@code java Perft <radius> <depth> [cell...]}
+ */
+public class Perft {
+    private Perft() {}
+
+    /**
+     * Counts the positions reached after exactly {@code depth} plies.
+     *
+     * @param board position to start from, restored on return
+     * @param depth number of plies
+     * @return number of move sequences of that length
+     */
+    public static long perft(HexBoard board, int depth) {
+        int[][] moves = new int[depth + 1][board.cellCount()];
+        return perft(board, depth, moves);
+    }
+
+    private static long perft(HexBoard board, int depth, int[][] moves) {
+        if (depth == 0) return 1;
+        if (board.isGameOver()) return 0;
+        int[] legal = moves[depth];
+        int n = board.legalMoves(legal);
+        if (depth == 1) return n;
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            board.play(legal[i]);
+            nodes += perft(board, depth - 1, moves);
+            board.undo();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the sequences below each legal move of a position. Useful to find the first move
+     * on which two rules engines disagree.
+     *
+     * @param board position to start from, restored on return
+     * @param depth number of plies, at least 1
+     * @return count for every cell, 0 for illegal moves
+     */
+    public static long[] divide(HexBoard board, int depth) {
+        long[] counts = new long[board.cellCount()];
+        if (board.isGameOver()) return counts;
+        int[] legal = new int[board.cellCount()];
+        int n = board.legalMoves(legal);
+        for (int i = 0; i < n; i++) {
+            board.play(legal[i]);
+            counts[legal[i]] = perft(board, depth - 1);
+            board.undo();
+        }
+        return counts;
+    }
+
+    /**
+     * Counts like {@link #perft(HexBoard, int)}, splitting the root moves over the common pool.
+     * Each worker plays on its own copy of the board.
+     *
+     * @param board position to start from, not modified
+     * @param depth number of plies
+     * @return number of move sequences of that length
+     */
+    public static long parallelPerft(HexBoard board, int depth) {
+        if (depth <= 1 || board.isGameOver()) return perft(new HexBoard(board), depth);
+        int[] legal = new int[board.cellCount()];
+        int n = board.legalMoves(legal);
+        return IntStream.range(0, n).parallel().mapToLong(i -> {
+            HexBoard copy = new HexBoard(board);
+            copy.play(legal[i]);
+            return perft(copy, depth - 1);
+        }).sum();
+    }
+
+    /**
+     * Prints the counts for every depth up to the requested one and the node rate.
+     *
+     * @param args radius, depth and optional cells to play first
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("java Perft <radius> <depth> [cell...]");
+            System.exit(1);
+        }
+        HexBoard board = new HexBoard(Integer.parseInt(args[0]));
+        int depth = Integer.parseInt(args[1]);
+        for (int i = 2; i < args.length; i++) {
+            if (!board.play(Integer.parseInt(args[i])).isPlaced()) {
+                System.err.println("Illegal move " + args[i]);
+                System.exit(1);
+            }
+        }
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = parallelPerft(board, d);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("perft(%d) = %d  %.2f s  %.1f M nodes/s%n", d, nodes, seconds, nodes / seconds / 1e6);
+        }
+    }
+}
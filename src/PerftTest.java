@@ -0,0 +1,74 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.ArrayList;
+
+
+public class PerftTest {
+
+    // Reference counts, REFERENCE[radius - 1][depth - 1], confirmed against the HexGrid rules below
+    private static final long[][] REFERENCE = {
+            {7, 42, 186, 432, 624},
+            {19, 342, 4878, 68784, 771444},
+            {37, 1332, 41496, 1284696},
+    };
+
+    // Checks the move generator and capture logic against the reference counts
+    @Test
+    public void testReferenceCounts() {
+        for (int radius = 1; radius <= REFERENCE.length; radius++) {
+            HexBoard board = new HexBoard(radius);
+            for (int depth = 1; depth <= REFERENCE[radius - 1].length; depth++) {
+                assertEquals("radius " + radius + " depth " + depth,
+                        REFERENCE[radius - 1][depth - 1], Perft.perft(board, depth));
+            }
+            assertEquals(0, board.historySize());
+        }
+    }
+
+    // Checks that the reference counts are what the original click handling in HexGrid produces
+    @Test
+    public void testCountsMatchHexGridRules() {
+        for (int radius = 1; radius <= 2; radius++) {
+            HexGrid grid = RulesFuzzer.referenceGrid(radius);
+            int maxDepth = radius == 1 ? 5 : 3;
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                assertEquals("radius " + radius + " depth " + depth,
+                        REFERENCE[radius - 1][depth - 1], gridPerft(grid, depth));
+            }
+        }
+    }
+
+    // Checks that divide and the parallel count add up to the sequential count from a mid-game position
+    @Test
+    public void testDivideAndParallelAgree() {
+        HexBoard board = new HexBoard(3);
+        board.play(board.cellAt(0, 0));
+        board.play(board.cellAt(1, 0));
+        board.play(board.cellAt(-1, 1));
+        String before = board.toString();
+
+        long total = 0;
+        for (long count : Perft.divide(board, 3)) total += count;
+        assertEquals(Perft.perft(board, 3), total);
+        assertEquals(total, Perft.parallelPerft(board, 3));
+        assertEquals(before, board.toString());
+        assertEquals(3, board.historySize());
+    }
+
+    // Counts sequences by clicking through a HexGrid panel, undoing after every placement
+    private long gridPerft(HexGrid grid, int depth) {
+        if (depth == 0) return 1;
+        long nodes = 0;
+        for (ArrayList<Point> hexagon : grid.grid) {
+            if (!grid.placeStone(grid.getHexCenter(hexagon))) continue;
+            if (grid.gameExited) {
+                nodes += depth == 1 ? 1 : 0;
+                grid.gameExited = false;
+            } else {
+                nodes += gridPerft(grid, depth - 1);
+            }
+            grid.undoLastMove();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * 64-bit Zobrist-style hashes of positions. The keys are derived from the cell and colour with a
+ * fixed mixing function instead of a random table, so hashes are identical in every JVM and can be
+ * stored in files such as opening books.
+ */
+final class PositionHash {
+    static final long RED_TO_MOVE = mix(0x5EED);
+
+    private PositionHash() {}
+
+    /**
+     * Returns the key of a stone of a colour on a cell.
+     *
+     * @param cell   cell id
+     * @param colour RED or BLUE
+     * @return key to XOR into a position hash
+     */
+    static long key(int cell, int colour) {
+        return mix((long) cell << 2 | colour);
+    }
+
+    /**
+     * Hashes a board after mapping every cell through a symmetry transform.
+     *
+     * @param board     position to hash
+     * @param symmetry  symmetry tables of the board's radius
+     * @param transform transform to apply
+     * @return position hash including the side to move
+     */
+    static long hash(HexBoard board, BoardSymmetry symmetry, int transform) {
+        long hash = board.isRedTurn() ? RED_TO_MOVE : 0;
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            int stone = board.get(cell);
+            if (stone != HexBoard.EMPTY) hash ^= key(symmetry.transform(transform, cell), stone);
+        }
+        return hash;
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
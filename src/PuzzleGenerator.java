@@ -0,0 +1,432 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Finds capture puzzles: positions where the player to move wins with captures alone. A capture
+ * gives the same player another stone, so a chain of captures can remove every enemy stone before
+ * the opponent moves again. Positions come from random games, which are searched in batches of
+ * {@link #BATCH_GAMES} on the common fork-join pool, one board per thread; each game gives the
+ * position at one random move. Each position is solved by iterative deepening over capturing
+ * moves, so the depth found is the length of the shortest winning chain; that depth is the
+ * puzzle's difficulty, and among puzzles of the same depth those with fewer winning first moves
+ * count as harder. Positions equal under a board symmetry are kept once.
+ * <p>
+ * Puzzle files start with "HXPZ", a version byte, the radius and the puzzle count. Each puzzle
+ * is the side to move, the depth, the number of winning first moves, the stones at 2 bits per
+ * cell and one shortest solution as cell ids.
+ * Usage: {@code java PuzzleGenerator <file> [radius] [count] [minDepth] [maxDepth] [seed]}
+ */
+public class PuzzleGenerator {
+    static final int MAGIC = 0x4858505A; // "HXPZ"
+    static final int VERSION = 1;
+    /** Random games searched per parallel batch. */
+    static final int BATCH_GAMES = 64;
+
+    /**
+     * A position with a winning capture chain for the player to move.
+     */
+    public static final class Puzzle {
+        private final int radius;
+        private final byte[] stones;
+        private final boolean redTurn;
+        private final int[] solution;
+        private final int firstMoves;
+
+        Puzzle(int radius, byte[] stones, boolean redTurn, int[] solution, int firstMoves) {
+            this.radius = radius;
+            this.stones = stones;
+            this.redTurn = redTurn;
+            this.solution = solution;
+            this.firstMoves = firstMoves;
+        }
+
+        public int getRadius() {
+            return radius;
+        }
+
+        public boolean isRedTurn() {
+            return redTurn;
+        }
+
+        /**
+         * Returns the number of captures in the shortest winning chain, the puzzle's difficulty.
+         *
+         * @return depth, at least 1
+         */
+        public int depth() {
+            return solution.length;
+        }
+
+        /**
+         * Returns the number of first moves that start a winning chain of the shortest length.
+         *
+         * @return winning first moves
+         */
+        public int getFirstMoves() {
+            return firstMoves;
+        }
+
+        /**
+         * Returns a move of one shortest solution.
+         *
+         * @param index move number, below {@link #depth()}
+         * @return cell id
+         */
+        public int solutionMove(int index) {
+            return solution[index];
+        }
+
+        /**
+         * Builds a board holding the puzzle position.
+         *
+         * @return new board
+         */
+        public HexBoard toBoard() {
+            int[] cells = new int[stones.length];
+            for (int cell = 0; cell < cells.length; cell++) cells[cell] = stones[cell];
+            HexBoard board = new HexBoard(radius);
+            board.setPosition(cells, redTurn);
+            return board;
+        }
+    }
+
+    /**
+     * Capture-only search of one thread, with a move buffer per depth. Capture chains reach the
+     * same position in different orders, so positions already shown to have no win within some
+     * depth are remembered in a small table keyed by their hash.
+     */
+    static final class Solver {
+        static final int TABLE_BITS = 16;
+
+        final HexBoard board;
+        final BoardTopology topology;
+        final int maxDepth;
+        final int[][] moves;
+        final int[] line;
+        private final long[] failedKeys = new long[1 << TABLE_BITS];
+        private final byte[] failedDepths = new byte[1 << TABLE_BITS];
+        private final int[] groupOf;
+        private final int[] groupSize;
+        private final int[] smallestAdjacentEnemy;
+        private final int[] stack;
+        private final int[] joinedGroups = new int[6];
+
+        Solver(BoardTopology topology, int maxDepth) {
+            this.board = new HexBoard(topology);
+            this.topology = topology;
+            this.maxDepth = maxDepth;
+            moves = new int[maxDepth][topology.cellCount()];
+            line = new int[maxDepth];
+            groupOf = new int[topology.cellCount()];
+            groupSize = new int[topology.cellCount()];
+            smallestAdjacentEnemy = new int[topology.cellCount()];
+            stack = new int[topology.cellCount()];
+        }
+
+        /**
+         * Finds the shortest winning capture chain of the board's position, leaving the chain in {@code line}.
+         *
+         * @return chain length, or 0 if none is at most maxDepth long
+         */
+        int solve() {
+            if (board.isGameOver()) return 0;
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                if (search(depth, 0)) return depth;
+            }
+            return 0;
+        }
+
+        private boolean search(int depth, int ply) {
+            long key = 0;
+            int slot = 0;
+            if (depth > 1) {
+                key = hash();
+                slot = (int) key & (failedKeys.length - 1);
+                if (failedKeys[slot] == key && failedDepths[slot] >= depth) return false;
+            }
+            int n = captureMoves(moves[ply]);
+            for (int i = 0; i < n; i++) {
+                int cell = moves[ply][i];
+                if (wins(cell, depth, ply)) {
+                    line[ply] = cell;
+                    return true;
+                }
+            }
+            if (depth > 1) {
+                failedKeys[slot] = key;
+                failedDepths[slot] = (byte) depth;
+            }
+            return false;
+        }
+
+        /**
+         * Lists the legal moves that capture, without playing them. A stone captures when the group
+         * it joins is larger than an enemy group touching that group. When the opponent has no
+         * stones left but the game has not ended for lack of stones, every legal move wins.
+         *
+         * @param out receives cell ids
+         * @return number of moves
+         */
+        int captureMoves(int[] out) {
+            int mover = board.toMove();
+            int enemy = mover == HexBoard.RED ? HexBoard.BLUE : HexBoard.RED;
+            int n = board.legalMoves(out);
+            if (board.stoneCount(enemy) == 0) return n;
+            labelGroups(mover);
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                int cell = out[i];
+                int size = 1;
+                int smallestEnemy = Integer.MAX_VALUE;
+                int joined = 0;
+                for (int neighbor : topology.neighbors(cell)) {
+                    int stone = board.get(neighbor);
+                    if (stone == HexBoard.EMPTY) continue;
+                    int group = groupOf[neighbor];
+                    if (stone == enemy) {
+                        smallestEnemy = Math.min(smallestEnemy, groupSize[group]);
+                    } else if (!contains(joinedGroups, joined, group)) {
+                        joinedGroups[joined++] = group;
+                        size += groupSize[group];
+                        smallestEnemy = Math.min(smallestEnemy, smallestAdjacentEnemy[group]);
+                    }
+                }
+                if (smallestEnemy < size) out[count++] = cell;
+            }
+            return count;
+        }
+
+        private static boolean contains(int[] values, int count, int value) {
+            for (int i = 0; i < count; i++) {
+                if (values[i] == value) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Numbers the groups of both colours, with their sizes and, for the mover's groups, the
+         * size of the smallest enemy group they touch.
+         */
+        private void labelGroups(int mover) {
+            int cells = board.cellCount();
+            java.util.Arrays.fill(groupOf, -1);
+            int groups = 0;
+            for (int start = 0; start < cells; start++) {
+                int colour = board.get(start);
+                if (colour == HexBoard.EMPTY || groupOf[start] >= 0) continue;
+                int top = 0;
+                stack[top++] = start;
+                groupOf[start] = groups;
+                int size = 0;
+                while (top > 0) {
+                    int cell = stack[--top];
+                    size++;
+                    for (int neighbor : topology.neighbors(cell)) {
+                        if (groupOf[neighbor] < 0 && board.get(neighbor) == colour) {
+                            groupOf[neighbor] = groups;
+                            stack[top++] = neighbor;
+                        }
+                    }
+                }
+                groupSize[groups] = size;
+                smallestAdjacentEnemy[groups] = Integer.MAX_VALUE;
+                groups++;
+            }
+            for (int cell = 0; cell < cells; cell++) {
+                if (board.get(cell) != mover) continue;
+                for (int neighbor : topology.neighbors(cell)) {
+                    int stone = board.get(neighbor);
+                    if (stone != HexBoard.EMPTY && stone != mover) {
+                        int group = groupOf[cell];
+                        smallestAdjacentEnemy[group] = Math.min(smallestAdjacentEnemy[group], groupSize[groupOf[neighbor]]);
+                    }
+                }
+            }
+        }
+
+        private long hash() {
+            long hash = 0;
+            for (int cell = 0; cell < board.cellCount(); cell++) {
+                int stone = board.get(cell);
+                if (stone != HexBoard.EMPTY) hash ^= PositionHash.key(cell, stone);
+            }
+            return board.isRedTurn() ? hash ^ PositionHash.RED_TO_MOVE : hash;
+        }
+
+        /**
+         * Plays a move and tells whether it starts a winning chain of at most depth captures.
+         * The board is unchanged afterwards.
+         */
+        private boolean wins(int cell, int depth, int ply) {
+            HexBoard.MoveResult result = board.play(cell);
+            boolean win = result == HexBoard.MoveResult.WON
+                    || result == HexBoard.MoveResult.CAPTURED && depth > 1 && search(depth - 1, ply + 1);
+            if (result.isPlaced()) board.undo();
+            return win;
+        }
+
+        /**
+         * Counts the first moves that win within a depth, after {@link #solve()} found that depth.
+         */
+        int countFirstMoves(int depth) {
+            int[] first = new int[board.cellCount()];
+            int n = captureMoves(first);
+            int[] saved = line.clone();
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (wins(first[i], depth, 0)) count++;
+            }
+            System.arraycopy(saved, 0, line, 0, saved.length);
+            return count;
+        }
+    }
+
+    /**
+     * Plays one random game and solves the position at a random move of it.
+     *
+     * @return puzzle, or null if the position has no winning chain between minDepth and maxDepth
+     */
+    static Puzzle searchGame(Solver solver, long gameSeed, int minDepth) {
+        HexBoard board = solver.board;
+        SplittableRandom random = new SplittableRandom(gameSeed);
+        int[] moves = new int[SelfPlay.MAX_MOVES];
+        int played = SelfPlay.playRandomGame(board, random, moves);
+        int ply = random.nextInt(played + 1);
+        board.reset();
+        for (int i = 0; i < ply; i++) board.play(moves[i]);
+        int depth = solver.solve();
+        if (depth < minDepth) return null;
+        byte[] stones = new byte[board.cellCount()];
+        for (int cell = 0; cell < stones.length; cell++) stones[cell] = (byte) board.get(cell);
+        int[] solution = java.util.Arrays.copyOf(solver.line, depth);
+        return new Puzzle(board.getRadius(), stones, board.isRedTurn(), solution, solver.countFirstMoves(depth));
+    }
+
+    /**
+     * Generates puzzles from random games, searching batches of games in parallel. The result
+     * only depends on the arguments, not on the number of threads.
+     *
+     * @param radius   board radius
+     * @param count    number of puzzles wanted
+     * @param minDepth shortest accepted winning chain
+     * @param maxDepth longest chain searched
+     * @param maxGames games to try before giving up with fewer puzzles
+     * @param seed     random seed
+     * @return distinct puzzles up to symmetry, easiest first
+     */
+    public static List<Puzzle> generate(int radius, int count, int minDepth, int maxDepth, long maxGames, long seed) {
+        BoardTopology topology = BoardTopology.of(radius);
+        BoardSymmetry symmetry = BoardSymmetry.of(radius);
+        ThreadLocal<Solver> solvers = ThreadLocal.withInitial(() -> new Solver(topology, maxDepth));
+        List<Puzzle> puzzles = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (long batch = 0; puzzles.size() < count && batch * BATCH_GAMES < maxGames; batch++) {
+            long first = batch * BATCH_GAMES;
+            int games = (int) Math.min(BATCH_GAMES, maxGames - first);
+            // An ordered collection keeps the result independent of the thread count
+            List<Puzzle> found = IntStream.range(0, games).parallel()
+                    .mapToObj(i -> searchGame(solvers.get(), PositionHash.mix(seed + first + i), minDepth))
+                    .collect(Collectors.toList());
+            for (Puzzle puzzle : found) {
+                if (puzzle == null || puzzles.size() == count) continue;
+                HexBoard position = puzzle.toBoard();
+                if (seen.add(PositionHash.hash(position, symmetry, symmetry.canonicalTransform(position)))) puzzles.add(puzzle);
+            }
+        }
+        puzzles.sort(Comparator.comparingInt(Puzzle::depth).thenComparing(Comparator.comparingInt(Puzzle::getFirstMoves).reversed()));
+        return puzzles;
+    }
+
+    /**
+     * Writes puzzles of one board size to a file.
+     *
+     * @param path    file to write
+     * @param radius  board radius of every puzzle
+     * @param puzzles puzzles to write
+     * @throws IOException if writing fails
+     */
+    public static void save(Path path, int radius, List<Puzzle> puzzles) throws IOException {
+        int cells = BoardTopology.of(radius).cellCount();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(radius);
+            out.writeInt(puzzles.size());
+            byte[] packed = new byte[(cells + 3) / 4];
+            for (Puzzle puzzle : puzzles) {
+                if (puzzle.radius != radius) throw new IllegalArgumentException("puzzle of radius " + puzzle.radius + " in a file of radius " + radius);
+                out.writeByte(puzzle.redTurn ? HexBoard.RED : HexBoard.BLUE);
+                out.writeByte(puzzle.depth());
+                out.writeByte(Math.min(255, puzzle.firstMoves));
+                java.util.Arrays.fill(packed, (byte) 0);
+                for (int cell = 0; cell < cells; cell++) packed[cell / 4] |= (byte) (puzzle.stones[cell] << (cell % 4 * 2));
+                out.write(packed);
+                for (int move : puzzle.solution) out.writeShort(move);
+            }
+        }
+    }
+
+    /**
+     * Reads a puzzle file written by {@link #save(Path, int, List)}.
+     *
+     * @param path file to read
+     * @return puzzles in file order
+     * @throws IOException if the file cannot be read or is not a puzzle file
+     */
+    public static List<Puzzle> load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) throw new IOException("Not a puzzle file: " + path);
+            int radius = in.readUnsignedByte();
+            int cells = BoardTopology.of(radius).cellCount();
+            int count = in.readInt();
+            List<Puzzle> puzzles = new ArrayList<>(count);
+            byte[] packed = new byte[(cells + 3) / 4];
+            for (int i = 0; i < count; i++) {
+                boolean redTurn = in.readUnsignedByte() == HexBoard.RED;
+                int[] solution = new int[in.readUnsignedByte()];
+                int firstMoves = in.readUnsignedByte();
+                in.readFully(packed);
+                byte[] stones = new byte[cells];
+                for (int cell = 0; cell < cells; cell++) stones[cell] = (byte) (packed[cell / 4] >>> (cell % 4 * 2) & 3);
+                for (int j = 0; j < solution.length; j++) solution[j] = in.readUnsignedShort();
+                puzzles.add(new Puzzle(radius, stones, redTurn, solution, firstMoves));
+            }
+            return puzzles;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("java PuzzleGenerator <file> [radius] [count] [minDepth] [maxDepth] [seed]");
+            System.exit(1);
+        }
+        int radius = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int minDepth = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        int maxDepth = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+        long start = System.nanoTime();
+        List<Puzzle> puzzles = generate(radius, count, minDepth, maxDepth, 10_000L * count, seed);
+        save(Path.of(args[0]), radius, puzzles);
+        int[] depths = new int[maxDepth + 1];
+        for (Puzzle puzzle : puzzles) depths[puzzle.depth()]++;
+        System.out.printf("%d puzzles in %.1f s on %d threads%n", puzzles.size(), (System.nanoTime() - start) / 1e9,
+                java.util.concurrent.ForkJoinPool.getCommonPoolParallelism());
+        for (int depth = minDepth; depth <= maxDepth; depth++) {
+            System.out.printf("  depth %d: %d%n", depth, depths[depth]);
+        }
+    }
+}
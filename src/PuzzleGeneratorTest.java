@@ -0,0 +1,73 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+public class PuzzleGeneratorTest {
+
+    // Checks that every puzzle is won by its solution, has no shorter win and appears once up to symmetry
+    @Test
+    public void testPuzzlesAreShortestCaptureWins() {
+        List<PuzzleGenerator.Puzzle> puzzles = PuzzleGenerator.generate(4, 12, 2, 3, 20_000, 5);
+        assertEquals(12, puzzles.size());
+        BoardSymmetry symmetry = BoardSymmetry.of(4);
+        Set<Long> seen = new HashSet<>();
+        int previous = 0;
+        for (PuzzleGenerator.Puzzle puzzle : puzzles) {
+            assertTrue(puzzle.depth() >= previous);
+            previous = puzzle.depth();
+            HexBoard board = puzzle.toBoard();
+            assertTrue(seen.add(PositionHash.hash(board, symmetry, symmetry.canonicalTransform(board))));
+            // Nothing wins faster than the stored depth
+            PuzzleGenerator.Solver shorter = new PuzzleGenerator.Solver(BoardTopology.of(4), puzzle.depth() - 1);
+            shorter.board.setPosition(board.mask(HexBoard.RED), board.mask(HexBoard.BLUE), board.isRedTurn());
+            assertEquals(0, shorter.solve());
+            assertTrue(puzzle.getFirstMoves() >= 1);
+            for (int i = 0; i < puzzle.depth(); i++) {
+                HexBoard.MoveResult result = board.play(puzzle.solutionMove(i));
+                assertEquals(i == puzzle.depth() - 1 ? HexBoard.MoveResult.WON : HexBoard.MoveResult.CAPTURED, result);
+            }
+            assertEquals(puzzle.isRedTurn() ? HexBoard.RED : HexBoard.BLUE, board.getWinner());
+        }
+        // The same seed gives the same puzzles
+        List<PuzzleGenerator.Puzzle> again = PuzzleGenerator.generate(4, 12, 2, 3, 20_000, 5);
+        for (int i = 0; i < puzzles.size(); i++) {
+            assertEquals(puzzles.get(i).toBoard().mask(HexBoard.RED), again.get(i).toBoard().mask(HexBoard.RED));
+            assertEquals(puzzles.get(i).toBoard().mask(HexBoard.BLUE), again.get(i).toBoard().mask(HexBoard.BLUE));
+        }
+    }
+
+    // Checks that a puzzle file reads back the same positions, ratings and solutions
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        List<PuzzleGenerator.Puzzle> puzzles = PuzzleGenerator.generate(5, 5, 2, 3, 20_000, 9);
+        Path file = Files.createTempFile("puzzles", ".bin");
+        try {
+            PuzzleGenerator.save(file, 5, puzzles);
+            List<PuzzleGenerator.Puzzle> loaded = PuzzleGenerator.load(file);
+            assertEquals(puzzles.size(), loaded.size());
+            for (int i = 0; i < puzzles.size(); i++) {
+                PuzzleGenerator.Puzzle expected = puzzles.get(i);
+                PuzzleGenerator.Puzzle actual = loaded.get(i);
+                assertEquals(5, actual.getRadius());
+                assertEquals(expected.isRedTurn(), actual.isRedTurn());
+                assertEquals(expected.depth(), actual.depth());
+                assertEquals(expected.getFirstMoves(), actual.getFirstMoves());
+                for (int cell = 0; cell < BoardTopology.of(5).cellCount(); cell++) {
+                    assertEquals(expected.toBoard().get(cell), actual.toBoard().get(cell));
+                }
+                for (int move = 0; move < expected.depth(); move++) {
+                    assertEquals(expected.solutionMove(move), actual.solutionMove(move));
+                }
+            }
+            // Header plus a few dozen bytes per puzzle
+            assertTrue(Files.size(file) < 10 + puzzles.size() * 40);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
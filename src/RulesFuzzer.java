@@ -0,0 +1,211 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Differential fuzzer for the rules: plays random games through {@link HexBoard} and through the
+ * original click handling in {@link HexGrid} side by side and compares the two after every
+ * placement attempt, including attempts on occupied or illegal cells. A game on which they
+ * disagree is shrunk to a short sequence of attempts that still shows the difference.
+ * Usage: {@code java RulesFuzzer <radius> <games> [threads] [seed]}
+ */
+public class RulesFuzzer {
+    /** Attempts per game before it is abandoned. */
+    static final int MAX_ATTEMPTS = 400;
+
+    /**
+     * A game on which the two rule implementations disagree.
+     */
+    public static final class Divergence {
+        public final long gameSeed;
+        public final int[] attempts;
+        public final String detail;
+
+        Divergence(long gameSeed, int[] attempts, String detail) {
+            this.gameSeed = gameSeed;
+            this.attempts = attempts;
+            this.detail = detail;
+        }
+
+        @Override
+        public String toString() {
+            return "game " + gameSeed + ", attempts " + Arrays.toString(attempts) + ": " + detail;
+        }
+    }
+
+    private RulesFuzzer() {}
+
+    /**
+     * Builds a HexGrid panel for a board whose grid indexes are HexBoard cell ids.
+     *
+     * @param radius board radius
+     * @return panel with pixel adjacency matching hex adjacency
+     */
+    static HexGrid referenceGrid(int radius) {
+        Layout layout = new Layout(Layout.flat, new Point(25, 25), new Point(300, 300));
+        return new HexGrid(BoardTopology.of(radius).geometry(layout).hexagons());
+    }
+
+    /**
+     * Generates the placement attempts of one random game. Most attempts are legal moves so the
+     * game progresses; the rest are random cells to exercise the rejection paths.
+     *
+     * @param radius board radius
+     * @param seed   game seed
+     * @return placement attempts, as cell ids
+     */
+    static int[] randomGame(int radius, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        HexBoard board = new HexBoard(radius);
+        int[] legal = new int[board.cellCount()];
+        int[] attempts = new int[MAX_ATTEMPTS];
+        int count = 0;
+        while (count < MAX_ATTEMPTS && !board.isGameOver()) {
+            int n = board.legalMoves(legal);
+            int cell = n == 0 || random.nextInt(4) == 0 ? random.nextInt(board.cellCount()) : legal[random.nextInt(n)];
+            board.play(cell);
+            attempts[count++] = cell;
+        }
+        return Arrays.copyOf(attempts, count);
+    }
+
+    /**
+     * Replays attempts through both implementations from an empty board.
+     *
+     * @param grid     reference panel, reset first
+     * @param board    board to compare, reset first
+     * @param attempts placement attempts, as cell ids
+     * @param detail   receives a description of the first difference, may be null
+     * @return index of the first attempt after which the two disagree, or -1
+     */
+    static int firstDivergence(HexGrid grid, HexBoard board, int[] attempts, StringBuilder detail) {
+        grid.resetGame();
+        board.reset();
+        for (int i = 0; i < attempts.length; i++) {
+            if (board.isGameOver() || grid.gameExited) break;
+            Point center = grid.getHexCenter(grid.grid.get(attempts[i]));
+            boolean gridPlaced = grid.placeStone(center);
+            boolean boardPlaced = board.play(attempts[i]).isPlaced();
+            String difference = gridPlaced != boardPlaced
+                    ? "HexGrid " + (gridPlaced ? "placed" : "rejected") + " a move HexBoard " + (boardPlaced ? "placed" : "rejected")
+                    : compare(grid, board);
+            if (difference != null) {
+                if (detail != null) detail.append("attempt ").append(i).append(" on cell ").append(attempts[i]).append(": ").append(difference);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares stones, turn and game over state.
+     *
+     * @return description of the first difference, or null if the states match
+     */
+    private static String compare(HexGrid grid, HexBoard board) {
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            Point center = grid.getHexCenter(grid.grid.get(cell));
+            int stone = grid.redStones.contains(center) ? HexBoard.RED : grid.blueStones.contains(center) ? HexBoard.BLUE : HexBoard.EMPTY;
+            if (stone != board.get(cell)) return "cell " + cell + " is " + stone + " in HexGrid and " + board.get(cell) + " in HexBoard";
+        }
+        if (grid.isRedTurn != board.isRedTurn()) return "HexGrid has " + (grid.isRedTurn ? "red" : "blue") + " to move";
+        if (grid.gameExited != board.isGameOver()) return "HexGrid game over is " + grid.gameExited;
+        return null;
+    }
+
+    /**
+     * Shrinks a failing sequence by removing chunks of attempts, halving the chunk size until
+     * single attempts, as long as the sequence keeps failing.
+     *
+     * @param attempts failing sequence
+     * @param fails    returns true if a sequence still fails
+     * @return shortest failing sequence found
+     */
+    static int[] shrink(int[] attempts, Predicate<int[]> fails) {
+        int[] current = attempts;
+        for (int chunk = Math.max(1, current.length / 2); chunk >= 1; chunk /= 2) {
+            boolean removed = true;
+            while (removed) {
+                removed = false;
+                for (int start = 0; start < current.length; start += chunk) {
+                    int end = Math.min(current.length, start + chunk);
+                    int[] candidate = new int[current.length - (end - start)];
+                    System.arraycopy(current, 0, candidate, 0, start);
+                    System.arraycopy(current, end, candidate, start, current.length - end);
+                    if (fails.test(candidate)) {
+                        current = candidate;
+                        removed = true;
+                        start -= chunk;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Fuzzes a number of games on worker threads, each with its own panel and board.
+     * Game i uses a seed derived from the run seed and i, so any failing game can be replayed alone.
+     *
+     * @param radius  board radius
+     * @param games   number of games
+     * @param threads worker threads
+     * @param seed    run seed
+     * @return the first divergence found, shrunk, or null if all games agreed
+     */
+    public static Divergence fuzz(int radius, long games, int threads, long seed) throws Exception {
+        AtomicLong next = new AtomicLong();
+        AtomicReference<Divergence> found = new AtomicReference<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            java.util.List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    HexGrid grid = referenceGrid(radius);
+                    HexBoard board = new HexBoard(radius);
+                    for (long game = next.getAndIncrement(); game < games && found.get() == null; game = next.getAndIncrement()) {
+                        long gameSeed = PositionHash.mix(seed + game);
+                        int[] attempts = randomGame(radius, gameSeed);
+                        int step = firstDivergence(grid, board, attempts, null);
+                        if (step < 0) continue;
+                        int[] minimal = shrink(Arrays.copyOf(attempts, step + 1),
+                                candidate -> firstDivergence(grid, board, candidate, null) >= 0);
+                        StringBuilder detail = new StringBuilder();
+                        firstDivergence(grid, board, minimal, detail);
+                        found.compareAndSet(null, new Divergence(gameSeed, minimal, detail.toString()));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) worker.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        return found.get();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("java RulesFuzzer <radius> <games> [threads] [seed]");
+            System.exit(1);
+        }
+        int radius = Integer.parseInt(args[0]);
+        long games = Long.parseLong(args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        long start = System.nanoTime();
+        Divergence divergence = fuzz(radius, games, threads, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (divergence != null) {
+            System.out.println("Rules differ (seed " + seed + "): " + divergence);
+            System.exit(1);
+        }
+        System.out.printf("%d games agreed in %.1f s (%.0f games/s, seed %d)%n", games, seconds, games / seconds, seed);
+    }
+}
@@ -0,0 +1,48 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.Arrays;
+
+
+public class RulesFuzzerTest {
+
+    // Checks that HexBoard and the HexGrid rules agree on random games, including rejected attempts
+    @Test
+    public void testRandomGamesAgree() throws Exception {
+        assertNull(RulesFuzzer.fuzz(2, 300, 2, 1));
+        assertNull(RulesFuzzer.fuzz(3, 200, 2, 2));
+    }
+
+    // Checks that shrinking keeps a failing sequence failing and removes everything else
+    @Test
+    public void testShrinkFindsMinimalSequence() {
+        int[] attempts = {5, 1, 3, 9, 2, 7, 3, 8, 4};
+        // fails whenever a 3 is followed later by a 7
+        int[] minimal = RulesFuzzer.shrink(attempts, candidate -> {
+            boolean three = false;
+            for (int cell : candidate) {
+                if (cell == 3) three = true;
+                else if (cell == 7 && three) return true;
+            }
+            return false;
+        });
+        assertArrayEquals(new int[] {3, 7}, minimal);
+    }
+
+    // Checks that a real difference is found and shrunk, using a panel whose cells are too far apart to touch
+    @Test
+    public void testDivergenceIsShrunk() {
+        Layout wide = new Layout(Layout.flat, new Point(40, 40), new Point(400, 400));
+        HexGrid grid = new HexGrid(BoardTopology.of(2).geometry(wide).hexagons());
+        HexBoard board = new HexBoard(2);
+        int[] attempts = RulesFuzzer.randomGame(2, 3);
+        int step = RulesFuzzer.firstDivergence(grid, board, attempts, null);
+        assertTrue(step >= 0);
+
+        int[] minimal = RulesFuzzer.shrink(Arrays.copyOf(attempts, step + 1),
+                candidate -> RulesFuzzer.firstDivergence(grid, board, candidate, null) >= 0);
+        StringBuilder detail = new StringBuilder();
+        assertEquals(minimal.length - 1, RulesFuzzer.firstDivergence(grid, board, minimal, detail));
+        assertTrue(minimal.length <= 4);
+        assertTrue(detail.length() > 0);
+    }
+}
@@ -0,0 +1,68 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a corpus of self-play games with uniformly random legal moves.
+ * Usage: {@code java SelfPlay <radius> <games> <file> [seed]}
+ */
+public class SelfPlay {
+    /** Games stop after this many moves; longer games are recorded without a winner. */
+    static final int MAX_MOVES = 1000;
+
+    /**
+     * Plays one random game from an empty board.
+     *
+     * @param board  board to play on, reset first
+     * @param random source of move choices
+     * @param moves  receives the cells played, at least MAX_MOVES long
+     * @return number of moves played
+     */
+    static int playRandomGame(HexBoard board, SplittableRandom random, int[] moves) {
+        board.reset();
+        int[] legal = new int[board.cellCount()];
+        int count = 0;
+        while (!board.isGameOver() && count < MAX_MOVES) {
+            int n = board.legalMoves(legal);
+            if (n == 0) break;
+            int cell = legal[random.nextInt(n)];
+            board.play(cell);
+            moves[count++] = cell;
+        }
+        return count;
+    }
+
+    /**
+     * Writes a number of random games to a corpus.
+     *
+     * @param writer corpus to append to
+     * @param radius board radius
+     * @param games  number of games
+     * @param seed   random seed
+     * @throws IOException if writing fails
+     */
+    static void generate(GameCorpus.Writer writer, int radius, long games, long seed) throws IOException {
+        HexBoard board = new HexBoard(radius);
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] moves = new int[MAX_MOVES];
+        for (long game = 0; game < games; game++) {
+            int count = playRandomGame(board, random, moves);
+            writer.write(moves, count, board.getWinner());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("java SelfPlay <radius> <games> <file> [seed]");
+            System.exit(1);
+        }
+        int radius = Integer.parseInt(args[0]);
+        long games = Long.parseLong(args[1]);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        long start = System.nanoTime();
+        try (GameCorpus.Writer writer = new GameCorpus.Writer(Path.of(args[2]), radius)) {
+            generate(writer, radius, games, seed);
+        }
+        System.out.printf("Wrote %d games in %.1f s%n", games, (System.nanoTime() - start) / 1e9);
+    }
+}
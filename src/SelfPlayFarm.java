@@ -0,0 +1,329 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Runs self-play in several worker JVMs so very large corpora are not limited by the heap and
+ * garbage collector of one process. The coordinator splits the games into batches, keeps a queue
+ * of batches per worker and lets idle workers steal from the back of the fullest queue. Workers
+ * answer each batch with its encoded records, which the coordinator appends to one corpus in
+ * batch order, so the result only depends on the seed and batch size, not on the worker count
+ * or timing. A worker that crashes or closes its pipe is restarted and its batch is played again.
+ * <p>
+ * Workers talk over their standard input and output only. The default command starts a local
+ * JVM with the current class path; a command such as {@code ssh host java -cp ... SelfPlayFarm --worker}
+ * runs one on another node without changes to the protocol.
+ * <pre>
+ *   coordinator to worker: one line per batch, "id games seed"
+ *   worker to coordinator: int id, int games, int length, length bytes of records
+ * </pre>
+ * Usage: {@code java SelfPlayFarm <radius> <games> <file> [workers] [batchSize] [seed]}
+ */
+public class SelfPlayFarm {
+    /** Restarts allowed per worker slot before the slot gives up. */
+    static final int MAX_RESTARTS = 5;
+    /** Property that makes a worker exit after this many batches, to test restarts. */
+    static final String CRASH_PROPERTY = "hexoust.farm.crashAfter";
+
+    /**
+     * A range of games with its own seed.
+     */
+    static final class Batch {
+        final int id;
+        final int games;
+        final long seed;
+
+        Batch(int id, int games, long seed) {
+            this.id = id;
+            this.games = games;
+            this.seed = seed;
+        }
+    }
+
+    private final int radius;
+    private final List<String> command;
+    private final List<ArrayDeque<Batch>> queues;
+    private final TreeMap<Integer, byte[]> finished = new TreeMap<>();
+    private GameCorpus.Writer output;
+    private int nextToWrite = 0;
+    private int written = 0;
+    private int batchCount;
+    private int inFlight = 0;
+    private int activeSlots;
+    private int restarts = 0;
+    private int steals = 0;
+    private IOException failure;
+
+    /**
+     * Creates a coordinator for local worker JVMs.
+     *
+     * @param radius  board radius
+     * @param workers number of worker processes
+     */
+    public SelfPlayFarm(int radius, int workers) {
+        this(radius, workers, localCommand());
+    }
+
+    /**
+     * Creates a coordinator that starts workers with a given command.
+     *
+     * @param radius  board radius
+     * @param workers number of worker processes
+     * @param command command line that starts one worker
+     */
+    public SelfPlayFarm(int radius, int workers, List<String> command) {
+        this.radius = radius;
+        this.command = new ArrayList<>(command);
+        this.command.add(Integer.toString(radius));
+        queues = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) queues.add(new ArrayDeque<>());
+    }
+
+    /**
+     * Returns the command that starts a worker JVM on this machine with the current class path.
+     *
+     * @return command line without the radius
+     */
+    static List<String> localCommand() {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SelfPlayFarm.class.getName());
+        command.add("--worker");
+        return command;
+    }
+
+    /**
+     * Returns the seed of a batch, so any process can replay it.
+     *
+     * @param seed  farm seed
+     * @param batch batch id
+     * @return batch seed
+     */
+    static long batchSeed(long seed, int batch) {
+        return PositionHash.mix(seed + batch);
+    }
+
+    /**
+     * Plays all games and writes them to a corpus.
+     *
+     * @param path      corpus file
+     * @param games     number of games
+     * @param batchSize games per batch
+     * @param seed      farm seed
+     * @throws IOException          if the corpus cannot be written or every worker failed
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public void run(Path path, long games, int batchSize, long seed) throws IOException, InterruptedException {
+        long batches = (games + batchSize - 1) / batchSize;
+        if (batches > Integer.MAX_VALUE) throw new IllegalArgumentException("too many batches");
+        batchCount = (int) batches;
+        for (int id = 0; id < batchCount; id++) {
+            int size = (int) Math.min(batchSize, games - (long) id * batchSize);
+            queues.get(id % queues.size()).addLast(new Batch(id, size, batchSeed(seed, id)));
+        }
+        try (GameCorpus.Writer writer = new GameCorpus.Writer(path, radius)) {
+            output = writer;
+            activeSlots = queues.size();
+            Thread[] threads = new Thread[queues.size()];
+            for (int slot = 0; slot < queues.size(); slot++) {
+                int index = slot;
+                threads[slot] = new Thread(() -> serve(index), "farm-worker-" + slot);
+                threads[slot].setDaemon(true);
+                threads[slot].start();
+            }
+            try {
+                synchronized (this) {
+                    while (written < batchCount && failure == null && activeSlots > 0) wait();
+                    if (failure != null) throw failure;
+                    if (written < batchCount) throw new IOException("all workers failed after " + restarts + " restarts");
+                }
+            } finally {
+                for (Thread thread : threads) thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Takes the next batch for a worker slot, from its own queue or else from the back of the
+     * fullest other queue. Waits while other slots still hold batches they might give back.
+     *
+     * @return batch, or null when no work is left
+     */
+    private synchronized Batch take(int slot) throws InterruptedException {
+        while (failure == null) {
+            Batch batch = queues.get(slot).pollFirst();
+            if (batch == null) {
+                ArrayDeque<Batch> victim = queues.get(slot);
+                for (ArrayDeque<Batch> queue : queues) {
+                    if (queue.size() > victim.size()) victim = queue;
+                }
+                batch = victim.pollLast();
+                if (batch != null) steals++;
+            }
+            if (batch != null) {
+                inFlight++;
+                return batch;
+            }
+            if (inFlight == 0) return null;
+            wait();
+        }
+        return null;
+    }
+
+    private synchronized void giveBack(int slot, Batch batch) {
+        queues.get(slot).addFirst(batch);
+        inFlight--;
+        notifyAll();
+    }
+
+    private synchronized void complete(Batch batch, byte[] records) {
+        inFlight--;
+        finished.put(batch.id, records);
+        try {
+            byte[] next;
+            while ((next = finished.remove(nextToWrite)) != null) {
+                int count = countRecords(next);
+                output.writeRecords(next, 0, next.length, count);
+                nextToWrite++;
+                written++;
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        notifyAll();
+    }
+
+    private int countRecords(byte[] records) {
+        int width = output.getCellWidth();
+        int count = 0;
+        for (int position = 0; position < records.length; count++) {
+            position += 3 + (((records[position] & 0xFF) << 8) | (records[position + 1] & 0xFF)) * width;
+        }
+        return count;
+    }
+
+    /**
+     * Runs one worker slot: starts a process, feeds it batches and restarts it when it fails.
+     */
+    private void serve(int slot) {
+        Batch batch = null;
+        Process process = null;
+        int slotRestarts = 0;
+        try {
+            while (true) {
+                process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                try {
+                    OutputStream toWorker = new BufferedOutputStream(process.getOutputStream());
+                    DataInputStream fromWorker = new DataInputStream(new BufferedInputStream(process.getInputStream(), 1 << 16));
+                    while (batch != null || (batch = take(slot)) != null) {
+                        toWorker.write((batch.id + " " + batch.games + " " + batch.seed + "\n").getBytes(StandardCharsets.US_ASCII));
+                        toWorker.flush();
+                        int id = fromWorker.readInt();
+                        int games = fromWorker.readInt();
+                        byte[] records = new byte[fromWorker.readInt()];
+                        fromWorker.readFully(records);
+                        if (id != batch.id || games != batch.games) throw new IOException("worker answered the wrong batch");
+                        complete(batch, records);
+                        batch = null;
+                    }
+                    toWorker.close();
+                    process.waitFor();
+                    return;
+                } catch (IOException e) {
+                    process.destroyForcibly();
+                    if (++slotRestarts > MAX_RESTARTS) return;
+                    synchronized (this) {
+                        restarts++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // The worker command cannot be started at all
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (process != null) process.destroyForcibly();
+            synchronized (this) {
+                if (batch != null) giveBack(slot, batch);
+                // Leave the rest of this slot's queue to the others, which steal from it
+                activeSlots--;
+                notifyAll();
+            }
+        }
+    }
+
+    public synchronized int getRestarts() {
+        return restarts;
+    }
+
+    public synchronized int getSteals() {
+        return steals;
+    }
+
+    /**
+     * Plays the batches requested on a stream and answers each with its encoded records.
+     *
+     * @param radius board radius
+     * @param in     batch requests
+     * @param out    encoded batches
+     * @throws IOException if the coordinator goes away
+     */
+    static void work(int radius, InputStream in, OutputStream out) throws IOException {
+        java.io.BufferedReader requests = new java.io.BufferedReader(new java.io.InputStreamReader(in, StandardCharsets.US_ASCII));
+        DataOutputStream answers = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        int crashAfter = Integer.getInteger(CRASH_PROPERTY, -1);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+        String line;
+        for (int done = 0; (line = requests.readLine()) != null; done++) {
+            if (done == crashAfter) System.exit(3);
+            String[] words = line.trim().split(" ");
+            int id = Integer.parseInt(words[0]);
+            int games = Integer.parseInt(words[1]);
+            long seed = Long.parseLong(words[2]);
+            buffer.reset();
+            try (GameCorpus.Writer writer = new GameCorpus.Writer(buffer, radius)) {
+                SelfPlay.generate(writer, radius, games, seed);
+            }
+            answers.writeInt(id);
+            answers.writeInt(games);
+            answers.writeInt(buffer.size() - GameCorpus.HEADER);
+            answers.write(buffer.toByteArray(), GameCorpus.HEADER, buffer.size() - GameCorpus.HEADER);
+            answers.flush();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("--worker")) {
+            work(Integer.parseInt(args[1]), System.in, System.out);
+            return;
+        }
+        if (args.length < 3) {
+            System.err.println("java SelfPlayFarm <radius> <games> <file> [workers] [batchSize] [seed]");
+            System.exit(1);
+        }
+        int radius = Integer.parseInt(args[0]);
+        long games = Long.parseLong(args[1]);
+        int workers = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int batchSize = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+        long start = System.nanoTime();
+        SelfPlayFarm farm = new SelfPlayFarm(radius, workers);
+        farm.run(Path.of(args[2]), games, batchSize, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %d games in %.1f s (%.0f games/s) with %d workers, %d steals, %d restarts%n",
+                games, seconds, games / seconds, workers, farm.getSteals(), farm.getRestarts());
+    }
+}
@@ -0,0 +1,57 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+
+public class SelfPlayFarmTest {
+
+    private static byte[] expectedCorpus(int radius, int batches, int batchSize, long seed) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameCorpus.Writer writer = new GameCorpus.Writer(bytes, radius)) {
+            for (int batch = 0; batch < batches; batch++) {
+                SelfPlay.generate(writer, radius, batchSize, SelfPlayFarm.batchSeed(seed, batch));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    // Checks that worker processes produce the same corpus as playing the batches in one process
+    @Test
+    public void testFarmMatchesSingleProcess() throws Exception {
+        Path file = Files.createTempFile("farm", ".hxgc");
+        try {
+            SelfPlayFarm farm = new SelfPlayFarm(3, 3);
+            farm.run(file, 200, 20, 11);
+            assertArrayEquals(expectedCorpus(3, 10, 20, 11), Files.readAllBytes(file));
+            assertEquals(0, farm.getRestarts());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Checks that crashing workers are restarted and their batches replayed without gaps or duplicates
+    @Test
+    public void testCrashedWorkersAreRestarted() throws Exception {
+        Path file = Files.createTempFile("farm", ".hxgc");
+        try {
+            List<String> command = SelfPlayFarm.localCommand();
+            command.add(1, "-D" + SelfPlayFarm.CRASH_PROPERTY + "=2");
+            SelfPlayFarm farm = new SelfPlayFarm(3, 2, command);
+            farm.run(file, 150, 15, 5);
+            assertArrayEquals(expectedCorpus(3, 10, 15, 5), Files.readAllBytes(file));
+            assertTrue(farm.getRestarts() > 0);
+            assertEquals(150, countGames(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int countGames(Path file) throws Exception {
+        int[] games = new int[1];
+        new GameCorpus.Reader(file).forEach((moves, count, winner) -> games[0]++);
+        return games[0];
+    }
+}
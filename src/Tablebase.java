@@ -0,0 +1,337 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Endgame tablebase holding the solved value of every position on a small board.
+ * Entries live off-heap in direct or memory-mapped {@link ByteBuffer}s, one byte per position,
+ * indexed by a perfect hash of the red and blue bitmasks (base-3 rank of the cells) and the side to move.
+ * Each entry stores the result for the side to move and the number of plies to the end of the game
+ * with best play. Positions that can go on forever (repeating captures or no legal move) are draws.
+ * <p>
+ * Only radius 1 (7 cells) and radius 2 (19 cells) can be enumerated; radius 3 has 3^37 positions
+ * per side to move and is rejected. Solving radius 2 needs {@link #memoryNeeded(int)} bytes, about
+ * 2.3 GB, of direct memory, which by default is capped at the heap size: run it with
+ * {@code -XX:MaxDirectMemorySize=3g} or more.
+ */
+public class Tablebase {
+    public static final int UNKNOWN = 0;
+    public static final int WIN = 1;
+    public static final int LOSS = 2;
+    public static final int DRAW = 3;
+
+    /** Largest distance that can be stored, longer distances are clamped to it. */
+    public static final int MAX_DISTANCE = 63;
+
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+    private static final int MAX_CELLS = 19;
+    private static final int MAGIC = 0x48585442; // "HXTB"
+    private static final int HEADER = 16;
+
+    private final BoardTopology topology;
+    private final long positions;
+    private final long[] pow3;
+    private final ByteBuffer[] chunks;
+
+    private Tablebase(BoardTopology topology, ByteBuffer[] chunks) {
+        this.topology = topology;
+        int cells = topology.cellCount();
+        pow3 = new long[cells + 1];
+        pow3[0] = 1;
+        for (int i = 1; i <= cells; i++) pow3[i] = pow3[i - 1] * 3;
+        positions = pow3[cells] * 2;
+        this.chunks = chunks;
+    }
+
+    private static ByteBuffer[] allocate(long size) {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        try {
+            for (long start = 0; start < size; start += CHUNK_SIZE) {
+                chunks.add(ByteBuffer.allocateDirect((int) Math.min(CHUNK_SIZE, size - start)));
+            }
+        } catch (OutOfMemoryError e) {
+            // fail before the solve starts rather than after minutes of work
+            throw new IllegalStateException(String.format("the table needs %d MB of direct memory;"
+                    + " run with -XX:MaxDirectMemorySize=%dm or more", size >> 20, (size >> 20) + 1), e);
+        }
+        return chunks.toArray(new ByteBuffer[0]);
+    }
+
+    /**
+     * Returns the direct memory {@link #solve(int)} allocates for a board, one byte per position.
+     *
+     * @param radius board radius
+     * @return table size in bytes
+     */
+    public static long memoryNeeded(int radius) {
+        return pow3(BoardTopology.of(radius).cellCount()) * 2;
+    }
+
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Returns the number of positions in the table (both sides to move).
+     *
+     * @return table size in entries
+     */
+    public long size() {
+        return positions;
+    }
+
+    /**
+     * Computes the perfect hash of a position.
+     *
+     * @param red     bitmask of red stones
+     * @param blue    bitmask of blue stones
+     * @param redTurn true if red is to move
+     * @return index in [0, size())
+     */
+    public long index(long red, long blue, boolean redTurn) {
+        long rank = 0;
+        long stones = red | blue;
+        while (stones != 0) {
+            int cell = Long.numberOfTrailingZeros(stones);
+            rank += pow3[cell] * ((red >>> cell & 1) != 0 ? 1 : 2);
+            stones &= stones - 1;
+        }
+        return rank * 2 + (redTurn ? 1 : 0);
+    }
+
+    private int entry(long index) {
+        return chunks[(int) (index >>> CHUNK_BITS)].get((int) (index & (CHUNK_SIZE - 1))) & 0xFF;
+    }
+
+    private void store(long index, int result, int distance) {
+        byte value = (byte) (result << 6 | Math.min(distance, MAX_DISTANCE));
+        chunks[(int) (index >>> CHUNK_BITS)].put((int) (index & (CHUNK_SIZE - 1)), value);
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param red     bitmask of red stones
+     * @param blue    bitmask of blue stones
+     * @param redTurn true if red is to move
+     * @return packed entry, decode with {@link #result(int)} and {@link #distance(int)}
+     */
+    public int probe(long red, long blue, boolean redTurn) {
+        return entry(index(red, blue, redTurn));
+    }
+
+    /**
+     * Looks up the current position of a board.
+     *
+     * @param board board on this table's topology
+     * @return packed entry, or -1 if the board is not covered by this table
+     */
+    public int probe(HexBoard board) {
+        if (board.getTopology() != topology) return -1;
+        return probe(board.mask(HexBoard.RED), board.mask(HexBoard.BLUE), board.isRedTurn());
+    }
+
+    /**
+     * Extracts the result for the side to move from an entry.
+     *
+     * @param entry packed entry
+     * @return WIN, LOSS, DRAW or UNKNOWN
+     */
+    public static int result(int entry) {
+        return entry >>> 6;
+    }
+
+    /**
+     * Extracts the number of plies to the end of the game from an entry.
+     *
+     * @param entry packed entry
+     * @return distance, clamped to MAX_DISTANCE
+     */
+    public static int distance(int entry) {
+        return entry & MAX_DISTANCE;
+    }
+
+    /**
+     * Solves every position of a small board by retrograde iteration.
+     * Pass p resolves the positions whose value follows from positions resolved in earlier passes,
+     * so wins are found at their shortest distance and losses at their longest.
+     * A capture keeps the same player on move, so its successor is read from the mover's point of view.
+     *
+     * @param radius board radius, 1 or 2
+     * @return solved tablebase
+     * @throws IllegalStateException if the table does not fit in the direct memory the JVM allows
+     */
+    public static Tablebase solve(int radius) {
+        BoardTopology topology = BoardTopology.of(radius);
+        if (topology.cellCount() > MAX_CELLS) {
+            throw new IllegalArgumentException("radius " + radius + " is too large to enumerate");
+        }
+        Tablebase table = new Tablebase(topology, allocate(memoryNeeded(radius)));
+        table.solve();
+        return table;
+    }
+
+    private static long pow3(int n) {
+        long value = 1;
+        for (int i = 0; i < n; i++) value *= 3;
+        return value;
+    }
+
+    private void solve() {
+        int cells = topology.cellCount();
+        HexBoard board = new HexBoard(topology);
+        int[] legal = new int[cells];
+        long ranks = positions / 2;
+
+        // Terminal positions: the game is over, decided by checkWinCondition
+        for (long rank = 0; rank < ranks; rank++) {
+            long red = 0, blue = 0, rest = rank;
+            for (int cell = 0; cell < cells; cell++, rest /= 3) {
+                int digit = (int) (rest % 3);
+                if (digit == 1) red |= 1L << cell;
+                else if (digit == 2) blue |= 1L << cell;
+            }
+            for (int turn = 0; turn < 2; turn++) {
+                board.setPosition(red, blue, turn == 1);
+                if (board.isGameOver()) {
+                    store(rank * 2 + turn, board.getWinner() == board.toMove() ? WIN : LOSS, 0);
+                }
+            }
+        }
+
+        List<long[]> updates = new ArrayList<>();
+        long[] batch = new long[4096];
+        int batchSize = 0;
+        for (int pass = 1; ; pass++) {
+            updates.clear();
+            batchSize = 0;
+            for (long index = 0; index < positions; index++) {
+                if (entry(index) != UNKNOWN) continue;
+                long rank = index >>> 1;
+                boolean redTurn = (index & 1) != 0;
+                long red = 0, blue = 0, rest = rank;
+                for (int cell = 0; cell < cells; cell++, rest /= 3) {
+                    int digit = (int) (rest % 3);
+                    if (digit == 1) red |= 1L << cell;
+                    else if (digit == 2) blue |= 1L << cell;
+                }
+                board.setPosition(red, blue, redTurn);
+                int n = board.legalMoves(legal);
+                if (n == 0) continue; // stuck positions stay unresolved and become draws
+
+                boolean win = false;
+                boolean allLost = true;
+                for (int i = 0; i < n && !win; i++) {
+                    board.play(legal[i]);
+                    int successor = entry(index(board.mask(HexBoard.RED), board.mask(HexBoard.BLUE), board.isRedTurn()));
+                    boolean sameMover = board.isRedTurn() == redTurn;
+                    board.undo();
+                    int result = result(successor);
+                    if (result == UNKNOWN) {
+                        allLost = false;
+                        continue;
+                    }
+                    // value of the successor for the player who moved into it
+                    int forMover = sameMover ? result : result == WIN ? LOSS : WIN;
+                    if (forMover == WIN) win = true;
+                    else allLost &= forMover == LOSS;
+                }
+                if (win || allLost) {
+                    batch[batchSize++] = index << 1 | (win ? 1 : 0);
+                    if (batchSize == batch.length) {
+                        updates.add(batch);
+                        batch = new long[batch.length];
+                        batchSize = 0;
+                    }
+                }
+            }
+            if (updates.isEmpty() && batchSize == 0) break;
+            // Apply the pass only after it is complete so each pass sees the same table
+            for (long[] full : updates) {
+                for (long update : full) store(update >>> 1, (update & 1) != 0 ? WIN : LOSS, pass);
+            }
+            for (int i = 0; i < batchSize; i++) {
+                store(batch[i] >>> 1, (batch[i] & 1) != 0 ? WIN : LOSS, pass);
+            }
+        }
+
+        for (long index = 0; index < positions; index++) {
+            if (entry(index) == UNKNOWN) store(index, DRAW, 0);
+        }
+    }
+
+    /**
+     * Writes the table to a file that {@link #open(Path)} can map back into memory.
+     *
+     * @param path file to write
+     * @throws IOException if writing fails
+     */
+    public void save(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(topology.getRadius()).putLong(positions).flip();
+            while (header.hasRemaining()) channel.write(header);
+            for (ByteBuffer chunk : chunks) {
+                ByteBuffer view = chunk.duplicate();
+                view.clear();
+                while (view.hasRemaining()) channel.write(view);
+            }
+        }
+    }
+
+    /**
+     * Memory-maps a saved table read-only. Pages are loaded by the operating system on demand.
+     *
+     * @param path file written by {@link #save(Path)}
+     * @return mapped tablebase
+     * @throws IOException if the file cannot be read or is not a tablebase
+     */
+    public static Tablebase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete
+            }
+            header.flip();
+            if (header.remaining() < HEADER || header.getInt() != MAGIC) throw new IOException("Not a tablebase file");
+            BoardTopology topology = BoardTopology.of(header.getInt());
+            long size = header.getLong();
+            if (size != pow3(topology.cellCount()) * 2 || channel.size() != HEADER + size) {
+                throw new IOException("Tablebase file has the wrong size");
+            }
+            List<ByteBuffer> chunks = new ArrayList<>();
+            for (long start = 0; start < size; start += CHUNK_SIZE) {
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + start,
+                        Math.min(CHUNK_SIZE, size - start));
+                chunks.add(chunk);
+            }
+            return new Tablebase(topology, chunks.toArray(new ByteBuffer[0]));
+        }
+    }
+
+    /**
+     * Solves a board and writes the table to a file.
+     *
+     * @param args radius and output file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("java -XX:MaxDirectMemorySize=3g Tablebase <radius> <file>");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        Tablebase table = solve(Integer.parseInt(args[0]));
+        table.save(Path.of(args[1]));
+        long[] counts = new long[4];
+        for (long index = 0; index < table.size(); index++) counts[result(table.entry(index))]++;
+        System.out.printf("Solved %d positions in %.1f s: %d wins, %d losses, %d draws%n",
+                table.size(), (System.nanoTime() - start) / 1e9, counts[WIN], counts[LOSS], counts[DRAW]);
+    }
+}
@@ -0,0 +1,114 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+public class TablebaseTest {
+
+    private static final Tablebase RADIUS_ONE = Tablebase.solve(1);
+
+    // Checks that the perfect hash gives every position of the board its own index
+    @Test
+    public void testIndexIsPerfect() {
+        assertEquals(2 * 2187, RADIUS_ONE.size());
+        boolean[] seen = new boolean[(int) RADIUS_ONE.size()];
+        for (long red = 0; red < 128; red++) {
+            for (long blue = 0; blue < 128; blue++) {
+                if ((red & blue) != 0) continue;
+                for (int turn = 0; turn < 2; turn++) {
+                    int index = (int) RADIUS_ONE.index(red, blue, turn == 1);
+                    assertFalse(seen[index]);
+                    seen[index] = true;
+                }
+            }
+        }
+    }
+
+    // Checks every solved position against its successors, the way the solver defines them
+    @Test
+    public void testEntriesAgreeWithSuccessors() {
+        HexBoard board = new HexBoard(1);
+        int[] legal = new int[board.cellCount()];
+        for (long red = 0; red < 128; red++) {
+            for (long blue = 0; blue < 128; blue++) {
+                if ((red & blue) != 0) continue;
+                for (int turn = 0; turn < 2; turn++) {
+                    board.setPosition(red, blue, turn == 1);
+                    int entry = RADIUS_ONE.probe(board);
+                    int result = Tablebase.result(entry);
+                    assertNotEquals(Tablebase.UNKNOWN, result);
+                    if (board.isGameOver() || result == Tablebase.DRAW) continue;
+
+                    int n = board.legalMoves(legal);
+                    int best = Integer.MAX_VALUE;
+                    int worst = -1;
+                    boolean allLost = true;
+                    for (int i = 0; i < n; i++) {
+                        boolean sameMover = board.play(legal[i]) != HexBoard.MoveResult.PLACED;
+                        int successor = RADIUS_ONE.probe(board);
+                        board.undo();
+                        int forMover = Tablebase.result(successor);
+                        if (!sameMover && forMover != Tablebase.DRAW) {
+                            forMover = forMover == Tablebase.WIN ? Tablebase.LOSS : Tablebase.WIN;
+                        }
+                        if (forMover == Tablebase.WIN) best = Math.min(best, Tablebase.distance(successor));
+                        allLost &= forMover == Tablebase.LOSS;
+                        worst = Math.max(worst, Tablebase.distance(successor));
+                    }
+                    if (result == Tablebase.WIN) {
+                        assertEquals(best + 1, Tablebase.distance(entry));
+                    } else {
+                        assertTrue(allLost);
+                        assertEquals(worst + 1, Tablebase.distance(entry));
+                    }
+                }
+            }
+        }
+    }
+
+    // Checks that a saved table maps back with identical entries
+    @Test
+    public void testSaveAndOpen() throws Exception {
+        Path file = Files.createTempFile("hexoust", ".tb");
+        try {
+            RADIUS_ONE.save(file);
+            Tablebase mapped = Tablebase.open(file);
+            assertEquals(RADIUS_ONE.size(), mapped.size());
+            for (long red = 0; red < 128; red += 3) {
+                assertEquals(RADIUS_ONE.probe(red, 0, true), mapped.probe(red, 0, true));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Checks the memory reported for the tested radius and the one that needs a larger direct memory limit
+    @Test
+    public void testMemoryNeeded() {
+        assertEquals(RADIUS_ONE.size(), Tablebase.memoryNeeded(1));
+        assertEquals(2 * 1162261467L, Tablebase.memoryNeeded(2));
+    }
+
+    // Checks that radius 2 fails before solving, with the option to raise, when direct memory is short
+    @Test
+    public void testRadiusTwoNeedsDirectMemory() throws Exception {
+        Path file = Files.createTempFile("tablebase", ".bin");
+        try {
+            Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-XX:MaxDirectMemorySize=64m", "-cp", System.getProperty("java.class.path"),
+                    "Tablebase", "2", file.toString()).redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes());
+            assertNotEquals(0, process.waitFor());
+            assertTrue(output, output.contains("-XX:MaxDirectMemorySize=2217m"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Checks that boards too large to enumerate are refused
+    @Test(expected = IllegalArgumentException.class)
+    public void testRadiusThreeRejected() {
+        Tablebase.solve(3);
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Time control for computer players: either a fixed time per move, or a game clock with a base
+ * time and an increment per move. For a clock, the remaining time is spread over the moves the
+ * game is still expected to last, estimated from the empty cells. The result is a {@link Budget}
+ * with a soft limit, where a search stops if its best move is stable, and a hard limit that it
+ * never passes.
+ */
+public final class TimeManager {
+    /** Time kept back for thread hand-off and painting, in milliseconds. */
+    static final long SAFETY_MILLIS = 20;
+    /** Lower bound for the expected number of moves left, so late moves do not spend the whole clock. */
+    static final int MIN_MOVES_TO_GO = 12;
+
+    /**
+     * Time allowed for one move.
+     */
+    public static final class Budget {
+        public final long softMillis;
+        public final long hardMillis;
+
+        public Budget(long softMillis, long hardMillis) {
+            this.softMillis = Math.max(0, softMillis);
+            this.hardMillis = Math.max(this.softMillis, hardMillis);
+        }
+
+        /**
+         * Returns a budget that stops exactly at a time, without extensions.
+         *
+         * @param millis thinking time in milliseconds
+         * @return budget with equal soft and hard limits
+         */
+        public static Budget fixed(long millis) {
+            return new Budget(millis, millis);
+        }
+    }
+
+    private final boolean gameClock;
+    private final long moveMillis;
+    private final long baseMillis;
+    private final long incrementMillis;
+
+    private TimeManager(boolean gameClock, long moveMillis, long baseMillis, long incrementMillis) {
+        this.gameClock = gameClock;
+        this.moveMillis = moveMillis;
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    /**
+     * Creates a fixed time per move.
+     *
+     * @param millis time per move in milliseconds, at least 1
+     * @return time manager
+     * @throws IllegalArgumentException if the time is not positive
+     */
+    public static TimeManager perMove(long millis) {
+        if (millis <= 0) throw new IllegalArgumentException("time per move must be positive");
+        return new TimeManager(false, millis, 0, 0);
+    }
+
+    /**
+     * Creates a game clock.
+     *
+     * @param baseMillis      time per player for the whole game in milliseconds, at least 1
+     * @param incrementMillis time added after each move in milliseconds, at least 0
+     * @return time manager
+     * @throws IllegalArgumentException if the base time is not positive or the increment is negative
+     */
+    public static TimeManager clock(long baseMillis, long incrementMillis) {
+        if (baseMillis <= 0) throw new IllegalArgumentException("base time must be positive");
+        if (incrementMillis < 0) throw new IllegalArgumentException("increment must not be negative");
+        return new TimeManager(true, 0, baseMillis, incrementMillis);
+    }
+
+    /**
+     * Parses a time control: "{@code <seconds>}" for a time per move or
+     * "{@code <seconds>+<increment seconds>}" for a clock, for example "2" or "300+5".
+     *
+     * @param text time control
+     * @return time manager
+     * @throws IllegalArgumentException if the text is not a number, or a time is out of range
+     */
+    public static TimeManager parse(String text) {
+        int plus = text.indexOf('+');
+        if (plus < 0) return perMove(Math.round(Double.parseDouble(text) * 1000));
+        return clock(Math.round(Double.parseDouble(text.substring(0, plus)) * 1000),
+                Math.round(Double.parseDouble(text.substring(plus + 1)) * 1000));
+    }
+
+    public boolean isClock() {
+        return gameClock;
+    }
+
+    public long getBaseMillis() {
+        return baseMillis;
+    }
+
+    public long getIncrementMillis() {
+        return incrementMillis;
+    }
+
+    /**
+     * Creates a clock for a game under this time control.
+     *
+     * @return new clock with both players at the base time, or null for a time per move
+     */
+    public GameClock newClock() {
+        return isClock() ? new GameClock(baseMillis, incrementMillis) : null;
+    }
+
+    /**
+     * Estimates how many more moves the player to move will make.
+     *
+     * @param position current position
+     * @return expected moves left, at least MIN_MOVES_TO_GO
+     */
+    static int movesToGo(HexBoard position) {
+        int empty = position.cellCount() - position.stoneCount(HexBoard.RED) - position.stoneCount(HexBoard.BLUE);
+        return Math.max(MIN_MOVES_TO_GO, empty / 2);
+    }
+
+    /**
+     * Computes the budget for the next move.
+     *
+     * @param remainingMillis time left on the mover's clock, ignored for a time per move
+     * @param position        position to move in
+     * @return budget for the move
+     */
+    public Budget budget(long remainingMillis, HexBoard position) {
+        if (!isClock()) return Budget.fixed(Math.max(0, moveMillis - SAFETY_MILLIS));
+        long usable = Math.max(0, remainingMillis - SAFETY_MILLIS);
+        long soft = usable / movesToGo(position) + incrementMillis * 3 / 4;
+        long hard = Math.min(soft * 4, usable / 4 + incrementMillis);
+        return new Budget(Math.min(soft, usable), Math.min(hard, usable));
+    }
+}
@@ -0,0 +1,101 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.ArrayList;
+
+
+public class TimeManagerTest {
+
+    // Checks both time control formats
+    @Test
+    public void testParse() {
+        TimeManager perMove = TimeManager.parse("2");
+        assertFalse(perMove.isClock());
+        assertEquals(2000 - TimeManager.SAFETY_MILLIS, perMove.budget(0, new HexBoard(3)).hardMillis);
+
+        TimeManager clock = TimeManager.parse("300+5");
+        assertTrue(clock.isClock());
+        assertEquals(300000, clock.getBaseMillis());
+        assertEquals(5000, clock.getIncrementMillis());
+    }
+
+    // Checks that a time per move of zero is refused instead of being taken for a clock
+    @Test
+    public void testRejectsNonPositiveTimes() {
+        for (String text : new String[] {"0", "-1", "0+5", "60+-1", "x"}) {
+            try {
+                TimeManager.parse(text);
+                fail("accepted " + text);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+        try {
+            TimeManager.perMove(0);
+            fail("accepted a zero time per move");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    // Checks that clock budgets stay inside the remaining time and shrink as the clock runs down
+    @Test
+    public void testClockBudgets() {
+        TimeManager control = TimeManager.clock(60000, 1000);
+        HexBoard board = new HexBoard(6);
+        long previous = Long.MAX_VALUE;
+        for (long remaining : new long[] {60000, 20000, 5000, 500, 30}) {
+            TimeManager.Budget budget = control.budget(remaining, board);
+            assertTrue(budget.softMillis <= budget.hardMillis);
+            assertTrue(budget.hardMillis <= Math.max(0, remaining - TimeManager.SAFETY_MILLIS));
+            assertTrue(budget.softMillis <= previous);
+            previous = budget.softMillis;
+        }
+        assertEquals(0, control.budget(10, board).hardMillis);
+    }
+
+    // Checks that switching sides charges the running player and gives the increment
+    @Test
+    public void testGameClock() throws Exception {
+        GameClock clock = new GameClock(1000, 500);
+        assertEquals(1000, clock.remainingMillis(true));
+        clock.switchTo(true);
+        Thread.sleep(50);
+        clock.switchTo(false);
+        long red = clock.remainingMillis(true);
+        assertTrue(red <= 1450 && red > 1300);
+        clock.stop();
+        assertEquals(red, clock.remainingMillis(true));
+        assertFalse(clock.isFlagged(false));
+        assertEquals("0:01.4", GameClock.format(1450));
+        assertEquals("2:05", GameClock.format(125000));
+    }
+
+    // Checks that the search never runs past its hard limit
+    @Test
+    public void testSearchRespectsHardLimit() {
+        HexBoard board = new HexBoard(5);
+        try (MctsPlayer player = new MctsPlayer(board.getTopology(), 1)) {
+            player.chooseMove(board, new TimeManager.Budget(20, 80));
+            assertTrue(player.getLastSearchMillis() <= 100);
+            assertTrue(player.getLastIterations() > 0);
+        }
+    }
+
+    // Checks that the panel ends the game when the player to move runs out of time and then refuses moves
+    @Test
+    public void testPanelFlagsExpiredClock() throws Exception {
+        Layout layout = new Layout(Layout.flat, new Point(25, 25), new Point(300, 300));
+        ArrayList<ArrayList<Point>> hexagons = BoardTopology.of(2).geometry(layout).hexagons();
+        HexGrid grid = new HexGrid(hexagons);
+        javax.swing.SwingUtilities.invokeAndWait(() -> grid.setTimeControl(TimeManager.clock(100, 0)));
+        long deadline = System.currentTimeMillis() + 3000;
+        while (!grid.gameExited && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        javax.swing.SwingUtilities.invokeAndWait(() -> {
+            assertTrue(grid.gameExited);
+            assertTrue(grid.getNotice().startsWith("Red ran out of time"));
+            assertFalse(grid.placeStone(grid.getHexCenter(grid.grid.get(0))));
+            assertTrue(grid.redStones.isEmpty());
+            assertEquals(HexBoard.EMPTY, grid.getClock().getRunning());
+        });
+    }
+}
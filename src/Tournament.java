@@ -0,0 +1,334 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Plays two engine configurations against each other headless, in parallel on all cores, and
+ * estimates their Elo difference. Games are played in pairs from the same random opening with
+ * the colours swapped, so neither side profits from a lucky opening or from moving first.
+ * A sequential probability ratio test stops the match as soon as the result is decided.
+ * Usage: {@code java Tournament <radius> <maxGames> <engineA> <engineB> [elo0 elo1]}
+ * where an engine is a comma list such as {@code playouts=800,patterns=p.hxpd} or {@code millis=100}.
+ */
+public class Tournament {
+    /** Games reaching this many moves are draws. */
+    static final int MAX_MOVES = 400;
+    /** Plies of each random opening. */
+    static final int OPENING_PLIES = 2;
+
+    /**
+     * How one engine plays: a fixed number of playouts, or a time per move.
+     */
+    public static final class Engine {
+        final String name;
+        final long playouts;
+        final long millis;
+        final PatternDatabase patterns;
+
+        public Engine(String name, long playouts, long millis, PatternDatabase patterns) {
+            this.name = name;
+            this.playouts = playouts;
+            this.millis = millis;
+            this.patterns = patterns;
+        }
+
+        /**
+         * Parses a comma list of {@code name=}, {@code playouts=}, {@code millis=} and {@code patterns=}.
+         *
+         * @param spec engine description
+         * @return engine
+         * @throws IOException if a pattern file cannot be read
+         */
+        public static Engine parse(String spec) throws IOException {
+            String name = spec;
+            long playouts = 0;
+            long millis = 0;
+            PatternDatabase patterns = null;
+            for (String part : spec.split(",")) {
+                int equals = part.indexOf('=');
+                if (equals < 0) throw new IllegalArgumentException("expected key=value in " + spec);
+                String value = part.substring(equals + 1);
+                switch (part.substring(0, equals)) {
+                    case "name": name = value; break;
+                    case "playouts": playouts = Long.parseLong(value); break;
+                    case "millis": millis = Long.parseLong(value); break;
+                    case "patterns": patterns = PatternDatabase.load(Path.of(value)); break;
+                    default: throw new IllegalArgumentException("unknown engine option " + part);
+                }
+            }
+            if (playouts <= 0 && millis <= 0) playouts = 1000;
+            return new Engine(name, playouts, millis, patterns);
+        }
+
+        int move(MctsPlayer player, HexBoard board) {
+            return playouts > 0 ? player.choosePlayouts(board, playouts) : player.chooseMove(board, millis);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * Running match score for engine A with Elo and SPRT statistics.
+     */
+    public static final class Score {
+        int wins;
+        int draws;
+        int losses;
+
+        public synchronized void add(double result) {
+            if (result == 1) wins++;
+            else if (result == 0) losses++;
+            else draws++;
+        }
+
+        public synchronized int games() {
+            return wins + draws + losses;
+        }
+
+        /**
+         * Returns the mean score of engine A per game.
+         *
+         * @return score in [0, 1]
+         */
+        public synchronized double mean() {
+            return games() == 0 ? 0.5 : (wins + 0.5 * draws) / games();
+        }
+
+        private synchronized double variance() {
+            int n = games();
+            if (n == 0) return 0.25;
+            double mean = mean();
+            return (wins * (1 - mean) * (1 - mean) + draws * (0.5 - mean) * (0.5 - mean) + losses * mean * mean) / n;
+        }
+
+        /**
+         * Estimates the Elo difference of A over B.
+         *
+         * @return Elo difference
+         */
+        public double elo() {
+            return Tournament.elo(mean());
+        }
+
+        /**
+         * Returns the half-width of the 95% confidence interval of the Elo difference.
+         *
+         * @return Elo error margin
+         */
+        public synchronized double eloError() {
+            int n = games();
+            if (n == 0) return Double.POSITIVE_INFINITY;
+            double deviation = Math.sqrt(variance() / n);
+            return (Tournament.elo(Math.min(0.999, mean() + 1.96 * deviation))
+                    - Tournament.elo(Math.max(0.001, mean() - 1.96 * deviation))) / 2;
+        }
+
+        /**
+         * Computes the log-likelihood ratio of H1 (A is elo1 stronger) against H0 (A is elo0
+         * stronger), with the normal approximation of the game score distribution.
+         *
+         * @param elo0 Elo difference under H0
+         * @param elo1 Elo difference under H1
+         * @return log-likelihood ratio, 0 before any decisive information
+         */
+        public synchronized double llr(double elo0, double elo1) {
+            int n = games();
+            double variance = variance();
+            if (n == 0 || variance == 0) return 0;
+            double s0 = expectedScore(elo0);
+            double s1 = expectedScore(elo1);
+            return n * (s1 - s0) * (2 * mean() - s0 - s1) / (2 * variance);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("+%d =%d -%d  Elo %+.1f +- %.1f", wins, draws, losses, elo(), eloError());
+        }
+    }
+
+    /**
+     * Converts a mean score into an Elo difference.
+     *
+     * @param score score in (0, 1)
+     * @return Elo difference
+     */
+    static double elo(double score) {
+        double clamped = Math.min(0.999, Math.max(0.001, score));
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+
+    /**
+     * Converts an Elo difference into an expected score.
+     *
+     * @param elo Elo difference
+     * @return expected score
+     */
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * Result of a finished match.
+     */
+    public static final class Result {
+        public final Score score;
+        /** 1 if H1 was accepted, -1 if H0 was accepted, 0 if the game limit was reached first. */
+        public final int decision;
+
+        Result(Score score, int decision) {
+            this.score = score;
+            this.decision = decision;
+        }
+    }
+
+    /**
+     * Plays a random opening of a few plies.
+     *
+     * @param radius board radius
+     * @param seed   opening seed
+     * @return opening moves
+     */
+    static int[] opening(int radius, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        HexBoard board = new HexBoard(radius);
+        int[] legal = new int[board.cellCount()];
+        int[] moves = new int[OPENING_PLIES];
+        for (int i = 0; i < OPENING_PLIES; i++) {
+            int n = board.legalMoves(legal);
+            moves[i] = legal[random.nextInt(n)];
+            board.play(moves[i]);
+        }
+        return moves;
+    }
+
+    /**
+     * Plays one game.
+     *
+     * @param radius  board radius
+     * @param opening moves played before the engines take over
+     * @param red     engine playing red
+     * @param blue    engine playing blue
+     * @param seed    seed for both players
+     * @return RED, BLUE, or EMPTY for a draw
+     */
+    static int playGame(int radius, int[] opening, Engine red, Engine blue, long seed) {
+        HexBoard board = new HexBoard(radius);
+        try (MctsPlayer redPlayer = new MctsPlayer(board.getTopology(), seed);
+             MctsPlayer bluePlayer = new MctsPlayer(board.getTopology(), seed + 1)) {
+            redPlayer.setPatterns(red.patterns);
+            bluePlayer.setPatterns(blue.patterns);
+            for (int move : opening) {
+                board.play(move);
+                redPlayer.play(move);
+                bluePlayer.play(move);
+            }
+            while (!board.isGameOver() && board.historySize() < MAX_MOVES) {
+                boolean redToMove = board.isRedTurn();
+                int move = redToMove ? red.move(redPlayer, board) : blue.move(bluePlayer, board);
+                if (move < 0) break;
+                board.play(move);
+                redPlayer.play(move);
+                bluePlayer.play(move);
+            }
+            return board.getWinner();
+        }
+    }
+
+    /**
+     * Plays game pairs in parallel until the SPRT decides or the game limit is reached.
+     *
+     * @param radius   board radius
+     * @param maxGames game limit, rounded up to whole pairs
+     * @param a        first engine
+     * @param b        second engine
+     * @param elo0     Elo difference of A over B under H0
+     * @param elo1     Elo difference of A over B under H1
+     * @param alpha    false positive rate
+     * @param beta     false negative rate
+     * @param threads  worker threads
+     * @param seed     seed for openings and players
+     * @param progress receives the score after every game, may be null
+     * @return final score and SPRT decision
+     * @throws InterruptedException if interrupted while waiting for games
+     */
+    public static Result run(int radius, int maxGames, Engine a, Engine b, double elo0, double elo1,
+                             double alpha, double beta, int threads, long seed,
+                             Consumer<Score> progress) throws InterruptedException {
+        double lower = Math.log(beta / (1 - alpha));
+        double upper = Math.log((1 - beta) / alpha);
+        Score score = new Score();
+        AtomicBoolean decided = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<Double> results = new ExecutorCompletionService<>(pool);
+        int pairs = (maxGames + 1) / 2;
+        try {
+            for (int pair = 0; pair < pairs; pair++) {
+                int[] opening = opening(radius, PositionHash.mix(seed + pair));
+                long gameSeed = PositionHash.mix(~seed + pair);
+                for (int swap = 0; swap < 2; swap++) {
+                    boolean aIsRed = swap == 0;
+                    results.submit(() -> {
+                        if (decided.get()) return Double.NaN;
+                        int winner = aIsRed ? playGame(radius, opening, a, b, gameSeed) : playGame(radius, opening, b, a, gameSeed);
+                        if (winner == HexBoard.EMPTY) return 0.5;
+                        return (winner == HexBoard.RED) == aIsRed ? 1.0 : 0.0;
+                    });
+                }
+            }
+            int decision = 0;
+            for (int i = 0; i < pairs * 2; i++) {
+                double result;
+                try {
+                    result = results.take().get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("game failed", e.getCause());
+                }
+                if (Double.isNaN(result)) continue;
+                score.add(result);
+                if (progress != null) progress.accept(score);
+                double llr = score.llr(elo0, elo1);
+                if (llr >= upper || llr <= lower) {
+                    decision = llr >= upper ? 1 : -1;
+                    decided.set(true);
+                    break;
+                }
+            }
+            return new Result(score, decision);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("java Tournament <radius> <maxGames> <engineA> <engineB> [elo0 elo1]");
+            System.exit(1);
+        }
+        int radius = Integer.parseInt(args[0]);
+        int maxGames = Integer.parseInt(args[1]);
+        Engine a = Engine.parse(args[2]);
+        Engine b = Engine.parse(args[3]);
+        double elo0 = args.length > 5 ? Double.parseDouble(args[4]) : 0;
+        double elo1 = args.length > 5 ? Double.parseDouble(args[5]) : 20;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        Result result = run(radius, maxGames, a, b, elo0, elo1, 0.05, 0.05, threads, System.nanoTime(), score -> {
+            if (score.games() % 10 == 0) System.out.println(score.games() + " games: " + score);
+        });
+        System.out.println(a + " vs " + b + ": " + result.score);
+        System.out.println(result.decision > 0 ? "SPRT accepted H1 (Elo >= " + elo1 + ")"
+                : result.decision < 0 ? "SPRT accepted H0 (Elo <= " + elo0 + ")"
+                : "SPRT undecided after " + result.score.games() + " games");
+        System.out.printf("%.1f s on %d threads%n", (System.nanoTime() - start) / 1e9, threads);
+    }
+}
@@ -0,0 +1,40 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TournamentTest {
+    // Checks the Elo conversion against known score points and its inverse
+    @Test
+    public void testEloConversion() {
+        assertEquals(0, Tournament.elo(0.5), 1e-9);
+        assertEquals(191.0, Tournament.elo(0.75), 0.5);
+        assertEquals(-191.0, Tournament.elo(0.25), 0.5);
+        assertEquals(0.64, Tournament.expectedScore(Tournament.elo(0.64)), 1e-9);
+    }
+
+    // Checks that the SPRT likelihood ratio grows with wins and shrinks with losses
+    @Test
+    public void testLikelihoodRatio() {
+        Tournament.Score winning = new Tournament.Score();
+        Tournament.Score losing = new Tournament.Score();
+        for (int i = 0; i < 90; i++) {
+            winning.add(i % 3 == 0 ? 0 : 1);
+            losing.add(i % 3 == 0 ? 1 : 0);
+        }
+        assertEquals(90, winning.games());
+        assertTrue(winning.llr(0, 50) > Math.log(19));
+        assertTrue(losing.llr(0, 50) < Math.log(1 / 19.0));
+        assertTrue(winning.elo() > 0 && winning.eloError() > 0);
+    }
+
+    // Checks that a searching engine beats a single-playout engine and the SPRT stops early
+    @Test
+    public void testStrongEngineAccepted() throws InterruptedException {
+        Tournament.Engine strong = new Tournament.Engine("strong", 300, 0, null);
+        Tournament.Engine weak = new Tournament.Engine("weak", 1, 0, null);
+        Tournament.Result result = Tournament.run(2, 200, strong, weak, 0, 100, 0.05, 0.05, 4, 7, null);
+        assertEquals(1, result.decision);
+        assertTrue(result.score.games() < 200);
+        assertTrue(result.score.elo() > 0);
+    }
+}
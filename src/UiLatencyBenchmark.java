@@ -0,0 +1,250 @@
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import javax.swing.SwingUtilities;
+
+/**
+ * Measures how quickly {@link HexGrid} reacts to input, so rendering and hit-testing changes can
+ * be compared with numbers. The panel is laid out off-screen at the window size; synthetic mouse
+ * events are dispatched to it on the event dispatch thread, each followed by a paint into an
+ * image the size of the panel, as the repaint manager would do. For every event the benchmark
+ * records the time from posting the event to the end of its paint, the paint time alone and the
+ * bytes allocated on the event thread. Runs headless or under Xvfb.
+ * <ul>
+ *   <li>hover: mouse moves sweeping over every cell and the gaps between them</li>
+ *   <li>click: clicks on legal cells of random games, including captures and game ends</li>
+ *   <li>undo: bursts of clicks on the Undo button after a few moves</li>
+ * </ul>
+ * Usage: {@code java UiLatencyBenchmark [events] [radius...]}
+ */
+public class UiLatencyBenchmark {
+    static final int WIDTH = 800;
+    static final int HEIGHT = 1000;
+    /** Moves played before each undo burst. */
+    static final int UNDO_BURST = 8;
+
+    public enum Scenario { HOVER, CLICK, UNDO }
+
+    /**
+     * Measurements of one scenario run.
+     */
+    public static final class Result {
+        final long[] latencies;
+        final long paintNanos;
+        final long allocatedBytes;
+
+        Result(long[] latencies, long paintNanos, long allocatedBytes) {
+            this.latencies = latencies.clone();
+            Arrays.sort(this.latencies);
+            this.paintNanos = paintNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public int events() {
+            return latencies.length;
+        }
+
+        /**
+         * Returns a latency percentile.
+         *
+         * @param fraction 0 to 1
+         * @return event-to-paint-complete time in microseconds
+         */
+        public double latencyMicros(double fraction) {
+            if (latencies.length == 0) return 0;
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(fraction * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1e3;
+        }
+
+        public double paintMicros() {
+            return latencies.length == 0 ? 0 : paintNanos / 1e3 / latencies.length;
+        }
+
+        /**
+         * Returns the bytes allocated on the event thread per event, or -1 if the JVM cannot measure it.
+         *
+         * @return bytes per event
+         */
+        public double bytesPerEvent() {
+            return allocatedBytes < 0 || latencies.length == 0 ? -1 : (double) allocatedBytes / latencies.length;
+        }
+    }
+
+    private final HexGrid panel;
+    private final BoardTopology topology;
+    private final ArrayList<ArrayList<Point>> hexagons;
+    private final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    private final Graphics2D graphics = image.createGraphics();
+    private final com.sun.management.ThreadMXBean memory;
+    private long paintNanos;
+    private long allocated;
+
+    /**
+     * Builds a panel of one board size at the window size, scaling hexagons down for large radii.
+     *
+     * @param radius board radius
+     */
+    public UiLatencyBenchmark(int radius) throws Exception {
+        topology = BoardTopology.of(radius);
+        double size = Math.min(25, Math.min((WIDTH / 2.0 - 40) / (1.5 * radius + 1),
+                (HEIGHT / 2.0 - 90) / (Math.sqrt(3) * (radius + 0.5))));
+        Layout layout = new Layout(Layout.flat, new Point(size, size), new Point(WIDTH / 2.0, HEIGHT / 2.0 + 20));
+        hexagons = topology.geometry(layout).hexagons();
+        HexGrid[] created = new HexGrid[1];
+        SwingUtilities.invokeAndWait(() -> {
+            created[0] = new HexGrid(hexagons);
+            created[0].setSize(WIDTH, HEIGHT);
+            created[0].doLayout();
+        });
+        panel = created[0];
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        memory = threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) threads : null;
+    }
+
+    /**
+     * Dispatches events on the event thread and paints the panel afterwards, recording the time
+     * from posting to the end of the paint.
+     *
+     * @return latency in nanoseconds
+     */
+    private long deliver(Component target, MouseEvent... events) throws Exception {
+        long posted = System.nanoTime();
+        long[] done = new long[1];
+        SwingUtilities.invokeAndWait(() -> {
+            long before = memory == null ? 0 : memory.getCurrentThreadAllocatedBytes();
+            for (MouseEvent event : events) target.dispatchEvent(event);
+            long paintStart = System.nanoTime();
+            panel.paint(graphics);
+            done[0] = System.nanoTime();
+            paintNanos += done[0] - paintStart;
+            if (memory != null) allocated += memory.getCurrentThreadAllocatedBytes() - before;
+        });
+        return done[0] - posted;
+    }
+
+    private MouseEvent[] click(Component target, int x, int y) {
+        long when = System.currentTimeMillis();
+        return new MouseEvent[] {
+                new MouseEvent(target, MouseEvent.MOUSE_PRESSED, when, MouseEvent.BUTTON1_DOWN_MASK, x, y, 1, false, MouseEvent.BUTTON1),
+                new MouseEvent(target, MouseEvent.MOUSE_RELEASED, when, 0, x, y, 1, false, MouseEvent.BUTTON1),
+                new MouseEvent(target, MouseEvent.MOUSE_CLICKED, when, 0, x, y, 1, false, MouseEvent.BUTTON1)
+        };
+    }
+
+    private MouseEvent[] clickCell(int cell) {
+        Point center = HexGrid.hexCenter(hexagons.get(cell));
+        return click(panel, (int) Math.round(center.x), (int) Math.round(center.y));
+    }
+
+    private void reset() throws Exception {
+        SwingUtilities.invokeAndWait(panel::resetGame);
+    }
+
+    /**
+     * Runs one scenario.
+     *
+     * @param scenario input pattern
+     * @param events   number of measured events
+     * @param seed     seed for the random games
+     * @return measurements
+     */
+    public Result run(Scenario scenario, int events, long seed) throws Exception {
+        reset();
+        paintNanos = 0;
+        allocated = memory == null ? -1 : 0;
+        long[] latencies = new long[events];
+        SplittableRandom random = new SplittableRandom(seed);
+        HexBoard mirror = new HexBoard(topology);
+        int[] legal = new int[topology.cellCount()];
+        Component undo = panel.getComponentAt(330, 40);
+        int measured = 0;
+        int step = 0;
+        while (measured < events) {
+            switch (scenario) {
+                case HOVER: {
+                    // Alternate between cell centers and points halfway to the next cell
+                    int cell = step / 2 % topology.cellCount();
+                    Point a = HexGrid.hexCenter(hexagons.get(cell));
+                    Point b = HexGrid.hexCenter(hexagons.get((cell + 1) % topology.cellCount()));
+                    double t = step % 2 == 0 ? 0 : 0.5;
+                    int x = (int) Math.round(a.x + (b.x - a.x) * t);
+                    int y = (int) Math.round(a.y + (b.y - a.y) * t);
+                    latencies[measured++] = deliver(panel, new MouseEvent(panel, MouseEvent.MOUSE_MOVED,
+                            System.currentTimeMillis(), 0, x, y, 0, false));
+                    break;
+                }
+                case CLICK: {
+                    if (mirror.isGameOver() || mirror.legalMoves(legal) == 0) {
+                        reset();
+                        mirror.reset();
+                    }
+                    int n = mirror.legalMoves(legal);
+                    int cell = legal[random.nextInt(n)];
+                    mirror.play(cell);
+                    latencies[measured++] = deliver(panel, clickCell(cell));
+                    break;
+                }
+                case UNDO: {
+                    reset();
+                    mirror.reset();
+                    int played = 0;
+                    while (played < UNDO_BURST && mirror.legalMoves(legal) > 0) {
+                        int cell = legal[random.nextInt(mirror.legalMoves(legal))];
+                        mirror.play(cell);
+                        if (mirror.isGameOver()) {
+                            // A finished game disables Undo, so the burst stops before the last move
+                            mirror.undo();
+                            break;
+                        }
+                        long paint = paintNanos;
+                        long bytes = allocated;
+                        deliver(panel, clickCell(cell));
+                        paintNanos = paint; // set-up moves are not measured
+                        allocated = bytes;
+                        played++;
+                    }
+                    for (int i = 0; i < played && measured < events; i++) {
+                        latencies[measured++] = deliver(undo, click(undo, 50, 20));
+                    }
+                    break;
+                }
+                default:
+                    throw new IllegalStateException();
+            }
+            step++;
+        }
+        return new Result(latencies, paintNanos, allocated);
+    }
+
+    /**
+     * Returns the panel under test, for checks after a run.
+     *
+     * @return panel
+     */
+    HexGrid getPanel() {
+        return panel;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (System.getenv("DISPLAY") == null) System.setProperty("java.awt.headless", "true");
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int[] radii = args.length > 1 ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[] {3, 6, 9};
+        System.out.println("radius  scenario  events  p50 us  p99 us  max us  paint us  bytes/event");
+        for (int radius : radii) {
+            UiLatencyBenchmark benchmark = new UiLatencyBenchmark(radius);
+            for (Scenario scenario : Scenario.values()) {
+                benchmark.run(scenario, Math.max(50, events / 4), radius); // warm up the JIT
+                Result result = benchmark.run(scenario, events, radius);
+                System.out.printf("%6d  %-8s  %6d  %6.0f  %6.0f  %6.0f  %8.0f  %11.0f%n", radius,
+                        scenario.name().toLowerCase(), result.events(), result.latencyMicros(0.5),
+                        result.latencyMicros(0.99), result.latencyMicros(1), result.paintMicros(), result.bytesPerEvent());
+            }
+        }
+    }
+}
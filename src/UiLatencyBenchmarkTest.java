@@ -0,0 +1,27 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class UiLatencyBenchmarkTest {
+
+    // Checks that every scenario measures the requested events and that clicks and undos reach the game
+    @Test
+    public void testScenariosDriveThePanel() throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        UiLatencyBenchmark benchmark = new UiLatencyBenchmark(3);
+        for (UiLatencyBenchmark.Scenario scenario : UiLatencyBenchmark.Scenario.values()) {
+            UiLatencyBenchmark.Result result = benchmark.run(scenario, 40, 1);
+            assertEquals(40, result.events());
+            assertTrue(result.latencyMicros(0.5) > 0);
+            assertTrue(result.latencyMicros(1) >= result.latencyMicros(0.5));
+            assertTrue(result.paintMicros() > 0);
+            HexGrid panel = benchmark.getPanel();
+            if (scenario == UiLatencyBenchmark.Scenario.CLICK) {
+                assertFalse(panel.redStones.isEmpty() && panel.blueStones.isEmpty());
+            } else if (scenario == UiLatencyBenchmark.Scenario.UNDO) {
+                // Every burst is undone back to the empty board
+                assertTrue(panel.redStones.isEmpty() && panel.blueStones.isEmpty());
+            }
+        }
+    }
+}